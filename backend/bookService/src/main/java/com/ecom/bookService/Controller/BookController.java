@@ -4,6 +4,8 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -18,9 +20,13 @@ import org.springframework.web.multipart.MultipartFile;
 import com.ecom.bookService.dto.BookDTO;
 import com.ecom.bookService.dto.BookFilter;
 import com.ecom.bookService.dto.BookStatsResponse;
+import com.ecom.bookService.dto.BookSuggestion;
 import com.ecom.bookService.dto.BulkBookValidationRequest;
 import com.ecom.bookService.dto.BulkBookValidationResponse;
 import com.ecom.bookService.dto.CreateBookRequest;
+import com.ecom.bookService.dto.CursorPage;
+import com.ecom.bookService.dto.FacetedBookPage;
+import com.ecom.bookService.dto.ListingView;
 import com.ecom.bookService.dto.UpdateBookRequest;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.service.BookService;
@@ -53,10 +59,12 @@ public class BookController {
      * @param sortBy
      * @param page       Optional page number, with 0 the default value (ie the first page)
      * @param size       Optional page size (ie number of books per page), with 10 the default value
-     * @return A Page of BookDTO containing the books for the requested page number
+     * @param view       Optional {@code SUMMARY} to only get what list pages display (id, title, author, price,
+     *                   thumbnail and stock), {@code FULL} by default
+     * @return A Page of BookDTO (or BookSummaryDTO) containing the books for the requested page number
      */
     @GetMapping
-    public Page<BookDTO> getAllBooks(
+    public Page<?> getAllBooks(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
@@ -64,7 +72,8 @@ public class BookController {
             @RequestParam(required = false) Sort.Direction direction,
             @RequestParam(required = false) BookFilter.BookSortBy sortBy,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "FULL") ListingView view
     ) {
         BookFilter filter = BookFilter.builder()
                 .search(search)
@@ -75,10 +84,115 @@ public class BookController {
                 .maxPrice(maxPrice)
                 .build();
 
+        if (view == ListingView.SUMMARY) {
+            return bookService.getPagedBookSummaries(filter, page, size);
+        }
         return bookService.getPagedBooks(filter, page, size);
     }
 
 
+    /**
+     * GET /api/v1/books/search
+     * => example: GET /api/v1/books/search?search=potter&categoryId=3&priceBounds=10,20,50
+     * <p>
+     * Returns a page of books regarding optional filters, along with the number of matching books per category
+     * and per price range ("Fiction (124), Science (56)"). The category counts ignore the category filter and
+     * the price counts ignore the price filters.
+     *
+     * @param search      Optional keyword to search in a book's title, subtitle, summary or author
+     * @param minPrice    Optional minimum price
+     * @param maxPrice    Optional maximum price
+     * @param categoryId  Optional category ID to filter books belonging to a specific category
+     * @param direction   Optional sort direction
+     * @param sortBy      Optional sort, by relevance when searching and by publish date otherwise by default
+     * @param priceBounds Optional bounds of the price ranges, with 10, 20, 30 and 50 the default values
+     * @param page        Optional page number, with 0 the default value (ie the first page)
+     * @param size        Optional page size, with 10 the default value
+     * @param view        Optional {@code SUMMARY} to only get what list pages display, {@code FULL} by default
+     * @return The requested page of books with the category and price facets
+     */
+    @GetMapping("/search")
+    public FacetedBookPage<?> facetedSearch(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Sort.Direction direction,
+            @RequestParam(required = false) BookFilter.BookSortBy sortBy,
+            @RequestParam(defaultValue = "10,20,30,50") List<BigDecimal> priceBounds,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "FULL") ListingView view
+    ) {
+        BookFilter filter = BookFilter.builder()
+                .search(search)
+                .categoryId(categoryId)
+                .direction(direction)
+                .sortBy(sortBy)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .build();
+
+        return bookService.facetedSearch(filter, priceBounds, page, size, view);
+    }
+
+
+    /**
+     * GET /api/v1/books/scroll
+     * => example with a filter: GET /api/v1/books/scroll?categoryId=3&cursor=
+     * <p>
+     * Returns the books regarding optional filters with keyset (cursor) pagination, newest first. Unlike
+     * {@link #getAllBooks}, deep pages are as cheap as the first one and the total is not counted unless asked for.
+     *
+     * @param search       Optional keyword to search in a book's title, summary or author
+     * @param minPrice     Optional minimum price
+     * @param maxPrice     Optional maximum price
+     * @param categoryId   Optional category ID to filter books belonging to a specific category
+     * @param cursor       Optional token returned with the previous page, absent for the first page
+     * @param size         Optional page size, with 10 the default value
+     * @param includeTotal Optional flag to also count the matching books, false by default
+     * @return A CursorPage of BookDTO with the token of the next page
+     */
+    @GetMapping("/scroll")
+    public CursorPage<BookDTO> scrollBooks(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        BookFilter filter = BookFilter.builder()
+                .search(search)
+                .categoryId(categoryId)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .build();
+
+        return bookService.scrollBooks(filter, cursor, size, includeTotal);
+    }
+
+
+    /**
+     * GET /api/v1/books/suggest?q=
+     * <p>
+     * Returns autocomplete suggestions (titles and authors) for the text typed so far in the search box.
+     * Suggestions are served from memory and tolerate typos.
+     *
+     * @param q     The text typed so far
+     * @param limit Optional maximum number of suggestions, with 10 the default value
+     * @return The suggestions, the closest and most popular first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        return ResponseEntity.ok(bookService.suggest(q, limit));
+    }
+
+
     /**
      * GET /api/v1/books/title/:title
      * <p>
@@ -127,7 +241,7 @@ public class BookController {
     @GetMapping("category/{categoryName}")
     public ResponseEntity<?> getAllBooksByCategory(@PathVariable String categoryName) {
 
-        List<Book> books = bookService.getAllBooksByCategory(categoryName);
+        List<BookDTO> books = bookService.getAllBooksByCategory(categoryName);
 
         if (books.isEmpty()) {
             return new ResponseEntity<>("Nothing found for " + categoryName, HttpStatus.NOT_FOUND);
@@ -0,0 +1,78 @@
+package com.ecom.bookService.Controller;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.ecom.bookService.dto.ImportJobDTO;
+import com.ecom.bookService.reader.ImportMode;
+import com.ecom.bookService.service.CatalogImportService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/admin/catalog/imports")
+@RequiredArgsConstructor
+public class CatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+
+    /**
+     * POST /api/v1/admin/catalog/imports
+     * <p>
+     * Uploads a CSV catalog file and imports it in the background
+     *
+     * @param file The CSV file, with the same columns as the bundled books.csv and an optional price column
+     * @param mode How the file is applied to the catalog
+     * @return The queued job, whose progress can be followed at the returned location
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDTO> uploadCatalog(
+            @RequestPart MultipartFile file,
+            @RequestParam(defaultValue = "DELTA") ImportMode mode
+    ) {
+        ImportJobDTO job = catalogImportService.submitUpload(file, mode);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * GET /api/v1/admin/catalog/imports/:id
+     * <p>
+     * Gets the status and progress of an import job
+     *
+     * @param id The id of the job
+     * @return The rows parsed, validated, persisted and rejected so far, and the final report once done
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDTO> getImportJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(catalogImportService.getJob(id));
+    }
+
+    /**
+     * GET /api/v1/admin/catalog/imports
+     * <p>
+     * Lists the recent import jobs
+     *
+     * @return The jobs, the most recent first
+     */
+    @GetMapping
+    public ResponseEntity<List<ImportJobDTO>> getImportJobs() {
+        return ResponseEntity.ok(catalogImportService.getJobs());
+    }
+
+}
@@ -1,8 +1,12 @@
 package com.ecom.bookService.Controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,16 +17,28 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.ecom.bookService.availability.StockAvailabilityStream;
+import com.ecom.bookService.dto.BatchReserveStockRequest;
+import com.ecom.bookService.dto.BulkStockRequest;
+import com.ecom.bookService.dto.BulkStockResult;
 import com.ecom.bookService.dto.CancelStockRequest;
 import com.ecom.bookService.dto.ConfirmStockRequest;
 import com.ecom.bookService.dto.InventaireDto;
 import com.ecom.bookService.dto.InventaireResponseDto;
+import com.ecom.bookService.dto.ListingView;
 import com.ecom.bookService.dto.ReservationResult;
 import com.ecom.bookService.dto.ReserveStockRequest;
+import com.ecom.bookService.dto.StockAlertDTO;
+import com.ecom.bookService.dto.StockLevel;
+import com.ecom.bookService.dto.StockMovementDTO;
 import com.ecom.bookService.dto.UpdateBookQuantityRequest;
 import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.StockAlert;
 import com.ecom.bookService.service.InventoryService;
+import com.ecom.bookService.service.StockAlertService;
+import com.ecom.bookService.service.StockBulkService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,11 +53,37 @@ public class InventoryController {
 
     private final InventoryService inventoryService;
 
-    // TODO receive stock
+    private final StockAlertService stockAlertService;
 
-    // TODO adjust stock
+    private final StockBulkService stockBulkService;
 
-    // TODO get out of stock items
+    private final StockAvailabilityStream availabilityStream;
+
+    /**
+     * POST /api/v1/inventory/receive
+     *
+     * Adds the lines of a goods receipt to the stock
+     *
+     * @param request The quantity received per book
+     * @return A ResponseEntity containing the outcome of every line
+     */
+    @PostMapping("/receive")
+    public ResponseEntity<BulkStockResult> receiveStock(@RequestBody @Valid BulkStockRequest request) {
+        return ResponseEntity.ok(stockBulkService.receive(request.lines()));
+    }
+
+    /**
+     * POST /api/v1/inventory/adjust
+     *
+     * Sets the quantities in stock, as counted
+     *
+     * @param request The new quantity in stock per book
+     * @return A ResponseEntity containing the outcome of every line
+     */
+    @PostMapping("/adjust")
+    public ResponseEntity<BulkStockResult> adjustStock(@RequestBody @Valid BulkStockRequest request) {
+        return ResponseEntity.ok(stockBulkService.adjust(request.lines()));
+    }
 
     @PostMapping("/reserve")
     public ResponseEntity<ReservationResult> reserveStock(@RequestBody @Valid ReserveStockRequest request) {
@@ -49,6 +91,33 @@ public class InventoryController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * POST /api/v1/inventory/reserve/batch
+     *
+     * Reserves stock for several orders in a single transaction
+     *
+     * @param request The orders to reserve
+     * @return A ResponseEntity containing the outcome of every order, in the order of the request
+     */
+    @PostMapping("/reserve/batch")
+    public ResponseEntity<List<ReservationResult>> reserveStockBatch(@RequestBody @Valid BatchReserveStockRequest request) {
+        return ResponseEntity.ok(inventoryService.reserveStockBatch(request.reservations()));
+    }
+
+    /**
+     * GET /api/v1/inventory/stream
+     *
+     * Streams the availability of books as server-sent events, starting with their current availability
+     *
+     * @param bookIds The books to follow
+     * @param request The request, giving the address of the client
+     * @return An event stream sending {@code availability} events whenever the stock of some of the books changes
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam List<Long> bookIds, HttpServletRequest request) {
+        return availabilityStream.subscribe(bookIds, request.getRemoteAddr());
+    }
+
     @PostMapping("/confirm")
     public ResponseEntity<Void> confirmStock(@RequestBody @Valid ConfirmStockRequest request) {
         inventoryService.confirmReservation(request.orderId());
@@ -68,14 +137,19 @@ public class InventoryController {
      *
      * Returns all inventory items
      *
+     * @param view Optional {@code SUMMARY} to only get what the list page displays, {@code FULL} by default
      * @return A ResponseEntity containing a list of all inventory items
      */
     @GetMapping("/admin")
-    public ResponseEntity<Page<InventaireResponseDto>> getAllInventory(
+    public ResponseEntity<Page<?>> getAllInventory(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "FULL") ListingView view
     ) {
+        if (view == ListingView.SUMMARY) {
+            return ResponseEntity.ok(inventoryService.getInventorySummaries(search, page, size));
+        }
         return ResponseEntity.ok(inventoryService.getAllInventory(search, page, size));
     }
 
@@ -93,6 +167,53 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    /**
+     * GET /api/v1/inventory/admin/stock-alerts
+     *
+     * Returns the books low on stock or out of stock
+     *
+     * @param level Optional {@code LOW} or {@code OUT_OF_STOCK} to only get the books at that level
+     * @return A ResponseEntity containing the books, the longest at their level first
+     */
+    @GetMapping("/admin/stock-alerts")
+    public ResponseEntity<Page<StockAlertDTO>> getStockAlerts(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(required = false) StockAlert.Level level
+    ) {
+        return ResponseEntity.ok(stockAlertService.getAlerts(level, page, size));
+    }
+
+    /**
+     * GET /api/v1/inventory/admin/books/{bookId}/ledger
+     *
+     * Returns the stock of a book rebuilt from its stock movements, to audit its inventory row against
+     *
+     * @param bookId The book ID
+     * @return A ResponseEntity containing the stock according to the ledger
+     */
+    @GetMapping("/admin/books/{bookId}/ledger")
+    public ResponseEntity<StockLevel> getLedgerLevel(@PathVariable Long bookId) {
+        return ResponseEntity.ok(inventoryService.getLedgerLevel(bookId));
+    }
+
+    /**
+     * GET /api/v1/inventory/admin/books/{bookId}/movements
+     *
+     * Returns the latest stock movements of a book
+     *
+     * @param bookId The book ID
+     * @param limit  The number of movements to return
+     * @return A ResponseEntity containing the movements, the most recent first
+     */
+    @GetMapping("/admin/books/{bookId}/movements")
+    public ResponseEntity<List<StockMovementDTO>> getStockMovements(
+            @PathVariable Long bookId,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit
+    ) {
+        return ResponseEntity.ok(inventoryService.getStockMovements(bookId, limit));
+    }
+
     /**
      * GET /api/v1/inventory/search
      *
@@ -7,8 +7,10 @@ import java.util.stream.Collectors;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,7 +19,10 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import com.ecom.bookService.dto.APIErrorResponse;
 import com.ecom.bookService.exception.EntityNotFoundException;
 import com.ecom.bookService.exception.ImageUploadFailedException;
+import com.ecom.bookService.exception.ImportQueueFullException;
 import com.ecom.bookService.exception.InsufficientAvailableStockException;
+import com.ecom.bookService.exception.InvalidCursorException;
+import com.ecom.bookService.exception.TooManySubscribersException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -85,6 +90,50 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    @ExceptionHandler(ImportQueueFullException.class)
+    public ResponseEntity<APIErrorResponse> handle(ImportQueueFullException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("IMPORT_QUEUE_FULL")
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<APIErrorResponse> handle(TooManySubscribersException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("TOO_MANY_SUBSCRIBERS")
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<APIErrorResponse> handleDeadlineExceeded(RuntimeException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("DEADLINE_EXCEEDED")
+                .status(HttpStatus.GATEWAY_TIMEOUT.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<APIErrorResponse> handle(InvalidCursorException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("INVALID_CURSOR")
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<APIErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
         APIErrorResponse error = APIErrorResponse.builder()
@@ -0,0 +1,299 @@
+package com.ecom.bookService.availability;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.ecom.bookService.dto.BookAvailability;
+import com.ecom.bookService.dto.StockLevel;
+import com.ecom.bookService.event.StockChangedEvent;
+import com.ecom.bookService.exception.TooManySubscribersException;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the availability of books to the product pages showing them, as server-sent events.
+ * <p>
+ * Committed stock changes only mark their book as changed. Every round, the stock of the changed books that
+ * someone follows is read with a single query and handed to their subscribers, each of which gets one
+ * {@code availability} event with the latest availability of its books. A subscriber still busy receiving
+ * the previous round keeps accumulating the latest values, so a slow client never delays the others nor
+ * receives outdated values.
+ * <p>
+ * Only the stock changes committed by this instance are seen, unless the catalog cache broadcast is enabled: it
+ * relays the stock changes of the other instances too.
+ */
+@Component
+@EnableConfigurationProperties(StockStreamProperties.class)
+@Slf4j
+public class StockAvailabilityStream {
+
+    private final BookInventoryRepository bookInventoryRepository;
+
+    private final StockStreamProperties properties;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, Set<Subscriber>> subscribersByBook = new ConcurrentHashMap<>();
+
+    /**
+     * The connections left before {@link StockStreamProperties#maxSubscribers()} is reached.
+     */
+    private final Semaphore slots;
+
+    private final Map<String, Integer> subscribersByClient = new ConcurrentHashMap<>();
+
+    private final Set<Long> changedBooks = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders;
+
+    private final TaskScheduler taskScheduler;
+
+    private long lastHeartbeatNanos = System.nanoTime();
+
+    public StockAvailabilityStream(
+            BookInventoryRepository bookInventoryRepository,
+            StockStreamProperties properties,
+            TaskScheduler taskScheduler
+    ) {
+        this.bookInventoryRepository = bookInventoryRepository;
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.slots = new Semaphore(properties.maxSubscribers());
+        this.senders = Executors.newFixedThreadPool(properties.senderThreads(),
+                new CustomizableThreadFactory("stock-stream-send-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Duration interval = properties.coalesceInterval();
+        taskScheduler.scheduleWithFixedDelay(this::publishChanges, Instant.now().plus(interval), interval);
+    }
+
+    /**
+     * Opens a stream of the availability of the books, starting with their current availability.
+     *
+     * @param bookIds The books to follow
+     * @param client  The address of the client opening the stream
+     * @throws IllegalArgumentException    if no book or too many books are given
+     * @throws TooManySubscribersException if too many streams are open, in all or by this client
+     */
+    public SseEmitter subscribe(Collection<Long> bookIds, String client) {
+        Set<Long> books = Set.copyOf(bookIds);
+        if (books.isEmpty() || books.size() > properties.maxBooks()) {
+            throw new IllegalArgumentException("Between 1 and " + properties.maxBooks() + " books can be followed");
+        }
+        if (!slots.tryAcquire()) {
+            throw new TooManySubscribersException("Too many availability streams open, try again later");
+        }
+        if (!admit(client)) {
+            slots.release();
+            throw new TooManySubscribersException("Too many availability streams open from " + client);
+        }
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(properties.timeout().toMillis()), books, client);
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        books.forEach(bookId -> subscribersByBook.compute(bookId, (id, followers) -> {
+            Set<Subscriber> set = followers == null ? ConcurrentHashMap.newKeySet() : followers;
+            set.add(subscriber);
+            return set;
+        }));
+
+        try {
+            bookInventoryRepository.findStockLevels(books).forEach(subscriber::offer);
+        }
+        catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        flush(subscriber);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Counts a stream more for the client, unless it already has as many open as it may.
+     */
+    private boolean admit(String client) {
+        AtomicBoolean admitted = new AtomicBoolean();
+        subscribersByClient.compute(client, (key, open) -> {
+            int count = open == null ? 0 : open;
+            if (count >= properties.maxPerClient()) {
+                return open;
+            }
+            admitted.set(true);
+            return count + 1;
+        });
+        return admitted.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        markChanged(event.bookId());
+    }
+
+    /**
+     * Marks the stock of a book as changed, to be sent to its subscribers at the next round.
+     */
+    public void markChanged(Long bookId) {
+        if (bookId != null && subscribersByBook.containsKey(bookId)) {
+            changedBooks.add(bookId);
+        }
+    }
+
+    /**
+     * @return The number of open streams
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void publishChanges() {
+        try {
+            List<Long> books = new ArrayList<>();
+            for (Long bookId : changedBooks) {
+                if (changedBooks.remove(bookId)) {
+                    books.add(bookId);
+                }
+            }
+            if (!books.isEmpty()) {
+                for (StockLevel level : bookInventoryRepository.findStockLevels(books)) {
+                    subscribersByBook.getOrDefault(level.bookId(), Set.of())
+                            .forEach(subscriber -> subscriber.offer(level));
+                }
+            }
+
+            long now = System.nanoTime();
+            boolean heartbeat = now - lastHeartbeatNanos >= properties.heartbeatInterval().toNanos();
+            if (heartbeat) {
+                lastHeartbeatNanos = now;
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (heartbeat) {
+                    subscriber.heartbeatDue = true;
+                }
+                if (subscriber.heartbeatDue || !subscriber.pending.isEmpty()) {
+                    flush(subscriber);
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            log.warn("Could not publish the availability changes, retried at the next round", e);
+        }
+    }
+
+    private void flush(Subscriber subscriber) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> send(subscriber));
+        }
+        catch (RejectedExecutionException e) {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            List<BookAvailability> updates = new ArrayList<>();
+            for (Long bookId : subscriber.pending.keySet()) {
+                BookAvailability availability = subscriber.pending.remove(bookId);
+                if (availability != null) {
+                    updates.add(availability);
+                }
+            }
+            if (!updates.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("availability")
+                        .data(updates, MediaType.APPLICATION_JSON));
+            }
+            else if (subscriber.heartbeatDue) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+            subscriber.heartbeatDue = false;
+        }
+        catch (IOException | IllegalStateException e) {
+            // the client went away
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+        finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.bookIds.forEach(bookId -> subscribersByBook.computeIfPresent(bookId, (id, followers) -> {
+            followers.remove(subscriber);
+            return followers.isEmpty() ? null : followers;
+        }));
+        subscribersByClient.computeIfPresent(subscriber.client, (key, open) -> open > 1 ? open - 1 : null);
+        slots.release();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> bookIds;
+
+        private final String client;
+
+        /**
+         * The latest availability of the books changed since the last message.
+         */
+        private final Map<Long, BookAvailability> pending = new ConcurrentHashMap<>();
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, Set<Long> bookIds, String client) {
+            this.emitter = emitter;
+            this.bookIds = bookIds;
+            this.client = client;
+        }
+
+        private void offer(StockLevel level) {
+            pending.put(level.bookId(), BookAvailability.of(level));
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.ecom.bookService.availability;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link StockAvailabilityStream}.
+ *
+ * @param coalesceInterval  The time between two rounds of updates: a client gets at most one message per round,
+ *                          with the latest availability of every book of its subscription that changed
+ * @param heartbeatInterval The time after which an idle connection gets a comment, so that proxies keep it open
+ * @param timeout           How long a connection stays open, the client reconnecting after
+ * @param maxBooks          The number of books a single subscription may follow
+ * @param maxSubscribers    The number of connections open at the same time, beyond which new ones are refused
+ * @param maxPerClient      The number of connections a single client address may keep open at the same time
+ * @param senderThreads     The number of threads writing to the connections
+ */
+@ConfigurationProperties(prefix = "inventory.stream")
+public record StockStreamProperties(
+        @DefaultValue("250ms") Duration coalesceInterval,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("100") int maxBooks,
+        @DefaultValue("10000") int maxSubscribers,
+        @DefaultValue("20") int maxPerClient,
+        @DefaultValue("4") int senderThreads
+) {
+
+}
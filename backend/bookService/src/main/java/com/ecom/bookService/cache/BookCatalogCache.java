@@ -0,0 +1,128 @@
+package com.ecom.bookService.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.ecom.bookService.dto.BookDTO;
+import com.ecom.bookService.dto.CategoryDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through in-process cache of the catalog: books by id and the ids of the books of each category.
+ * <p>
+ * Both caches are bounded by an estimate of the memory their entries use and expire after a TTL. They are
+ * also invalidated explicitly when the catalog or a stock changes (see {@link CatalogCacheInvalidator}).
+ * Category listings only hold book ids, so that a stock change only evicts the book it concerns.
+ * <p>
+ * Hits, misses and evictions are exposed through actuator as the {@code cache.*} metrics.
+ */
+@Component
+@EnableConfigurationProperties(CatalogCacheProperties.class)
+public class BookCatalogCache {
+
+    public static final String BOOKS = "books";
+    public static final String CATEGORY_LISTINGS = "categoryListings";
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int BOXED_LONG_SIZE = 16;
+
+    private final Cache<Long, BookDTO> books;
+
+    private final Cache<String, List<Long>> categoryListings;
+
+    public BookCatalogCache(CatalogCacheProperties properties, MeterRegistry meterRegistry) {
+        this.books = Caffeine.newBuilder()
+                .maximumWeight(properties.booksMaxSize().toBytes())
+                .weigher(BookCatalogCache::weighBook)
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+
+        this.categoryListings = Caffeine.newBuilder()
+                .maximumWeight(properties.categoryListingsMaxSize().toBytes())
+                .weigher((String name, List<Long> ids) -> weigh(name) + OBJECT_OVERHEAD
+                        + ids.size() * (REFERENCE_SIZE + BOXED_LONG_SIZE))
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, books, BOOKS);
+        CaffeineCacheMetrics.monitor(meterRegistry, categoryListings, CATEGORY_LISTINGS);
+    }
+
+    /**
+     * @param bookId The id of a book
+     * @param loader Loads the book on a miss, may return null if the book does not exist
+     * @return The book, or null if it does not exist
+     */
+    public BookDTO getBook(Long bookId, Function<Long, BookDTO> loader) {
+        return books.get(bookId, loader);
+    }
+
+    /**
+     * @param bookIds The ids of some books
+     * @param loader  Loads in one go the books missing from the cache, leaving out the ones that do not exist
+     * @return The existing books by id
+     */
+    public Map<Long, BookDTO> getBooks(Collection<Long> bookIds, Function<Set<? extends Long>, Map<Long, BookDTO>> loader) {
+        return books.getAll(bookIds, loader);
+    }
+
+    /**
+     * @param categoryName The name of a category, case-insensitive
+     * @param loader       Loads the ids of the books of the category on a miss
+     * @return The ids of the books of the category
+     */
+    public List<Long> getCategoryListing(String categoryName, Function<String, List<Long>> loader) {
+        return categoryListings.get(categoryName.toLowerCase(Locale.ROOT), loader);
+    }
+
+    public void evictBook(Long bookId) {
+        books.invalidate(bookId);
+    }
+
+    public void evictCategoryListings() {
+        categoryListings.invalidateAll();
+    }
+
+    public void evictAll() {
+        books.invalidateAll();
+        categoryListings.invalidateAll();
+    }
+
+    /**
+     * Roughly estimates the memory used by a book, dominated by its texts (the summary can be several KB).
+     */
+    private static int weighBook(Long bookId, BookDTO book) {
+        int weight = OBJECT_OVERHEAD * 4 + BOXED_LONG_SIZE
+                + weigh(book.getTitle())
+                + weigh(book.getAuthor())
+                + weigh(book.getSummary())
+                + weigh(book.getIsbn10())
+                + weigh(book.getIsbn13())
+                + weigh(book.getThumbnail());
+
+        CategoryDTO category = book.getCategory();
+        if (category != null) {
+            weight += OBJECT_OVERHEAD + weigh(category.getName()) + weigh(category.getDescription())
+                    + weigh(category.getImage());
+        }
+        return weight;
+    }
+
+    private static int weigh(String text) {
+        return text == null ? 0 : OBJECT_OVERHEAD * 2 + text.length();
+    }
+
+}
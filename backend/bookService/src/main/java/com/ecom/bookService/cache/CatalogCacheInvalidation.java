@@ -0,0 +1,25 @@
+package com.ecom.bookService.cache;
+
+/**
+ * An invalidation of the {@link BookCatalogCache}, as broadcast to the other instances of the service.
+ *
+ * @param origin           The id of the instance the change happened on
+ * @param bookId           The id of the book to evict, null to evict every book (after a catalog import)
+ * @param categoryListings Whether the category listings must be evicted too (a book was created, deleted
+ *                         or may have changed category)
+ */
+public record CatalogCacheInvalidation(String origin, Long bookId, boolean categoryListings) {
+
+    public static CatalogCacheInvalidation catalogChanged(String origin, Long bookId) {
+        return new CatalogCacheInvalidation(origin, bookId, true);
+    }
+
+    public static CatalogCacheInvalidation catalogImported(String origin) {
+        return new CatalogCacheInvalidation(origin, null, true);
+    }
+
+    public static CatalogCacheInvalidation stockChanged(String origin, Long bookId) {
+        return new CatalogCacheInvalidation(origin, bookId, false);
+    }
+
+}
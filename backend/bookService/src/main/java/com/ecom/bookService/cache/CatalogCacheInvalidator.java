@@ -0,0 +1,55 @@
+package com.ecom.bookService.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.event.CatalogImportedEvent;
+import com.ecom.bookService.event.StockChangedEvent;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evicts from the local {@link BookCatalogCache} what a committed change made stale. Other instances are
+ * notified by {@link KafkaCatalogCacheBroadcaster} when enabled.
+ * <p>
+ * The books changed by a catalog import are evicted as their batches commit, but the category listings are
+ * only evicted once, when the import is over: until then, listings may miss the new books.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheInvalidator {
+
+    private final BookCatalogCache catalogCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.imported()) {
+            catalogCache.evictBook(event.bookId());
+            return;
+        }
+        apply(CatalogCacheInvalidation.catalogChanged(null, event.bookId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        // the changed books have already been evicted one by one
+        catalogCache.evictCategoryListings();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        apply(CatalogCacheInvalidation.stockChanged(null, event.bookId()));
+    }
+
+    void apply(CatalogCacheInvalidation invalidation) {
+        if (invalidation.bookId() == null) {
+            catalogCache.evictAll();
+            return;
+        }
+        catalogCache.evictBook(invalidation.bookId());
+        if (invalidation.categoryListings()) {
+            catalogCache.evictCategoryListings();
+        }
+    }
+
+}
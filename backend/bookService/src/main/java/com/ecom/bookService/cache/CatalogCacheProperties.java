@@ -0,0 +1,35 @@
+package com.ecom.bookService.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the {@link BookCatalogCache}.
+ *
+ * @param ttl                       How long an entry is kept after being loaded
+ * @param booksMaxSize              The estimated memory the cached books may use
+ * @param categoryListingsMaxSize   The estimated memory the cached category listings may use
+ * @param broadcast                 How invalidations are broadcast to the other instances of the service
+ */
+@ConfigurationProperties(prefix = "catalog.cache")
+public record CatalogCacheProperties(
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("32MB") DataSize booksMaxSize,
+        @DefaultValue("4MB") DataSize categoryListingsMaxSize,
+        @DefaultValue Broadcast broadcast
+) {
+
+    /**
+     * @param enabled Whether invalidations are broadcast over Kafka
+     * @param topic   The Kafka topic the invalidations are sent to
+     */
+    public record Broadcast(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("book-catalog-invalidations") String topic
+    ) {
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.ecom.bookService.cache;
+
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecom.bookService.availability.StockAvailabilityStream;
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.event.CatalogImportedEvent;
+import com.ecom.bookService.event.StockChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the {@link BookCatalogCache} of every instance of the service coherent: committed changes are sent to
+ * a Kafka topic that every instance consumes with its own consumer group, and the invalidations coming from
+ * the other instances are applied locally.
+ * <p>
+ * A catalog import sends a single invalidation once it is over, evicting the whole cache of the other
+ * instances, instead of one per imported book.
+ */
+@Component
+@ConditionalOnProperty(prefix = "catalog.cache.broadcast", name = "enabled", havingValue = "true")
+@Slf4j
+public class KafkaCatalogCacheBroadcaster {
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final KafkaTemplate<String, CatalogCacheInvalidation> kafkaTemplate;
+
+    private final CatalogCacheInvalidator invalidator;
+
+    private final StockAvailabilityStream availabilityStream;
+
+    private final String topic;
+
+    public KafkaCatalogCacheBroadcaster(
+            KafkaTemplate<String, CatalogCacheInvalidation> kafkaTemplate,
+            CatalogCacheInvalidator invalidator,
+            StockAvailabilityStream availabilityStream,
+            CatalogCacheProperties properties
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.invalidator = invalidator;
+        this.availabilityStream = availabilityStream;
+        this.topic = properties.broadcast().topic();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.imported()) {
+            send(CatalogCacheInvalidation.catalogChanged(instanceId, event.bookId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        send(CatalogCacheInvalidation.catalogImported(instanceId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        send(CatalogCacheInvalidation.stockChanged(instanceId, event.bookId()));
+    }
+
+    @KafkaListener(
+            topics = "${catalog.cache.broadcast.topic:book-catalog-invalidations}",
+            groupId = "${spring.application.name}-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onInvalidation(CatalogCacheInvalidation invalidation) {
+        if (!instanceId.equals(invalidation.origin())) {
+            invalidator.apply(invalidation);
+            if (!invalidation.categoryListings()) {
+                // a stock change committed by another instance, to be streamed by this one too
+                availabilityStream.markChanged(invalidation.bookId());
+            }
+        }
+    }
+
+    private void send(CatalogCacheInvalidation invalidation) {
+        String key = invalidation.bookId() == null ? null : String.valueOf(invalidation.bookId());
+        kafkaTemplate.send(topic, key, invalidation)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        // the other instances will serve stale data until the TTL expires
+                        log.warn("Failed to broadcast cache invalidation {}", invalidation, e);
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.ecom.bookService.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The deadline of the request being served by the current thread. The time left is passed along to the
+ * other services in the {@value #HEADER} header, in milliseconds, so that they give up too once the caller
+ * has; a time left rather than an instant, for the clocks of the services to not have to agree.
+ * <p>
+ * Mirrors {@code com.ecom.order.resilience.RequestDeadline} of the order service, which describes the
+ * contract of the {@value #HEADER} header, keep the two in step. Only the order service waits for calls under
+ * the deadline, so {@code within}, {@code check} and {@code propagate} are left out of this copy.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    /**
+     * The deadline, in {@link System#nanoTime()}.
+     */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void start(Duration timeout) {
+        DEADLINE.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * @return The time left to serve the request, negative once it is up, empty if the thread serves none
+     */
+    public static Optional<Duration> remaining() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    /**
+     * @return The time left to pass along in the {@value #HEADER} header, never negative
+     */
+    public static Optional<String> headerValue() {
+        return remaining().map(RequestDeadline::headerValue);
+    }
+
+    /**
+     * @return The given time left, as passed along in the {@value #HEADER} header, never negative
+     */
+    public static String headerValue(Duration remaining) {
+        return String.valueOf(Math.max(0, remaining.toMillis()));
+    }
+
+    /**
+     * @return The time left given by a {@value #HEADER} header, empty if the header is not a number
+     */
+    static Optional<Duration> parse(String header) {
+        if (header == null || header.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofMillis(Long.parseLong(header.trim())));
+        }
+        catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+}
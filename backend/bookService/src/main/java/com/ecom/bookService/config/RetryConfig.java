@@ -0,0 +1,14 @@
+package com.ecom.bookService.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Enables the {@link org.springframework.retry.annotation.Retryable} methods, such as the reservations of
+ * the inventory retried on an optimistic locking conflict. The retry wraps the transaction of the method, so
+ * that every attempt runs in a transaction of its own.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
@@ -0,0 +1,15 @@
+package com.ecom.bookService.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@link org.springframework.scheduling.TaskScheduler} of Spring Boot, set up under
+ * {@code spring.task.scheduling}, which runs the periodic work of the service: every component schedules its
+ * runs on it at the interval of its own settings, rather than on a thread of its own. A run that fails is
+ * logged, the next ones still run, and the scheduler stops them all with the context.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -28,13 +28,17 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET,
                         "/api/v1/books",
                         "/api/v1/books/",
-                        "/api/v1/books/{id}").permitAll() // get books, book by id
+                        "/api/v1/books/suggest", "/api/v1/books/scroll", "/api/v1/books/search",
+                        "/api/v1/books/{id}").permitAll() // get books, suggestions, book by id
                 .requestMatchers(HttpMethod.GET,
                         "/api/v1/categories",
                         "/api/v1/categories/",
                         "/api/v1/categories/paged",
                         "/api/v1/categories/{id}").permitAll() // get categories, category by id
+                .requestMatchers(HttpMethod.GET, "/api/v1/inventory/stream").permitAll() // availability on product pages, capped per client
                 .requestMatchers(HttpMethod.GET, "/api/v1/books/stats").hasAuthority("ROLE_ADMIN") // book stats
+                .requestMatchers("/api/v1/admin/**").hasAuthority("ROLE_ADMIN") // catalog imports
+                .requestMatchers("/api/v1/inventory/receive", "/api/v1/inventory/adjust").hasAuthority("ROLE_ADMIN") // bulk stock
                 .anyRequest().authenticated());
 
         http.oauth2ResourceServer(c -> c.jwt(jwt -> jwt.jwtAuthenticationConverter(new KeycloakAuthenticationConverter())));
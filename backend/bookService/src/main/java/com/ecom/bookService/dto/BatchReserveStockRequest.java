@@ -0,0 +1,16 @@
+package com.ecom.bookService.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Reservations of several orders, decided together.
+ *
+ * @param reservations The orders to reserve, at most one per order id
+ */
+public record BatchReserveStockRequest(
+        @NotEmpty @Size(max = 500) List<ReserveStockRequest> reservations
+) {
+}
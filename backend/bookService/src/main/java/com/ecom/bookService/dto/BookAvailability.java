@@ -0,0 +1,15 @@
+package com.ecom.bookService.dto;
+
+/**
+ * What a product page shows of the stock of a book.
+ *
+ * @param bookId    The id of the book
+ * @param available The quantity that can still be ordered
+ */
+public record BookAvailability(Long bookId, int available) {
+
+    public static BookAvailability of(StockLevel level) {
+        return new BookAvailability(level.bookId(), Math.max(0, level.free()));
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.ecom.bookService.dto;
+
+/**
+ * What a delta import needs to know about a book already in the catalog.
+ *
+ * @param bookId      The id of the book
+ * @param isbn13      The ISBN13 of the book
+ * @param contentHash The hash of the feed content the book was last imported from, null if it was not
+ *                    imported or imported before hashes were stored
+ */
+public record BookFingerprint(Long bookId, String isbn13, String contentHash) {
+}
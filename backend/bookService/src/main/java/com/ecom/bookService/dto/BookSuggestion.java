@@ -0,0 +1,25 @@
+package com.ecom.bookService.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An autocomplete suggestion for the search box.
+ *
+ * @param text      The suggested title or author, as written in the catalog
+ * @param type      Whether the suggestion is a title or an author
+ * @param bookId    The id of the book when the suggestion is the title of a single book, null otherwise
+ * @param bookCount The number of books having this title or author
+ */
+public record BookSuggestion(
+        String text,
+        Type type,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long bookId,
+        int bookCount
+) {
+
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.ecom.bookService.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The attributes of a book displayed by catalog list pages.
+ *
+ * @param id        The id of the book
+ * @param title     The title of the book
+ * @param author    The author(s) of the book
+ * @param price     The price of the book
+ * @param thumbnail The URL of the cover of the book
+ * @param stock     The quantity that can still be ordered
+ */
+public record BookSummaryDTO(
+        Long id,
+        String title,
+        String author,
+        BigDecimal price,
+        String thumbnail,
+        int stock
+) {
+
+}
@@ -0,0 +1,29 @@
+package com.ecom.bookService.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * What an order needs to know about a book it validates, read straight from the database so that the price
+ * charged is never a cached one.
+ *
+ * @param bookId            The id of the book
+ * @param title             The title of the book
+ * @param thumbnail         The image of the book
+ * @param price             The current price of the book
+ * @param availableQuantity The quantity in stock, 0 when the book has no inventory
+ * @param reservedQuantity  The part of the quantity in stock reserved by pending orders
+ */
+public record BookValidationView(
+        Long bookId,
+        String title,
+        String thumbnail,
+        BigDecimal price,
+        int availableQuantity,
+        int reservedQuantity
+) {
+
+    public StockLevel stockLevel() {
+        return new StockLevel(bookId, availableQuantity, reservedQuantity);
+    }
+
+}
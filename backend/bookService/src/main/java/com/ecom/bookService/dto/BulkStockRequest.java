@@ -0,0 +1,32 @@
+package com.ecom.bookService.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Stock changes of many books, such as the lines of a goods receipt or of a stock count.
+ *
+ * @param lines The changes, applied in order, a book being on a single line
+ */
+public record BulkStockRequest(
+        @NotEmpty @Size(max = 20000) List<@Valid @NotNull Line> lines
+) {
+
+    /**
+     * @param bookId          The id of the book
+     * @param quantity        The quantity received, or the new quantity in stock for an adjustment
+     * @param expectedVersion The version of the inventory the change was made against, the line being refused
+     *                        if the inventory changed since. Not checked when null
+     */
+    public record Line(
+            @NotNull Long bookId,
+            @NotNull Integer quantity,
+            Long expectedVersion
+    ) {
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.ecom.bookService.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link BulkStockRequest}, line by line.
+ *
+ * @param applied  The number of lines applied
+ * @param rejected The number of lines refused or that failed
+ * @param lines    The outcome of every line, in the order of the request
+ */
+public record BulkStockResult(int applied, int rejected, List<LineResult> lines) {
+
+    public static BulkStockResult of(List<LineResult> lines) {
+        int applied = (int) lines.stream().filter(line -> line.status() == Status.APPLIED).count();
+        return new BulkStockResult(applied, lines.size() - applied, lines);
+    }
+
+    /**
+     * @param line    The index of the line in the request
+     * @param bookId  The id of the book
+     * @param status  Whether the line has been applied
+     * @param version The version of the inventory once the line applied, null if it was not
+     * @param message Why the line was not applied
+     */
+    public record LineResult(int line, Long bookId, Status status, Long version, String message) {
+    }
+
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        VERSION_CONFLICT,
+        INVALID_QUANTITY,
+        /**
+         * The book is on several lines of the request: none of them is applied, as they would all be checked
+         * against the same expected version.
+         */
+        DUPLICATE_BOOK,
+        FAILED
+    }
+
+}
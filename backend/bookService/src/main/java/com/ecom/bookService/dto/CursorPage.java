@@ -0,0 +1,22 @@
+package com.ecom.bookService.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A page of a keyset (cursor) paginated listing.
+ *
+ * @param content       The elements of the page
+ * @param nextCursor    The opaque token to pass to get the next page, null on the last page
+ * @param hasNext       Whether there is a next page
+ * @param totalElements The total number of elements, only computed when the client asks for it
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long totalElements
+) {
+
+}
@@ -0,0 +1,11 @@
+package com.ecom.bookService.dto;
+
+/**
+ * Outcome of a batch of expired reservations released.
+ *
+ * @param reservations The number of reservations released
+ * @param units        The number of units given back to the stock
+ */
+public record ExpiredReservations(int reservations, long units) {
+
+}
@@ -0,0 +1,40 @@
+package com.ecom.bookService.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * A page of a catalog search with the facets of all the matching books.
+ * <p>
+ * Facets are disjunctive: the category counts ignore the category filter and the price counts ignore the
+ * price filter, so that they tell how many books picking another category or price range would give.
+ *
+ * @param books        The books of the requested page
+ * @param categories   The number of matching books per category, the most represented first
+ * @param priceBuckets The number of matching books per price range, the cheapest first
+ */
+public record FacetedBookPage<T>(
+        Page<T> books,
+        List<CategoryFacet> categories,
+        List<PriceBucket> priceBuckets
+) {
+
+    /**
+     * @param categoryId The id of the category
+     * @param name       The name of the category
+     * @param count      The number of matching books of the category
+     */
+    public record CategoryFacet(Long categoryId, String name, long count) {
+    }
+
+    /**
+     * @param from  The lowest price of the range, included
+     * @param to    The highest price of the range, excluded, null for the last range
+     * @param count The number of matching books in the range
+     */
+    public record PriceBucket(BigDecimal from, BigDecimal to, long count) {
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.ecom.bookService.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.ecom.bookService.reader.ImportJob;
+import com.ecom.bookService.reader.ImportMode;
+import com.ecom.bookService.reader.ImportReport;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Status of a catalog import job.
+ *
+ * @param id          The id of the job
+ * @param fileName    The name of the imported file
+ * @param mode        How the file is applied to the catalog
+ * @param status      Where the job stands
+ * @param submittedAt When the job was submitted
+ * @param startedAt   When the job started, null while it is queued
+ * @param finishedAt  When the job finished, null until then
+ * @param parsed      The number of records read so far
+ * @param validated   The number of records validated so far
+ * @param persisted   The number of books inserted, updated or removed so far
+ * @param rejected    The number of records rejected by the validation so far
+ * @param report      The detailed counters and stage throughputs, live while the job runs
+ * @param error       Why the job failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportJobDTO(
+        UUID id,
+        String fileName,
+        ImportMode mode,
+        ImportJob.Status status,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        long parsed,
+        long validated,
+        long persisted,
+        long rejected,
+        ImportReport report,
+        String error
+) {
+
+    public static ImportJobDTO of(ImportJob job) {
+        ImportReport report = job.snapshot();
+        return new ImportJobDTO(job.getId(), job.getFileName(), job.getMode(), job.getStatus(),
+                job.getSubmittedAt(), job.getStartedAt(), job.getFinishedAt(),
+                job.getProgress().parsed(), job.getProgress().validated(), job.getProgress().persisted(),
+                job.getProgress().rejected(), report, job.getError());
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.ecom.bookService.dto;
+
+/**
+ * The attributes of a stock displayed by the admin inventory list page.
+ *
+ * @param id                The id of the inventory
+ * @param bookId            The id of the book
+ * @param title             The title of the book
+ * @param availableQuantity The quantity in stock
+ * @param reservedQuantity  The part of the quantity in stock reserved by pending orders
+ * @param minimumStockLevel The level under which the book should be restocked
+ */
+public record InventorySummaryDTO(
+        Long id,
+        Long bookId,
+        String title,
+        int availableQuantity,
+        int reservedQuantity,
+        int minimumStockLevel
+) {
+
+}
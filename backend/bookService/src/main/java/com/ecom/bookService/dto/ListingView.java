@@ -0,0 +1,18 @@
+package com.ecom.bookService.dto;
+
+/**
+ * How much of each element a listing returns.
+ */
+public enum ListingView {
+
+    /**
+     * Every attribute, as before listings could be slimmed down.
+     */
+    FULL,
+
+    /**
+     * Only what a list page displays, read with a single query without loading the entities.
+     */
+    SUMMARY
+
+}
@@ -96,6 +96,24 @@ public record ReservationResult(
         );
     }
 
+    public static ReservationResult invalidQuantity(List<Long> booksIds) {
+        return new ReservationResult(
+                false,
+                null,
+                null,
+                ReservationStatus.INVALID_QUANTITY,
+                null,
+                "Quantities must be positive for books " + booksIds
+        );
+    }
+
+    /**
+     * @return The same result, for the given order
+     */
+    public ReservationResult withOrderId(String orderId) {
+        return new ReservationResult(success, orderId, reservationId, status, metadata, message);
+    }
+
     public enum ReservationStatus {
         RESERVED,
         PARTIALLY_RESERVED,
@@ -0,0 +1,29 @@
+package com.ecom.bookService.dto;
+
+import java.time.Instant;
+
+import com.ecom.bookService.model.StockAlert;
+
+/**
+ * A book low on stock or out of stock, as shown to the administrators.
+ *
+ * @param bookId            The book
+ * @param level             Whether the book is low on stock or out of stock
+ * @param freeQuantity      The stock of the book not reserved
+ * @param minimumStockLevel The free stock at or below which the book is low on stock
+ * @param since             When the book reached its level
+ */
+public record StockAlertDTO(
+        Long bookId,
+        StockAlert.Level level,
+        int freeQuantity,
+        int minimumStockLevel,
+        Instant since
+) {
+
+    public static StockAlertDTO from(StockAlert alert) {
+        return new StockAlertDTO(alert.getBookId(), alert.getLevel(), alert.getFreeQuantity(),
+                alert.getMinimumStockLevel(), alert.getSince());
+    }
+
+}
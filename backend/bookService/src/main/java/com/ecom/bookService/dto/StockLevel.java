@@ -0,0 +1,20 @@
+package com.ecom.bookService.dto;
+
+/**
+ * The stock of a book, read without loading the book itself.
+ *
+ * @param bookId            The id of the book
+ * @param availableQuantity The quantity in stock
+ * @param reservedQuantity  The part of the quantity in stock reserved by pending orders
+ */
+public record StockLevel(Long bookId, int availableQuantity, int reservedQuantity) {
+
+    public int free() {
+        return availableQuantity - reservedQuantity;
+    }
+
+    public boolean canReserve(int quantity) {
+        return free() >= quantity;
+    }
+
+}
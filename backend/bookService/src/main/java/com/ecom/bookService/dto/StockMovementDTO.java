@@ -0,0 +1,31 @@
+package com.ecom.bookService.dto;
+
+import java.time.Instant;
+
+import com.ecom.bookService.model.StockMovement;
+
+/**
+ * A stock movement of the ledger, as shown to the administrators.
+ *
+ * @param id              The id of the movement, in the order the movements were recorded
+ * @param type            What moved the stock
+ * @param availableChange The change of the quantity in stock
+ * @param reservedChange  The change of the reserved quantity
+ * @param reference       The order the movement is for, if any
+ * @param recordedAt      When the movement was recorded
+ */
+public record StockMovementDTO(
+        Long id,
+        StockMovement.Type type,
+        int availableChange,
+        int reservedChange,
+        String reference,
+        Instant recordedAt
+) {
+
+    public static StockMovementDTO from(StockMovement movement) {
+        return new StockMovementDTO(movement.getId(), movement.getType(), movement.getAvailableChange(),
+                movement.getReservedChange(), movement.getReference(), movement.getRecordedAt());
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.ecom.bookService.event;
+
+import com.ecom.bookService.model.Book;
+
+/**
+ * Published by the book service whenever a book of the catalog is created, updated or deleted.
+ * In-memory structures derived from the catalog (search index, ...) listen to it to stay in sync.
+ *
+ * @param type     The kind of change
+ * @param bookId   The id of the changed book
+ * @param book     The book as persisted, or null when the book has been deleted
+ * @param imported Whether the change is part of a catalog import, which publishes a single
+ *                 {@link CatalogImportedEvent} once it is over
+ */
+public record CatalogChangedEvent(Type type, Long bookId, Book book, boolean imported) {
+
+    public static CatalogChangedEvent created(Book book) {
+        return new CatalogChangedEvent(Type.CREATED, book.getBookId(), book, false);
+    }
+
+    public static CatalogChangedEvent updated(Book book) {
+        return new CatalogChangedEvent(Type.UPDATED, book.getBookId(), book, false);
+    }
+
+    public static CatalogChangedEvent deleted(Long bookId) {
+        return new CatalogChangedEvent(Type.DELETED, bookId, null, false);
+    }
+
+    /**
+     * @return The same change, made by a catalog import
+     */
+    public CatalogChangedEvent inImport() {
+        return new CatalogChangedEvent(type, bookId, book, true);
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+}
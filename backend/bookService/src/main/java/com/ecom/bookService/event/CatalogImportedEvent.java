@@ -0,0 +1,11 @@
+package com.ecom.bookService.event;
+
+/**
+ * Published once a catalog import is over, if it changed any book. Structures that cannot afford to react to
+ * every {@link CatalogChangedEvent} of an import, such as the shared category listings, listen to it instead.
+ *
+ * @param changedBooks The number of books inserted, updated or removed by the import
+ */
+public record CatalogImportedEvent(long changedBooks) {
+
+}
@@ -0,0 +1,33 @@
+package com.ecom.bookService.event;
+
+import java.time.Instant;
+
+/**
+ * Sent to Kafka for every change of the reserved stock of a book, keyed by book id so that the events of a
+ * book are consumed in order. Delivery is at least once: consumers may use the event id to skip duplicates.
+ *
+ * @param eventId       The id of the event, increasing with the order of the changes of a book
+ * @param type          The kind of change
+ * @param bookId        The id of the book
+ * @param orderId       The id of the order the stock is reserved for
+ * @param reservationId The id of the reservation
+ * @param quantity      The quantity reserved, confirmed or released
+ * @param occurredAt    When the change was committed
+ */
+public record InventoryEvent(
+        Long eventId,
+        Type type,
+        Long bookId,
+        String orderId,
+        Long reservationId,
+        int quantity,
+        Instant occurredAt
+) {
+
+    public enum Type {
+        STOCK_RESERVED,
+        STOCK_CONFIRMED,
+        STOCK_RELEASED
+    }
+
+}
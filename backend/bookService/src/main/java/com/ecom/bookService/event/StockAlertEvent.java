@@ -0,0 +1,15 @@
+package com.ecom.bookService.event;
+
+import com.ecom.bookService.model.StockAlert;
+
+/**
+ * Published when the stock of a book crosses its minimum stock level or runs out, and when it recovers.
+ *
+ * @param bookId            The id of the book
+ * @param level             The new level of the stock, null if it is back above the minimum
+ * @param freeQuantity      The stock not reserved by pending orders
+ * @param minimumStockLevel The minimum stock level of the book
+ */
+public record StockAlertEvent(Long bookId, StockAlert.Level level, int freeQuantity, int minimumStockLevel) {
+
+}
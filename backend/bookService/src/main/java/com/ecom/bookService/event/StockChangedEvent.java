@@ -0,0 +1,11 @@
+package com.ecom.bookService.event;
+
+/**
+ * Published by the inventory service whenever the stock of a book changes (reservation, confirmation,
+ * release or manual update).
+ *
+ * @param bookId The id of the book whose stock changed
+ */
+public record StockChangedEvent(Long bookId) {
+
+}
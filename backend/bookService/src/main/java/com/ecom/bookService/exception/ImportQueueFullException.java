@@ -0,0 +1,16 @@
+package com.ecom.bookService.exception;
+
+public class ImportQueueFullException extends RuntimeException {
+
+    public ImportQueueFullException() {
+    }
+
+    public ImportQueueFullException(String message) {
+        super(message);
+    }
+
+    public ImportQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.ecom.bookService.exception;
+
+/**
+ * A pagination cursor that was not returned by the service, answered with a 400 by every service alike.
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
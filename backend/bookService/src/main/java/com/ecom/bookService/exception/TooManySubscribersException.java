@@ -0,0 +1,16 @@
+package com.ecom.bookService.exception;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException() {
+    }
+
+    public TooManySubscribersException(String message) {
+        super(message);
+    }
+
+    public TooManySubscribersException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
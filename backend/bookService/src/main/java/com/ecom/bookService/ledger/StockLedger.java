@@ -0,0 +1,119 @@
+package com.ecom.bookService.ledger;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.ecom.bookService.dto.StockLevel;
+import com.ecom.bookService.model.StockMovement;
+import com.ecom.bookService.model.StockReservation;
+import com.ecom.bookService.repository.StockMovementRepository;
+
+/**
+ * Audit log of the stock: every change of a stock is recorded as a movement, in the transaction of the
+ * change, and compacted into snapshots by the {@link StockLedgerCompactor}. The inventory row stays the stock
+ * that reservations check and that every read returns, still updated by every change: the ledger only tells
+ * how the row got there, and lets it be checked against the level the movements add up to. It takes no write
+ * off the row of a hot book, and adds an insert to every change. Does nothing when the ledger is disabled.
+ */
+@Component
+@EnableConfigurationProperties(StockLedgerProperties.class)
+public class StockLedger {
+
+    private static final String LEVEL = """
+            WITH snapshot AS (
+                SELECT available_quantity, reserved_quantity, last_movement_id FROM stock_snapshots WHERE book_id = ?
+            )
+            SELECT COALESCE((SELECT available_quantity FROM snapshot), 0) + COALESCE(SUM(m.available_change), 0),
+                   COALESCE((SELECT reserved_quantity FROM snapshot), 0) + COALESCE(SUM(m.reserved_change), 0)
+            FROM stock_movements m
+            WHERE m.book_id = ? AND m.id > COALESCE((SELECT last_movement_id FROM snapshot), 0)
+            """;
+
+    private final StockMovementRepository movementRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    public StockLedger(StockMovementRepository movementRepository, JdbcTemplate jdbcTemplate,
+                       StockLedgerProperties properties) {
+        this.movementRepository = movementRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = properties.enabled();
+    }
+
+    /**
+     * Records one movement per book of the order.
+     *
+     * @param quantities The quantity per book id
+     */
+    public void record(StockMovement.Type type, String orderId, Map<Long, Integer> quantities) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        movementRepository.saveAll(quantities.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> movement(type, entry.getKey(), entry.getValue(), orderId, now))
+                .toList());
+    }
+
+    /**
+     * Records one movement per item of the reservation.
+     */
+    public void record(StockMovement.Type type, StockReservation reservation) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        movementRepository.saveAll(reservation.getItems().stream()
+                .map(item -> movement(type, item.getBook().getBookId(), item.getReservedQuantity(),
+                        reservation.getOrderId(), now))
+                .toList());
+    }
+
+    /**
+     * Records a movement of a single book that is not for an order, such as a receipt or an adjustment.
+     *
+     * @param quantity The quantity moved, negative for an adjustment that lowers the stock
+     */
+    public void record(StockMovement.Type type, Long bookId, int quantity) {
+        if (enabled && quantity != 0) {
+            movementRepository.save(movement(type, bookId, quantity, null, Instant.now()));
+        }
+    }
+
+    /**
+     * @return The stock of the book according to the ledger, its snapshot plus the movements recorded after it
+     */
+    public StockLevel level(Long bookId) {
+        return jdbcTemplate.queryForObject(LEVEL,
+                (rs, row) -> new StockLevel(bookId, rs.getInt(1), rs.getInt(2)), bookId, bookId);
+    }
+
+    /**
+     * @return The latest movements of the book still in the ledger, the most recent first
+     */
+    public List<StockMovement> movements(Long bookId, int limit) {
+        return movementRepository.findByBookIdOrderByIdDesc(bookId, Limit.of(limit));
+    }
+
+    private static StockMovement movement(StockMovement.Type type, Long bookId, int quantity, String reference,
+                                          Instant now) {
+        return StockMovement.builder()
+                .bookId(bookId)
+                .type(type)
+                .availableChange(type.availableChange(quantity))
+                .reservedChange(type.reservedChange(quantity))
+                .reference(reference)
+                .recordedAt(now)
+                .build();
+    }
+
+}
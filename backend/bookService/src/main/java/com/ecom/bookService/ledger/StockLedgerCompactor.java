@@ -0,0 +1,195 @@
+package com.ecom.bookService.ledger;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.bookService.stock.HotStockEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Folds the settled movements of the {@link StockLedger} into one snapshot per book, so that reading a stock
+ * from the ledger only sums the few movements recorded since, and forgets the folded movements once they are
+ * older than the retention. Every pass also opens the ledger of the books it does not follow yet, in the same
+ * transaction as the fold.
+ * <p>
+ * A pass runs in a single transaction, under an advisory lock so that two instances never fold the same
+ * movements twice.
+ */
+@Component
+@Slf4j
+public class StockLedgerCompactor {
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('stock-ledger-compaction'))";
+
+    private static final String WATERMARK = "SELECT MAX(id) FROM stock_movements WHERE recorded_at < ?";
+
+    /**
+     * Records an opening movement for every book without one: its inventory minus what the ledger already
+     * holds for it, its snapshot and the movements after it, settled or not. The inventory row and the
+     * movements of a change are committed together, so the single statement sees both or neither, however
+     * much the book moves meanwhile. The books given as an array are left for a later pass: the hot stock
+     * engine may not have written their latest changes to the inventory row yet.
+     */
+    private static final String OPEN = """
+            INSERT INTO stock_movements (book_id, type, available_change, reserved_change, recorded_at)
+            SELECT i.book_book_id, 'OPENING',
+                   i.available_quantity - COALESCE(s.available_quantity, 0) - COALESCE(SUM(m.available_change), 0),
+                   i.reserved_quantity - COALESCE(s.reserved_quantity, 0) - COALESCE(SUM(m.reserved_change), 0),
+                   ?
+            FROM book_inventories i
+            LEFT JOIN stock_snapshots s ON s.book_id = i.book_book_id
+            LEFT JOIN stock_movements m ON m.book_id = i.book_book_id AND m.id > COALESCE(s.last_movement_id, 0)
+            WHERE i.book_book_id IS NOT NULL
+              AND i.book_book_id <> ALL (CAST(? AS bigint[]))
+              AND NOT EXISTS (SELECT 1 FROM stock_movements o WHERE o.book_id = i.book_book_id AND o.type = 'OPENING')
+            GROUP BY i.book_book_id, i.available_quantity, i.reserved_quantity, s.available_quantity, s.reserved_quantity
+            """;
+
+    /**
+     * Adds the settled movements of every book to its snapshot.
+     *
+     * @return The number of movements folded
+     */
+    private static final String FOLD = """
+            WITH folded AS (
+                SELECT m.book_id, SUM(m.available_change) AS available_change,
+                       SUM(m.reserved_change) AS reserved_change, COUNT(*) AS movements
+                FROM stock_movements m
+                LEFT JOIN stock_snapshots s ON s.book_id = m.book_id
+                WHERE m.id > COALESCE(s.last_movement_id, 0) AND m.id <= ?
+                GROUP BY m.book_id
+            ), snapshots AS (
+                INSERT INTO stock_snapshots (book_id, available_quantity, reserved_quantity, last_movement_id, taken_at)
+                SELECT book_id, available_change, reserved_change, ?, ? FROM folded
+                ON CONFLICT (book_id) DO UPDATE SET
+                    available_quantity = stock_snapshots.available_quantity + EXCLUDED.available_quantity,
+                    reserved_quantity = stock_snapshots.reserved_quantity + EXCLUDED.reserved_quantity,
+                    last_movement_id = EXCLUDED.last_movement_id,
+                    taken_at = EXCLUDED.taken_at
+            )
+            SELECT COALESCE(SUM(movements), 0) FROM folded
+            """;
+
+    /**
+     * Forgets the folded movements older than the retention, but the openings, which tell the books followed.
+     */
+    private static final String PRUNE = """
+            DELETE FROM stock_movements m
+            USING stock_snapshots s
+            WHERE s.book_id = m.book_id AND m.id <= s.last_movement_id AND m.recorded_at < ? AND m.type <> 'OPENING'
+            """;
+
+    private final StockLedgerProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final HotStockEngine hotStock;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter compactedMovements;
+
+    private final Timer compactionTimer;
+
+    private final TaskScheduler taskScheduler;
+
+    public StockLedgerCompactor(
+            StockLedgerProperties properties,
+            JdbcTemplate jdbcTemplate,
+            HotStockEngine hotStock,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            TaskScheduler taskScheduler
+    ) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.hotStock = hotStock;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactedMovements = Counter.builder("inventory.ledger.movements.compacted")
+                .description("Stock movements folded into snapshots")
+                .register(meterRegistry);
+        this.compactionTimer = Timer.builder("inventory.ledger.compaction")
+                .description("Time spent compacting the stock ledger")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.enabled()) {
+            Duration interval = properties.compactionInterval();
+            taskScheduler.scheduleWithFixedDelay(this::compact, Instant.now().plus(interval), interval);
+        }
+    }
+
+    /**
+     * Runs a compaction pass, unless another instance is running one.
+     *
+     * @return The number of movements folded into snapshots
+     */
+    public int compact() {
+        Timer.Sample sample = Timer.start();
+        try {
+            Integer folded = transactionTemplate.execute(this::compactLocked);
+            int count = folded == null ? 0 : folded;
+            compactedMovements.increment(count);
+            return count;
+        }
+        catch (RuntimeException e) {
+            log.warn("Stock ledger compaction failed, retried at the next pass", e);
+            return 0;
+        }
+        finally {
+            sample.stop(compactionTimer);
+        }
+    }
+
+    private int compactLocked(TransactionStatus tx) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class))) {
+            log.debug("Stock ledger compaction skipped, another instance is running one");
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        Set<Long> unsettled = hotStock.unsettledBooks();
+        int opened = jdbcTemplate.update(OPEN, Timestamp.from(now), unsettled.toArray(Long[]::new));
+        if (!unsettled.containsAll(hotStock.unsettledBooks())) {
+            // promoted meanwhile: its opening may count changes its inventory row does not hold yet
+            tx.setRollbackOnly();
+            log.debug("Stock ledger compaction rolled back, a book was promoted to the hot stock engine meanwhile");
+            return 0;
+        }
+
+        Timestamp settled = Timestamp.from(now.minus(properties.settleDelay()));
+
+        int folded = 0;
+        Long watermark = jdbcTemplate.queryForObject(WATERMARK, Long.class, settled);
+        if (watermark != null) {
+            folded = jdbcTemplate.queryForObject(FOLD, Integer.class, watermark, watermark, Timestamp.from(now));
+        }
+
+        int pruned = properties.retention().isZero()
+                ? 0
+                : jdbcTemplate.update(PRUNE, Timestamp.from(now.minus(properties.retention())));
+
+        if (opened > 0 || pruned > 0) {
+            log.info("Stock ledger compacted: {} books opened, {} movements pruned", opened, pruned);
+        }
+        return folded;
+    }
+
+}
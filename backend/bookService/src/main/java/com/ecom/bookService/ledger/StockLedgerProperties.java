@@ -0,0 +1,26 @@
+package com.ecom.bookService.ledger;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link StockLedger} and of its {@link StockLedgerCompactor}.
+ *
+ * @param enabled            Whether stock movements are recorded and compacted, off unless an audit trail of
+ *                           the stock is wanted: every change of a stock then costs one more insert
+ * @param compactionInterval The time between the end of a compaction and the start of the next one
+ * @param settleDelay        The age a movement must have to be folded into a snapshot, far longer than any
+ *                           transaction recording movements so that no lower id can still be committed
+ * @param retention          How long movements are kept once folded into a snapshot, 0 to keep them all
+ */
+@ConfigurationProperties(prefix = "inventory.ledger")
+public record StockLedgerProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1m") Duration compactionInterval,
+        @DefaultValue("1m") Duration settleDelay,
+        @DefaultValue("30d") Duration retention
+) {
+
+}
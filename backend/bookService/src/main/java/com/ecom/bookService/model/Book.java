@@ -17,7 +17,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name="Books")
+@Table(name="Books", indexes = {
+        @Index(name = "idx_books_created_at_id", columnList = "createdAt, bookId"),
+        @Index(name = "idx_books_isbn13", columnList = "isbn13")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -27,7 +30,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long bookId;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -58,6 +62,12 @@ public class Book {
 
     private Integer numPages;
 
+    /**
+     * SHA-256 of the CSV row the book was last imported from, used by delta imports to skip unchanged rows
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     @OneToOne(mappedBy = "book", cascade = CascadeType.ALL, optional = false, orphanRemoval = true)
     private BookInventory inventory;
 
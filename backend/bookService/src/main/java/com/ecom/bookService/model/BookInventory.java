@@ -29,7 +29,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 public class BookInventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_inventories_seq")
+    @SequenceGenerator(name = "book_inventories_seq", sequenceName = "book_inventories_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -42,7 +43,10 @@ public class BookInventory {
 
     private int reservedQuantity;
 
-    private int minimumStockLevel; // TODO not implemented yet
+    /**
+     * The free stock at or below which the book is reported as low on stock.
+     */
+    private int minimumStockLevel;
 
     // ----------- Optimistic Locking -----------
 
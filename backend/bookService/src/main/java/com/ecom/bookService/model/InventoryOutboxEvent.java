@@ -0,0 +1,69 @@
+package com.ecom.bookService.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import com.ecom.bookService.event.InventoryEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An {@link InventoryEvent} waiting to be sent, written in the same transaction as the change it describes.
+ * <p>
+ * The id comes from an identity column on purpose: two changes of the same book are serialized by the lock
+ * on its inventory, so the later one always gets the higher id, and relaying by id keeps them in order.
+ * The books handled by the hot stock engine are the exception: their changes take no lock on the inventory,
+ * so the events of different orders of such a book may be relayed in another order than their changes. The
+ * events of a single reservation stay in order, its confirmation or release locking the reservation it
+ * follows.
+ */
+@Entity
+@Table(name = "inventory_outbox")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private InventoryEvent.Type type;
+
+    private Long bookId;
+
+    private String orderId;
+
+    private Long reservationId;
+
+    private int quantity;
+
+    private Instant occurredAt;
+
+    /**
+     * Until when the event is left to the relay which claimed it, null if none did.
+     */
+    private Instant leasedUntil;
+
+    public boolean isLeasedAt(Instant instant) {
+        return leasedUntil != null && leasedUntil.isAfter(instant);
+    }
+
+    public InventoryEvent toEvent() {
+        return new InventoryEvent(id, type, bookId, orderId, reservationId, quantity, occurredAt);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.ecom.bookService.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A book whose free stock is at or below its minimum stock level. The table only holds the books currently in
+ * that state, kept up to date as their stock changes, so listing them never scans the inventories.
+ */
+@Entity
+@Table(
+        name = "stock_alerts",
+        indexes = @Index(name = "idx_stock_alerts_level_since", columnList = "level, since")
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlert {
+
+    @Id
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    private Level level;
+
+    private int freeQuantity;
+
+    private int minimumStockLevel;
+
+    /**
+     * When the book entered its current level.
+     */
+    private Instant since;
+
+    public enum Level {
+        LOW,
+        OUT_OF_STOCK;
+
+        /**
+         * @return The level of a stock, null if it is above its minimum
+         */
+        public static Level of(int freeQuantity, int minimumStockLevel) {
+            if (freeQuantity <= 0) {
+                return OUT_OF_STOCK;
+            }
+            return freeQuantity <= minimumStockLevel ? LOW : null;
+        }
+    }
+
+}
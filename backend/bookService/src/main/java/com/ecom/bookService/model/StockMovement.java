@@ -0,0 +1,88 @@
+package com.ecom.bookService.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of the stock of a book, appended to the ledger in the transaction of the change and never updated.
+ * The stock of a book is its {@link StockSnapshot} plus the movements recorded after it.
+ * <p>
+ * The id comes from an identity column on purpose: it is allocated when the movement is inserted, so that the
+ * ids of the movements older than a few seconds are all committed, and can be folded into a snapshot.
+ */
+@Entity
+@Table(
+        name = "stock_movements",
+        indexes = @Index(name = "idx_stock_movements_book_id_id", columnList = "bookId, id")
+)
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private int availableChange;
+
+    private int reservedChange;
+
+    /**
+     * The order the movement is for, if any.
+     */
+    private String reference;
+
+    private Instant recordedAt;
+
+    public enum Type {
+
+        /**
+         * The stock a book had when the ledger started following it.
+         */
+        OPENING(1, 1),
+        RECEIPT(1, 0),
+        ADJUST(1, 0),
+        RESERVE(0, 1),
+        CONFIRM(-1, -1),
+        RELEASE(0, -1);
+
+        private final int availableSign;
+
+        private final int reservedSign;
+
+        Type(int availableSign, int reservedSign) {
+            this.availableSign = availableSign;
+            this.reservedSign = reservedSign;
+        }
+
+        public int availableChange(int quantity) {
+            return availableSign * quantity;
+        }
+
+        public int reservedChange(int quantity) {
+            return reservedSign * quantity;
+        }
+
+    }
+
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
@@ -19,7 +20,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "stock_reservations")
+@Table(
+        name = "stock_reservations",
+        indexes = @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expiresAt")
+)
 @Getter
 @Setter
 @Builder
@@ -49,7 +53,7 @@ public class StockReservation {
     private ReservationStatus status;
 
     public boolean isExpired() {
-        return expiresAt != null && LocalDateTime.now().isAfter(LocalDateTime.from(expiresAt));
+        return expiresAt != null && Instant.now().isAfter(expiresAt);
     }
 
     public void release() {
@@ -57,6 +61,14 @@ public class StockReservation {
         this.releasedAt = LocalDateTime.now();
     }
 
+    /**
+     * Same as {@link #release()}, for a reservation released because it was never confirmed in time.
+     */
+    public void expire() {
+        this.status = ReservationStatus.EXPIRED;
+        this.releasedAt = LocalDateTime.now();
+    }
+
     public void confirm() {
         this.status = ReservationStatus.CONFIRMED;
         this.confirmedAt = LocalDateTime.now();
@@ -1,6 +1,7 @@
 package com.ecom.bookService.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -25,7 +26,10 @@ public class StockReservationItem {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    /**
+     * Only the id of the book is needed to move its stock, the book itself is never loaded for that.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     private Book book;
 
     private int reservedQuantity;
@@ -0,0 +1,35 @@
+package com.ecom.bookService.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The stock of a book as of a movement of the ledger, the movements up to it included. Written by the ledger
+ * compaction only.
+ */
+@Entity
+@Table(name = "stock_snapshots")
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockSnapshot {
+
+    @Id
+    private Long bookId;
+
+    private int availableQuantity;
+
+    private int reservedQuantity;
+
+    private long lastMovementId;
+
+    private Instant takenAt;
+
+}
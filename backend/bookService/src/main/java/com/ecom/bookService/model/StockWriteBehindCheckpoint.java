@@ -0,0 +1,29 @@
+package com.ecom.bookService.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The last segment of the hot stock log whose changes are in the database, written in the same transaction
+ * as those changes: the segments up to it are never replayed, even if they are still on disk.
+ */
+@Entity
+@Table(name = "stock_write_behind_checkpoints")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockWriteBehindCheckpoint {
+
+    @Id
+    private Long id;
+
+    private long segmentId;
+
+}
@@ -0,0 +1,76 @@
+package com.ecom.bookService.outbox;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.ecom.bookService.event.InventoryEvent;
+import com.ecom.bookService.model.InventoryOutboxEvent;
+import com.ecom.bookService.model.StockReservation;
+import com.ecom.bookService.repository.InventoryOutboxRepository;
+
+/**
+ * Records inventory events in the outbox, in the transaction of the change they describe: an event is sent
+ * if and only if its change is committed. Does nothing when the outbox is disabled.
+ */
+@Component
+@EnableConfigurationProperties(InventoryOutboxProperties.class)
+public class InventoryOutbox {
+
+    private final InventoryOutboxRepository outboxRepository;
+
+    private final boolean enabled;
+
+    public InventoryOutbox(InventoryOutboxRepository outboxRepository, InventoryOutboxProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.enabled = properties.enabled();
+    }
+
+    /**
+     * Records one event per book of the order.
+     *
+     * @param quantities The quantity per book id
+     */
+    public void record(InventoryEvent.Type type, String orderId, Long reservationId, Map<Long, Integer> quantities) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        outboxRepository.saveAll(quantities.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> InventoryOutboxEvent.builder()
+                        .type(type)
+                        .bookId(entry.getKey())
+                        .orderId(orderId)
+                        .reservationId(reservationId)
+                        .quantity(entry.getValue())
+                        .occurredAt(now)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Records one event per item of the reservation.
+     */
+    public void record(InventoryEvent.Type type, StockReservation reservation) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<InventoryOutboxEvent> events = reservation.getItems().stream()
+                .map(item -> InventoryOutboxEvent.builder()
+                        .type(type)
+                        .bookId(item.getBook().getBookId())
+                        .orderId(reservation.getOrderId())
+                        .reservationId(reservation.getId())
+                        .quantity(item.getReservedQuantity())
+                        .occurredAt(now)
+                        .build())
+                .toList();
+        outboxRepository.saveAll(events);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.ecom.bookService.outbox;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link InventoryOutbox} and its {@link InventoryOutboxRelay}.
+ *
+ * @param enabled       Whether inventory events are written and sent to Kafka
+ * @param topic         The Kafka topic the events are sent to
+ * @param batchSize     The number of events sent per transaction
+ * @param relayInterval The time between two relays when the outbox is drained
+ * @param sendTimeout   How long the relay waits for Kafka to acknowledge a batch before retrying it
+ * @param lease         How long a batch claimed by a relay is left to it, longer than the send timeout: past
+ *                      that, another relay may send it again
+ */
+@ConfigurationProperties(prefix = "inventory.outbox")
+public record InventoryOutboxProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("book-inventory-events") String topic,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("200ms") Duration relayInterval,
+        @DefaultValue("10s") Duration sendTimeout,
+        @DefaultValue("30s") Duration lease
+) {
+
+}
@@ -0,0 +1,146 @@
+package com.ecom.bookService.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.bookService.event.InventoryEvent;
+import com.ecom.bookService.model.InventoryOutboxEvent;
+import com.ecom.bookService.repository.InventoryOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the events of the {@link InventoryOutbox} to Kafka, in batches, oldest first. A batch is deleted from
+ * the outbox only once Kafka acknowledged all of it, and sent again otherwise.
+ * <p>
+ * A relay first claims the oldest events in a short transaction, leasing them to itself, then sends them
+ * outside of any transaction, and deletes them in another one: no lock is held while Kafka is waited for. A
+ * relay finding some of the oldest events leased to another one leaves them to it, so that the events of a
+ * book are never sent by two relays at once, nor out of order. A relay which stops while sending leaves its
+ * batch to be sent again once the lease is over, so an event may be sent more than once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "enabled", havingValue = "true")
+@Slf4j
+public class InventoryOutboxRelay {
+
+    private final KafkaTemplate<String, InventoryEvent> kafkaTemplate;
+
+    private final InventoryOutboxRepository outboxRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final InventoryOutboxProperties properties;
+
+    private final TaskScheduler taskScheduler;
+
+    public InventoryOutboxRelay(
+            KafkaTemplate<String, InventoryEvent> kafkaTemplate,
+            InventoryOutboxRepository outboxRepository,
+            TransactionTemplate transactionTemplate,
+            InventoryOutboxProperties properties,
+            TaskScheduler taskScheduler
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Duration interval = properties.relayInterval();
+        taskScheduler.scheduleWithFixedDelay(this::relay, Instant.now().plus(interval), interval);
+    }
+
+    /**
+     * Sends batches until the outbox is drained.
+     *
+     * @return The number of events sent
+     */
+    public long relay() {
+        long sent = 0;
+        try {
+            int batch;
+            do {
+                batch = relayBatch();
+                sent += batch;
+            }
+            while (batch == properties.batchSize());
+        }
+        catch (RuntimeException e) {
+            log.warn("Relay of the inventory events interrupted after {} events, will retry", sent, e);
+        }
+        return sent;
+    }
+
+    private int relayBatch() {
+        List<InventoryOutboxEvent> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            CompletableFuture<?>[] sends = batch.stream()
+                    .map(event -> kafkaTemplate.send(properties.topic(), String.valueOf(event.getBookId()), event.toEvent()))
+                    .toArray(CompletableFuture[]::new);
+            await(CompletableFuture.allOf(sends));
+        }
+        catch (RuntimeException e) {
+            List<Long> ids = batch.stream().map(InventoryOutboxEvent::getId).toList();
+            transactionTemplate.executeWithoutResult(tx -> outboxRepository.releaseLeases(ids));
+            throw e;
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> outboxRepository.deleteAllInBatch(batch));
+        return batch.size();
+    }
+
+    /**
+     * Leases the oldest events to this relay.
+     *
+     * @return The events claimed, none if the outbox is drained or another relay is sending the oldest ones
+     */
+    private List<InventoryOutboxEvent> claim() {
+        List<InventoryOutboxEvent> claimed = transactionTemplate.execute(tx -> {
+            List<InventoryOutboxEvent> batch = outboxRepository.findByOrderByIdAsc(Limit.of(properties.batchSize()));
+            Instant now = Instant.now();
+            if (batch.stream().anyMatch(event -> event.isLeasedAt(now))) {
+                return List.of();
+            }
+            Instant leasedUntil = now.plus(properties.lease());
+            batch.forEach(event -> event.setLeasedUntil(leasedUntil));
+            return batch;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void await(CompletableFuture<?> sends) {
+        try {
+            sends.get(properties.sendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while sending inventory events", e);
+        }
+        catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not send inventory events", e);
+        }
+    }
+
+}
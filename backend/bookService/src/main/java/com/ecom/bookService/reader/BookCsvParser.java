@@ -1,12 +1,22 @@
 package com.ecom.bookService.reader;
 
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.stereotype.Service;
 
@@ -17,31 +27,63 @@ import org.apache.commons.csv.CSVRecord;
 @Service
 public class BookCsvParser {
     
-    private static final String[] CSV_HEADERS = {
-        "isbn13", "isbn10", "title", "subtitle", "authors", "categories", 
-        "thumbnail", "description", "published_year", "average_rating", 
-        "num_pages", "ratings_count"
-    };
+    /**
+     * Columns are looked up by the names of the header line, so that feeds may order them freely and add
+     * optional ones such as {@code price}.
+     */
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader()
+        .setSkipHeaderRecord(true)
+        .setTrim(true)
+        .setIgnoreEmptyLines(true)
+        .build();
 
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    static final int SPLIT_BATCH_SIZE = 1024;
+
+    /**
+     * Reads the whole CSV file into a list. Only meant for small files, see {@link #stream(InputStream)}.
+     */
     public List<BookCsvRecord> parseCsv(InputStream inputStream) throws IOException {
-        List<BookCsvRecord> records = new ArrayList<>();
-
-        try (Reader reader = new InputStreamReader(inputStream);
-             CSVParser parser = new CSVParser(reader,
-                 CSVFormat.DEFAULT.builder()
-                     .setHeader(CSV_HEADERS)
-                     .setSkipHeaderRecord(true)
-                     .setTrim(true)
-                     .setIgnoreEmptyLines(true)
-                     .build())) {
-            
-            for (CSVRecord csvRecord : parser) {
-                BookCsvRecord record = mapCsvToRecord(csvRecord);
-                records.add(record);
-            }
+        try (Stream<BookCsvRecord> records = stream(inputStream)) {
+            return records.collect(Collectors.toCollection(ArrayList::new));
         }
-        
-        return records;
+    }
+
+    /**
+     * Opens a lazy stream over the records of a CSV file.
+     * <p>
+     * The input is read through a fixed-size buffer, only as fast as the stream is consumed: memory use does
+     * not depend on the size of the file, and a slow consumer just makes the file be read more slowly. When
+     * the stream is consumed in parallel, it is split into batches of {@value #SPLIT_BATCH_SIZE} records
+     * rather than into the ever growing arrays of the default iterator spliterator.
+     * <p>
+     * The stream must be closed, which closes the input.
+     *
+     * @param inputStream The CSV file
+     * @return The records, in file order
+     */
+    public Stream<BookCsvRecord> stream(InputStream inputStream) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        CSVParser parser;
+        try {
+            parser = new CSVParser(reader, CSV_FORMAT);
+        }
+        catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+
+        return StreamSupport.stream(new RecordSpliterator(parser.iterator()), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
     }
 
     private BookCsvRecord mapCsvToRecord(CSVRecord csvRecord) {
@@ -59,6 +101,7 @@ public class BookCsvParser {
         record.setAverageRating(getCsvValue(csvRecord, "average_rating"));
         record.setNumPages(getCsvValue(csvRecord, "num_pages"));
         record.setRatingsCount(getCsvValue(csvRecord, "ratings_count"));
+        record.setPrice(getCsvValue(csvRecord, "price"));
 
         return record;
     }
@@ -70,4 +113,47 @@ public class BookCsvParser {
             return null;
         }
     }
+
+    /**
+     * Maps the CSV records one at a time as they are pulled, and splits off bounded batches for parallel
+     * consumers.
+     */
+    private final class RecordSpliterator implements Spliterator<BookCsvRecord> {
+
+        private final Iterator<CSVRecord> records;
+
+        private RecordSpliterator(Iterator<CSVRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super BookCsvRecord> action) {
+            if (!records.hasNext()) {
+                return false;
+            }
+            action.accept(mapCsvToRecord(records.next()));
+            return true;
+        }
+
+        @Override
+        public Spliterator<BookCsvRecord> trySplit() {
+            BookCsvRecord[] batch = new BookCsvRecord[SPLIT_BATCH_SIZE];
+            int size = 0;
+            while (size < batch.length && records.hasNext()) {
+                batch[size++] = mapCsvToRecord(records.next());
+            }
+            return size == 0 ? null : Spliterators.spliterator(batch, 0, size, ORDERED | NONNULL);
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+    }
 }
@@ -22,4 +22,5 @@ public class BookCsvRecord {
     private String averageRating;
     private String numPages;
     private String ratingsCount;
+    private String price;
 }
\ No newline at end of file
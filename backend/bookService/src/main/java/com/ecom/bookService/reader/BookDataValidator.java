@@ -1,5 +1,6 @@
 package com.ecom.bookService.reader;
 
+import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Year;
@@ -61,6 +62,10 @@ public class BookDataValidator {
             validateThumbnailUrl(record.getThumbnail(), errors);
         }
 
+        if (!isBlank(record.getPrice())) {
+            validatePrice(record.getPrice(), errors);
+        }
+
         return new ValidationResult(errors.isEmpty(), errors, record);
     }
 
@@ -105,6 +110,17 @@ public class BookDataValidator {
         }
     }
 
+    private void validatePrice(String priceStr, List<String> errors) {
+        try {
+            BigDecimal price = new BigDecimal(priceStr);
+            if (price.signum() < 0) {
+                errors.add("Price must not be negative: " + price);
+            }
+        } catch (NumberFormatException e) {
+            errors.add("Invalid price format: " + priceStr);
+        }
+    }
+
     private void validateThumbnailUrl(String thumbnail, List<String> errors) {
         try {
             new URL(thumbnail); // Validate URL format
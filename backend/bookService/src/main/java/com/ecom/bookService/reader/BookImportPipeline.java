@@ -0,0 +1,600 @@
+package com.ecom.bookService.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.bookService.dto.BookFingerprint;
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.event.CatalogImportedEvent;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.Category;
+import com.ecom.bookService.repository.BookRepository;
+import com.ecom.bookService.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports a CSV file of books into the catalog as a staged pipeline:
+ * <ol>
+ *     <li>parse: the calling thread pulls the records from {@link BookCsvParser#stream(InputStream)} and cuts
+ *     them into chunks;</li>
+ *     <li>validate: a pool of workers validates the chunks with {@link BookDataValidator} and converts the
+ *     valid records to books;</li>
+ *     <li>resolve: a single writer thread matches the books of every chunk by ISBN13 against the catalog,
+ *     with one query per chunk instead of one per record, to decide whether they are new, changed or
+ *     unchanged according to the {@link ImportMode}, and sets their category from a map preloaded with the
+ *     existing categories, creating each missing category once;</li>
+ *     <li>persist: the writer inserts the new books and updates the changed ones by batches, one transaction
+ *     per batch. Book ids come from a sequence so that Hibernate can send the statements as JDBC batches.
+ *     In {@link ImportMode#SYNC} mode, the imported books missing from the feed are then removed, scanning
+ *     the catalog by pages.</li>
+ * </ol>
+ * Whether a known book changed is decided by comparing the hash of its CSV row with the one stored at the
+ * previous import, so an unchanged row costs no query at all.
+ * Every committed batch publishes a {@link CatalogChangedEvent} per book, marked as part of an import, and a
+ * single {@link CatalogImportedEvent} is published at the end for the invalidations shared by all the books.
+ * The stages are connected by a bounded queue: parsing, and therefore reading the file, waits when the
+ * database cannot keep up. At most {@code 2 * parallelism} chunks wait in the queue, so memory use depends
+ * neither on the size of the file nor on the size of the catalog; only the ISBN set grows with the number
+ * of distinct books in the file. Chunks are persisted in file order.
+ */
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(CatalogImportProperties.class)
+@Slf4j
+public class BookImportPipeline {
+
+    private static final int MAX_AUTHORS_LENGTH = 100;
+
+    private static final Future<ValidatedChunk> END_OF_FILE =
+            CompletableFuture.completedFuture(new ValidatedChunk(List.of(), List.of()));
+
+    private final BookCsvParser csvParser;
+    private final BookDataValidator validator;
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogImportProperties properties;
+
+    /**
+     * Imports the books of a CSV file that are not in the catalog yet.
+     *
+     * @see #importCsv(InputStream, ImportMode)
+     */
+    public ImportReport importCsv(InputStream input) throws IOException {
+        return importCsv(input, ImportMode.APPEND);
+    }
+
+    /**
+     * Imports the books of a CSV file.
+     *
+     * @see #importCsv(InputStream, ImportMode, ImportProgress)
+     */
+    public ImportReport importCsv(InputStream input, ImportMode mode) throws IOException {
+        return importCsv(input, mode, new ImportProgress());
+    }
+
+    /**
+     * Imports the books of a CSV file. Invalid records and repeated ISBN13s are skipped and counted in the
+     * report.
+     *
+     * @param input The CSV file
+     * @param mode  How the file is applied to the catalog
+     * @param run   The counters to update as the import goes, to be read by other threads meanwhile
+     * @return The outcome of the import and the throughput of every stage
+     * @throws IOException if the file cannot be read
+     */
+    public ImportReport importCsv(InputStream input, ImportMode mode, ImportProgress run) throws IOException {
+        long start = System.nanoTime();
+
+        int parallelism = properties.effectiveParallelism();
+        BlockingQueue<Future<ValidatedChunk>> pending = new ArrayBlockingQueue<>(parallelism * 2);
+        ExecutorService validators = Executors.newFixedThreadPool(parallelism,
+                new CustomizableThreadFactory("book-import-validate-"));
+        ExecutorService writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("book-import-write-"));
+
+        try {
+            CatalogWriter catalogWriter = new CatalogWriter(mode, run);
+            Future<?> writing = writer.submit(() -> {
+                catalogWriter.write(pending);
+                return null;
+            });
+
+            Chunker chunker = new Chunker(run, pending, validators, writing);
+            try (Stream<BookCsvRecord> records = csvParser.stream(input)) {
+                records.forEach(chunker);
+            }
+            chunker.flush();
+            chunker.enqueue(END_OF_FILE);
+            run.parse.record(chunker.parsed, System.nanoTime() - start - chunker.blockedNanos);
+
+            await(writing);
+            return run.report(Duration.ofNanos(System.nanoTime() - start));
+        }
+        finally {
+            validators.shutdownNow();
+            writer.shutdownNow();
+            // the batches committed before a failure changed the catalog too
+            if (run.persisted() > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(run.persisted()));
+            }
+        }
+    }
+
+    private ValidatedChunk validate(List<BookCsvRecord> records, long firstRecord, ImportProgress run) {
+        long start = System.nanoTime();
+        List<ImportRow> rows = new ArrayList<>(records.size());
+        List<String> rejectedIsbns = new ArrayList<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            BookCsvRecord record = records.get(i);
+            long number = firstRecord + i;
+
+            BookDataValidator.ValidationResult validation = validator.validate(record);
+            if (!validation.isValid()) {
+                run.reject(String.format("Record %d (ISBN13: %s) validation failed: %s",
+                        number, record.getIsbn13(), String.join(", ", validation.getErrors())));
+                rejectedIsbns.add(record.getIsbn13());
+                continue;
+            }
+
+            if (record.getAuthors().trim().length() > MAX_AUTHORS_LENGTH) {
+                run.reject(String.format("Record %d (ISBN13: %s) validation failed: authors longer than %d characters",
+                        number, record.getIsbn13(), MAX_AUTHORS_LENGTH));
+                rejectedIsbns.add(record.getIsbn13());
+                continue;
+            }
+
+            try {
+                boolean feedPrice = record.getPrice() != null && !record.getPrice().isBlank();
+                rows.add(new ImportRow(convertToEntity(record), categoryName(record.getCategories()), feedPrice));
+            }
+            catch (RuntimeException e) {
+                run.fail(1, String.format("Record %d (ISBN13: %s) conversion failed: %s",
+                        number, record.getIsbn13(), e.getMessage()));
+                rejectedIsbns.add(record.getIsbn13());
+            }
+        }
+
+        run.validate.record(records.size(), System.nanoTime() - start);
+        return new ValidatedChunk(rows, rejectedIsbns);
+    }
+
+    /**
+     * Resolve and persist stages, run by the single writer thread.
+     */
+    private final class CatalogWriter {
+
+        private final ImportMode mode;
+        private final ImportProgress run;
+
+        private final Map<String, Category> categories = new HashMap<>();
+        private final IsbnSet seen = new IsbnSet();
+        private final IsbnSet rejected = new IsbnSet();
+
+        private List<Book> inserts;
+        private List<PendingUpdate> updates;
+
+        private CatalogWriter(ImportMode mode, ImportProgress run) {
+            this.mode = mode;
+            this.run = run;
+            this.inserts = new ArrayList<>(properties.batchSize());
+            this.updates = new ArrayList<>(properties.batchSize());
+        }
+
+        private void write(BlockingQueue<Future<ValidatedChunk>> pending) throws InterruptedException, ExecutionException {
+            long start = System.nanoTime();
+            categoryRepository.findAll().forEach(category -> categories.putIfAbsent(category.getCategoryName(), category));
+            run.resolve.record(0, System.nanoTime() - start);
+
+            for (Future<ValidatedChunk> next = pending.take(); next != END_OF_FILE; next = pending.take()) {
+                ValidatedChunk chunk = next.get();
+                chunk.rejectedIsbns().forEach(rejected::add);
+                resolve(chunk.rows());
+            }
+
+            flushInserts();
+            flushUpdates();
+            if (mode == ImportMode.SYNC) {
+                removeMissing();
+            }
+        }
+
+        private void resolve(List<ImportRow> rows) {
+            long start = System.nanoTime();
+            List<Book> newBooks = new ArrayList<>();
+            List<PendingUpdate> changedBooks = new ArrayList<>();
+            Map<String, BookFingerprint> known = knownBooks(rows);
+
+            for (ImportRow row : rows) {
+                Book book = row.book();
+                if (!seen.add(book.getIsbn13())) {
+                    run.duplicates.increment();
+                    continue;
+                }
+
+                BookFingerprint fingerprint = known.get(book.getIsbn13());
+                if (fingerprint == null) {
+                    book.setCategory(resolveCategory(row.categoryName()));
+                    newBooks.add(book);
+                }
+                else if (mode == ImportMode.APPEND) {
+                    run.duplicates.increment();
+                }
+                else if (book.getContentHash().equals(fingerprint.contentHash())) {
+                    run.unchanged.increment();
+                }
+                else {
+                    book.setCategory(resolveCategory(row.categoryName()));
+                    changedBooks.add(new PendingUpdate(fingerprint.bookId(), row));
+                }
+            }
+            run.resolve.record(rows.size(), System.nanoTime() - start);
+
+            for (Book book : newBooks) {
+                inserts.add(book);
+                if (inserts.size() >= properties.batchSize()) {
+                    flushInserts();
+                }
+            }
+            for (PendingUpdate update : changedBooks) {
+                updates.add(update);
+                if (updates.size() >= properties.batchSize()) {
+                    flushUpdates();
+                }
+            }
+        }
+
+        /**
+         * @return The books of the catalog with the ISBN13 of a row of the chunk, by ISBN13
+         */
+        private Map<String, BookFingerprint> knownBooks(List<ImportRow> rows) {
+            List<String> isbns = rows.stream()
+                    .map(row -> row.book().getIsbn13())
+                    .filter(isbn -> !seen.contains(isbn))
+                    .distinct()
+                    .toList();
+            if (isbns.isEmpty()) {
+                return Map.of();
+            }
+            return bookRepository.findFingerprintsByIsbn13In(isbns).stream()
+                    .collect(Collectors.toMap(BookFingerprint::isbn13, Function.identity(), (first, other) -> first));
+        }
+
+        private Category resolveCategory(String name) {
+            if (name == null) {
+                return null;
+            }
+            return categories.computeIfAbsent(name, n -> categoryRepository.save(Category.builder()
+                    .categoryName(n)
+                    .build()));
+        }
+
+        private void flushInserts() {
+            if (inserts.isEmpty()) {
+                return;
+            }
+            List<Book> batch = inserts;
+            inserts = new ArrayList<>(properties.batchSize());
+
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(batch)
+                        .forEach(book -> eventPublisher.publishEvent(CatalogChangedEvent.created(book).inImport())));
+                run.inserted.add(batch.size());
+            }
+            catch (RuntimeException e) {
+                // the books were not inserted: a later row with one of their ISBN13s is not a duplicate
+                batch.forEach(book -> seen.remove(book.getIsbn13()));
+                log.error("Failed to insert a batch of {} books", batch.size(), e);
+                run.fail(batch.size(), String.format("Batch of %d new books starting at ISBN13 %s failed: %s",
+                        batch.size(), batch.get(0).getIsbn13(), e.getMessage()));
+            }
+            run.persist.record(batch.size(), System.nanoTime() - start);
+        }
+
+        /**
+         * Loads the changed books of the batch with a single query and copies the feed content over them.
+         * Hibernate then flushes the updates as one JDBC batch when the transaction commits.
+         */
+        private void flushUpdates() {
+            if (updates.isEmpty()) {
+                return;
+            }
+            List<PendingUpdate> batch = updates;
+            updates = new ArrayList<>(properties.batchSize());
+
+            long start = System.nanoTime();
+            try {
+                Integer updated = transactionTemplate.execute(status -> {
+                    Map<Long, Book> books = bookRepository.findAllById(batch.stream().map(PendingUpdate::bookId).toList())
+                            .stream()
+                            .collect(Collectors.toMap(Book::getBookId, Function.identity()));
+
+                    int count = 0;
+                    for (PendingUpdate update : batch) {
+                        Book book = books.get(update.bookId());
+                        if (book == null) {
+                            continue;
+                        }
+                        copyContent(update.row(), book);
+                        eventPublisher.publishEvent(CatalogChangedEvent.updated(book).inImport());
+                        count++;
+                    }
+                    return count;
+                });
+                run.updated.add(updated);
+                if (updated < batch.size()) {
+                    run.fail(batch.size() - updated, String.format("%d changed books were deleted during the import",
+                            batch.size() - updated));
+                }
+            }
+            catch (RuntimeException e) {
+                log.error("Failed to update a batch of {} books", batch.size(), e);
+                run.fail(batch.size(), String.format("Batch of %d changed books starting at ISBN13 %s failed: %s",
+                        batch.size(), batch.get(0).row().book().getIsbn13(), e.getMessage()));
+            }
+            run.persist.record(batch.size(), System.nanoTime() - start);
+        }
+
+        /**
+         * Removes the books imported from a feed that were neither in this one nor rejected by the validation,
+         * so that a malformed row does not delete its book. The books created otherwise, from the admin UI for
+         * instance, have no content hash and are never removed.
+         */
+        private void removeMissing() {
+            Long after = 0L;
+            List<BookFingerprint> page;
+            do {
+                page = bookRepository.findImportedFingerprintsAfter(after, Limit.of(properties.batchSize()));
+                List<Long> missing = page.stream()
+                        .filter(fingerprint -> !seen.contains(fingerprint.isbn13()) && !rejected.contains(fingerprint.isbn13()))
+                        .map(BookFingerprint::bookId)
+                        .toList();
+                if (!missing.isEmpty()) {
+                    remove(missing);
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).bookId();
+                }
+            } while (page.size() == properties.batchSize());
+        }
+
+        private void remove(List<Long> bookIds) {
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    bookRepository.deleteAll(bookRepository.findAllById(bookIds));
+                    bookIds.forEach(bookId -> eventPublisher.publishEvent(CatalogChangedEvent.deleted(bookId).inImport()));
+                });
+                run.removed.add(bookIds.size());
+            }
+            catch (RuntimeException e) {
+                // Some books are still referenced, by stock reservations for instance: remove the others one by one
+                for (Long bookId : bookIds) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            bookRepository.deleteById(bookId);
+                            eventPublisher.publishEvent(CatalogChangedEvent.deleted(bookId).inImport());
+                        });
+                        run.removed.increment();
+                    }
+                    catch (RuntimeException ex) {
+                        run.fail(1, String.format("Book %d missing from the feed could not be removed: %s",
+                                bookId, ex.getMessage()));
+                    }
+                }
+            }
+            run.persist.record(bookIds.size(), System.nanoTime() - start);
+        }
+
+    }
+
+    private static void await(Future<?> writing) {
+        try {
+            writing.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog import interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Catalog import failed", e.getCause());
+        }
+    }
+
+    private static String categoryName(String categories) {
+        if (categories == null || categories.isBlank()) {
+            return null;
+        }
+        return Stream.of(categories.split(","))
+                .map(String::trim)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Book convertToEntity(BookCsvRecord record) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Book book = new Book();
+
+        book.setIsbn13(record.getIsbn13().trim());
+        book.setIsbn10(record.getIsbn10() != null ? record.getIsbn10().trim() : null);
+        book.setTitle(record.getTitle().trim());
+        book.setSubtitle(record.getSubtitle() != null ? record.getSubtitle().trim() : null);
+        book.setAuthor(record.getAuthors().trim());
+        book.setPrice(record.getPrice() != null && !record.getPrice().isBlank()
+                ? new BigDecimal(record.getPrice().trim())
+                : BigDecimal.valueOf(random.nextInt(26) + 4.99));
+        book.setThumbnail(record.getThumbnail());
+        book.setSummary(record.getDescription());
+
+        if (record.getPublishedYear() != null && !record.getPublishedYear().isBlank()) {
+            book.setPublishedYear(Integer.parseInt(record.getPublishedYear()));
+        }
+
+        if (record.getNumPages() != null && !record.getNumPages().isBlank()) {
+            book.setNumPages(Integer.parseInt(record.getNumPages()));
+        }
+
+        BookInventory inventory = BookInventory.builder()
+                .availableQuantity(random.nextInt(100) + 10)
+                .reservedQuantity(0)
+                .build();
+        book.setInventory(inventory);
+        book.setContentHash(contentHash(record));
+
+        return book;
+    }
+
+    /**
+     * Hashes the columns of the row that end up in the catalog. The rating columns are left out, they are
+     * not stored and would make every row look changed.
+     */
+    static String contentHash(BookCsvRecord record) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        Stream.of(record.getIsbn10(), record.getTitle(), record.getSubtitle(), record.getAuthors(),
+                        record.getCategories(), record.getThumbnail(), record.getDescription(),
+                        record.getPublishedYear(), record.getNumPages(), record.getPrice())
+                .forEach(value -> {
+                    if (value != null) {
+                        digest.update(value.strip().getBytes(StandardCharsets.UTF_8));
+                    }
+                    digest.update((byte) 0);
+                });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Copies the content of a feed row over a book of the catalog, leaving its stock alone. The price is only
+     * copied if the feed has one, as imported prices are made up otherwise.
+     */
+    private static void copyContent(ImportRow row, Book book) {
+        Book source = row.book();
+        book.setIsbn10(source.getIsbn10());
+        book.setTitle(source.getTitle());
+        book.setSubtitle(source.getSubtitle());
+        book.setAuthor(source.getAuthor());
+        book.setCategory(source.getCategory());
+        book.setThumbnail(source.getThumbnail());
+        book.setSummary(source.getSummary());
+        book.setPublishedYear(source.getPublishedYear());
+        book.setNumPages(source.getNumPages());
+        book.setContentHash(source.getContentHash());
+        if (row.feedPrice()) {
+            book.setPrice(source.getPrice());
+        }
+    }
+
+    /**
+     * Parse stage: groups the records into chunks and hands every chunk to the validation workers. The future
+     * of the validated chunk is queued for the writer, which blocks the parser while the queue is full.
+     */
+    private final class Chunker implements Consumer<BookCsvRecord> {
+
+        private final ImportProgress run;
+        private final BlockingQueue<Future<ValidatedChunk>> pending;
+        private final ExecutorService validators;
+        private final Future<?> writing;
+
+        private List<BookCsvRecord> chunk = new ArrayList<>(properties.chunkSize());
+        private long parsed;
+        private long blockedNanos;
+
+        private Chunker(ImportProgress run, BlockingQueue<Future<ValidatedChunk>> pending,
+                        ExecutorService validators, Future<?> writing) {
+            this.run = run;
+            this.pending = pending;
+            this.validators = validators;
+            this.writing = writing;
+        }
+
+        @Override
+        public void accept(BookCsvRecord record) {
+            chunk.add(record);
+            parsed++;
+            run.parsed.increment();
+            if (chunk.size() >= properties.chunkSize()) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<BookCsvRecord> records = chunk;
+            long firstRecord = parsed - records.size() + 1;
+            chunk = new ArrayList<>(properties.chunkSize());
+            enqueue(validators.submit(() -> validate(records, firstRecord, run)));
+        }
+
+        private void enqueue(Future<ValidatedChunk> validated) {
+            long start = System.nanoTime();
+            try {
+                while (!pending.offer(validated, 100, TimeUnit.MILLISECONDS)) {
+                    if (writing.isDone()) {
+                        await(writing);
+                        throw new IllegalStateException("Catalog import writer stopped unexpectedly");
+                    }
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Catalog import interrupted", e);
+            }
+            finally {
+                blockedNanos += System.nanoTime() - start;
+            }
+        }
+
+    }
+
+    private record ImportRow(Book book, String categoryName, boolean feedPrice) {
+    }
+
+    private record ValidatedChunk(List<ImportRow> rows, List<String> rejectedIsbns) {
+    }
+
+    private record PendingUpdate(Long bookId, ImportRow row) {
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.ecom.bookService.reader;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link BookImportPipeline}.
+ *
+ * @param chunkSize   The number of parsed records handed to a validation worker at once
+ * @param parallelism The number of validation workers, 0 for one per available processor
+ * @param batchSize   The number of books inserted per transaction, kept a multiple of the JDBC batch size
+ * @param startupMode How the bundled CSV file is applied at startup. In {@link ImportMode#APPEND} mode, the
+ *                    file is only imported into an empty catalog. {@link ImportMode#SYNC} is refused: the
+ *                    bundled file is not the whole catalog, books imported from supplier feeds would be
+ *                    removed at every restart
+ * @param jobs        How import jobs are run in the background
+ */
+@ConfigurationProperties(prefix = "catalog.import")
+public record CatalogImportProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("APPEND") ImportMode startupMode,
+        @DefaultValue Jobs jobs
+) {
+
+    /**
+     * @param concurrency   The number of imports run at the same time
+     * @param queueCapacity The number of imports waiting for their turn, beyond which new ones are refused
+     * @param retained      The number of jobs kept to be queried, the oldest finished ones being forgotten
+     */
+    public record Jobs(
+            @DefaultValue("1") int concurrency,
+            @DefaultValue("4") int queueCapacity,
+            @DefaultValue("50") int retained
+    ) {
+    }
+
+    public CatalogImportProperties {
+        if (startupMode == ImportMode.SYNC) {
+            throw new IllegalArgumentException("catalog.import.startup-mode cannot be SYNC, use APPEND or DELTA");
+        }
+    }
+
+    public int effectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.ecom.bookService.reader;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import lombok.Getter;
+
+/**
+ * A catalog import run in the background. Its progress is updated by the import thread and can be read
+ * from any other thread.
+ */
+@Getter
+public final class ImportJob {
+
+    private final UUID id = UUID.randomUUID();
+
+    private final String fileName;
+
+    private final ImportMode mode;
+
+    private final Instant submittedAt = Instant.now();
+
+    private final ImportProgress progress = new ImportProgress();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile ImportReport report;
+
+    private volatile String error;
+
+    public ImportJob(String fileName, ImportMode mode) {
+        this.fileName = fileName;
+        this.mode = mode;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void complete(ImportReport report) {
+        this.report = report;
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        report = progress.report(Duration.between(startedAt, finishedAt));
+        status = Status.FAILED;
+    }
+
+    /**
+     * Gives up the job before it started, the service shutting down.
+     */
+    public void cancel() {
+        finishedAt = Instant.now();
+        status = Status.CANCELLED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    /**
+     * @return The final report once the job is finished, the current counters while it runs, null while it
+     * is queued
+     */
+    public ImportReport snapshot() {
+        ImportReport finalReport = report;
+        if (finalReport != null) {
+            return finalReport;
+        }
+        Instant started = startedAt;
+        return started == null ? null : progress.report(Duration.between(started, Instant.now()));
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.ecom.bookService.reader;
+
+/**
+ * How a CSV feed is applied to the catalog. Books are matched by ISBN13.
+ */
+public enum ImportMode {
+
+    /**
+     * Inserts the books that are not in the catalog yet and leaves the others untouched.
+     */
+    APPEND,
+
+    /**
+     * Inserts the new books and updates the books whose content changed since the last import, detected by
+     * comparing content hashes. Books missing from the feed are kept.
+     */
+    DELTA,
+
+    /**
+     * Same as {@link #DELTA}, and also removes from the catalog the books imported from a feed that are
+     * missing from this one, making the catalog a mirror of the feed. The books created otherwise are kept.
+     */
+    SYNC
+
+}
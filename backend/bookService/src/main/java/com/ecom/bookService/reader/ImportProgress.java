@@ -0,0 +1,112 @@
+package com.ecom.bookService.reader;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of a running import, updated by the threads of the {@link BookImportPipeline} and safe to
+ * read from any other thread.
+ */
+public final class ImportProgress {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    final StageMetrics parse = new StageMetrics("parse");
+    final StageMetrics validate = new StageMetrics("validate");
+    final StageMetrics resolve = new StageMetrics("resolve");
+    final StageMetrics persist = new StageMetrics("persist");
+
+    final LongAdder parsed = new LongAdder();
+    final LongAdder inserted = new LongAdder();
+    final LongAdder updated = new LongAdder();
+    final LongAdder unchanged = new LongAdder();
+    final LongAdder removed = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder duplicates = new LongAdder();
+    final LongAdder failed = new LongAdder();
+
+    private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+
+    /**
+     * @return The number of records read from the file so far
+     */
+    public long parsed() {
+        return parsed.sum();
+    }
+
+    /**
+     * @return The number of records that went through validation so far, rejected ones included
+     */
+    public long validated() {
+        return validate.items.sum();
+    }
+
+    /**
+     * @return The number of books inserted, updated or removed so far
+     */
+    public long persisted() {
+        return inserted.sum() + updated.sum() + removed.sum();
+    }
+
+    /**
+     * @return The number of records rejected by the validation so far
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    void reject(String error) {
+        rejected.increment();
+        addError(error);
+    }
+
+    void fail(int count, String error) {
+        failed.add(count);
+        addError(error);
+    }
+
+    private void addError(String error) {
+        if (reportedErrors.getAndIncrement() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * @param elapsed The time the import has been running
+     * @return A snapshot of the counters
+     */
+    public ImportReport report(Duration elapsed) {
+        return new ImportReport(parsed.sum(), inserted.sum(), updated.sum(), unchanged.sum(), removed.sum(),
+                rejected.sum(), duplicates.sum(), failed.sum(),
+                List.copyOf(errors),
+                List.of(parse.report(), validate.report(), resolve.report(), persist.report()),
+                elapsed);
+    }
+
+    static final class StageMetrics {
+
+        private final String name;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private StageMetrics(String name) {
+            this.name = name;
+        }
+
+        void record(long count, long elapsedNanos) {
+            items.add(count);
+            nanos.add(elapsedNanos);
+        }
+
+        private ImportReport.StageReport report() {
+            return new ImportReport.StageReport(name, items.sum(), Duration.ofNanos(nanos.sum()));
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.ecom.bookService.reader;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a CSV catalog import.
+ *
+ * @param parsed     The number of records read from the file
+ * @param inserted   The number of new books inserted
+ * @param updated    The number of known books updated because their row changed
+ * @param unchanged  The number of known books left untouched because their row did not change
+ * @param removed    The number of books removed because they were missing from the feed
+ * @param rejected   The number of records that failed validation
+ * @param duplicates The number of records skipped because their ISBN13 was already met in the feed, or is
+ *                   already in the catalog when only appending
+ * @param failed     The number of records that could not be converted or persisted
+ * @param errors     The first error messages, the others are only counted
+ * @param stages     The throughput of every stage of the pipeline
+ * @param elapsed    The wall-clock duration of the whole import
+ */
+public record ImportReport(
+        long parsed,
+        long inserted,
+        long updated,
+        long unchanged,
+        long removed,
+        long rejected,
+        long duplicates,
+        long failed,
+        List<String> errors,
+        List<StageReport> stages,
+        Duration elapsed
+) {
+
+    /**
+     * @return The number of records processed per second over the whole import
+     */
+    @JsonProperty
+    public double recordsPerSecond() {
+        return ratePerSecond(parsed, elapsed);
+    }
+
+    /**
+     * Throughput of one stage of the pipeline. The busy time is summed over the threads of the stage, so
+     * a parallel stage may be busy longer than the import lasted.
+     *
+     * @param stage    The name of the stage
+     * @param items    The number of records that went through the stage
+     * @param busyTime The time spent working, waiting on the other stages excluded
+     */
+    public record StageReport(String stage, long items, Duration busyTime) {
+
+        /**
+         * @return The number of records a single thread of the stage handles per second
+         */
+        @JsonProperty
+        public double itemsPerSecond() {
+            return ratePerSecond(items, busyTime);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d in %d ms (%.0f/s)", stage, items, busyTime.toMillis(), itemsPerSecond());
+        }
+
+    }
+
+    private static double ratePerSecond(long count, Duration duration) {
+        return duration.isZero() ? 0 : count * 1_000_000_000d / duration.toNanos();
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.ecom.bookService.reader;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of ISBN13s used to keep track of the books met during an import.
+ * <p>
+ * A valid ISBN13 is 13 digits and fits in a long, so they are kept in an open-addressing table of primitive
+ * longs: about 16 bytes per ISBN instead of about 100 for a {@code HashSet<String>}, which keeps the set
+ * small even for feeds of millions of books. ISBNs that are not 13 digits (entered manually through the API)
+ * go to a regular set. Not thread-safe.
+ */
+final class IsbnSet {
+
+    private static final long FREE = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    private long[] table = newTable(INITIAL_CAPACITY);
+
+    private int size;
+
+    private final Set<String> others = new HashSet<>();
+
+    /**
+     * @param isbn13 An ISBN13, ignored if null
+     * @return true if the ISBN was not in the set yet
+     */
+    boolean add(String isbn13) {
+        if (isbn13 == null) {
+            return false;
+        }
+        long key = toKey(isbn13);
+        if (key == FREE) {
+            return others.add(isbn13);
+        }
+
+        if (2 * (size + 1) > table.length) {
+            grow();
+        }
+        if (!insert(table, key)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @param isbn13 An ISBN13
+     * @return true if the ISBN is in the set
+     */
+    boolean contains(String isbn13) {
+        if (isbn13 == null) {
+            return false;
+        }
+        long key = toKey(isbn13);
+        if (key == FREE) {
+            return others.contains(isbn13);
+        }
+
+        int mask = table.length - 1;
+        for (int slot = slot(key, mask); table[slot] != FREE; slot = (slot + 1) & mask) {
+            if (table[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param isbn13 An ISBN13, ignored if null
+     * @return true if the ISBN was in the set
+     */
+    boolean remove(String isbn13) {
+        if (isbn13 == null) {
+            return false;
+        }
+        long key = toKey(isbn13);
+        if (key == FREE) {
+            return others.remove(isbn13);
+        }
+
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+        while (table[slot] != key) {
+            if (table[slot] == FREE) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        closeGap(slot, mask);
+        size--;
+        return true;
+    }
+
+    /**
+     * @return The number of ISBNs in the set
+     */
+    int size() {
+        return size + others.size();
+    }
+
+    private void grow() {
+        long[] grown = newTable(table.length * 2);
+        for (long key : table) {
+            if (key != FREE) {
+                insert(grown, key);
+            }
+        }
+        table = grown;
+    }
+
+    /**
+     * Inserts the key with linear probing.
+     *
+     * @return false if the key was already present
+     */
+    private static boolean insert(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+        while (table[slot] != FREE) {
+            if (table[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        return true;
+    }
+
+    /**
+     * Empties a slot, moving back the keys probed past it so that they can still be found.
+     */
+    private void closeGap(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = table[slot];
+            if (key == FREE) {
+                table[gap] = FREE;
+                return;
+            }
+            int home = slot(key, mask);
+            // the key can fill the gap if its home slot is not cyclically within (gap, slot]
+            boolean movable = gap <= slot ? home <= gap || home > slot : home <= gap && home > slot;
+            if (movable) {
+                table[gap] = key;
+                gap = slot;
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+    }
+
+    private static long toKey(String isbn13) {
+        if (isbn13.length() != 13) {
+            return FREE;
+        }
+        long key = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = isbn13.charAt(i);
+            if (c < '0' || c > '9') {
+                return FREE;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+}
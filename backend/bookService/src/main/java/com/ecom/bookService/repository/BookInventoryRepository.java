@@ -1,11 +1,18 @@
 package com.ecom.bookService.repository;
 
 import com.ecom.bookService.model.Book;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.ecom.bookService.dto.StockLevel;
 import com.ecom.bookService.model.BookInventory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +25,65 @@ public interface BookInventoryRepository extends JpaRepository<BookInventory, Lo
 
     Optional<BookInventory> findByBookBookId(Long bookId);
 
+    boolean existsByBookBookId(Long bookId);
+
+    /**
+     * Loads the inventories of the books without loading the books, so that moving stock never touches the
+     * version of a book being edited from the catalog.
+     */
+    List<BookInventory> findByBookBookIdIn(Collection<Long> bookIds);
+
+    /**
+     * Locks the inventories of the books in book id order, the order every multi-book reservation locks
+     * its rows in, so that it cannot deadlock with them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM BookInventory i WHERE i.book.bookId IN :bookIds ORDER BY i.book.bookId")
+    List<BookInventory> findAllByBookIdsForUpdate(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Reserves the quantity only if that much stock is free, in a single statement: the row lock taken by
+     * the update serializes concurrent reservations of the same book without any retry.
+     *
+     * @return 1 if the stock has been reserved, 0 if the book is unknown or has not enough free stock
+     */
+    @Modifying
+    @Query("""
+            UPDATE BookInventory i
+            SET i.reservedQuantity = i.reservedQuantity + :quantity, i.version = i.version + 1, i.updatedAt = LOCAL DATETIME
+            WHERE i.book.bookId = :bookId AND i.availableQuantity - i.reservedQuantity >= :quantity
+            """)
+    int reserveIfAvailable(@Param("bookId") Long bookId, @Param("quantity") int quantity);
+
+    /**
+     * Gives back a quantity reserved with {@link #reserveIfAvailable}.
+     *
+     * @return 1 if the quantity has been given back, 0 if the book is unknown or has less stock reserved
+     */
+    @Modifying
+    @Query("""
+            UPDATE BookInventory i
+            SET i.reservedQuantity = i.reservedQuantity - :quantity, i.version = i.version + 1, i.updatedAt = LOCAL DATETIME
+            WHERE i.book.bookId = :bookId AND i.reservedQuantity >= :quantity
+            """)
+    int releaseReserved(@Param("bookId") Long bookId, @Param("quantity") int quantity);
+
+    @Query("""
+            SELECT new com.ecom.bookService.dto.StockLevel(i.book.bookId, i.availableQuantity, i.reservedQuantity)
+            FROM BookInventory i
+            WHERE i.book.bookId IN :bookIds
+            """)
+    List<StockLevel> findStockLevels(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * @return The books whose free stock is at or below their minimum stock level, or exhausted
+     */
+    @Query("""
+            SELECT i.book.bookId
+            FROM BookInventory i
+            WHERE i.availableQuantity - i.reservedQuantity <= i.minimumStockLevel
+               OR i.availableQuantity - i.reservedQuantity <= 0
+            """)
+    List<Long> findBookIdsAtOrBelowMinimum();
+
 }
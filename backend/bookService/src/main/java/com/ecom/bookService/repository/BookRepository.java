@@ -1,29 +1,89 @@
 package com.ecom.bookService.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.ecom.bookService.dto.BookFingerprint;
+import com.ecom.bookService.dto.BookSummaryDTO;
+import com.ecom.bookService.dto.BookValidationView;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.model.CategoryName;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
     @Query("SELECT b FROM Book b WHERE LOWER(b.title) = LOWER(:title)")
     List<Book> findByTitle(@Param("title") String title);
 
-    @Query("SELECT b FROM Book b WHERE LOWER(b.category.categoryName) = LOWER(:categoryName)")
-    List<Book> findByCategory(@Param("categoryName") String categoryName);
+    @Query("SELECT b.bookId FROM Book b WHERE LOWER(b.category.categoryName) = LOWER(:categoryName) ORDER BY b.bookId")
+    List<Long> findIdsByCategory(@Param("categoryName") String categoryName);
 
+    /**
+     * Loads the books with their category and inventory in the same query, instead of one more query per book
+     * for the inventory.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "inventory"})
+    Page<Book> findAll(Specification<Book> specification, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"category", "inventory"})
     List<Book> findByBookIdIn(List<Long> ids);
 
+    @Query("""
+            SELECT new com.ecom.bookService.dto.BookSummaryDTO(
+                b.bookId, b.title, b.author, b.price, b.thumbnail,
+                COALESCE(i.availableQuantity - i.reservedQuantity, 0))
+            FROM Book b LEFT JOIN b.inventory i
+            WHERE b.bookId IN :ids
+            """)
+    List<BookSummaryDTO> findSummariesByBookIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Reads the price and stock of books in a single query, bypassing the catalog cache.
+     */
+    @Query("""
+            SELECT new com.ecom.bookService.dto.BookValidationView(
+                b.bookId, b.title, b.thumbnail, b.price,
+                COALESCE(i.availableQuantity, 0), COALESCE(i.reservedQuantity, 0))
+            FROM Book b LEFT JOIN b.inventory i
+            WHERE b.bookId IN :ids
+            """)
+    List<BookValidationView> findValidationViewsByBookIdIn(@Param("ids") Collection<Long> ids);
+
     boolean existsByIsbn13(String isbn13);
 
+    @Query("SELECT new com.ecom.bookService.dto.BookFingerprint(b.bookId, b.isbn13, b.contentHash) FROM Book b WHERE b.isbn13 IN :isbns")
+    List<BookFingerprint> findFingerprintsByIsbn13In(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Keyset scan of the books imported from a feed, the only ones with a content hash.
+     */
+    @Query("""
+            SELECT new com.ecom.bookService.dto.BookFingerprint(b.bookId, b.isbn13, b.contentHash)
+            FROM Book b
+            WHERE b.contentHash IS NOT NULL AND b.isbn13 IS NOT NULL AND b.bookId > :afterId
+            ORDER BY b.bookId
+            """)
+    List<BookFingerprint> findImportedFingerprintsAfter(@Param("afterId") Long afterId, Limit limit);
+
     boolean existsByIsbn10(String isbn);
 
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.category LEFT JOIN FETCH b.inventory")
+    Slice<Book> findAllForIndexing(Pageable pageable);
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.category LEFT JOIN FETCH b.inventory WHERE b.bookId IN :ids")
+    List<Book> findAllForIndexingByBookIdIn(@Param("ids") Collection<Long> ids);
+
 }
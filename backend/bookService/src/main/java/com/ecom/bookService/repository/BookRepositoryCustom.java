@@ -0,0 +1,21 @@
+package com.ecom.bookService.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.ecom.bookService.dto.BookSummaryDTO;
+import com.ecom.bookService.dto.InventorySummaryDTO;
+import com.ecom.bookService.model.Book;
+
+/**
+ * Listing queries projecting books and their inventory straight into DTOs, with a single join and without
+ * reading the summary of the books.
+ */
+public interface BookRepositoryCustom {
+
+    Page<BookSummaryDTO> findSummaries(Specification<Book> specification, Pageable pageable);
+
+    Page<InventorySummaryDTO> findInventorySummaries(Specification<Book> specification, Pageable pageable);
+
+}
@@ -0,0 +1,115 @@
+package com.ecom.bookService.repository;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.ecom.bookService.dto.BookSummaryDTO;
+import com.ecom.bookService.dto.InventorySummaryDTO;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.BookInventory;
+
+class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BookSummaryDTO> findSummaries(Specification<Book> specification, Pageable pageable) {
+        // a book without inventory is still listed, as out of stock
+        return findProjected(specification, pageable, BookSummaryDTO.class, JoinType.LEFT, (book, inventory) -> {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            return cb.construct(BookSummaryDTO.class,
+                    book.get("bookId"),
+                    book.get("title"),
+                    book.get("author"),
+                    book.get("price"),
+                    book.get("thumbnail"),
+                    cb.coalesce(cb.diff(inventory.<Integer>get("availableQuantity"),
+                            inventory.<Integer>get("reservedQuantity")), 0));
+        });
+    }
+
+    @Override
+    public Page<InventorySummaryDTO> findInventorySummaries(Specification<Book> specification, Pageable pageable) {
+        return findProjected(specification, pageable, InventorySummaryDTO.class, JoinType.INNER, (book, inventory) ->
+                entityManager.getCriteriaBuilder().construct(InventorySummaryDTO.class,
+                        inventory.get("id"),
+                        book.get("bookId"),
+                        book.get("title"),
+                        inventory.get("availableQuantity"),
+                        inventory.get("reservedQuantity"),
+                        inventory.get("minimumStockLevel")));
+    }
+
+    /**
+     * Selects the given projection from the books matching the specification joined with their inventory. The
+     * total is only counted when the page is not the last one.
+     *
+     * @param joinType {@link JoinType#LEFT} to also select the books without inventory
+     */
+    private <R> Page<R> findProjected(
+            Specification<Book> specification,
+            Pageable pageable,
+            Class<R> type,
+            JoinType joinType,
+            BiFunction<Root<Book>, Join<Book, BookInventory>, CompoundSelection<R>> selection
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<R> query = cb.createQuery(type);
+        Root<Book> book = query.from(Book.class);
+        Join<Book, BookInventory> inventory = book.join("inventory", joinType);
+
+        query.select(selection.apply(book, inventory));
+        Predicate predicate = specification.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, cb));
+        }
+
+        TypedQuery<R> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<R> content = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification, joinType));
+    }
+
+    private long count(Specification<Book> specification, JoinType joinType) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+        book.join("inventory", joinType);
+
+        query.select(cb.count(book));
+        Predicate predicate = specification.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.ecom.bookService.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ecom.bookService.model.InventoryOutboxEvent;
+
+@Repository
+public interface InventoryOutboxRepository extends JpaRepository<InventoryOutboxEvent, Long> {
+
+    /**
+     * Locks the oldest events, to claim them. Rows locked by another relay claiming them are waited for rather
+     * than skipped, which would let this relay send later events of a book before earlier ones.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<InventoryOutboxEvent> findByOrderByIdAsc(Limit limit);
+
+    /**
+     * Gives back events claimed by a relay which could not send them.
+     */
+    @Modifying
+    @Query("UPDATE InventoryOutboxEvent e SET e.leasedUntil = NULL WHERE e.id IN :ids")
+    int releaseLeases(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,21 @@
+package com.ecom.bookService.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.ecom.bookService.model.StockAlert;
+
+@Repository
+public interface StockAlertRepository extends JpaRepository<StockAlert, Long> {
+
+    Page<StockAlert> findByLevel(StockAlert.Level level, Pageable pageable);
+
+    @Query("SELECT a.bookId FROM StockAlert a")
+    List<Long> findAllBookIds();
+
+}
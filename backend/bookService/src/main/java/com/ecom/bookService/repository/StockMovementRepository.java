@@ -0,0 +1,16 @@
+package com.ecom.bookService.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ecom.bookService.model.StockMovement;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findByBookIdOrderByIdDesc(Long bookId, Limit limit);
+
+}
@@ -1,10 +1,21 @@
 package com.ecom.bookService.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.ecom.bookService.model.ReservationStatus;
 import com.ecom.bookService.model.StockReservation;
 
 @Repository
@@ -12,4 +23,22 @@ public interface StockReservationRepository extends JpaRepository<StockReservati
 
     Optional<StockReservation> findByOrderId(String orderId);
 
+    List<StockReservation> findByOrderIdIn(Collection<String> orderIds);
+
+    /**
+     * Locks the reservation of the order, waiting for a sweep that holds it: once the lock is granted, the
+     * status read is the one the sweep committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StockReservation> findForUpdateByOrderId(String orderId);
+
+    /**
+     * Locks the oldest reservations in the status that expired before the given instant. Rows locked by
+     * another transaction, such as a concurrent sweep, are skipped (a lock timeout of -2 is SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    List<StockReservation> findByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(
+            ReservationStatus status, Instant expiredBefore, Limit limit);
+
 }
\ No newline at end of file
@@ -0,0 +1,303 @@
+package com.ecom.bookService.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import com.ecom.bookService.model.Book;
+
+/**
+ * In-memory inverted index over the title, subtitle, author and summary of the books of the catalog.
+ * <p>
+ * Every term points to a posting list (book id -> weighted term frequency). Results are ranked with BM25,
+ * a match in the title weighing more than a match in the author or subtitle, which weigh more than a match
+ * in the summary. The last term of a query is also matched as a prefix, so that "harr pott" finds
+ * "Harry Potter" like the former {@code LIKE '%term%'} search did.
+ * <p>
+ * The index is kept in sync by {@link BookSearchIndexSynchronizer}.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float SUBTITLE_WEIGHT = 2f;
+    private static final float AUTHOR_WEIGHT = 2f;
+    private static final float SUMMARY_WEIGHT = 1f;
+
+    private static final float PREFIX_MATCH_WEIGHT = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final Comparator<SearchHit> RELEVANCE = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparing(SearchHit::bookId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    private final Map<Long, IndexedBook> documents = new HashMap<>();
+
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+    private double totalLength;
+
+    private volatile boolean ready;
+
+    /**
+     * Adds a book to the index, or replaces it if it is already indexed.
+     *
+     * @param book A book
+     */
+    public void index(Book book) {
+        Map<String, Float> frequencies = termFrequencies(book);
+        float length = (float) frequencies.values().stream().mapToDouble(Float::doubleValue).sum();
+        IndexedBook document = IndexedBook.of(book, length);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getBookId());
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(book.getBookId(), frequency));
+            documents.put(book.getBookId(), document);
+            documentTerms.put(book.getBookId(), frequencies.keySet());
+            totalLength += length;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index. Does nothing if the book is not indexed.
+     *
+     * @param bookId The id of a book
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the books matching at least one term of the query.
+     *
+     * @param query  A full-text query
+     * @param filter A filter applied on the matching books before they are returned
+     * @return The matching books, the most relevant first
+     */
+    public List<SearchHit> search(String query, Predicate<IndexedBook> filter) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<SearchHit> hits = new ArrayList<>();
+            scores(terms).forEach((bookId, score) -> {
+                IndexedBook document = documents.get(bookId);
+                if (filter.test(document)) {
+                    hits.add(new SearchHit(document, score));
+                }
+            });
+
+            hits.sort(RELEVANCE);
+            return hits;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the books matching the query and both filters, and counts in the same pass the matching books
+     * per category and per price bucket. A blank query matches every indexed book.
+     *
+     * @param query          A full-text query, may be blank
+     * @param categoryFilter The category filter, ignored by the category counts
+     * @param priceFilter    The price filter, ignored by the price counts
+     * @param priceBounds    The ascending bounds of the price buckets: n bounds make n + 1 buckets, from
+     *                       [0, bound 1) to [bound n, +inf)
+     * @return The matching books, the most relevant first, and the facet counts
+     */
+    public FacetedHits facetedSearch(
+            String query,
+            Predicate<IndexedBook> categoryFilter,
+            Predicate<IndexedBook> priceFilter,
+            List<BigDecimal> priceBounds
+    ) {
+        List<String> terms = Tokenizer.tokenize(query);
+        boolean matchAll = query == null || query.isBlank();
+
+        lock.readLock().lock();
+        try {
+            List<SearchHit> hits = new ArrayList<>();
+            Map<Long, FacetedHits.CategoryCount> categories = new HashMap<>();
+            long[] priceCounts = new long[priceBounds.size() + 1];
+
+            Map<Long, Double> scores = matchAll ? null : scores(terms);
+            Iterable<Long> candidates = matchAll ? documents.keySet() : scores.keySet();
+
+            for (Long bookId : candidates) {
+                IndexedBook document = documents.get(bookId);
+                boolean inCategory = categoryFilter.test(document);
+                boolean inPriceRange = priceFilter.test(document);
+
+                if (inPriceRange && document.categoryId() != null) {
+                    categories.merge(document.categoryId(),
+                            new FacetedHits.CategoryCount(document.categoryId(), document.categoryName(), 1),
+                            (a, b) -> new FacetedHits.CategoryCount(a.categoryId(), a.categoryName(), a.count() + 1));
+                }
+                if (inCategory && document.price() != null) {
+                    priceCounts[bucketOf(document.price(), priceBounds)]++;
+                }
+                if (inCategory && inPriceRange) {
+                    hits.add(new SearchHit(document, matchAll ? 0 : scores.get(bookId)));
+                }
+            }
+
+            hits.sort(RELEVANCE);
+            List<FacetedHits.CategoryCount> categoryCounts = categories.values().stream()
+                    .sorted(Comparator.comparingLong(FacetedHits.CategoryCount::count).reversed()
+                            .thenComparing(FacetedHits.CategoryCount::categoryName,
+                                    Comparator.nullsLast(Comparator.<String>naturalOrder())))
+                    .toList();
+            return new FacetedHits(hits, categoryCounts, priceCounts);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed books
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true once the index has been fully built from the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        this.ready = true;
+    }
+
+    /**
+     * Scores every book matching at least one of the terms. Must be called with the read lock held.
+     */
+    private Map<Long, Double> scores(List<String> terms) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (documents.isEmpty()) {
+            return scores;
+        }
+
+        double averageLength = totalLength / documents.size();
+        for (int i = 0; i < terms.size(); i++) {
+            Map<Long, Double> termScores = new HashMap<>();
+            String term = terms.get(i);
+
+            score(term, 1f, averageLength, termScores);
+            if (i == terms.size() - 1) {
+                prefixExpansions(term).forEach(expansion ->
+                        score(expansion, PREFIX_MATCH_WEIGHT, averageLength, termScores));
+            }
+
+            termScores.forEach((bookId, score) -> scores.merge(bookId, score, Double::sum));
+        }
+        return scores;
+    }
+
+    private static int bucketOf(BigDecimal price, List<BigDecimal> bounds) {
+        int bucket = 0;
+        while (bucket < bounds.size() && price.compareTo(bounds.get(bucket)) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void score(String term, float weight, double averageLength, Map<Long, Double> termScores) {
+        Map<Long, Float> posting = postings.get(term);
+        if (posting == null) {
+            return;
+        }
+
+        int documentCount = documents.size();
+        double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+
+        posting.forEach((bookId, frequency) -> {
+            double length = documents.get(bookId).length();
+            double norm = K1 * (1 - B + B * length / averageLength);
+            double score = weight * idf * (frequency * (K1 + 1)) / (frequency + norm);
+            termScores.merge(bookId, score, Math::max);
+        });
+    }
+
+    private List<String> prefixExpansions(String prefix) {
+        NavigableMap<String, Map<Long, Float>> candidates =
+                postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false);
+
+        return candidates.keySet().stream()
+                .limit(MAX_PREFIX_EXPANSIONS)
+                .toList();
+    }
+
+    private void removeDocument(Long bookId) {
+        IndexedBook document = documents.remove(bookId);
+        if (document == null) {
+            return;
+        }
+
+        totalLength -= document.length();
+        for (String term : documentTerms.remove(bookId)) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(bookId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static Map<String, Float> termFrequencies(Book book) {
+        Map<String, Float> frequencies = new HashMap<>();
+        addField(frequencies, book.getTitle(), TITLE_WEIGHT);
+        addField(frequencies, book.getSubtitle(), SUBTITLE_WEIGHT);
+        addField(frequencies, book.getAuthor(), AUTHOR_WEIGHT);
+        addField(frequencies, book.getSummary(), SUMMARY_WEIGHT);
+        return frequencies;
+    }
+
+    private static void addField(Map<String, Float> frequencies, String text, float weight) {
+        for (String term : Tokenizer.tokenize(text)) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.ecom.bookService.search;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the {@link BookSearchIndex} and the {@link BookSuggester} once the application is started, then
+ * applies every committed catalog change to them.
+ * <p>
+ * The build reads the catalog page by page on a thread of its own, and may read a book before a change that
+ * is committed while it runs. The books changed meanwhile are therefore only recorded, then read again and
+ * indexed once the build is over, so that their latest state wins.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchIndexSynchronizer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final BookSearchIndex searchIndex;
+
+    private final BookSuggester suggester;
+
+    private final BookRepository bookRepository;
+
+    private final ExecutorService rebuildExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("search-index-rebuild-"));
+
+    private final Object rebuildLock = new Object();
+
+    /**
+     * The ids of the books changed since the build started, null when no build is running.
+     */
+    private Set<Long> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::rebuild, rebuildExecutor)
+                .exceptionally(e -> {
+                    log.error("Failed to build the search index, searches will keep using the database", e);
+                    return null;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        synchronized (rebuildLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.bookId());
+                return;
+            }
+        }
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.book());
+            case DELETED -> remove(event.bookId());
+        }
+    }
+
+    void rebuild() {
+        long start = System.nanoTime();
+        synchronized (rebuildLock) {
+            changedDuringRebuild = new HashSet<>();
+        }
+
+        int reindexed;
+        try {
+            Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("bookId"));
+            Slice<Book> slice;
+            do {
+                slice = bookRepository.findAllForIndexing(pageable);
+                slice.forEach(this::index);
+                pageable = slice.nextPageable();
+            } while (slice.hasNext());
+
+            reindexed = reindexChangedDuringRebuild();
+        }
+        catch (RuntimeException e) {
+            synchronized (rebuildLock) {
+                changedDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        searchIndex.markReady();
+        log.info("Search index built: {} books indexed in {} ms, {} changed meanwhile indexed again",
+                searchIndex.size(), (System.nanoTime() - start) / 1_000_000, reindexed);
+    }
+
+    /**
+     * Reads again the books changed while the catalog was read, until no more change comes in, then lets
+     * the changes be applied as they come.
+     *
+     * @return The number of books indexed again
+     */
+    private int reindexChangedDuringRebuild() {
+        int reindexed = 0;
+        while (true) {
+            Set<Long> changed;
+            synchronized (rebuildLock) {
+                changed = changedDuringRebuild;
+                if (changed.isEmpty()) {
+                    changedDuringRebuild = null;
+                    return reindexed;
+                }
+                changedDuringRebuild = new HashSet<>();
+            }
+
+            List<Long> bookIds = new ArrayList<>(changed);
+            for (int i = 0; i < bookIds.size(); i += REBUILD_BATCH_SIZE) {
+                List<Long> batch = bookIds.subList(i, Math.min(i + REBUILD_BATCH_SIZE, bookIds.size()));
+                Map<Long, Book> books = bookRepository.findAllForIndexingByBookIdIn(batch).stream()
+                        .collect(Collectors.toMap(Book::getBookId, Function.identity()));
+                for (Long bookId : batch) {
+                    Book book = books.get(bookId);
+                    if (book == null) {
+                        remove(bookId);
+                    }
+                    else {
+                        index(book);
+                    }
+                }
+            }
+            reindexed += bookIds.size();
+        }
+    }
+
+    private void index(Book book) {
+        searchIndex.index(book);
+        suggester.add(book);
+    }
+
+    private void remove(Long bookId) {
+        searchIndex.remove(bookId);
+        suggester.remove(bookId);
+    }
+
+}
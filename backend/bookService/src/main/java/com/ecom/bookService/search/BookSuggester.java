@@ -0,0 +1,341 @@
+package com.ecom.bookService.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.ecom.bookService.dto.BookSuggestion;
+import com.ecom.bookService.model.Book;
+
+/**
+ * In-memory autocomplete over the titles and authors of the catalog.
+ * <p>
+ * Normalized titles and authors are stored in a character trie. A query is matched as a prefix with a
+ * bounded edit distance (Levenshtein distance computed row by row while walking the trie), so that
+ * "hary pot" still suggests "Harry Potter and the Chamber of Secrets".
+ * <p>
+ * The suggester is kept in sync by {@link BookSearchIndexSynchronizer}.
+ */
+@Component
+public class BookSuggester {
+
+    private static final int MAX_CANDIDATES = 256;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node root = new Node();
+
+    private final Map<Long, List<Key>> keysByBook = new HashMap<>();
+
+    /**
+     * Adds the title and authors of a book, replacing those previously added for the same book.
+     *
+     * @param book A book
+     */
+    public void add(Book book) {
+        List<Key> keys = new ArrayList<>();
+        addKey(keys, BookSuggestion.Type.TITLE, book.getTitle());
+        if (book.getAuthor() != null) {
+            for (String author : book.getAuthor().split(";")) {
+                addKey(keys, BookSuggestion.Type.AUTHOR, author);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getBookId());
+            for (Key key : keys) {
+                insert(key, book.getBookId());
+            }
+            keysByBook.put(book.getBookId(), keys);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the title and authors of a book. Does nothing if the book is unknown.
+     *
+     * @param bookId The id of a book
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests titles and authors starting with the query, tolerating typos: none for queries of 1 or 2
+     * characters, one up to 5 characters and two beyond.
+     *
+     * @param query The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return The suggestions, the closest and most popular first
+     */
+    public List<BookSuggestion> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int maxEdits = normalized.length() <= 2 ? 0 : normalized.length() <= 5 ? 1 : 2;
+
+        lock.readLock().lock();
+        try {
+            List<Match> frontier = new ArrayList<>();
+            int[] firstRow = new int[normalized.length() + 1];
+            for (int i = 0; i < firstRow.length; i++) {
+                firstRow[i] = i;
+            }
+            for (int i = 0; i < root.size; i++) {
+                walk(root.children[i], root.keys[i], firstRow, normalized, maxEdits, frontier);
+            }
+
+            frontier.sort(Comparator.comparingInt(Match::distance));
+
+            Map<Entry, Integer> candidates = new LinkedHashMap<>();
+            for (Match match : frontier) {
+                collect(match, candidates);
+                if (candidates.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+            }
+
+            return candidates.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Entry, Integer>>comparingInt(Map.Entry::getValue)
+                            .thenComparingInt(e -> -e.getKey().bookIds.size())
+                            .thenComparingInt(e -> e.getKey().text.length()))
+                    .limit(limit)
+                    .map(e -> e.getKey().toSuggestion())
+                    .toList();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the next row of the Levenshtein matrix for the given letter, records the node if the query
+     * matches its path within the allowed edits, and goes deeper as long as a match is still possible.
+     */
+    private void walk(Node node, char letter, int[] previousRow, String query, int maxEdits, List<Match> frontier) {
+        int columns = query.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int insert = row[i - 1] + 1;
+            int delete = previousRow[i] + 1;
+            int replace = previousRow[i - 1] + (query.charAt(i - 1) == letter ? 0 : 1);
+            row[i] = Math.min(Math.min(insert, delete), replace);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[columns - 1];
+        if (distance <= maxEdits) {
+            frontier.add(new Match(node, distance));
+            if (distance == 0) {
+                return;
+            }
+        }
+
+        if (rowMin <= maxEdits) {
+            for (int i = 0; i < node.size; i++) {
+                walk(node.children[i], node.keys[i], row, query, maxEdits, frontier);
+            }
+        }
+    }
+
+    /**
+     * Collects the entries below a matching node, breadth first so that shorter texts come first.
+     */
+    private static void collect(Match match, Map<Entry, Integer> candidates) {
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(match.node());
+
+        while (!queue.isEmpty() && candidates.size() < MAX_CANDIDATES) {
+            Node node = queue.poll();
+            if (node.entries != null) {
+                for (Entry entry : node.entries) {
+                    candidates.putIfAbsent(entry, match.distance());
+                }
+            }
+            queue.addAll(Arrays.asList(node.children).subList(0, node.size));
+        }
+    }
+
+    private void insert(Key key, Long bookId) {
+        Node node = root;
+        for (int i = 0; i < key.normalized().length(); i++) {
+            node = node.childOrCreate(key.normalized().charAt(i));
+        }
+
+        if (node.entries == null) {
+            node.entries = new ArrayList<>(1);
+        }
+
+        Node terminal = node;
+        Entry entry = terminal.entries.stream()
+                .filter(e -> e.type == key.type())
+                .findFirst()
+                .orElseGet(() -> {
+                    Entry created = new Entry(key.type(), key.text());
+                    terminal.entries.add(created);
+                    return created;
+                });
+        entry.bookIds.add(bookId);
+    }
+
+    private void removeBook(Long bookId) {
+        List<Key> keys = keysByBook.remove(bookId);
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            remove(root, key, 0, bookId);
+        }
+    }
+
+    /**
+     * Removes the book from the entry of the key, then prunes the nodes left empty.
+     *
+     * @return true if the node is now empty and can be detached from its parent
+     */
+    private boolean remove(Node node, Key key, int depth, Long bookId) {
+        if (depth == key.normalized().length()) {
+            if (node.entries != null) {
+                node.entries.removeIf(entry -> entry.type == key.type()
+                        && entry.bookIds.remove(bookId)
+                        && entry.bookIds.isEmpty());
+                if (node.entries.isEmpty()) {
+                    node.entries = null;
+                }
+            }
+        }
+        else {
+            char letter = key.normalized().charAt(depth);
+            Node child = node.child(letter);
+            if (child != null && remove(child, key, depth + 1, bookId)) {
+                node.removeChild(letter);
+            }
+        }
+        return node != root && node.entries == null && node.size == 0;
+    }
+
+    private static void addKey(List<Key> keys, BookSuggestion.Type type, String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Key key = new Key(type, normalized, text.trim());
+        if (!keys.contains(key)) {
+            keys.add(key);
+        }
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", Stream.of(Tokenizer.normalize(text).trim().split("\\s+"))
+                .filter(s -> !s.isEmpty())
+                .toList());
+    }
+
+    private record Key(BookSuggestion.Type type, String normalized, String text) {
+    }
+
+    private record Match(Node node, int distance) {
+    }
+
+    private static final class Entry {
+
+        private final BookSuggestion.Type type;
+
+        private final String text;
+
+        private final Set<Long> bookIds = new HashSet<>(1);
+
+        private Entry(BookSuggestion.Type type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        private BookSuggestion toSuggestion() {
+            Long bookId = type == BookSuggestion.Type.TITLE && bookIds.size() == 1 ? bookIds.iterator().next() : null;
+            return new BookSuggestion(text, type, bookId, bookIds.size());
+        }
+
+    }
+
+    /**
+     * A trie node. Children are kept in two parallel arrays sorted by letter, which is much more compact
+     * than a map per node.
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private int size;
+
+        private List<Entry> entries;
+
+        private Node child(char letter) {
+            int index = Arrays.binarySearch(keys, 0, size, letter);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char letter) {
+            int index = Arrays.binarySearch(keys, 0, size, letter);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertAt = -index - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+
+            Node child = new Node();
+            keys[insertAt] = letter;
+            children[insertAt] = child;
+            size++;
+            return child;
+        }
+
+        private void removeChild(char letter) {
+            int index = Arrays.binarySearch(keys, 0, size, letter);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            size--;
+            children[size] = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.ecom.bookService.search;
+
+import java.util.List;
+
+/**
+ * The books matching a query and its filters, with the facet counts computed in the same pass.
+ * <p>
+ * Facets are disjunctive: the category counts ignore the category filter and the price counts ignore the
+ * price filter, so that the storefront can show how many books picking another category or price range
+ * would give.
+ *
+ * @param hits        The matching books, the most relevant first
+ * @param categories  The number of books per category, the most represented first
+ * @param priceCounts The number of books per price bucket, in the order of the bucket bounds
+ */
+public record FacetedHits(List<SearchHit> hits, List<CategoryCount> categories, long[] priceCounts) {
+
+    /**
+     * @param categoryId   The id of a category
+     * @param categoryName The name of the category
+     * @param count        The number of books of the category
+     */
+    public record CategoryCount(Long categoryId, String categoryName, long count) {
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.ecom.bookService.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.Category;
+
+/**
+ * The attributes of a book kept by the search index next to its posting lists, so that results can be
+ * filtered and sorted without going back to the database.
+ *
+ * @param bookId       The id of the book
+ * @param title        The title of the book
+ * @param categoryId   The id of the category of the book, may be null
+ * @param categoryName The name of the category of the book, may be null
+ * @param price        The price of the book, may be null
+ * @param createdAt    The creation date of the book, may be null
+ * @param length       The weighted number of terms of the book, used for BM25 length normalization
+ */
+public record IndexedBook(
+        Long bookId,
+        String title,
+        Long categoryId,
+        String categoryName,
+        BigDecimal price,
+        LocalDateTime createdAt,
+        float length
+) {
+
+    static IndexedBook of(Book book, float length) {
+        Category category = book.getCategory();
+        return new IndexedBook(
+                book.getBookId(),
+                book.getTitle(),
+                category != null ? category.getCategoryId() : null,
+                category != null ? category.getCategoryName() : null,
+                book.getPrice(),
+                book.getCreatedAt(),
+                length
+        );
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.ecom.bookService.search;
+
+/**
+ * A book matching a full-text query, with its relevance score.
+ *
+ * @param book  The indexed attributes of the matching book
+ * @param score The BM25 score of the book for the query, the higher the more relevant
+ */
+public record SearchHit(IndexedBook book, double score) {
+
+    public Long bookId() {
+        return book.bookId();
+    }
+
+}
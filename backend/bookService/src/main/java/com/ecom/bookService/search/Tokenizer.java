@@ -0,0 +1,76 @@
+package com.ecom.bookService.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits catalog text into normalized terms: lower-cased, accents removed, split on anything that is
+ * not a letter or a digit. Common english and french stop words are dropped.
+ */
+public final class Tokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "that", "the", "this", "to", "was", "with",
+            "au", "aux", "de", "des", "du", "en", "et", "la", "le", "les", "un", "une"
+    );
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Normalizes a text without splitting it: lower case and no diacritics.
+     *
+     * @param text A text, may be null
+     * @return The normalized text, or an empty string if the text is null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tokenizes a text into terms, in order of appearance (duplicates are kept).
+     *
+     * @param text A text, may be null
+     * @return The list of terms of the text
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String normalized = normalize(text);
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            }
+            else if (!wordChar && start >= 0) {
+                addToken(tokens, normalized.substring(start, i));
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (token.length() < 2 && !Character.isDigit(token.charAt(0))) {
+            return;
+        }
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        tokens.add(token);
+    }
+
+}
@@ -3,13 +3,19 @@ package com.ecom.bookService.service;
 import com.ecom.bookService.dto.BookDTO;
 import com.ecom.bookService.dto.BookFilter;
 import com.ecom.bookService.dto.BookStatsResponse;
+import com.ecom.bookService.dto.BookSuggestion;
+import com.ecom.bookService.dto.BookSummaryDTO;
 import com.ecom.bookService.dto.BulkBookValidationRequest;
 import com.ecom.bookService.dto.BulkBookValidationResponse;
 import com.ecom.bookService.dto.CreateBookRequest;
+import com.ecom.bookService.dto.FacetedBookPage;
+import com.ecom.bookService.dto.ListingView;
+import com.ecom.bookService.dto.CursorPage;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.model.CategoryName;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -19,9 +25,13 @@ public interface BookService {
     public List<Book> getAllBooks();
     public List<Book> getAllBooksByTitle(String title);
     public BookDTO getBookById(Long id);
-    public List<Book> getAllBooksByCategory(String categoryEnum);
+    public List<BookDTO> getAllBooksByCategory(String categoryEnum);
     Page<BookDTO> getPagedBooks(BookFilter filter, int page, int size);
+    Page<BookSummaryDTO> getPagedBookSummaries(BookFilter filter, int page, int size);
+    FacetedBookPage<?> facetedSearch(BookFilter filter, List<BigDecimal> priceBounds, int page, int size, ListingView view);
+    CursorPage<BookDTO> scrollBooks(BookFilter filter, String cursor, int size, boolean withTotal);
     BulkBookValidationResponse validateProducts(BulkBookValidationRequest request);
     Long createBook(CreateBookRequest request, MultipartFile image);
     BookStatsResponse getBookStats();
+    List<BookSuggestion> suggest(String query, int limit);
 }
@@ -1,34 +1,59 @@
 package com.ecom.bookService.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.ecom.bookService.cache.BookCatalogCache;
 import com.ecom.bookService.dto.BookDTO;
 import com.ecom.bookService.dto.BookFilter;
 import com.ecom.bookService.dto.BookStatsResponse;
+import com.ecom.bookService.dto.BookSuggestion;
+import com.ecom.bookService.dto.BookSummaryDTO;
+import com.ecom.bookService.dto.BookValidationView;
 import com.ecom.bookService.dto.BulkBookValidationRequest;
 import com.ecom.bookService.dto.BulkBookValidationResponse;
 import com.ecom.bookService.dto.CreateBookRequest;
+import com.ecom.bookService.dto.CursorPage;
+import com.ecom.bookService.dto.FacetedBookPage;
+import com.ecom.bookService.dto.ListingView;
+import com.ecom.bookService.dto.StockLevel;
 import com.ecom.bookService.dto.UpdateBookRequest;
+import com.ecom.bookService.event.CatalogChangedEvent;
 import com.ecom.bookService.mapper.BookMapper;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.model.BookInventory;
 import com.ecom.bookService.model.Category;
 import com.ecom.bookService.repository.BookRepository;
 import com.ecom.bookService.repository.CategoryRepository;
+import com.ecom.bookService.search.BookSearchIndex;
+import com.ecom.bookService.search.BookSuggester;
+import com.ecom.bookService.search.FacetedHits;
+import com.ecom.bookService.search.IndexedBook;
+import com.ecom.bookService.search.SearchHit;
 import com.ecom.bookService.util.BookSpecificationUtils;
+import com.ecom.bookService.util.KeysetCursor;
 import static java.util.Collections.emptySet;
 import lombok.RequiredArgsConstructor;
 
@@ -40,6 +65,16 @@ public class BookServiceImpl implements BookService {
     private final BookMapper bookMapper;
     private final ImageService imageService;
     private final CategoryRepository categoryRepository;
+    private final BookSearchIndex searchIndex;
+    private final BookSuggester suggester;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookCatalogCache catalogCache;
+
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("bookId"));
+
+    private static final Comparator<IndexedBook> KEYSET_ORDER = Comparator
+            .comparing(IndexedBook::createdAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(IndexedBook::bookId, Comparator.reverseOrder());
 
     public Long addBook(BookDTO bookDTO) {
 
@@ -48,7 +83,9 @@ public class BookServiceImpl implements BookService {
         if(bookRepository.existsById(book.getBookId())){
             throw new EntityExistsException("Book already exists");
         }
-        return bookRepository.save(book).getBookId();
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(CatalogChangedEvent.created(saved));
+        return saved.getBookId();
     }
 
     @Override
@@ -68,9 +105,9 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public BookDTO getBookById(Long id) {
-        return bookRepository.findById(id)
+        return catalogCache.getBook(id, bookId -> bookRepository.findById(bookId)
                 .map(bookMapper::mapToDTO)
-                .orElse(null);
+                .orElse(null));
     }
 
     @Transactional
@@ -92,20 +129,241 @@ public class BookServiceImpl implements BookService {
             book.setThumbnail(thumbnail);
         }
 
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(saved));
+        return saved;
     }
 
     @Override
-    public List<Book> getAllBooksByCategory(String categoryEnum) {
-        return bookRepository.findByCategory(categoryEnum);
+    public List<BookDTO> getAllBooksByCategory(String categoryEnum) {
+        List<Long> ids = catalogCache.getCategoryListing(categoryEnum, bookRepository::findIdsByCategory);
+        Map<Long, BookDTO> booksById = getCachedBooks(ids);
+
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Gets books through the catalog cache, loading all the missing ones with a single query.
+     */
+    private Map<Long, BookDTO> getCachedBooks(Collection<Long> ids) {
+        return catalogCache.getBooks(ids, missingIds -> bookRepository.findByBookIdIn(new ArrayList<>(missingIds))
+                .stream()
+                .collect(Collectors.toMap(Book::getBookId, bookMapper::mapToDTO)));
     }
 
     @Override
     public Page<BookDTO> getPagedBooks(BookFilter filter, int page, int size) {
+        if (filter.search() != null && !filter.search().isBlank() && searchIndex.isReady()) {
+            return searchPagedBooks(filter, PageRequest.of(page, size), this::loadBooks);
+        }
+
         return bookRepository.findAll(BookSpecificationUtils.filter(filter), PageRequest.of(page, size))
                 .map(bookMapper::mapToDTO);
     }
 
+    /**
+     * Same as {@link #getPagedBooks} but only reads the attributes displayed by list pages, projected straight
+     * into DTOs with a single join instead of loading the books with their summary and category.
+     */
+    @Override
+    public Page<BookSummaryDTO> getPagedBookSummaries(BookFilter filter, int page, int size) {
+        if (filter.search() != null && !filter.search().isBlank() && searchIndex.isReady()) {
+            return searchPagedBooks(filter, PageRequest.of(page, size), this::loadSummaries);
+        }
+
+        return bookRepository.findSummaries(BookSpecificationUtils.filter(filter), PageRequest.of(page, size));
+    }
+
+    /**
+     * Full-text search through the in-memory index: the index ranks and filters the matching books, then only
+     * the books of the requested page are loaded from the database.
+     */
+    private <T> Page<T> searchPagedBooks(BookFilter filter, PageRequest pageRequest, Function<List<Long>, Map<Long, T>> loader) {
+        List<SearchHit> hits = new ArrayList<>(searchIndex.search(filter.search(), book -> matches(book, filter)));
+
+        if (filter.sortBy() != null) {
+            hits.sort(searchOrder(filter.sortBy(), filter.direction()));
+        }
+
+        return pageOf(hits, pageRequest, loader);
+    }
+
+    /**
+     * Faceted search through the in-memory index: the matching books, the category counts and the price
+     * histogram are computed in a single pass over the index, whatever the number of facets. Only the books of
+     * the requested page are then loaded from the database.
+     * <p>
+     * Until the index is built, the page is read from the database and the facets are left empty.
+     */
+    @Override
+    public FacetedBookPage<?> facetedSearch(BookFilter filter, List<BigDecimal> priceBounds, int page, int size, ListingView view) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        boolean summary = view == ListingView.SUMMARY;
+
+        if (!searchIndex.isReady()) {
+            Page<?> books = summary ? getPagedBookSummaries(filter, page, size) : getPagedBooks(filter, page, size);
+            return new FacetedBookPage<>(books, List.of(), List.of());
+        }
+
+        List<BigDecimal> bounds = priceBounds.stream().distinct().sorted().toList();
+        FacetedHits facets = searchIndex.facetedSearch(
+                filter.search(),
+                book -> filter.categoryId() == null || filter.categoryId().equals(book.categoryId()),
+                book -> matchesPrice(book, filter),
+                bounds
+        );
+
+        List<SearchHit> hits = new ArrayList<>(facets.hits());
+        boolean relevance = filter.search() != null && !filter.search().isBlank();
+        if (filter.sortBy() != null || !relevance) {
+            hits.sort(searchOrder(
+                    Objects.requireNonNullElse(filter.sortBy(), BookFilter.BookSortBy.PUBLISH_DATE),
+                    filter.direction()
+            ));
+        }
+
+        Page<?> books = summary
+                ? pageOf(hits, pageRequest, this::loadSummaries)
+                : pageOf(hits, pageRequest, this::loadBooks);
+
+        List<FacetedBookPage.CategoryFacet> categories = facets.categories().stream()
+                .map(c -> new FacetedBookPage.CategoryFacet(c.categoryId(), c.categoryName(), c.count()))
+                .toList();
+
+        List<FacetedBookPage.PriceBucket> priceBuckets = new ArrayList<>();
+        for (int i = 0; i < facets.priceCounts().length; i++) {
+            BigDecimal from = i == 0 ? BigDecimal.ZERO : bounds.get(i - 1);
+            BigDecimal to = i < bounds.size() ? bounds.get(i) : null;
+            priceBuckets.add(new FacetedBookPage.PriceBucket(from, to, facets.priceCounts()[i]));
+        }
+
+        return new FacetedBookPage<>(books, categories, priceBuckets);
+    }
+
+    private Map<Long, BookDTO> loadBooks(List<Long> ids) {
+        return bookRepository.findByBookIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getBookId, bookMapper::mapToDTO));
+    }
+
+    private Map<Long, BookSummaryDTO> loadSummaries(List<Long> ids) {
+        return bookRepository.findSummariesByBookIdIn(ids).stream()
+                .collect(Collectors.toMap(BookSummaryDTO::id, Function.identity()));
+    }
+
+    /**
+     * Loads the books of the requested page of hits, in the order of the hits.
+     */
+    private static <T> Page<T> pageOf(List<SearchHit> hits, PageRequest pageRequest, Function<List<Long>, Map<Long, T>> loader) {
+        int from = (int) Math.min(pageRequest.getOffset(), hits.size());
+        int to = Math.min(from + pageRequest.getPageSize(), hits.size());
+        List<Long> pageIds = hits.subList(from, to).stream()
+                .map(SearchHit::bookId)
+                .toList();
+
+        Map<Long, T> booksById = loader.apply(pageIds);
+
+        List<T> content = pageIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new PageImpl<>(content, pageRequest, hits.size());
+    }
+
+    /**
+     * Keyset pagination: seeks past the cursor on the (createdAt, bookId) index instead of skipping rows, so
+     * every page costs the same whatever its depth. The total is only counted when asked for.
+     */
+    @Override
+    public CursorPage<BookDTO> scrollBooks(BookFilter filter, String cursor, int size, boolean withTotal) {
+        KeysetCursor position = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+
+        if (filter.search() != null && !filter.search().isBlank() && searchIndex.isReady()) {
+            return searchScrollBooks(filter, position, size, withTotal);
+        }
+
+        Specification<Book> specification = BookSpecificationUtils.keysetFilter(filter, position);
+        List<Book> books = bookRepository.findBy(specification, query -> query
+                .sortBy(KEYSET_SORT)
+                .limit(size + 1)
+                .all());
+
+        Long total = withTotal ? bookRepository.count(BookSpecificationUtils.keysetFilter(filter, null)) : null;
+        return toCursorPage(books, size, total);
+    }
+
+    private CursorPage<BookDTO> searchScrollBooks(BookFilter filter, KeysetCursor position, int size, boolean withTotal) {
+        // decoded before searching, so that a malformed cursor is rejected even when nothing matches
+        Long afterBookId = position == null ? null : position.longId();
+        List<SearchHit> hits = searchIndex.search(filter.search(), book -> matches(book, filter));
+
+        List<Long> pageIds = hits.stream()
+                .map(SearchHit::book)
+                .filter(book -> position == null || isAfter(book, position.createdAt(), afterBookId))
+                .sorted(KEYSET_ORDER)
+                .limit(size + 1L)
+                .map(IndexedBook::bookId)
+                .toList();
+
+        Map<Long, Book> booksById = bookRepository.findByBookIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Book::getBookId, Function.identity()));
+
+        List<Book> books = pageIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return toCursorPage(books, size, withTotal ? (long) hits.size() : null);
+    }
+
+    private CursorPage<BookDTO> toCursorPage(List<Book> books, int size, Long total) {
+        boolean hasNext = books.size() > size;
+        List<Book> content = hasNext ? books.subList(0, size) : books;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Book last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), String.valueOf(last.getBookId())).encode();
+        }
+
+        return new CursorPage<>(content.stream().map(bookMapper::mapToDTO).toList(), nextCursor, hasNext, total);
+    }
+
+    private static boolean isAfter(IndexedBook book, LocalDateTime createdAt, Long bookId) {
+        if (book.createdAt() == null) {
+            return false;
+        }
+        int comparison = book.createdAt().compareTo(createdAt);
+        return comparison < 0 || (comparison == 0 && book.bookId() < bookId);
+    }
+
+    private static boolean matches(IndexedBook book, BookFilter filter) {
+        if (filter.categoryId() != null && !filter.categoryId().equals(book.categoryId())) {
+            return false;
+        }
+        return matchesPrice(book, filter);
+    }
+
+    private static boolean matchesPrice(IndexedBook book, BookFilter filter) {
+        if (filter.minPrice() != null && (book.price() == null || book.price().compareTo(filter.minPrice()) < 0)) {
+            return false;
+        }
+        return filter.maxPrice() == null || (book.price() != null && book.price().compareTo(filter.maxPrice()) <= 0);
+    }
+
+    private static Comparator<SearchHit> searchOrder(BookFilter.BookSortBy sortBy, Sort.Direction direction) {
+        Comparator<SearchHit> order = switch (sortBy) {
+            case TITLE -> Comparator.comparing(hit -> hit.book().title(),
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+            case PUBLISH_DATE -> Comparator.comparing(hit -> hit.book().createdAt(),
+                    Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()));
+        };
+        return Sort.Direction.ASC == direction ? order : order.reversed();
+    }
+
     @Override
     public BulkBookValidationResponse validateProducts(BulkBookValidationRequest request) {
         Map<Long, Integer> booksIdsQuantities = request.items().stream()
@@ -116,11 +374,12 @@ public class BookServiceImpl implements BookService {
 
         List<Long> ids = new ArrayList<>(booksIdsQuantities.keySet());
 
-        List<Book> books = bookRepository.findByBookIdIn(ids);
+        // the prices are those the order will charge: read with the stock from the database, never from the cache
+        Map<Long, BookValidationView> books = bookRepository.findValidationViewsByBookIdIn(ids).stream()
+                .collect(Collectors.toMap(BookValidationView::bookId, Function.identity()));
 
-        Set<Long> foundIds = books.stream().map(Book::getBookId).collect(Collectors.toSet());
         Set<Long> missingIds = ids.size() != books.size()
-                ? ids.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toSet())
+                ? ids.stream().filter(id -> !books.containsKey(id)).collect(Collectors.toSet())
                 : emptySet();
 
         List<BulkBookValidationResponse.BookValidationResult> results = new ArrayList<>();
@@ -134,17 +393,18 @@ public class BookServiceImpl implements BookService {
 
         boolean valid = missingIds.isEmpty();
 
-        for (Book book : books) {
-            int quantityRequested = booksIdsQuantities.get(book.getBookId());
-            valid = valid && book.getInventory().canReserve(booksIdsQuantities.get(book.getBookId()));
+        for (BookValidationView book : books.values()) {
+            int quantityRequested = booksIdsQuantities.get(book.bookId());
+            StockLevel stockLevel = book.stockLevel();
+            valid = valid && stockLevel.canReserve(quantityRequested);
             results.add(BulkBookValidationResponse.BookValidationResult.builder()
-                    .bookId(book.getBookId())
-                    .title(book.getTitle())
-                    .image(book.getThumbnail())
+                    .bookId(book.bookId())
+                    .title(book.title())
+                    .image(book.thumbnail())
                     .exists(true)
                     .requestedQuantity(quantityRequested)
-                    .availableQuantity(book.getInventory().getAvailableQuantity() - book.getInventory().getReservedQuantity())
-                    .price(book.getPrice())
+                    .availableQuantity(stockLevel.free())
+                    .price(book.price())
                     .build());
         }
 
@@ -157,6 +417,7 @@ public class BookServiceImpl implements BookService {
     @Transactional
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(id));
     }
 
     @Override
@@ -196,6 +457,7 @@ public class BookServiceImpl implements BookService {
         inventory.setBook(book);
 
         Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(CatalogChangedEvent.created(saved));
 
         return saved.getBookId();
     }
@@ -208,4 +470,9 @@ public class BookServiceImpl implements BookService {
         return stats;
     }
 
+    @Override
+    public List<BookSuggestion> suggest(String query, int limit) {
+        return suggester.suggest(query, limit);
+    }
+
 }
@@ -0,0 +1,236 @@
+package com.ecom.bookService.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ecom.bookService.dto.ImportJobDTO;
+import com.ecom.bookService.exception.EntityNotFoundException;
+import com.ecom.bookService.exception.ImportQueueFullException;
+import com.ecom.bookService.reader.BookImportPipeline;
+import com.ecom.bookService.reader.CatalogImportProperties;
+import com.ecom.bookService.reader.ImportJob;
+import com.ecom.bookService.reader.ImportMode;
+import com.ecom.bookService.reader.ImportReport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs catalog imports as background jobs on a bounded executor, so that neither an upload request nor
+ * the startup of the service waits for an import to finish. Jobs are kept in memory to be followed.
+ */
+@Service
+@Slf4j
+public class CatalogImportService {
+
+    private final BookImportPipeline importPipeline;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int retainedJobs;
+
+    private final Map<UUID, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public CatalogImportService(BookImportPipeline importPipeline, CatalogImportProperties properties) {
+        CatalogImportProperties.Jobs settings = properties.jobs();
+        this.importPipeline = importPipeline;
+        this.retainedJobs = settings.retained();
+        this.executor = new ThreadPoolExecutor(settings.concurrency(), settings.concurrency(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                new CustomizableThreadFactory("catalog-import-"));
+    }
+
+    /**
+     * Queues the import of an uploaded CSV file. The file is first copied to a temporary file, deleted once
+     * the import is over.
+     *
+     * @param file The uploaded CSV file
+     * @param mode How the file is applied to the catalog
+     * @return The queued job
+     * @throws ImportQueueFullException if too many imports are already waiting
+     */
+    public ImportJobDTO submitUpload(MultipartFile file, ImportMode mode) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("The uploaded file is empty");
+        }
+
+        Path copy;
+        try {
+            copy = Files.createTempFile("catalog-import-", ".csv");
+            file.transferTo(copy);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not store the uploaded catalog", e);
+        }
+
+        return submit(file.getOriginalFilename(), new FileSystemResource(copy), mode, () -> deleteQuietly(copy));
+    }
+
+    /**
+     * Queues the import of a CSV file.
+     *
+     * @param fileName The name of the file, for display only
+     * @param source   Opens the file when the job starts
+     * @param mode     How the file is applied to the catalog
+     * @return The queued job
+     * @throws ImportQueueFullException if too many imports are already waiting
+     */
+    public ImportJobDTO submit(String fileName, InputStreamSource source, ImportMode mode) {
+        return submit(fileName, source, mode, () -> {});
+    }
+
+    /**
+     * @param id The id of a job
+     * @return The status and progress of the job
+     * @throws EntityNotFoundException if the job is unknown or has been forgotten
+     */
+    public ImportJobDTO getJob(UUID id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Import job not found");
+        }
+        return ImportJobDTO.of(job);
+    }
+
+    /**
+     * @return The known jobs, the most recent first
+     */
+    public List<ImportJobDTO> getJobs() {
+        List<ImportJob> snapshot;
+        synchronized (jobs) {
+            snapshot = new ArrayList<>(jobs.values());
+        }
+        Collections.reverse(snapshot);
+        return snapshot.stream().map(ImportJobDTO::of).toList();
+    }
+
+    /**
+     * Stops the running imports and cancels the queued ones, which would otherwise be reported as queued
+     * until the service stops.
+     */
+    @PreDestroy
+    void shutdown() {
+        for (Runnable task : executor.shutdownNow()) {
+            if (task instanceof QueuedImport queued) {
+                queued.cancel();
+            }
+        }
+    }
+
+    private ImportJobDTO submit(String fileName, InputStreamSource source, ImportMode mode, Runnable cleanup) {
+        ImportJob job = new ImportJob(fileName, mode);
+        retain(job);
+        try {
+            executor.execute(new QueuedImport(job, source, cleanup));
+        }
+        catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            cleanup.run();
+            throw new ImportQueueFullException("Too many catalog imports in progress, try again later");
+        }
+        return ImportJobDTO.of(job);
+    }
+
+    private void run(ImportJob job, InputStreamSource source, Runnable cleanup) {
+        job.start();
+        log.info("Catalog import {} of {} started in {} mode", job.getId(), job.getFileName(), job.getMode());
+        try (InputStream input = source.getInputStream()) {
+            ImportReport report = importPipeline.importCsv(input, job.getMode(), job.getProgress());
+            job.complete(report);
+            logReport(job, report);
+        }
+        catch (Exception e) {
+            log.error("Catalog import {} of {} failed", job.getId(), job.getFileName(), e);
+            job.fail(e.getMessage());
+        }
+        finally {
+            cleanup.run();
+        }
+    }
+
+    /**
+     * A job waiting in the queue of the executor, kept as such to be cancelled if it never runs.
+     */
+    private final class QueuedImport implements Runnable {
+
+        private final ImportJob job;
+        private final InputStreamSource source;
+        private final Runnable cleanup;
+
+        private QueuedImport(ImportJob job, InputStreamSource source, Runnable cleanup) {
+            this.job = job;
+            this.source = source;
+            this.cleanup = cleanup;
+        }
+
+        @Override
+        public void run() {
+            CatalogImportService.this.run(job, source, cleanup);
+        }
+
+        private void cancel() {
+            log.warn("Catalog import {} of {} cancelled before it started", job.getId(), job.getFileName());
+            job.cancel();
+            cleanup.run();
+        }
+
+    }
+
+    /**
+     * Registers the job, forgetting the oldest finished jobs beyond the retention limit.
+     */
+    private void retain(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<ImportJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    private static void logReport(ImportJob job, ImportReport report) {
+        log.info("Catalog import {} of {} records in {} ms ({} records/s): {} inserted, {} updated, {} unchanged, "
+                        + "{} removed, {} rejected, {} duplicates, {} failed",
+                job.getId(), report.parsed(), report.elapsed().toMillis(), Math.round(report.recordsPerSecond()),
+                report.inserted(), report.updated(), report.unchanged(), report.removed(),
+                report.rejected(), report.duplicates(), report.failed());
+        report.stages().forEach(stage -> log.info("Catalog import {} stage {}", job.getId(), stage));
+        if (!report.errors().isEmpty()) {
+            log.warn("Catalog import {} first errors: {}", job.getId(), report.errors());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn("Could not delete the temporary catalog file {}", file, e);
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ public class ImageService {
     private String apiKey;
 
     private static final String IMGBB_API_URL = "https://api.imgbb.com/1/upload";
+    private static final long MAX_IMAGE_SIZE = 10 * 1024 * 1024; // the multipart limit is raised for catalog imports
     private final RestTemplate restTemplate = new RestTemplate();
 
     /**
@@ -39,6 +40,10 @@ public class ImageService {
             throw new ImageUploadFailedException("File is not an image");
         }
 
+        if (file.getSize() > MAX_IMAGE_SIZE) {
+            throw new ImageUploadFailedException("Image is larger than 10MB");
+        }
+
         try {
             String base64Image = Base64.getEncoder().encodeToString(file.getBytes());
 
@@ -3,14 +3,23 @@ package com.ecom.bookService.service;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -21,24 +30,35 @@ import org.springframework.stereotype.Service;
 import com.ecom.bookService.dto.BookDTO;
 import com.ecom.bookService.dto.BookFilter;
 import com.ecom.bookService.dto.CreateInvetoryExistedBookDto;
+import com.ecom.bookService.dto.ExpiredReservations;
 import com.ecom.bookService.dto.InventaireDto;
 import com.ecom.bookService.dto.InventaireResponseDto;
+import com.ecom.bookService.dto.InventorySummaryDTO;
 import com.ecom.bookService.dto.InverntoryCreationDto;
 import com.ecom.bookService.dto.ReservationResult;
+import com.ecom.bookService.dto.ReserveStockRequest;
+import com.ecom.bookService.dto.StockLevel;
+import com.ecom.bookService.dto.StockMovementDTO;
 import com.ecom.bookService.dto.UpdateBookQuantityRequest;
+import com.ecom.bookService.event.InventoryEvent;
+import com.ecom.bookService.event.StockChangedEvent;
 import com.ecom.bookService.exception.EntityNotFoundException;
 import com.ecom.bookService.exception.InsufficientStockException;
+import com.ecom.bookService.ledger.StockLedger;
 import com.ecom.bookService.mapper.BookInvetoryMapper;
 import com.ecom.bookService.mapper.BookMapper;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.model.BookInventory;
 import com.ecom.bookService.model.ReservationStatus;
 import com.ecom.bookService.model.StockReservation;
+import com.ecom.bookService.model.StockMovement;
 import com.ecom.bookService.model.StockReservationItem;
+import com.ecom.bookService.outbox.InventoryOutbox;
 import com.ecom.bookService.repository.BookInventoryRepository;
 import com.ecom.bookService.repository.BookRepository;
 import com.ecom.bookService.repository.StockReservationItemRepository;
 import com.ecom.bookService.repository.StockReservationRepository;
+import com.ecom.bookService.stock.HotStockEngine;
 import com.ecom.bookService.util.BookSpecificationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,7 +69,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class InventoryService {
 
-    private static final Duration RESERVATION_DURATION_EXPIRE = Duration.ofHours(24);
+    private static final Duration DEFAULT_RESERVATION_TTL = Duration.ofHours(24);
 
     private final StockReservationRepository stockReservationRepository;
 
@@ -61,22 +81,52 @@ public class InventoryService {
 
     private final BookServiceImpl bookServiceImpl;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final HotStockEngine hotStock;
+
+    private final InventoryOutbox outbox;
+
+    private final StockLedger ledger;
+
     private BookMapper bookMapper;
 
+    @Value("${inventory.reservation.mode:OPTIMISTIC}")
+    private ReservationMode reservationMode;
+
+    @Value("${inventory.reservation.ttl:24h}")
+    private Duration reservationTtl = DEFAULT_RESERVATION_TTL;
+
     @Retryable(retryFor = ObjectOptimisticLockingFailureException.class, backoff = @Backoff(delay = 100))
     public ReservationResult reserveStock(String orderId, Map<Long, Integer> products) {
+        return reserveStock(orderId, products, reservationMode);
+    }
+
+    /**
+     * Reserves stock for an order with the given strategy.
+     *
+     * @param orderId  The id of the order
+     * @param products The quantity to reserve per book id
+     * @param mode     How to reserve, optimistic locking when null
+     * @return The outcome of the reservation
+     */
+    @Retryable(retryFor = ObjectOptimisticLockingFailureException.class, backoff = @Backoff(delay = 100))
+    public ReservationResult reserveStock(String orderId, Map<Long, Integer> products, ReservationMode mode) {
+        if (mode == ReservationMode.ATOMIC) {
+            return reserveStockAtomically(orderId, products);
+        }
+        return reserveStockOptimistically(orderId, products);
+    }
+
+    private ReservationResult reserveStockOptimistically(String orderId, Map<Long, Integer> products) {
         log.info("Reserving stock - order: {}, products: {}", orderId, products);
 
         try {
-            List<Book> books = bookRepository.findByBookIdIn(new ArrayList<>(products.keySet()));
-
-            if (books.size() != products.size()) {
-                List<Long> bookIds = books.stream()
-                        .map(Book::getBookId)
-                        .toList();
+            Map<Long, BookInventory> inventories = inventoriesOf(products.keySet());
 
+            if (inventories.size() != products.size()) {
                 List<Long> notFound = products.keySet().stream()
-                        .filter(bookIds::contains)
+                        .filter(bookId -> !inventories.containsKey(bookId))
                         .toList();
 
                 ReservationResult result = ReservationResult.productNotFound(notFound);
@@ -84,8 +134,8 @@ public class InventoryService {
                 return result;
             }
 
-            boolean canReserve = books.stream()
-                    .allMatch(book -> book.getInventory().canReserve(products.get(book.getBookId())));
+            boolean canReserve = inventories.entrySet().stream()
+                    .allMatch(entry -> entry.getValue().canReserve(products.get(entry.getKey())));
 
             if (!canReserve) {
                 ReservationResult result = ReservationResult.failed(orderId, null, "no quantity !");
@@ -99,32 +149,30 @@ public class InventoryService {
                 return ReservationResult.alreadyReserved(existingReservation.get().getId());
             }
 
-            for (Book book : books) {
-                Integer quantity = products.get(book.getBookId());
-                book.getInventory().reserve(quantity);
-            }
+            inventories.forEach((bookId, inventory) -> inventory.reserve(products.get(bookId)));
 
-            var savedBooks = bookRepository.saveAll(books);
+            bookInventoryRepository.saveAll(inventories.values());
 
             StockReservation reservation = StockReservation.builder()
                     .orderId(orderId)
                     .status(ReservationStatus.RESERVED)
-                    .expiresAt(Instant.now().plus(RESERVATION_DURATION_EXPIRE))
+                    .expiresAt(Instant.now().plus(reservationTtl))
                     .build();
 
             StockReservation savedReservation = stockReservationRepository.save(reservation);
 
-            List<StockReservationItem> reservationItems = savedBooks.stream()
-                    .map(book -> StockReservationItem.builder()
-                            .book(book)
-                            .reservedQuantity(products.get(book.getBookId()))
+            List<StockReservationItem> reservationItems = inventories.keySet().stream()
+                    .map(bookId -> StockReservationItem.builder()
+                            .book(bookRepository.getReferenceById(bookId))
+                            .reservedQuantity(products.get(bookId))
                             .reservation(savedReservation)
                             .build())
                     .toList();
 
             stockReservationItemRepository.saveAll(reservationItems);
-
-            // TODO publish {new StockReserved(orderId, products)}
+            inventories.keySet().forEach(this::publishStockChanged);
+            outbox.record(InventoryEvent.Type.STOCK_RESERVED, orderId, savedReservation.getId(), products);
+            ledger.record(StockMovement.Type.RESERVE, orderId, products);
 
             ReservationResult result = ReservationResult.success(savedReservation.getId());
             log.info("Stock has been reserved successfully : {}", result);
@@ -135,29 +183,266 @@ public class InventoryService {
         }
     }
 
+    /**
+     * Reserves every book with a conditional update, in book id order so that two multi-item orders always
+     * lock their rows in the same order and cannot deadlock. If a book cannot be reserved, the books already
+     * reserved by this call are given back.
+     */
+    private ReservationResult reserveStockAtomically(String orderId, Map<Long, Integer> products) {
+        log.info("Reserving stock atomically - order: {}, products: {}", orderId, products);
+
+        List<Long> invalid = products.entrySet().stream()
+                .filter(entry -> entry.getValue() == null || entry.getValue() <= 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!invalid.isEmpty()) {
+            return ReservationResult.invalidQuantity(invalid);
+        }
+
+        Optional<StockReservation> existingReservation = stockReservationRepository.findByOrderId(orderId);
+        if (existingReservation.isPresent()) {
+            return ReservationResult.alreadyReserved(existingReservation.get().getId());
+        }
+
+        List<Long> bookIds = products.keySet().stream()
+                .sorted()
+                .toList();
+
+        Map<Long, StockHold> holds = new LinkedHashMap<>();
+        for (Long bookId : bookIds) {
+            int quantity = products.get(bookId);
+            StockHold hold = holdStock(bookId, quantity);
+            if (hold == StockHold.NONE) {
+                holds.forEach((id, reserved) -> releaseHold(id, products.get(id), reserved));
+
+                ReservationResult result = bookInventoryRepository.existsByBookBookId(bookId)
+                        ? ReservationResult.insufficientStock(null, Map.of(String.valueOf(bookId), quantity))
+                        : ReservationResult.productNotFound(List.of(bookId));
+                log.info("Stock Reservation Failed : {}", result);
+                return result;
+            }
+            holds.put(bookId, hold);
+        }
+
+        StockReservation savedReservation = stockReservationRepository.save(StockReservation.builder()
+                .orderId(orderId)
+                .status(ReservationStatus.RESERVED)
+                .expiresAt(Instant.now().plus(reservationTtl))
+                .build());
+
+        List<StockReservationItem> reservationItems = bookIds.stream()
+                .map(bookId -> StockReservationItem.builder()
+                        .book(bookRepository.getReferenceById(bookId))
+                        .reservedQuantity(products.get(bookId))
+                        .reservation(savedReservation)
+                        .build())
+                .toList();
+
+        stockReservationItemRepository.saveAll(reservationItems);
+        outbox.record(InventoryEvent.Type.STOCK_RESERVED, orderId, savedReservation.getId(), products);
+        ledger.record(StockMovement.Type.RESERVE, orderId, products);
+        // the stock held in memory is published once written to the database
+        holds.forEach((bookId, hold) -> {
+            if (hold == StockHold.DATABASE) {
+                publishStockChanged(bookId);
+            }
+        });
+
+        ReservationResult result = ReservationResult.success(savedReservation.getId());
+        log.info("Stock has been reserved successfully : {}", result);
+        return result;
+    }
+
+    /**
+     * Reserves a book in memory when it is hot, in the database otherwise.
+     */
+    private StockHold holdStock(Long bookId, int quantity) {
+        while (true) {
+            HotStockEngine.Outcome outcome = hotStock.tryReserve(bookId, quantity);
+            if (outcome == HotStockEngine.Outcome.RESERVED) {
+                return StockHold.MEMORY;
+            }
+            if (outcome == HotStockEngine.Outcome.INSUFFICIENT_STOCK) {
+                return StockHold.NONE;
+            }
+
+            long start = System.nanoTime();
+            int updated = bookInventoryRepository.reserveIfAvailable(bookId, quantity);
+            hotStock.recordReservation(bookId, System.nanoTime() - start);
+            if (updated == 0) {
+                return StockHold.NONE;
+            }
+            if (!hotStock.isHot(bookId)) {
+                return StockHold.DATABASE;
+            }
+            // promoted while waiting for the row lock: the stock loaded in memory does not count this reservation
+            bookInventoryRepository.releaseReserved(bookId, quantity);
+        }
+    }
+
+    private void releaseHold(Long bookId, int quantity, StockHold hold) {
+        if (hold != StockHold.MEMORY || !hotStock.release(bookId, quantity)) {
+            bookInventoryRepository.releaseReserved(bookId, quantity);
+        }
+    }
+
+    /**
+     * Reserves stock for several orders at once. The inventories of every book involved are locked together,
+     * in book id order, then each order is decided in turn against that snapshot, so that a batch takes one
+     * round of row locks and one commit however many orders it holds. An order that cannot be reserved in
+     * full leaves the others unaffected.
+     *
+     * @param requests The orders to reserve, at most one per order id
+     * @return The outcome of every order, in the order of the requests
+     */
+    public List<ReservationResult> reserveStockBatch(List<ReserveStockRequest> requests) {
+        log.info("Reserving stock for a batch of {} orders", requests.size());
+
+        Map<String, Long> existingReservations = stockReservationRepository.findByOrderIdIn(
+                        requests.stream().map(ReserveStockRequest::orderId).toList()).stream()
+                .collect(Collectors.toMap(StockReservation::getOrderId, StockReservation::getId, (first, other) -> first));
+
+        List<Long> bookIds = requests.stream()
+                .flatMap(request -> request.items().keySet().stream())
+                .distinct()
+                .sorted()
+                .toList();
+        Map<Long, BookInventory> inventories = bookInventoryRepository.findAllByBookIdsForUpdate(bookIds).stream()
+                .collect(Collectors.toMap(inventory -> inventory.getBook().getBookId(), Function.identity()));
+
+        List<ReservationResult> results = new ArrayList<>(requests.size());
+        List<StockReservationItem> reservationItems = new ArrayList<>();
+        Set<Long> changedBooks = new TreeSet<>();
+        Set<String> batchOrderIds = new HashSet<>();
+        int reserved = 0;
+        for (ReserveStockRequest request : requests) {
+            String orderId = request.orderId();
+            Map<Long, Integer> products = request.items();
+
+            Long existingId = existingReservations.get(orderId);
+            if (existingId != null || !batchOrderIds.add(orderId)) {
+                results.add(ReservationResult.alreadyReserved(existingId).withOrderId(orderId));
+                continue;
+            }
+
+            Map<Long, StockHold> holds = new LinkedHashMap<>();
+            ReservationResult rejection = holdSnapshotStock(products, inventories, holds);
+            if (rejection != null) {
+                log.info("Stock Reservation Failed - order: {}, result: {}", orderId, rejection);
+                results.add(rejection.withOrderId(orderId));
+                continue;
+            }
+
+            StockReservation savedReservation = stockReservationRepository.save(StockReservation.builder()
+                    .orderId(orderId)
+                    .status(ReservationStatus.RESERVED)
+                    .expiresAt(Instant.now().plus(reservationTtl))
+                    .build());
+            holds.forEach((bookId, hold) -> {
+                reservationItems.add(StockReservationItem.builder()
+                        .book(bookRepository.getReferenceById(bookId))
+                        .reservedQuantity(products.get(bookId))
+                        .reservation(savedReservation)
+                        .build());
+                if (hold == StockHold.DATABASE) {
+                    changedBooks.add(bookId);
+                }
+            });
+            outbox.record(InventoryEvent.Type.STOCK_RESERVED, orderId, savedReservation.getId(), products);
+            ledger.record(StockMovement.Type.RESERVE, orderId, products);
+            results.add(ReservationResult.success(orderId, savedReservation.getId()));
+            reserved++;
+        }
+
+        // the locked inventories are written once, when the batch commits
+        stockReservationItemRepository.saveAll(reservationItems);
+        changedBooks.forEach(this::publishStockChanged);
+
+        log.info("Stock reserved for {} of {} orders in the batch", reserved, requests.size());
+        return results;
+    }
+
+    /**
+     * Reserves every book of an order against the locked inventories, or none of them.
+     *
+     * @param holds Filled with where the stock of each book has been reserved
+     * @return Why the order has been rejected, null if it has been reserved
+     */
+    private ReservationResult holdSnapshotStock(Map<Long, Integer> products, Map<Long, BookInventory> inventories,
+                                                Map<Long, StockHold> holds) {
+        List<Long> invalid = products.entrySet().stream()
+                .filter(entry -> entry.getValue() == null || entry.getValue() <= 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!invalid.isEmpty()) {
+            return ReservationResult.invalidQuantity(invalid);
+        }
+
+        List<Long> notFound = products.keySet().stream()
+                .filter(bookId -> !inventories.containsKey(bookId))
+                .toList();
+        if (!notFound.isEmpty()) {
+            return ReservationResult.productNotFound(notFound);
+        }
+
+        for (Long bookId : products.keySet().stream().sorted().toList()) {
+            int quantity = products.get(bookId);
+            BookInventory inventory = inventories.get(bookId);
+            // the row being locked, the book cannot be promoted before the batch commits
+            HotStockEngine.Outcome outcome = hotStock.tryReserve(bookId, quantity);
+            if (outcome == HotStockEngine.Outcome.RESERVED) {
+                holds.put(bookId, StockHold.MEMORY);
+            }
+            else if (outcome == HotStockEngine.Outcome.NOT_HOT && inventory.canReserve(quantity)) {
+                inventory.reserve(quantity);
+                holds.put(bookId, StockHold.DATABASE);
+            }
+            else {
+                holds.forEach((id, hold) -> releaseSnapshotHold(id, products.get(id), inventories.get(id), hold));
+                holds.clear();
+                return ReservationResult.insufficientStock(null, Map.of(String.valueOf(bookId), quantity));
+            }
+        }
+        return null;
+    }
+
+    private void releaseSnapshotHold(Long bookId, int quantity, BookInventory inventory, StockHold hold) {
+        if (hold == StockHold.DATABASE) {
+            inventory.cancelReservation(quantity);
+        }
+        else if (!hotStock.release(bookId, quantity)) {
+            // demoted meanwhile: its reservation is written as a relative change once the batch unlocks the
+            // row, so taking the quantity off the locked row keeps the sum right
+            inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
+        }
+    }
+
     public void confirmReservation(String orderId) {
         log.info("Confirming reservation - Order: {}", orderId);
 
-        StockReservation reservation = stockReservationRepository.findByOrderId(orderId)
+        // locked: the expiry sweep skips it, or has released it by the time the lock is granted
+        StockReservation reservation = stockReservationRepository.findForUpdateByOrderId(orderId)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Reservation not found. orderId=%s", orderId)));
 
         if (reservation.getStatus() != ReservationStatus.RESERVED) {
             throw new IllegalStateException("Not possible to confirm an inactive reservation: " + reservation.getStatus());
         }
 
-        List<Book> books = reservation.getItems().stream()
-                .map(item -> {
-                    item.getBook().getInventory().confirmReservation(item.getReservedQuantity());
-                    return item.getBook();
-                })
-                .toList();
+        Map<Long, BookInventory> inventories = inventoriesOf(List.of(reservation));
+        for (StockReservationItem item : reservation.getItems()) {
+            Long bookId = item.getBook().getBookId();
+            if (!hotStock.confirm(bookId, item.getReservedQuantity())) {
+                inventoryOf(inventories, bookId).confirmReservation(item.getReservedQuantity());
+            }
+        }
 
-        bookRepository.saveAll(books);
+        bookInventoryRepository.saveAll(inventories.values());
+        inventories.keySet().forEach(this::publishStockChanged);
 
         reservation.confirm();
         stockReservationRepository.save(reservation);
-
-        // TODO publish event : StockConfirmed / StockUpdated
+        outbox.record(InventoryEvent.Type.STOCK_CONFIRMED, reservation);
+        ledger.record(StockMovement.Type.CONFIRM, reservation);
 
         log.info("Reservation confirmed successfully: {}", reservation.getId());
     }
@@ -165,7 +450,7 @@ public class InventoryService {
     public void releaseReservation(String orderId) {
         log.info("Libération de réservation - Order: {}", orderId);
 
-        StockReservation reservation = stockReservationRepository.findByOrderId(orderId)
+        StockReservation reservation = stockReservationRepository.findForUpdateByOrderId(orderId)
                 .orElseThrow(() -> new EntityNotFoundException("Reservation not found"));
 
         if (reservation.getStatus() != ReservationStatus.RESERVED) {
@@ -174,23 +459,110 @@ public class InventoryService {
             return;
         }
 
-        List<Book> books = reservation.getItems().stream()
-                .map(item -> {
-                    item.getBook().getInventory().cancelReservation(item.getReservedQuantity());
-                    return item.getBook();
-                })
-                .toList();
-
-        bookRepository.saveAll(books);
+        giveBackStock(reservation, inventoriesOf(List.of(reservation)));
 
         reservation.release();
         stockReservationRepository.save(reservation);
-
-        // TODO publish event : StockReservationCancelledEvent
+        outbox.record(InventoryEvent.Type.STOCK_RELEASED, reservation);
+        ledger.record(StockMovement.Type.RELEASE, reservation);
 
         log.info("Reservation successfully released [reservationId:{}]", reservation.getId());
     }
 
+    /**
+     * Releases a batch of the reservations that were not confirmed before their expiry, the oldest first.
+     * Reservations being handled by another transaction are left for the next batch.
+     *
+     * @param batchSize The maximum number of reservations to release
+     * @return The number of reservations released and of units given back
+     */
+    public ExpiredReservations releaseExpiredReservations(int batchSize) {
+        List<StockReservation> expired = stockReservationRepository.findByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(
+                ReservationStatus.RESERVED, Instant.now(), Limit.of(batchSize));
+
+        Map<Long, BookInventory> inventories = inventoriesOf(expired);
+        long units = 0;
+        for (StockReservation reservation : expired) {
+            if (holdsStock(reservation, inventories)) {
+                units += giveBackStock(reservation, inventories);
+                outbox.record(InventoryEvent.Type.STOCK_RELEASED, reservation);
+                ledger.record(StockMovement.Type.RELEASE, reservation);
+            }
+            else {
+                // releasing it would fail the whole batch, again at every sweep
+                log.warn("Expired reservation [id={}] holds more than the reserved stock, expired without release",
+                        reservation.getId());
+            }
+            reservation.expire();
+        }
+        stockReservationRepository.saveAll(expired);
+
+        if (!expired.isEmpty()) {
+            log.info("Released {} expired reservations, {} units given back", expired.size(), units);
+        }
+        return new ExpiredReservations(expired.size(), units);
+    }
+
+    private boolean holdsStock(StockReservation reservation, Map<Long, BookInventory> inventories) {
+        return reservation.getItems().stream()
+                .allMatch(item -> hotStock.isHot(item.getBook().getBookId())
+                        || inventoryOf(inventories, item.getBook().getBookId()).getReservedQuantity()
+                                >= item.getReservedQuantity());
+    }
+
+    /**
+     * Gives back the stock held by a reservation, whose status is left to the caller.
+     *
+     * @param inventories The inventories of the books of the reservation, by book id
+     * @return The number of units given back
+     */
+    private long giveBackStock(StockReservation reservation, Map<Long, BookInventory> inventories) {
+        List<BookInventory> released = new ArrayList<>();
+        for (StockReservationItem item : reservation.getItems()) {
+            Long bookId = item.getBook().getBookId();
+            BookInventory inventory = inventoryOf(inventories, bookId);
+            if (!hotStock.release(bookId, item.getReservedQuantity())) {
+                inventory.cancelReservation(item.getReservedQuantity());
+            }
+            released.add(inventory);
+        }
+
+        bookInventoryRepository.saveAll(released);
+        reservation.getItems().forEach(item -> publishStockChanged(item.getBook().getBookId()));
+
+        return reservation.getItems().stream()
+                .mapToLong(StockReservationItem::getReservedQuantity)
+                .sum();
+    }
+
+    /**
+     * Loads the inventories of the books of the reservations by book id. The books are not loaded: stock
+     * is written through the inventory rows only, so a reservation never conflicts with a concurrent edit
+     * of the book and a catalog edit never makes a reservation retry.
+     */
+    private Map<Long, BookInventory> inventoriesOf(Collection<StockReservation> reservations) {
+        return inventoriesOf(reservations.stream()
+                .flatMap(reservation -> reservation.getItems().stream())
+                .map(item -> item.getBook().getBookId())
+                .collect(Collectors.toSet()));
+    }
+
+    private Map<Long, BookInventory> inventoriesOf(Set<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        return bookInventoryRepository.findByBookBookIdIn(bookIds).stream()
+                .collect(Collectors.toMap(inventory -> inventory.getBook().getBookId(), Function.identity()));
+    }
+
+    private static BookInventory inventoryOf(Map<Long, BookInventory> inventories, Long bookId) {
+        BookInventory inventory = inventories.get(bookId);
+        if (inventory == null) {
+            throw new EntityNotFoundException(String.format("Inventory not found. bookId=%s", bookId));
+        }
+        return inventory;
+    }
+
     //get all inventaire
     public Page<InventaireResponseDto> getAllInventory(String filter, int page, int size) {
         BookFilter filter1 = BookFilter.builder()
@@ -200,6 +572,17 @@ public class InventoryService {
                 .map(book -> BookInvetoryMapper.toResponseInv(book.getInventory()));
     }
 
+    /**
+     * Same as {@link #getAllInventory} but projected straight into DTOs, without loading the books with their
+     * summary and category.
+     */
+    public Page<InventorySummaryDTO> getInventorySummaries(String filter, int page, int size) {
+        BookFilter bookFilter = BookFilter.builder()
+                .search(filter)
+                .build();
+        return bookRepository.findInventorySummaries(BookSpecificationUtils.filter(bookFilter), PageRequest.of(page, size));
+    }
+
     //get all inventaire by category
     public List<InventaireResponseDto> findINvertoryByTilte(String tilte) {
         return this.bookInventoryRepository.findByBookTitle(tilte).stream()
@@ -235,12 +618,16 @@ public class InventoryService {
                 .build();
 
 
-        return bookInventoryRepository.save(inventory);
+        BookInventory saved = bookInventoryRepository.save(inventory);
+        ledger.record(StockMovement.Type.RECEIPT, book.getBookId(), inventory.getAvailableQuantity());
+        publishStockChanged(book.getBookId());
+        return saved;
     }
 
     @Transactional
     public void updateQuantity(Long bookid, UpdateBookQuantityRequest request) {
         log.info("Updating book inventory - bookId: {}, quantity: {}", bookid, request.quantity());
+        hotStock.demote(bookid);
         BookInventory inventory = bookInventoryRepository.findByBookBookId(bookid)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found !"));
 
@@ -248,24 +635,59 @@ public class InventoryService {
             throw new IllegalArgumentException("Available quantity cannot be less than reserved quantity.");
         }
 
+        int adjustment = request.quantity() - inventory.getAvailableQuantity();
         inventory.setAvailableQuantity(request.quantity());
 
         bookInventoryRepository.save(inventory);
+        ledger.record(StockMovement.Type.ADJUST, bookid, adjustment);
+        publishStockChanged(bookid);
     }
 
     @Retryable(
-            retryFor = OptimisticLockException.class,
+            retryFor = {OptimisticLockException.class, ObjectOptimisticLockingFailureException.class},
             maxAttempts = 3,
             backoff = @Backoff(delay = 100)
     )
     @Transactional
     public BookInventory addStock(Long bookId, int quantity) {
         log.info("Adding stock - bookId: {}, quantity: {}", bookId, quantity);
+        hotStock.demote(bookId);
         BookInventory inv = bookInventoryRepository.findByBookBookId(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found !"));
         inv.setAvailableQuantity(inv.getAvailableQuantity() + quantity);
-        return bookInventoryRepository.save(inv);
+        BookInventory saved = bookInventoryRepository.save(inv);
+        ledger.record(StockMovement.Type.RECEIPT, bookId, quantity);
+        publishStockChanged(bookId);
+        return saved;
+    }
+
+    /**
+     * @return The stock of the book rebuilt from the ledger, to be checked against its inventory
+     */
+    public StockLevel getLedgerLevel(Long bookId) {
+        return ledger.level(bookId);
+    }
+
+    /**
+     * @return The latest stock movements of the book, the most recent first
+     */
+    public List<StockMovementDTO> getStockMovements(Long bookId, int limit) {
+        return ledger.movements(bookId, limit).stream()
+                .map(StockMovementDTO::from)
+                .toList();
     }
 
+    private void publishStockChanged(Long bookId) {
+        eventPublisher.publishEvent(new StockChangedEvent(bookId));
+    }
+
+    /**
+     * Where the stock of a book has been reserved.
+     */
+    private enum StockHold {
+        NONE,
+        DATABASE,
+        MEMORY
+    }
 
-}
\ No newline at end of file
+}
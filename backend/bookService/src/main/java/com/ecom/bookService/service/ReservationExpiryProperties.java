@@ -0,0 +1,25 @@
+package com.ecom.bookService.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link ReservationExpiryService}. The time to live of a reservation itself is
+ * {@code inventory.reservation.ttl}.
+ *
+ * @param enabled       Whether expired reservations are released
+ * @param sweepInterval The time between the end of a sweep and the start of the next one
+ * @param batchSize     The number of reservations released per transaction
+ * @param maxBatches    The number of batches a sweep releases at most, the rest being left to the next sweep
+ */
+@ConfigurationProperties(prefix = "inventory.reservation.expiry")
+public record ReservationExpiryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1m") Duration sweepInterval,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("50") int maxBatches
+) {
+
+}
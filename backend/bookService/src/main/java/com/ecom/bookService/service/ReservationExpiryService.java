@@ -0,0 +1,99 @@
+package com.ecom.bookService.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.ecom.bookService.dto.ExpiredReservations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gives back the stock of abandoned checkouts: the reservations still not confirmed when they expire are
+ * released periodically, in batches of their own transaction so that a large backlog never holds many locks
+ * at once.
+ */
+@Service
+@EnableConfigurationProperties(ReservationExpiryProperties.class)
+@Slf4j
+public class ReservationExpiryService {
+
+    private final InventoryService inventoryService;
+
+    private final ReservationExpiryProperties properties;
+
+    private final Counter expiredReservations;
+
+    private final Counter reclaimedUnits;
+
+    private final Timer sweepTimer;
+
+    private final TaskScheduler taskScheduler;
+
+    public ReservationExpiryService(
+            InventoryService inventoryService,
+            ReservationExpiryProperties properties,
+            MeterRegistry meterRegistry,
+            TaskScheduler taskScheduler
+    ) {
+        this.inventoryService = inventoryService;
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.expiredReservations = Counter.builder("inventory.reservations.expired")
+                .description("Reservations released because they were not confirmed in time")
+                .register(meterRegistry);
+        this.reclaimedUnits = Counter.builder("inventory.reservations.reclaimed.units")
+                .description("Units given back to the stock by expired reservations")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("inventory.reservations.expiry.sweep")
+                .description("Time spent releasing the expired reservations")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.enabled()) {
+            Duration interval = properties.sweepInterval();
+            taskScheduler.scheduleWithFixedDelay(this::sweep, Instant.now().plus(interval), interval);
+        }
+    }
+
+    /**
+     * Releases the expired reservations, up to the configured number of batches.
+     *
+     * @return The number of reservations released and of units given back
+     */
+    public ExpiredReservations sweep() {
+        Timer.Sample sample = Timer.start();
+        int reservations = 0;
+        long units = 0;
+        try {
+            for (int i = 0; i < properties.maxBatches(); i++) {
+                ExpiredReservations batch = inventoryService.releaseExpiredReservations(properties.batchSize());
+                reservations += batch.reservations();
+                units += batch.units();
+                expiredReservations.increment(batch.reservations());
+                reclaimedUnits.increment(batch.units());
+                if (batch.reservations() < properties.batchSize()) {
+                    break;
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            // typically a reservation confirmed at the same time, the batch is retried at the next sweep
+            log.warn("Expired reservations sweep interrupted after {} reservations", reservations, e);
+        }
+        finally {
+            sample.stop(sweepTimer);
+        }
+        return new ExpiredReservations(reservations, units);
+    }
+
+}
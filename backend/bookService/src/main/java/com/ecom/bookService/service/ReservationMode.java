@@ -0,0 +1,21 @@
+package com.ecom.bookService.service;
+
+/**
+ * How {@link InventoryService#reserveStock} reserves stock.
+ */
+public enum ReservationMode {
+
+    /**
+     * Loads the inventories, reserves in memory and saves them under optimistic locking. Concurrent
+     * reservations of the same book conflict, and all but one fail.
+     */
+    OPTIMISTIC,
+
+    /**
+     * Reserves every book with a single conditional UPDATE, applied in book id order inside one
+     * transaction. Concurrent reservations of the same book wait on the row lock instead of failing, and
+     * the stock can never be oversold.
+     */
+    ATOMIC
+
+}
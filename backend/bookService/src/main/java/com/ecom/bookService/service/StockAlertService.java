@@ -0,0 +1,185 @@
+package com.ecom.bookService.service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.bookService.dto.StockAlertDTO;
+import com.ecom.bookService.event.StockAlertEvent;
+import com.ecom.bookService.event.StockChangedEvent;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.StockAlert;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import com.ecom.bookService.repository.StockAlertRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the set of books low on stock or out of stock up to date: every committed stock change re-evaluates
+ * the book it concerns, and a {@link StockAlertEvent} is published when the book changes level.
+ * <p>
+ * Evaluations run on a single background thread, off the request that changed the stock. A book changing
+ * again before its evaluation started is evaluated once, with its latest stock. At startup, the books already
+ * at or below their minimum and the books alerted are evaluated too, their stock having possibly changed
+ * while no instance was following it.
+ */
+@Service
+@Slf4j
+public class StockAlertService {
+
+    private final StockAlertRepository alertRepository;
+
+    private final BookInventoryRepository bookInventoryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stock-alerts-"));
+
+    public StockAlertService(
+            StockAlertRepository alertRepository,
+            BookInventoryRepository bookInventoryRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.alertRepository = alertRepository;
+        this.bookInventoryRepository = bookInventoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        Long bookId = event.bookId();
+        if (!pending.add(bookId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                // removed first: a change committed during the evaluation triggers another one
+                pending.remove(bookId);
+                evaluate(bookId);
+            });
+        }
+        catch (RejectedExecutionException e) {
+            pending.remove(bookId);
+        }
+    }
+
+    /**
+     * Evaluates the books whose alert may be missing or outdated, in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            executor.execute(() -> {
+                try {
+                    Set<Long> books = new TreeSet<>(bookInventoryRepository.findBookIdsAtOrBelowMinimum());
+                    books.addAll(alertRepository.findAllBookIds());
+                    books.forEach(this::evaluate);
+                    log.info("Evaluated the stock level of {} books at startup", books.size());
+                }
+                catch (RuntimeException e) {
+                    // the books are evaluated again at their next stock change
+                    log.warn("Could not evaluate the stock levels at startup", e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            log.warn("Stock levels not evaluated at startup: the service is stopping");
+        }
+    }
+
+    /**
+     * @param level The level of the alerts to return, all of them when null
+     * @return The books low on stock or out of stock, the longest in that state first
+     */
+    public Page<StockAlertDTO> getAlerts(StockAlert.Level level, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("since", "bookId"));
+        Page<StockAlert> alerts = level == null
+                ? alertRepository.findAll(pageRequest)
+                : alertRepository.findByLevel(level, pageRequest);
+        return alerts.map(StockAlertDTO::from);
+    }
+
+    /**
+     * Compares the stock of the book to its minimum, and updates its alert accordingly.
+     */
+    void evaluate(Long bookId) {
+        try {
+            StockAlertEvent change = transactionTemplate.execute(tx -> update(bookId));
+            if (change != null) {
+                log.info("Stock level of book {} changed: {}", bookId, change);
+                eventPublisher.publishEvent(change);
+            }
+        }
+        catch (RuntimeException e) {
+            // the book is evaluated again at its next stock change
+            log.warn("Could not evaluate the stock level of book {}", bookId, e);
+        }
+    }
+
+    /**
+     * @return The event to publish if the book changed level, null otherwise
+     */
+    private StockAlertEvent update(Long bookId) {
+        Optional<BookInventory> inventory = bookInventoryRepository.findByBookBookId(bookId);
+        Optional<StockAlert> alert = alertRepository.findById(bookId);
+
+        int free = inventory.map(stock -> stock.getAvailableQuantity() - stock.getReservedQuantity()).orElse(0);
+        int minimum = inventory.map(BookInventory::getMinimumStockLevel).orElse(0);
+        StockAlert.Level level = inventory.map(stock -> StockAlert.Level.of(free, minimum)).orElse(null);
+
+        if (level == null) {
+            alert.ifPresent(alertRepository::delete);
+            return alert.isPresent() ? new StockAlertEvent(bookId, null, free, minimum) : null;
+        }
+
+        if (alert.isPresent() && alert.get().getLevel() == level) {
+            StockAlert current = alert.get();
+            if (current.getFreeQuantity() != free || current.getMinimumStockLevel() != minimum) {
+                current.setFreeQuantity(free);
+                current.setMinimumStockLevel(minimum);
+                alertRepository.save(current);
+            }
+            return null;
+        }
+
+        alertRepository.save(StockAlert.builder()
+                .bookId(bookId)
+                .level(level)
+                .freeQuantity(free)
+                .minimumStockLevel(minimum)
+                .since(Instant.now())
+                .build());
+        return new StockAlertEvent(bookId, level, free, minimum);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
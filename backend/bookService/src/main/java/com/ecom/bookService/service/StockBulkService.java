@@ -0,0 +1,200 @@
+package com.ecom.bookService.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.bookService.dto.BulkStockRequest;
+import com.ecom.bookService.dto.BulkStockResult;
+import com.ecom.bookService.dto.BulkStockResult.LineResult;
+import com.ecom.bookService.dto.BulkStockResult.Status;
+import com.ecom.bookService.event.StockChangedEvent;
+import com.ecom.bookService.ledger.StockLedger;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.StockMovement;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import com.ecom.bookService.stock.HotStockEngine;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies stock changes of many books at once, chunk by chunk. The inventories of a chunk are locked with a
+ * single query and written back as one JDBC batch when the chunk commits, each chunk in its own transaction:
+ * a line that cannot be applied is reported and skipped, and a chunk that fails leaves the others applied.
+ * A book must be on a single line of the request, its lines are all refused otherwise.
+ */
+@Service
+@Slf4j
+public class StockBulkService {
+
+    private final BookInventoryRepository bookInventoryRepository;
+
+    private final HotStockEngine hotStock;
+
+    private final StockLedger ledger;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public StockBulkService(
+            BookInventoryRepository bookInventoryRepository,
+            HotStockEngine hotStock,
+            StockLedger ledger,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.bulk.chunk-size:500}") int chunkSize
+    ) {
+        this.bookInventoryRepository = bookInventoryRepository;
+        this.hotStock = hotStock;
+        this.ledger = ledger;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Adds the received quantities to the stock of the books.
+     */
+    public BulkStockResult receive(List<BulkStockRequest.Line> lines) {
+        return apply(lines, StockMovement.Type.RECEIPT);
+    }
+
+    /**
+     * Sets the quantities in stock of the books, as counted. A quantity lower than what pending orders
+     * reserved is refused.
+     */
+    public BulkStockResult adjust(List<BulkStockRequest.Line> lines) {
+        return apply(lines, StockMovement.Type.ADJUST);
+    }
+
+    private BulkStockResult apply(List<BulkStockRequest.Line> lines, StockMovement.Type type) {
+        LineResult[] results = new LineResult[lines.size()];
+        Set<Long> duplicated = lines.stream()
+                .collect(Collectors.groupingBy(BulkStockRequest.Line::bookId, Collectors.counting()))
+                .entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        for (int i = 0; i < lines.size(); i++) {
+            if (duplicated.contains(lines.get(i).bookId())) {
+                results[i] = new LineResult(i, lines.get(i).bookId(), Status.DUPLICATE_BOOK, null,
+                        "The book is on several lines of the request");
+            }
+        }
+
+        for (int from = 0; from < lines.size(); from += chunkSize) {
+            applyChunk(lines, from, Math.min(lines.size(), from + chunkSize), type, results);
+        }
+
+        BulkStockResult result = BulkStockResult.of(Arrays.asList(results));
+        log.info("Bulk stock {} of {} lines: {} applied, {} rejected", type, lines.size(), result.applied(),
+                result.rejected());
+        return result;
+    }
+
+    private void applyChunk(List<BulkStockRequest.Line> lines, int from, int to, StockMovement.Type type,
+                            LineResult[] results) {
+        // the lines already refused are left out, and the others are each of a book of their own
+        List<Integer> pending = IntStream.range(from, to)
+                .filter(i -> results[i] == null)
+                .boxed()
+                .toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> bookIds = pending.stream()
+                .map(i -> lines.get(i).bookId())
+                .sorted()
+                .toList();
+
+        List<BookInventory> changed = new ArrayList<>();
+        try {
+            // before locking the rows: demoting a hot book writes its pending changes to them
+            bookIds.forEach(hotStock::demote);
+            transactionTemplate.executeWithoutResult(tx -> {
+                Map<Long, BookInventory> inventories = bookInventoryRepository.findAllByBookIdsForUpdate(bookIds)
+                        .stream()
+                        .collect(Collectors.toMap(inventory -> inventory.getBook().getBookId(), Function.identity()));
+
+                Set<Long> changedBooks = new TreeSet<>();
+                for (int i : pending) {
+                    BulkStockRequest.Line line = lines.get(i);
+                    BookInventory inventory = inventories.get(line.bookId());
+                    results[i] = applyLine(i, line, inventory, type);
+                    if (results[i] == null) {
+                        changed.add(inventory);
+                        changedBooks.add(line.bookId());
+                    }
+                }
+                changedBooks.forEach(bookId -> eventPublisher.publishEvent(new StockChangedEvent(bookId)));
+            });
+        }
+        catch (RuntimeException e) {
+            log.warn("Bulk stock {} of lines {} to {} failed", type, from, to - 1, e);
+            for (int i : pending) {
+                results[i] = new LineResult(i, lines.get(i).bookId(), Status.FAILED, null,
+                        "The chunk of the line failed");
+            }
+            return;
+        }
+
+        // the versions are only known once the chunk has been written
+        int applied = 0;
+        for (int i : pending) {
+            if (results[i] == null) {
+                BookInventory inventory = changed.get(applied++);
+                results[i] = new LineResult(i, lines.get(i).bookId(), Status.APPLIED, inventory.getVersion(), null);
+            }
+        }
+    }
+
+    /**
+     * Applies a line to the locked inventory of its book, and records it in the ledger.
+     *
+     * @return Why the line was refused, null if it has been applied
+     */
+    private LineResult applyLine(int index, BulkStockRequest.Line line, BookInventory inventory,
+                                 StockMovement.Type type) {
+        if (inventory == null) {
+            return new LineResult(index, line.bookId(), Status.NOT_FOUND, null, "Inventory not found");
+        }
+        if (line.expectedVersion() != null && !line.expectedVersion().equals(inventory.getVersion())) {
+            return new LineResult(index, line.bookId(), Status.VERSION_CONFLICT, null,
+                    "Inventory changed since version " + line.expectedVersion() + ", now " + inventory.getVersion());
+        }
+
+        int quantity = line.quantity();
+        if (type == StockMovement.Type.RECEIPT) {
+            if (quantity <= 0) {
+                return new LineResult(index, line.bookId(), Status.INVALID_QUANTITY, null,
+                        "A received quantity must be positive");
+            }
+            inventory.setAvailableQuantity(inventory.getAvailableQuantity() + quantity);
+            ledger.record(StockMovement.Type.RECEIPT, line.bookId(), quantity);
+        }
+        else {
+            if (quantity < inventory.getReservedQuantity()) {
+                return new LineResult(index, line.bookId(), Status.INVALID_QUANTITY, null,
+                        "Available quantity cannot be less than reserved quantity " + inventory.getReservedQuantity());
+            }
+            ledger.record(StockMovement.Type.ADJUST, line.bookId(), quantity - inventory.getAvailableQuantity());
+            inventory.setAvailableQuantity(quantity);
+        }
+        return null;
+    }
+
+}
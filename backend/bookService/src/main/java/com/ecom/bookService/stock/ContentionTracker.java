@@ -0,0 +1,57 @@
+package com.ecom.bookService.stock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the contended database reservations of every book over a fixed window.
+ */
+final class ContentionTracker {
+
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+
+    private final int threshold;
+
+    private final long windowNanos;
+
+    ContentionTracker(int threshold, long windowNanos) {
+        this.threshold = threshold;
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Records a contended reservation of the book.
+     *
+     * @return true only for the reservation that reaches the threshold within the window
+     */
+    boolean record(Long bookId, long nowNanos) {
+        Window window = windows.compute(bookId, (id, current) ->
+                current == null || nowNanos - current.startNanos > windowNanos ? new Window(nowNanos) : current);
+        return window.count.incrementAndGet() == threshold;
+    }
+
+    void forget(Long bookId) {
+        windows.remove(bookId);
+    }
+
+    /**
+     * Drops the windows that are over, so that books contended once do not stay tracked forever.
+     */
+    void expire(long nowNanos) {
+        windows.values().removeIf(window -> nowNanos - window.startNanos > windowNanos);
+    }
+
+    private static final class Window {
+
+        private final long startNanos;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.ecom.bookService.stock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Splits the work of many threads into epochs, so that a single thread can close an epoch and wait until
+ * nothing works in it anymore. Entering and leaving an epoch only touches a counter of the thread's own,
+ * padded to its own cache line.
+ */
+final class EpochGate {
+
+    private static final int PADDING = 8;
+
+    private static final int SPINS = 64;
+
+    private final int slots;
+
+    private final AtomicLongArray[] inFlight;
+
+    private volatile long epoch;
+
+    EpochGate(long epoch, int slots) {
+        this.epoch = epoch;
+        this.slots = slots;
+        this.inFlight = new AtomicLongArray[] {
+                new AtomicLongArray(slots * PADDING), new AtomicLongArray(slots * PADDING)};
+    }
+
+    long current() {
+        return epoch;
+    }
+
+    /**
+     * Enters the current epoch, which cannot be over before {@link #exit} is called.
+     *
+     * @return The epoch entered
+     */
+    long enter() {
+        int index = StripedStockCounter.threadSlot(slots) * PADDING;
+        while (true) {
+            long current = epoch;
+            AtomicLongArray counters = inFlight[parity(current)];
+            counters.incrementAndGet(index);
+            if (epoch == current) {
+                return current;
+            }
+            // the epoch moved on meanwhile, the thread closing it may not see this one
+            counters.decrementAndGet(index);
+        }
+    }
+
+    void exit(long epoch) {
+        inFlight[parity(epoch)].decrementAndGet(StripedStockCounter.threadSlot(slots) * PADDING);
+    }
+
+    /**
+     * Moves to the next epoch. Must not be called by several threads at the same time.
+     *
+     * @return The previous epoch, nothing works in anymore
+     */
+    long advance() {
+        long previous = epoch;
+        epoch = previous + 1;
+        AtomicLongArray counters = inFlight[parity(previous)];
+        for (int slot = 0; slot < slots; slot++) {
+            int spins = 0;
+            while (counters.get(slot * PADDING) != 0) {
+                if (++spins < SPINS) {
+                    Thread.onSpinWait();
+                }
+                else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+        }
+        return previous;
+    }
+
+    private static int parity(long epoch) {
+        return (int) (epoch & 1);
+    }
+
+}
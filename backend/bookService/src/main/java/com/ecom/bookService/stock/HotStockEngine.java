@@ -0,0 +1,589 @@
+package com.ecom.bookService.stock;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.bookService.event.StockChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Takes the books whose stock is most contended out of the database during flash sales.
+ * <p>
+ * A book whose database reservations keep waiting on its row lock is promoted: its free stock is loaded
+ * into a {@link StripedStockCounter} and its reservations are decided in memory from then on. A reservation
+ * takes its units at once, but is only logged to disk once the transaction that made it commits, so that the
+ * log never holds a change the database rolled back; a rollback only gives the units back to the counter.
+ * The logged changes are written to the database by a periodic flusher that sends the changes of all hot
+ * books in one batch. A book is demoted when it is no longer reserved, or before its stock is set by hand: the
+ * reservations still in progress are then written with the rest, and undone in the database if they roll back.
+ * <p>
+ * A crash between the commit of a transaction and the fsync of its change loses that change: the book keeps
+ * the reservation rows of the transaction, but not the reserved units. The window is one fsync long.
+ * <p>
+ * The counters are local to the instance: the engine must only be enabled when a single instance of the
+ * service reserves stock.
+ */
+@Component
+@EnableConfigurationProperties(HotStockProperties.class)
+@Slf4j
+public class HotStockEngine implements SmartLifecycle {
+
+    /**
+     * The outcome of a reservation made in memory.
+     */
+    public enum Outcome {
+        RESERVED,
+        INSUFFICIENT_STOCK,
+        /**
+         * The book is not held in memory, it must be reserved in the database.
+         */
+        NOT_HOT
+    }
+
+    private static final String APPLY_CHANGE = """
+            UPDATE book_inventories
+            SET available_quantity = available_quantity + ?, reserved_quantity = reserved_quantity + ?,
+                version = version + 1, updated_at = LOCALTIMESTAMP
+            WHERE book_book_id = ?
+            """;
+
+    private static final String LOCK_STOCK = """
+            SELECT available_quantity - reserved_quantity
+            FROM book_inventories
+            WHERE book_book_id = ?
+            FOR UPDATE
+            """;
+
+    private static final String INIT_CHECKPOINT = """
+            INSERT INTO stock_write_behind_checkpoints (id, segment_id) VALUES (1, 0)
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    private static final String READ_CHECKPOINT = "SELECT segment_id FROM stock_write_behind_checkpoints WHERE id = 1";
+
+    private static final String WRITE_CHECKPOINT = "UPDATE stock_write_behind_checkpoints SET segment_id = ? WHERE id = 1";
+
+    private final HotStockProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TaskScheduler taskScheduler;
+
+    private final ContentionTracker contentionTracker;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Demoted counters whose changes are not drained yet, guarded by the flush lock.
+     */
+    private final List<StripedStockCounter> retired = new ArrayList<>();
+
+    private final Map<Long, Long> demotedAtNanos = new ConcurrentHashMap<>();
+
+    /**
+     * Changes drained but not written yet because the database could not be reached, guarded by the flush lock.
+     */
+    private final Map<Long, long[]> unflushed = new HashMap<>();
+
+    /**
+     * Closed segments whose changes are not in the database yet, guarded by the flush lock.
+     */
+    private final List<Long> unflushedSegments = new ArrayList<>();
+
+    private final StockWriteBehindLog.Segment[] segments = new StockWriteBehindLog.Segment[2];
+
+    private final Object flushLock = new Object();
+
+    private StockWriteBehindLog writeBehindLog;
+
+    private EpochGate gate;
+
+    private ScheduledFuture<?> maintenance;
+
+    private volatile boolean running;
+
+    public HotStockEngine(
+            HotStockProperties properties,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            TaskScheduler taskScheduler
+    ) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.contentionTracker = new ContentionTracker(properties.promotionThreshold(), properties.window().toNanos());
+    }
+
+    /**
+     * @return Whether the reservations of the book are decided in memory
+     */
+    public boolean isHot(Long bookId) {
+        return running && counters.containsKey(bookId);
+    }
+
+    /**
+     * @return The books whose inventory row may not hold all their committed changes yet: the hot ones, and
+     *         those whose changes could not be written
+     */
+    public Set<Long> unsettledBooks() {
+        if (!running) {
+            return Set.of();
+        }
+        synchronized (flushLock) {
+            Set<Long> books = new HashSet<>(counters.keySet());
+            books.addAll(unflushed.keySet());
+            return books;
+        }
+    }
+
+    /**
+     * Reserves stock of a hot book. The reservation is logged once the current transaction commits, and given
+     * back if it rolls back.
+     */
+    public Outcome tryReserve(Long bookId, int quantity) {
+        if (!running) {
+            return Outcome.NOT_HOT;
+        }
+
+        StripedStockCounter counter;
+        long epoch = gate.enter();
+        try {
+            counter = counters.get(bookId);
+            if (counter == null) {
+                return Outcome.NOT_HOT;
+            }
+            if (!counter.tryTake(quantity)) {
+                return Outcome.INSUFFICIENT_STOCK;
+            }
+            counter.hold(quantity);
+        }
+        finally {
+            gate.exit(epoch);
+        }
+
+        // an unknown outcome keeps the units reserved: too few units for sale rather than too many
+        onCompletion(committed -> settleReservation(counter, quantity, committed),
+                status -> status != TransactionSynchronization.STATUS_ROLLED_BACK);
+        return Outcome.RESERVED;
+    }
+
+    /**
+     * Gives back reserved stock of a hot book.
+     *
+     * @return false if the book is not held in memory, and must be released in the database
+     */
+    public boolean release(Long bookId, int quantity) {
+        return change(bookId, 0, -quantity);
+    }
+
+    /**
+     * Turns reserved stock of a hot book into sold stock.
+     *
+     * @return false if the book is not held in memory, and must be confirmed in the database
+     */
+    public boolean confirm(Long bookId, int quantity) {
+        return change(bookId, -quantity, -quantity);
+    }
+
+    /**
+     * Records how long a reservation of the book took in the database, the book being promoted once too many
+     * of them waited on its row.
+     */
+    public void recordReservation(Long bookId, long elapsedNanos) {
+        if (!running || elapsedNanos < properties.contendedLatency().toNanos()) {
+            return;
+        }
+        if (contentionTracker.record(bookId, System.nanoTime())) {
+            try {
+                // not in the caller's thread: it still holds the row lock the promotion waits for
+                taskScheduler.schedule(() -> promote(bookId), Instant.now());
+            }
+            catch (RejectedExecutionException e) {
+                log.debug("Promotion of book {} skipped, the engine is stopping", bookId);
+            }
+        }
+    }
+
+    /**
+     * Takes the book out of memory, its changes being written to the database before returning. Must be
+     * called before the stock of the book is changed any other way than through this engine.
+     *
+     * @throws IllegalStateException if the changes could not be written
+     */
+    public void demote(Long bookId) {
+        if (running && retire(bookId) && !flush()) {
+            throw new IllegalStateException("Could not write the hot stock of book " + bookId + " to the database");
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        writeBehindLog = new StockWriteBehindLog(Path.of(properties.logDirectory()));
+        long segmentId = recover() + 1;
+        gate = new EpochGate(segmentId, properties.effectiveStripes());
+        segments[(int) (segmentId & 1)] = writeBehindLog.open(segmentId);
+
+        maintenance = taskScheduler.scheduleWithFixedDelay(this::maintain,
+                Instant.now().plus(properties.flushInterval()), properties.flushInterval());
+        running = true;
+        log.info("Hot stock engine started, logging to {}", properties.logDirectory());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        maintenance.cancel(false);
+        synchronized (flushLock) {
+            List.copyOf(counters.keySet()).forEach(this::retire);
+            if (flush()) {
+                StockWriteBehindLog.Segment last = segments[(int) (gate.current() & 1)];
+                last.close();
+                writeBehindLog.delete(last.id());
+            }
+            else {
+                log.error("Hot stock changes could not be written to the database, they will be replayed at startup");
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Releases or confirms reserved stock once the current transaction commits, the units it frees staying
+     * taken until then.
+     */
+    private boolean change(Long bookId, int availableChange, int reservedChange) {
+        if (!running) {
+            return false;
+        }
+
+        StripedStockCounter counter;
+        long epoch = gate.enter();
+        try {
+            counter = counters.get(bookId);
+            if (counter == null) {
+                return false;
+            }
+        }
+        finally {
+            gate.exit(epoch);
+        }
+
+        onCompletion(committed -> {
+            if (committed) {
+                applyChange(counter, availableChange, reservedChange);
+            }
+        }, status -> status == TransactionSynchronization.STATUS_COMMITTED);
+        return true;
+    }
+
+    /**
+     * Runs the action once the current transaction is over, or right away, as committed, outside of one.
+     */
+    private void onCompletion(Consumer<Boolean> action, IntPredicate committed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(committed.test(status));
+            }
+        });
+    }
+
+    private void settleReservation(StripedStockCounter counter, int quantity, boolean committed) {
+        boolean carried;
+        boolean logged = false;
+        long epoch = gate.enter();
+        try {
+            carried = counter.isCarried();
+            if (!carried) {
+                if (committed) {
+                    logged = log(epoch, counter, 0, quantity);
+                }
+                else {
+                    counter.give(quantity);
+                }
+                counter.settle(quantity);
+            }
+        }
+        finally {
+            gate.exit(epoch);
+        }
+
+        if (carried && !committed) {
+            // written to the database by the demotion
+            writeDirectly(counter.bookId(), 0, -quantity);
+        }
+        else if (committed && !carried && !logged) {
+            writeDirectly(counter.bookId(), 0, quantity);
+        }
+    }
+
+    private void applyChange(StripedStockCounter counter, int availableChange, int reservedChange) {
+        boolean logged = false;
+        long epoch = gate.enter();
+        try {
+            if (!counter.isCarried()) {
+                logged = log(epoch, counter, availableChange, reservedChange);
+                if (logged) {
+                    counter.give(availableChange - reservedChange);
+                }
+            }
+        }
+        finally {
+            gate.exit(epoch);
+        }
+
+        if (!logged) {
+            writeDirectly(counter.bookId(), availableChange, reservedChange);
+        }
+    }
+
+    /**
+     * Records a committed change of a counter and waits for it to be on disk.
+     *
+     * @return false if it could not be logged, and must be written to the database directly
+     */
+    private boolean log(long epoch, StripedStockCounter counter, int availableChange, int reservedChange) {
+        counter.record(epoch, availableChange, reservedChange);
+        try {
+            StockWriteBehindLog.Segment segment = segments[(int) (epoch & 1)];
+            segment.awaitDurable(segment.append(
+                    new StockWriteBehindLog.Entry(counter.bookId(), availableChange, reservedChange)));
+            return true;
+        }
+        catch (RuntimeException e) {
+            counter.record(epoch, -availableChange, -reservedChange);
+            log.error("Could not log a hot stock change of book {}, writing it to the database", counter.bookId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes a change the counter no longer accounts for, the transaction that made it being already over.
+     */
+    private void writeDirectly(Long bookId, int availableChange, int reservedChange) {
+        try {
+            transactionTemplate.executeWithoutResult(tx ->
+                    jdbcTemplate.update(APPLY_CHANGE, availableChange, reservedChange, bookId));
+            eventPublisher.publishEvent(new StockChangedEvent(bookId));
+        }
+        catch (DataAccessException | TransactionException e) {
+            log.error("Lost a stock change of book {}: available {}, reserved {}", bookId, availableChange,
+                    reservedChange, e);
+        }
+    }
+
+    private void maintain() {
+        try {
+            long now = System.nanoTime();
+            long idleNanos = properties.idleTimeout().toNanos();
+            synchronized (flushLock) {
+                counters.values().stream()
+                        .filter(counter -> now - counter.lastUsedNanos() > idleNanos)
+                        .map(StripedStockCounter::bookId)
+                        .toList()
+                        .forEach(this::retire);
+                flush();
+            }
+            contentionTracker.expire(now);
+            demotedAtNanos.values().removeIf(demotedAt -> now - demotedAt > properties.window().toNanos());
+        }
+        catch (RuntimeException e) {
+            log.error("Hot stock maintenance failed", e);
+        }
+    }
+
+    void promote(Long bookId) {
+        synchronized (flushLock) {
+            if (!running || counters.containsKey(bookId) || counters.size() >= properties.maxBooks()) {
+                return;
+            }
+            if (unflushed.containsKey(bookId)) {
+                // the free stock read from the database would miss the changes not written yet
+                return;
+            }
+            Long demotedAt = demotedAtNanos.get(bookId);
+            if (demotedAt != null && System.nanoTime() - demotedAt < properties.window().toNanos()) {
+                return;
+            }
+
+            try {
+                Long free = transactionTemplate.execute(tx -> {
+                    List<Long> rows = jdbcTemplate.queryForList(LOCK_STOCK, Long.class, bookId);
+                    if (rows.isEmpty()) {
+                        return null;
+                    }
+                    // installed while the row is locked: a database reservation waiting for the lock sees the
+                    // book hot once it gets it, and moves to memory
+                    counters.put(bookId, new StripedStockCounter(bookId, properties.effectiveStripes(), rows.get(0)));
+                    return rows.get(0);
+                });
+                if (free != null) {
+                    log.info("Book {} promoted to the hot stock engine with {} free units", bookId, free);
+                }
+            }
+            catch (DataAccessException | TransactionException e) {
+                counters.remove(bookId);
+                log.warn("Could not promote book {} to the hot stock engine", bookId, e);
+            }
+        }
+    }
+
+    private boolean retire(Long bookId) {
+        synchronized (flushLock) {
+            StripedStockCounter counter = counters.remove(bookId);
+            if (counter == null) {
+                return false;
+            }
+            // completions that see the counter carried write to the database, the others are drained by the
+            // next flush, which waits for them to leave their epoch
+            counter.carry();
+            retired.add(counter);
+            demotedAtNanos.put(bookId, System.nanoTime());
+            contentionTracker.forget(bookId);
+            log.info("Book {} demoted from the hot stock engine with {} free units", bookId, counter.free());
+            return true;
+        }
+    }
+
+    /**
+     * Closes the current epoch and writes its changes to the database, along with those a previous flush
+     * could not write.
+     *
+     * @return Whether every change of the closed epochs is in the database
+     */
+    private boolean flush() {
+        synchronized (flushLock) {
+            long next = gate.current() + 1;
+            segments[(int) (next & 1)] = writeBehindLog.open(next);
+            long previous = gate.advance();
+            segments[(int) (previous & 1)].close();
+            unflushedSegments.add(previous);
+
+            counters.values().forEach(counter -> merge(counter.bookId(), counter.drain(previous)));
+            retired.forEach(counter -> {
+                merge(counter.bookId(), counter.drain(previous));
+                merge(counter.bookId(), new long[] {0, counter.pendingReserved()});
+            });
+            retired.clear();
+            unflushed.values().removeIf(change -> change[0] == 0 && change[1] == 0);
+
+            if (!unflushed.isEmpty()) {
+                try {
+                    write(unflushed, previous);
+                }
+                catch (DataAccessException | TransactionException e) {
+                    log.warn("Could not write the hot stock of {} books, will retry", unflushed.size(), e);
+                    return false;
+                }
+            }
+
+            List<Long> flushedBooks = List.copyOf(unflushed.keySet());
+            unflushed.clear();
+            unflushedSegments.forEach(writeBehindLog::delete);
+            unflushedSegments.clear();
+            flushedBooks.forEach(bookId -> eventPublisher.publishEvent(new StockChangedEvent(bookId)));
+            return true;
+        }
+    }
+
+    private void merge(Long bookId, long[] change) {
+        if (change[0] != 0 || change[1] != 0) {
+            unflushed.merge(bookId, change, (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]});
+        }
+    }
+
+    /**
+     * Writes the changes and moves the checkpoint in a single transaction.
+     */
+    private void write(Map<Long, long[]> changes, long segmentId) {
+        List<Object[]> arguments = changes.entrySet().stream()
+                .map(entry -> new Object[] {entry.getValue()[0], entry.getValue()[1], entry.getKey()})
+                .toList();
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (!arguments.isEmpty()) {
+                jdbcTemplate.batchUpdate(APPLY_CHANGE, arguments);
+            }
+            jdbcTemplate.update(WRITE_CHECKPOINT, segmentId);
+        });
+    }
+
+    /**
+     * Replays the changes logged after the checkpoint, then removes every segment.
+     *
+     * @return The id of the last segment found
+     */
+    private long recover() {
+        jdbcTemplate.update(INIT_CHECKPOINT);
+        long checkpoint = jdbcTemplate.queryForObject(READ_CHECKPOINT, Long.class);
+
+        long last = checkpoint;
+        Map<Long, long[]> changes = new HashMap<>();
+        List<StockWriteBehindLog.Recovered> recovered = writeBehindLog.recover();
+        for (StockWriteBehindLog.Recovered segment : recovered) {
+            last = Math.max(last, segment.segmentId());
+            if (segment.segmentId() > checkpoint) {
+                segment.entries().forEach(entry -> changes.merge(entry.bookId(),
+                        new long[] {entry.availableChange(), entry.reservedChange()},
+                        (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]}));
+            }
+        }
+
+        if (last > checkpoint) {
+            write(changes, last);
+            log.info("Replayed the hot stock changes of {} books from {} log segments", changes.size(),
+                    recovered.size());
+        }
+        recovered.forEach(segment -> writeBehindLog.delete(segment.segmentId()));
+        return last;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.ecom.bookService.stock;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link HotStockEngine}.
+ *
+ * @param enabled            Whether contended books are moved into memory. The counters are local to the
+ *                           instance, so the engine must only be enabled when a single instance reserves stock
+ * @param stripes            The number of stripes the free stock of a hot book is spread over, 0 for one per
+ *                           available processor
+ * @param maxBooks           The number of books held in memory at the same time
+ * @param contendedLatency   A database reservation slower than this counts as contended
+ * @param promotionThreshold The number of contended reservations within the window that promotes a book
+ * @param window             The window over which contended reservations are counted, also the time a book
+ *                           stays in the database after being demoted
+ * @param idleTimeout        How long a hot book may go without reservation before being demoted
+ * @param flushInterval      How often the changes made in memory are written to the database
+ * @param logDirectory       Where the changes not yet written to the database are logged, to be replayed
+ *                           after a crash
+ */
+@ConfigurationProperties(prefix = "inventory.hot-stock")
+public record HotStockProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0") int stripes,
+        @DefaultValue("64") int maxBooks,
+        @DefaultValue("5ms") Duration contendedLatency,
+        @DefaultValue("50") int promotionThreshold,
+        @DefaultValue("10s") Duration window,
+        @DefaultValue("5m") Duration idleTimeout,
+        @DefaultValue("100ms") Duration flushInterval,
+        @DefaultValue("data/hot-stock") String logDirectory
+) {
+
+    public int effectiveStripes() {
+        return stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.ecom.bookService.stock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of the stock changes made in memory by the {@link HotStockEngine}, one segment file per
+ * epoch. A change is acknowledged once its segment has been forced to disk, and a segment is deleted once
+ * its changes are in the database, so the segments left after a crash hold what must be replayed.
+ * <p>
+ * Forcing is shared: a thread that finds its change already forced by another one does not force again,
+ * which turns concurrent appends into a single disk sync.
+ */
+final class StockWriteBehindLog {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+    /**
+     * A book id, then the change of its available and reserved quantities.
+     */
+    static final int ENTRY_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+    private final Path directory;
+
+    StockWriteBehindLog(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not create the stock log directory " + directory, e);
+        }
+    }
+
+    /**
+     * A change of the stock of a book.
+     */
+    record Entry(Long bookId, int availableChange, int reservedChange) {
+    }
+
+    /**
+     * The changes of a segment left on disk.
+     */
+    record Recovered(long segmentId, List<Entry> entries) {
+    }
+
+    /**
+     * Creates the segment of an epoch.
+     */
+    Segment open(long segmentId) {
+        try {
+            return new Segment(segmentId, FileChannel.open(path(segmentId),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not create the stock log segment " + segmentId, e);
+        }
+    }
+
+    /**
+     * Reads the segments left on disk, oldest first. An entry cut short by a crash is ignored: it was never
+     * acknowledged.
+     */
+    List<Recovered> recover() {
+        List<Recovered> segments = new ArrayList<>();
+        for (long segmentId : segmentIds()) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path(segmentId)));
+                List<Entry> entries = new ArrayList<>(buffer.remaining() / ENTRY_SIZE);
+                while (buffer.remaining() >= ENTRY_SIZE) {
+                    entries.add(new Entry(buffer.getLong(), buffer.getInt(), buffer.getInt()));
+                }
+                segments.add(new Recovered(segmentId, entries));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Could not read the stock log segment " + segmentId, e);
+            }
+        }
+        return segments;
+    }
+
+    void delete(long segmentId) {
+        try {
+            Files.deleteIfExists(path(segmentId));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not delete the stock log segment " + segmentId, e);
+        }
+    }
+
+    private List<Long> segmentIds() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not list the stock log segments in " + directory, e);
+        }
+    }
+
+    private Path path(long segmentId) {
+        return directory.resolve(String.format("segment-%020d.log", segmentId));
+    }
+
+    static final class Segment implements Closeable {
+
+        private final long id;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+
+        private final Object syncLock = new Object();
+
+        private volatile long written;
+
+        private long synced;
+
+        private Segment(long id, FileChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+
+        long id() {
+            return id;
+        }
+
+        /**
+         * Writes the entry, without waiting for it to reach the disk.
+         *
+         * @return The position to wait for with {@link #awaitDurable}
+         */
+        synchronized long append(Entry entry) {
+            buffer.clear();
+            buffer.putLong(entry.bookId()).putInt(entry.availableChange()).putInt(entry.reservedChange()).flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Could not log a stock change", e);
+            }
+            written += ENTRY_SIZE;
+            return written;
+        }
+
+        /**
+         * Returns once everything written up to the position is on disk.
+         */
+        void awaitDurable(long position) {
+            synchronized (syncLock) {
+                if (synced >= position) {
+                    return;
+                }
+                long target = written;
+                try {
+                    channel.force(false);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException("Could not sync the stock log", e);
+                }
+                synced = target;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Could not close the stock log segment " + id, e);
+            }
+        }
+
+    }
+
+}
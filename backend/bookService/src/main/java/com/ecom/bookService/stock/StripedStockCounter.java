@@ -0,0 +1,201 @@
+package com.ecom.bookService.stock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The stock of a hot book, held in memory.
+ * <p>
+ * The free units ({@code available - reserved}) are spread over stripes that are updated with CAS, each on
+ * its own cache line: threads start from a stripe of their own and only move to the others when it runs dry,
+ * so that concurrent reservations rarely touch the same memory. The changes to write to the database are
+ * accumulated per epoch of the {@link HotStockEngine}, and drained once the epoch is over.
+ * <p>
+ * Reservations take their units right away but are only recorded once their transaction commits: until then
+ * they are counted as pending, so that a demotion can write them to the database along with the rest.
+ */
+final class StripedStockCounter {
+
+    /**
+     * Distance between two stripes in the array, so that each one sits on its own 64 bytes cache line.
+     */
+    private static final int PADDING = 8;
+
+    private final Long bookId;
+
+    private final AtomicLongArray stripes;
+
+    private final int stripeCount;
+
+    private final LongAdder[] availableChanges = {new LongAdder(), new LongAdder()};
+
+    private final LongAdder[] reservedChanges = {new LongAdder(), new LongAdder()};
+
+    private final LongAdder pendingReserved = new LongAdder();
+
+    private volatile boolean carried;
+
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    StripedStockCounter(Long bookId, int stripeCount, long free) {
+        this.bookId = bookId;
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicLongArray(stripeCount * PADDING);
+        long share = Math.max(free, 0) / stripeCount;
+        long remainder = Math.max(free, 0) % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    Long bookId() {
+        return bookId;
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    /**
+     * Takes the quantity from the free units if there are enough of them. The units are taken from a single
+     * stripe when possible, gathered from several ones otherwise.
+     *
+     * @return Whether the quantity has been taken
+     */
+    boolean tryTake(int quantity) {
+        lastUsedNanos = System.nanoTime();
+        int home = homeStripe();
+        for (int i = 0; i < stripeCount; i++) {
+            if (takeExactly((home + i) % stripeCount, quantity)) {
+                return true;
+            }
+        }
+
+        long taken = 0;
+        for (int i = 0; i < stripeCount && taken < quantity; i++) {
+            taken += takeUpTo((home + i) % stripeCount, quantity - taken);
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        give(taken);
+        return false;
+    }
+
+    /**
+     * Adds units to the free ones. A negative quantity is taken unconditionally, possibly leaving a stripe
+     * below zero until units are given back.
+     */
+    void give(long quantity) {
+        if (quantity != 0) {
+            stripes.getAndAdd(homeStripe() * PADDING, quantity);
+        }
+    }
+
+    /**
+     * @return The free units, which may be off by the reservations in progress
+     */
+    long free() {
+        long free = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            free += stripes.get(i * PADDING);
+        }
+        return free;
+    }
+
+    /**
+     * Counts units taken by a reservation whose transaction is not over yet.
+     */
+    void hold(int quantity) {
+        pendingReserved.add(quantity);
+    }
+
+    /**
+     * Stops counting units held by a reservation, its transaction being over.
+     */
+    void settle(int quantity) {
+        pendingReserved.add(-quantity);
+    }
+
+    /**
+     * @return The units held by the reservations in progress
+     */
+    long pendingReserved() {
+        return pendingReserved.sum();
+    }
+
+    /**
+     * Hands the stock of the book back to the database: the changes still in progress are written to it
+     * directly from then on.
+     */
+    void carry() {
+        carried = true;
+    }
+
+    boolean isCarried() {
+        return carried;
+    }
+
+    /**
+     * Records a change to write to the database at the end of the epoch.
+     */
+    void record(long epoch, int availableChange, int reservedChange) {
+        int parity = (int) (epoch & 1);
+        if (availableChange != 0) {
+            availableChanges[parity].add(availableChange);
+        }
+        if (reservedChange != 0) {
+            reservedChanges[parity].add(reservedChange);
+        }
+    }
+
+    /**
+     * Collects the changes recorded during an epoch, which must be over.
+     *
+     * @return The change of the available quantity, then of the reserved quantity
+     */
+    long[] drain(long epoch) {
+        int parity = (int) (epoch & 1);
+        return new long[] {availableChanges[parity].sumThenReset(), reservedChanges[parity].sumThenReset()};
+    }
+
+    private boolean takeExactly(int stripe, int quantity) {
+        int index = stripe * PADDING;
+        long free = stripes.get(index);
+        while (free >= quantity) {
+            long witness = stripes.compareAndExchange(index, free, free - quantity);
+            if (witness == free) {
+                return true;
+            }
+            free = witness;
+        }
+        return false;
+    }
+
+    private long takeUpTo(int stripe, long quantity) {
+        int index = stripe * PADDING;
+        long free = stripes.get(index);
+        while (free > 0) {
+            long taken = Math.min(free, quantity);
+            long witness = stripes.compareAndExchange(index, free, free - taken);
+            if (witness == free) {
+                return taken;
+            }
+            free = witness;
+        }
+        return 0;
+    }
+
+    private int homeStripe() {
+        return threadSlot(stripeCount);
+    }
+
+    /**
+     * @return A slot among {@code slots} that stays the same for the current thread
+     */
+    static int threadSlot(int slots) {
+        long id = Thread.currentThread().getId();
+        return (int) Long.remainderUnsigned(id * 0x9E3779B97F4A7C15L >>> 32, slots);
+    }
+
+}
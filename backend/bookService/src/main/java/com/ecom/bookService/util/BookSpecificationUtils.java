@@ -35,6 +35,51 @@ public class BookSpecificationUtils {
     }
 
 
+    /**
+     * Create a Specification to filter books for a keyset (cursor) paginated listing: the sort options of the
+     * filter are ignored, the listing being always sorted by creation date then id, newest first.
+     *
+     * @param filter A BookFilter
+     * @param cursor The position of the last book of the previous page, null for the first page
+     * @return A Specification of Book representing the combined filtering conditions
+     */
+    public static Specification<Book> keysetFilter(BookFilter filter, KeysetCursor cursor) {
+        Assert.notNull(filter, () -> "Book Filter must not be null");
+
+        return Specification.allOf(
+                search(filter.search()),
+                priceGreaterThanOrEqualTo(filter.minPrice()),
+                priceLessThanOrEqualTo(filter.maxPrice()),
+                booksByCategoryId(filter.categoryId()),
+                createdBefore(cursor)
+        );
+    }
+
+
+    /**
+     * Create a Specification to seek the books coming after a cursor in the (createdAt DESC, bookId DESC) order.
+     *
+     * @param cursor The position of the last book of the previous page
+     * @return A Specification of Book to filter the books coming after the cursor
+     */
+    public static Specification<Book> createdBefore(KeysetCursor cursor) {
+        if (cursor == null) {
+            return Specification.unrestricted();
+        }
+
+        Long bookId = cursor.longId();
+
+        return (root, query, cb) ->
+                cb.or(
+                        cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                        cb.and(
+                                cb.equal(root.get("createdAt"), cursor.createdAt()),
+                                cb.lessThan(root.get("bookId"), bookId)
+                        )
+                );
+    }
+
+
     /**
      * Create a Specification to filter books based on a keyword and search in a book's title, author or summary. This keyword id case-insensitive.
      *
@@ -0,0 +1,22 @@
+-- The ids of the books and of their inventories come from sequences, handed out 50 at a time, instead of
+-- identity columns. A database created with the identity columns already holds ids: the sequences are moved
+-- past the highest one, so that no id is handed out twice, and never moved back. On a new database the
+-- tables do not exist yet, Hibernate creates them once the migrations have run.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS book_inventories_seq START WITH 1 INCREMENT BY 50;
+
+DO $$
+BEGIN
+    IF to_regclass('books') IS NOT NULL THEN
+        PERFORM setval('books_seq', GREATEST(
+                (SELECT COALESCE(MAX(book_id), 0) FROM books) + 50,
+                (SELECT last_value FROM books_seq)));
+    END IF;
+    IF to_regclass('book_inventories') IS NOT NULL THEN
+        PERFORM setval('book_inventories_seq', GREATEST(
+                (SELECT COALESCE(MAX(id), 0) FROM book_inventories) + 50,
+                (SELECT last_value FROM book_inventories_seq)));
+    END IF;
+END
+$$;
@@ -0,0 +1,107 @@
+package com.ecom.bookService.availability;
+
+import com.ecom.bookService.dto.StockLevel;
+import com.ecom.bookService.event.StockChangedEvent;
+import com.ecom.bookService.exception.TooManySubscribersException;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAvailabilityStreamTest {
+
+    @Mock
+    BookInventoryRepository bookInventoryRepository;
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    private StockAvailabilityStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new StockAvailabilityStream(bookInventoryRepository, new StockStreamProperties(
+                Duration.ofMillis(250), Duration.ofSeconds(15), Duration.ofMinutes(1), 3, 2, 1, 1), taskScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void publishChanges_readsEachFollowedBookOnce_whateverTheNumberOfChanges() {
+        when(bookInventoryRepository.findStockLevels(any())).thenReturn(List.of(new StockLevel(1L, 5, 2)));
+        stream.subscribe(List.of(1L, 2L), "10.0.0.1");
+        stream.subscribe(List.of(1L), "10.0.0.2");
+        clearInvocations(bookInventoryRepository);
+
+        stream.onStockChanged(new StockChangedEvent(1L));
+        stream.onStockChanged(new StockChangedEvent(1L));
+        stream.onStockChanged(new StockChangedEvent(3L));
+        stream.publishChanges();
+        stream.publishChanges();
+
+        verify(bookInventoryRepository, times(1)).findStockLevels(List.of(1L));
+        verifyNoMoreInteractions(bookInventoryRepository);
+    }
+
+    @Test
+    void subscribe_startsWithTheCurrentAvailability() {
+        stream.subscribe(List.of(1L, 2L), "10.0.0.1");
+
+        verify(bookInventoryRepository).findStockLevels(Set.of(1L, 2L));
+        assertThat(stream.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_tooManyBooks_isRefused() {
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(List.of(1L, 2L, 3L, 4L), "10.0.0.1"));
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(List.of(), "10.0.0.1"));
+    }
+
+    @Test
+    void subscribe_tooManySubscribers_isRefused() {
+        stream.subscribe(List.of(1L), "10.0.0.1");
+        stream.subscribe(List.of(2L), "10.0.0.2");
+
+        assertThrows(TooManySubscribersException.class, () -> stream.subscribe(List.of(3L), "10.0.0.3"));
+    }
+
+    @Test
+    void subscribe_tooManyStreamsFromOneClient_isRefused_whileOthersMayStillSubscribe() {
+        stream.subscribe(List.of(1L), "10.0.0.1");
+
+        assertThrows(TooManySubscribersException.class, () -> stream.subscribe(List.of(2L), "10.0.0.1"));
+        stream.subscribe(List.of(2L), "10.0.0.2");
+        assertThat(stream.subscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void subscribe_failing_givesItsPlaceBack() {
+        when(bookInventoryRepository.findStockLevels(any())).thenThrow(new IllegalStateException("database down"));
+        assertThrows(IllegalStateException.class, () -> stream.subscribe(List.of(1L), "10.0.0.1"));
+        assertThrows(IllegalStateException.class, () -> stream.subscribe(List.of(1L), "10.0.0.1"));
+        reset(bookInventoryRepository);
+
+        stream.subscribe(List.of(1L), "10.0.0.1");
+        stream.subscribe(List.of(2L), "10.0.0.2");
+
+        assertThat(stream.subscriberCount()).isEqualTo(2);
+    }
+
+}
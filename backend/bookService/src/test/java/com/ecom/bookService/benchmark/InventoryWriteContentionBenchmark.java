@@ -0,0 +1,192 @@
+package com.ecom.bookService.benchmark;
+
+import com.ecom.bookService.dto.ReservationResult;
+import com.ecom.bookService.dto.UpdateBookRequest;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.Category;
+import com.ecom.bookService.reader.BookDataLoader;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import com.ecom.bookService.repository.BookRepository;
+import com.ecom.bookService.repository.CategoryRepository;
+import com.ecom.bookService.repository.StockReservationRepository;
+import com.ecom.bookService.service.BookServiceImpl;
+import com.ecom.bookService.service.InventoryService;
+import com.ecom.bookService.service.ReservationMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Edits a book from the catalog while its stock is reserved and released, with optimistic locking. Stock is
+ * written through the inventory row only, so neither side may fail on the other's writes and the version of
+ * the book may only move with the catalog edits. Run against the configured database with
+ * {@code -Dinventory.benchmark=true}, for example
+ * {@code mvn test -Dtest=InventoryWriteContentionBenchmark -Dinventory.benchmark=true}.
+ * <p>
+ * It checks that the two sides stay out of each other's way, not how fast either is: no timings have been
+ * recorded with it.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "logging.level.com.ecom.bookService.service.InventoryService=WARN"
+})
+@EnabledIfSystemProperty(named = "inventory.benchmark", matches = "true")
+class InventoryWriteContentionBenchmark {
+
+    private static final int EDITORS = Integer.getInteger("inventory.benchmark.editors", 4);
+
+    private static final int EDITS_PER_EDITOR = Integer.getInteger("inventory.benchmark.edits", 100);
+
+    private static final int RESERVATIONS = Integer.getInteger("inventory.benchmark.reservations", 400);
+
+    @MockitoBean
+    BookDataLoader bookDataLoader;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    BookServiceImpl bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookInventoryRepository bookInventoryRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    private Long bookId;
+
+    private Long categoryId;
+
+    private final Queue<Long> reservationIds = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger edits = new AtomicInteger();
+
+    @BeforeEach
+    void createBook() {
+        categoryId = categoryRepository.save(Category.builder().categoryName("Contention benchmark").build())
+                .getCategoryId();
+        Book book = Book.builder()
+                .isbn13(String.format("979%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L)))
+                .title("Contention benchmark")
+                .author("Benchmark")
+                .price(new BigDecimal("9.99"))
+                .category(categoryRepository.getReferenceById(categoryId))
+                .build();
+        book.setInventory(BookInventory.builder().book(book).availableQuantity(RESERVATIONS).build());
+        bookId = bookRepository.save(book).getBookId();
+    }
+
+    @AfterEach
+    void removeBook() {
+        stockReservationRepository.deleteAllById(reservationIds);
+        bookRepository.deleteById(bookId);
+        categoryRepository.deleteById(categoryId);
+    }
+
+    @Test
+    void catalogEditsAndReservationsNeverConflict() throws InterruptedException {
+        long initialVersion = bookRepository.findById(bookId).orElseThrow().getVersion();
+        AtomicInteger editFailures = new AtomicInteger();
+        AtomicInteger reservationFailures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(EDITORS + 1);
+        for (int e = 0; e < EDITORS; e++) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < EDITS_PER_EDITOR; i++) {
+                    try {
+                        bookService.updateBook(bookId, edit(), null);
+                    }
+                    catch (RuntimeException ex) {
+                        editFailures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.execute(() -> {
+            awaitQuietly(start);
+            for (int i = 0; i < RESERVATIONS; i++) {
+                String orderId = "contention-" + UUID.randomUUID();
+                try {
+                    ReservationResult result = inventoryService.reserveStock(orderId, Map.of(bookId, 1),
+                            ReservationMode.OPTIMISTIC);
+                    reservationIds.add(result.reservationId());
+                    if (i % 2 == 0) {
+                        inventoryService.releaseReservation(orderId);
+                    }
+                    else {
+                        inventoryService.confirmReservation(orderId);
+                    }
+                }
+                catch (RuntimeException ex) {
+                    reservationFailures.incrementAndGet();
+                }
+            }
+        });
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+
+        System.out.printf("%d edits, %d reservations: %d edit failures, %d reservation failures%n",
+                EDITORS * EDITS_PER_EDITOR, RESERVATIONS, editFailures.get(), reservationFailures.get());
+
+        assertThat(reservationFailures.get()).isZero();
+        BookInventory inventory = bookInventoryRepository.findByBookBookId(bookId).orElseThrow();
+        assertThat(inventory.getReservedQuantity()).isZero();
+        assertThat(inventory.getAvailableQuantity()).isEqualTo(RESERVATIONS - RESERVATIONS / 2);
+        // edits conflict with one another, never with the stock: every version bump is a successful edit
+        long successfulEdits = (long) EDITORS * EDITS_PER_EDITOR - editFailures.get();
+        assertThat(bookRepository.findById(bookId).orElseThrow().getVersion())
+                .isEqualTo(initialVersion + successfulEdits);
+    }
+
+    /**
+     * @return An edit changing the price, to a value never used before so that the book is always dirty
+     */
+    private UpdateBookRequest edit() {
+        return UpdateBookRequest.builder()
+                .categoryId(categoryId)
+                .title("Contention benchmark")
+                .author("Benchmark")
+                .price(BigDecimal.valueOf(1000 + edits.incrementAndGet(), 2))
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
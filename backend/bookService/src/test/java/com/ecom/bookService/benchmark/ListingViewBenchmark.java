@@ -0,0 +1,143 @@
+package com.ecom.bookService.benchmark;
+
+import com.ecom.bookService.dto.BookFilter;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.Category;
+import com.ecom.bookService.reader.BookDataLoader;
+import com.ecom.bookService.repository.BookRepository;
+import com.ecom.bookService.repository.CategoryRepository;
+import com.ecom.bookService.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times the catalog list pages in their {@code FULL} and {@code SUMMARY} views, and counts the SQL statements
+ * each page costs. Every book gets a summary as long as the longest ones of the feed. Run against the
+ * configured database with {@code -Dcatalog.benchmark=true}, for example
+ * {@code mvn test -Dtest=ListingViewBenchmark -Dcatalog.benchmark=true}.
+ * <p>
+ * No figures from it have been recorded yet: until they are, what either view costs is unknown.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EnabledIfSystemProperty(named = "catalog.benchmark", matches = "true")
+class ListingViewBenchmark {
+
+    private static final int BOOKS = Integer.getInteger("catalog.benchmark.books", 2000);
+
+    private static final int PAGE_SIZE = Integer.getInteger("catalog.benchmark.page-size", 20);
+
+    private static final int ROUNDS = Integer.getInteger("catalog.benchmark.rounds", 5);
+
+    private static final String SUMMARY = "x".repeat(10_000);
+
+    enum View { FULL, SUMMARY }
+
+    @MockitoBean
+    BookDataLoader bookDataLoader;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void createBooks() {
+        category = categoryRepository.save(Category.builder()
+                .categoryName("Listing benchmark " + UUID.randomUUID())
+                .build());
+
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = Book.builder()
+                    .isbn13(String.format("979%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L)))
+                    .title("Listing benchmark " + i)
+                    .author("Someone")
+                    .summary(SUMMARY)
+                    .price(new BigDecimal("9.99"))
+                    .category(category)
+                    .build();
+            book.setInventory(BookInventory.builder().book(book).availableQuantity(10).minimumStockLevel(5).build());
+            books.add(book);
+        }
+        bookRepository.saveAll(books).forEach(book -> bookIds.add(book.getBookId()));
+    }
+
+    @AfterEach
+    void removeBooks() {
+        bookRepository.deleteAllById(bookIds);
+        categoryRepository.delete(category);
+    }
+
+    @ParameterizedTest
+    @EnumSource(View.class)
+    void listCategory(View view) {
+        BookFilter filter = BookFilter.builder().categoryId(category.getCategoryId()).build();
+        IntFunction<Page<?>> listPage = view == View.FULL
+                ? page -> bookService.getPagedBooks(filter, page, PAGE_SIZE)
+                : page -> bookService.getPagedBookSummaries(filter, page, PAGE_SIZE);
+        int pages = BOOKS / PAGE_SIZE;
+
+        // warm-up
+        for (int page = 0; page < pages; page++) {
+            listPage.apply(page);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long[] latencies = new long[pages * ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int page = 0; page < pages; page++) {
+                long begin = System.nanoTime();
+                Page<?> result = listPage.apply(page);
+                latencies[round * pages + page] = System.nanoTime() - begin;
+                assertThat(result.getContent()).hasSize(PAGE_SIZE);
+            }
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d pages of %d books, %.1f statements per page, "
+                        + "latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                view, latencies.length, PAGE_SIZE, statistics.getPrepareStatementCount() / (double) latencies.length,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+}
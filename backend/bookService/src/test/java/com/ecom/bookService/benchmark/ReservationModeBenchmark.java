@@ -0,0 +1,160 @@
+package com.ecom.bookService.benchmark;
+
+import com.ecom.bookService.dto.ReservationResult;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.reader.BookDataLoader;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import com.ecom.bookService.repository.BookRepository;
+import com.ecom.bookService.repository.StockReservationRepository;
+import com.ecom.bookService.service.InventoryService;
+import com.ecom.bookService.service.ReservationMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the reservation modes on a single hot book: many threads reserve one unit each until the stock
+ * runs out. Run against the configured database with {@code -Dinventory.benchmark=true}, for example
+ * {@code mvn test -Dtest=ReservationModeBenchmark -Dinventory.benchmark=true}.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "logging.level.com.ecom.bookService.service.InventoryService=WARN"
+})
+@EnabledIfSystemProperty(named = "inventory.benchmark", matches = "true")
+class ReservationModeBenchmark {
+
+    private static final int THREADS = Integer.getInteger("inventory.benchmark.threads", 32);
+
+    private static final int RESERVATIONS_PER_THREAD = Integer.getInteger("inventory.benchmark.reservations", 50);
+
+    private static final int STOCK = THREADS * RESERVATIONS_PER_THREAD / 2;
+
+    @MockitoBean
+    BookDataLoader bookDataLoader;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookInventoryRepository bookInventoryRepository;
+
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    private Long bookId;
+
+    private final Queue<Long> reservationIds = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void createHotBook() {
+        Book book = Book.builder()
+                .isbn13(String.format("979%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L)))
+                .title("Reservation benchmark")
+                .price(new BigDecimal("9.99"))
+                .build();
+        book.setInventory(BookInventory.builder().book(book).availableQuantity(STOCK).build());
+        bookId = bookRepository.save(book).getBookId();
+    }
+
+    @AfterEach
+    void removeHotBook() {
+        stockReservationRepository.deleteAllById(reservationIds);
+        bookRepository.deleteById(bookId);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ReservationMode.class)
+    void reserveHotBook(ReservationMode mode) throws InterruptedException {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        long[] latencies = new long[THREADS * RESERVATIONS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                    String orderId = "benchmark-" + UUID.randomUUID();
+                    long begin = System.nanoTime();
+                    try {
+                        ReservationResult result = inventoryService.reserveStock(orderId, Map.of(bookId, 1), mode);
+                        if (result.success()) {
+                            reserved.incrementAndGet();
+                            reservationIds.add(result.reservationId());
+                        }
+                        else {
+                            outOfStock.incrementAndGet();
+                        }
+                    }
+                    catch (RuntimeException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    latencies[thread * RESERVATIONS_PER_THREAD + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - begin);
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d reservations in %d ms (%.0f/s), %d reserved, %d out of stock, %d conflicts, "
+                        + "latency p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                mode, latencies.length, elapsed.toMillis(), latencies.length * 1_000_000_000d / elapsed.toNanos(),
+                reserved.get(), outOfStock.get(), conflicts.get(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+
+        int reservedQuantity = bookInventoryRepository.findByBookBookId(bookId).orElseThrow().getReservedQuantity();
+        assertThat(reservedQuantity).isEqualTo(reserved.get()).isLessThanOrEqualTo(STOCK);
+        if (mode == ReservationMode.ATOMIC) {
+            assertThat(reserved.get()).isEqualTo(STOCK);
+            assertThat(conflicts.get()).isZero();
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
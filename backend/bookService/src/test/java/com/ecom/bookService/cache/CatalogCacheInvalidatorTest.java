@@ -0,0 +1,56 @@
+package com.ecom.bookService.cache;
+
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.event.CatalogImportedEvent;
+import com.ecom.bookService.model.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheInvalidatorTest {
+
+    @Mock
+    BookCatalogCache catalogCache;
+
+    @InjectMocks
+    CatalogCacheInvalidator invalidator;
+
+    @Test
+    void onCatalogChanged_evictsTheBookAndTheListings() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.created(Book.builder().bookId(1L).build()));
+
+        verify(catalogCache).evictBook(1L);
+        verify(catalogCache).evictCategoryListings();
+    }
+
+    @Test
+    void onCatalogChanged_inImport_leavesTheListingsToTheEndOfTheImport() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.created(Book.builder().bookId(1L).build()).inImport());
+        invalidator.onCatalogChanged(CatalogChangedEvent.deleted(2L).inImport());
+
+        verify(catalogCache).evictBook(1L);
+        verify(catalogCache).evictBook(2L);
+        verify(catalogCache, never()).evictCategoryListings();
+
+        invalidator.onCatalogImported(new CatalogImportedEvent(2));
+
+        verify(catalogCache).evictCategoryListings();
+        verifyNoMoreInteractions(catalogCache);
+    }
+
+    @Test
+    void apply_importOnAnotherInstance_evictsEverything() {
+        invalidator.apply(CatalogCacheInvalidation.catalogImported("other"));
+
+        verify(catalogCache).evictAll();
+        verifyNoMoreInteractions(catalogCache);
+    }
+
+}
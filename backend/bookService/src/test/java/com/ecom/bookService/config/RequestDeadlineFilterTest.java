@@ -0,0 +1,105 @@
+package com.ecom.bookService.config;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks this copy against the contract of the {@value RequestDeadline#HEADER} header described on
+ * {@code com.ecom.order.resilience.RequestDeadline}, with the same cases as the order service.
+ */
+class RequestDeadlineFilterTest {
+
+    private final RequestDeadlineFilter filter = new RequestDeadlineFilter();
+
+    private final AtomicReference<Optional<Duration>> remaining = new AtomicReference<>();
+
+    private final MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            remaining.set(RequestDeadline.remaining());
+        }
+    });
+
+    @Test
+    void doFilter_timeoutHeader_startsTheDeadline() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory");
+        request.addHeader(RequestDeadline.HEADER, "2000");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(remaining.get()).hasValueSatisfying(left ->
+                assertThat(left).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(2)));
+        assertThat(RequestDeadline.remaining()).isEmpty();
+    }
+
+    @Test
+    void doFilter_paddedHeader_isReadInMilliseconds() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory");
+        request.addHeader(RequestDeadline.HEADER, " 1500 ");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(remaining.get()).hasValueSatisfying(left ->
+                assertThat(left).isGreaterThan(Duration.ofSeconds(1)).isLessThanOrEqualTo(Duration.ofMillis(1500)));
+    }
+
+    @Test
+    void doFilter_noHeader_getsNoDeadline() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/inventory"), new MockHttpServletResponse(), chain);
+
+        assertThat(remaining.get()).isEmpty();
+    }
+
+    @Test
+    void doFilter_malformedHeader_getsNoDeadline() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory");
+        request.addHeader(RequestDeadline.HEADER, "soon");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(remaining.get()).isEmpty();
+    }
+
+    @Test
+    void doFilter_noTimeLeft_isNotServed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory");
+        request.addHeader(RequestDeadline.HEADER, "0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(remaining.get()).isNull();
+    }
+
+    @Test
+    void doFilter_negativeTimeLeft_isNotServed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/inventory");
+        request.addHeader(RequestDeadline.HEADER, "-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(remaining.get()).isNull();
+    }
+
+    @Test
+    void headerValue_timeLeft_isSentInMillisecondsNeverNegative() {
+        assertThat(RequestDeadline.headerValue(Duration.ofMillis(1500))).isEqualTo("1500");
+        assertThat(RequestDeadline.headerValue(Duration.ofMillis(-3))).isEqualTo("0");
+    }
+
+}
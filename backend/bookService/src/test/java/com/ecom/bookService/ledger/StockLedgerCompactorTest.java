@@ -0,0 +1,82 @@
+package com.ecom.bookService.ledger;
+
+import com.ecom.bookService.stock.HotStockEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerCompactorTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    HotStockEngine hotStock;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    private final SimpleTransactionStatus transaction = new SimpleTransactionStatus();
+
+    private StockLedgerCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        compactor = new StockLedgerCompactor(
+                new StockLedgerProperties(true, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ZERO),
+                jdbcTemplate, hotStock, transactionManager, new SimpleMeterRegistry(), taskScheduler);
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class))).thenReturn(true);
+    }
+
+    @Test
+    void compact_opensEveryBookWithoutOpening_butTheHotOnes_thenFolds() {
+        when(hotStock.unsettledBooks()).thenReturn(Set.of(9L));
+        when(jdbcTemplate.queryForObject(contains("MAX(id)"), eq(Long.class), any(Timestamp.class))).thenReturn(40L);
+        when(jdbcTemplate.queryForObject(contains("stock_snapshots"), eq(Integer.class), eq(40L), eq(40L),
+                any(Timestamp.class))).thenReturn(12);
+
+        assertThat(compactor.compact()).isEqualTo(12);
+
+        verify(jdbcTemplate).update(argThat(sql -> sql.contains("'OPENING'")), any(Timestamp.class),
+                eq(new Long[] {9L}));
+        assertThat(transaction.isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    void compact_bookPromotedDuringThePass_rollsTheOpeningsBack() {
+        // the book moves to the hot stock engine while the openings are written
+        when(hotStock.unsettledBooks()).thenReturn(Set.of(), Set.of(7L));
+
+        assertThat(compactor.compact()).isZero();
+
+        assertThat(transaction.isRollbackOnly()).isTrue();
+        verify(jdbcTemplate, never()).queryForObject(contains("MAX(id)"), eq(Long.class), any(Timestamp.class));
+        verify(transactionManager).commit(transaction);
+        verify(jdbcTemplate).update(anyString(), any(Timestamp.class), eq(new Long[0]));
+    }
+
+}
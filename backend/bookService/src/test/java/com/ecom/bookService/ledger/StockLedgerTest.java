@@ -0,0 +1,87 @@
+package com.ecom.bookService.ledger;
+
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.StockMovement;
+import com.ecom.bookService.model.StockReservation;
+import com.ecom.bookService.model.StockReservationItem;
+import com.ecom.bookService.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+
+    @Mock
+    StockMovementRepository movementRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void record_signsEveryMovementByItsType() {
+        StockLedger ledger = ledger(true);
+
+        ledger.record(StockMovement.Type.RESERVE, "ord-1", Map.of(2L, 3, 1L, 1));
+        StockReservation reservation = StockReservation.builder().orderId("ord-1").build();
+        reservation.setItems(List.of(StockReservationItem.builder()
+                .book(Book.builder().bookId(1L).build())
+                .reservedQuantity(1)
+                .reservation(reservation)
+                .build()));
+        ledger.record(StockMovement.Type.CONFIRM, reservation);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockMovement>> movements = ArgumentCaptor.forClass(List.class);
+        verify(movementRepository, times(2)).saveAll(movements.capture());
+        assertThat(movements.getAllValues()).flatMap(batch -> batch)
+                .extracting(StockMovement::getBookId, StockMovement::getAvailableChange,
+                        StockMovement::getReservedChange, StockMovement::getReference)
+                .containsExactly(
+                        tuple(1L, 0, 1, "ord-1"),
+                        tuple(2L, 0, 3, "ord-1"),
+                        tuple(1L, -1, -1, "ord-1"));
+    }
+
+    @Test
+    void record_adjustment_keepsItsSign_andSkipsNothingToRecord() {
+        StockLedger ledger = ledger(true);
+
+        ledger.record(StockMovement.Type.ADJUST, 1L, -4);
+        ledger.record(StockMovement.Type.RECEIPT, 1L, 0);
+
+        ArgumentCaptor<StockMovement> movement = ArgumentCaptor.forClass(StockMovement.class);
+        verify(movementRepository).save(movement.capture());
+        assertThat(movement.getValue().getAvailableChange()).isEqualTo(-4);
+        assertThat(movement.getValue().getReservedChange()).isZero();
+    }
+
+    @Test
+    void record_disabled_recordsNothing() {
+        StockLedger ledger = ledger(false);
+
+        ledger.record(StockMovement.Type.RESERVE, "ord-1", Map.of(1L, 1));
+        ledger.record(StockMovement.Type.RECEIPT, 1L, 5);
+
+        verify(movementRepository, never()).saveAll(any());
+        verify(movementRepository, never()).save(any());
+    }
+
+    private StockLedger ledger(boolean enabled) {
+        return new StockLedger(movementRepository, jdbcTemplate,
+                new StockLedgerProperties(enabled, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofDays(30)));
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.ecom.bookService.outbox;
+
+import com.ecom.bookService.event.InventoryEvent;
+import com.ecom.bookService.model.InventoryOutboxEvent;
+import com.ecom.bookService.repository.InventoryOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryOutboxRelayTest {
+
+    @Mock
+    KafkaTemplate<String, InventoryEvent> kafkaTemplate;
+
+    @Mock
+    InventoryOutboxRepository outboxRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    private InventoryOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new InventoryOutboxRelay(kafkaTemplate, outboxRepository, new TransactionTemplate(transactionManager),
+                new InventoryOutboxProperties(true, "inventory", 2, Duration.ofMillis(200), Duration.ofSeconds(1),
+                        Duration.ofSeconds(30)), taskScheduler);
+    }
+
+    @Test
+    void relay_sendsBatchesKeyedByBook_thenDeletesThem() {
+        List<InventoryOutboxEvent> first = List.of(event(1L, 7L), event(2L, 8L));
+        List<InventoryOutboxEvent> second = List.of(event(3L, 7L));
+        when(outboxRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(first, second);
+        when(kafkaTemplate.send(anyString(), anyString(), any(InventoryEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relay()).isEqualTo(3);
+
+        InOrder inOrder = inOrder(kafkaTemplate, outboxRepository);
+        inOrder.verify(kafkaTemplate).send("inventory", "7", first.get(0).toEvent());
+        inOrder.verify(kafkaTemplate).send("inventory", "8", first.get(1).toEvent());
+        inOrder.verify(outboxRepository).deleteAllInBatch(first);
+        inOrder.verify(kafkaTemplate).send("inventory", "7", second.get(0).toEvent());
+        inOrder.verify(outboxRepository).deleteAllInBatch(second);
+    }
+
+    @Test
+    void relay_failedSend_keepsTheBatch() {
+        List<InventoryOutboxEvent> batch = List.of(event(1L, 7L));
+        when(outboxRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(batch);
+        when(kafkaTemplate.send(anyString(), anyString(), any(InventoryEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThat(relay.relay()).isZero();
+
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+        verify(outboxRepository).releaseLeases(List.of(1L));
+    }
+
+    @Test
+    void relay_waitsForKafkaOutsideOfAnyTransaction() {
+        List<InventoryOutboxEvent> batch = List.of(event(1L, 7L));
+        when(outboxRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(batch);
+        when(kafkaTemplate.send(anyString(), anyString(), any(InventoryEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relay()).isEqualTo(1);
+
+        InOrder inOrder = inOrder(transactionManager, outboxRepository, kafkaTemplate);
+        inOrder.verify(outboxRepository).findByOrderByIdAsc(any(Limit.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(kafkaTemplate).send("inventory", "7", batch.get(0).toEvent());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxRepository).deleteAllInBatch(batch);
+        inOrder.verify(transactionManager).commit(any());
+        assertThat(batch.get(0).getLeasedUntil()).isAfter(Instant.now());
+    }
+
+    @Test
+    void relay_oldestEventsLeasedToAnotherRelay_leavesThemToIt() {
+        InventoryOutboxEvent leased = event(1L, 7L);
+        leased.setLeasedUntil(Instant.now().plusSeconds(10));
+        when(outboxRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(List.of(leased, event(2L, 7L)));
+
+        assertThat(relay.relay()).isZero();
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+    }
+
+    private static InventoryOutboxEvent event(Long id, Long bookId) {
+        return InventoryOutboxEvent.builder()
+                .id(id)
+                .type(InventoryEvent.Type.STOCK_RESERVED)
+                .bookId(bookId)
+                .orderId("order-" + id)
+                .reservationId(id)
+                .quantity(1)
+                .occurredAt(Instant.EPOCH)
+                .build();
+    }
+
+}
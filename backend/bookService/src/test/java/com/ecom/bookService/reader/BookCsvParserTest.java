@@ -0,0 +1,104 @@
+package com.ecom.bookService.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookCsvParserTest {
+
+    private static final String HEADER =
+            "isbn13,isbn10,title,subtitle,authors,categories,thumbnail,description,published_year,average_rating,num_pages,ratings_count\n";
+
+    private final BookCsvParser parser = new BookCsvParser();
+
+    @Test
+    void stream_readsLazily_fromAnEndlessFeed() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream endless = new EndlessFeed(closed);
+
+        List<BookCsvRecord> records;
+        try (Stream<BookCsvRecord> stream = parser.stream(endless)) {
+            records = stream.limit(3).toList();
+        }
+
+        assertThat(records).extracting(BookCsvRecord::getTitle).containsExactly("Title 0", "Title 1", "Title 2");
+        assertThat(records.get(0).getIsbn13()).isEqualTo("9780000000000");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void stream_splitsIntoBoundedBatches() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < BookCsvParser.SPLIT_BATCH_SIZE + 10; i++) {
+            csv.append(row(i));
+        }
+
+        try (Stream<BookCsvRecord> stream = parser.stream(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)))) {
+            Spliterator<BookCsvRecord> rest = stream.spliterator();
+            Spliterator<BookCsvRecord> first = rest.trySplit();
+
+            assertThat(first.estimateSize()).isEqualTo(BookCsvParser.SPLIT_BATCH_SIZE);
+            assertThat(rest.trySplit().estimateSize()).isEqualTo(10);
+            assertThat(rest.trySplit()).isNull();
+        }
+    }
+
+    @Test
+    void stream_inParallel_keepsFileOrder() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 3 * BookCsvParser.SPLIT_BATCH_SIZE; i++) {
+            csv.append(row(i));
+        }
+
+        try (Stream<BookCsvRecord> stream = parser.stream(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)))) {
+            List<String> titles = stream.parallel().map(BookCsvRecord::getTitle).toList();
+
+            assertThat(titles).hasSize(3 * BookCsvParser.SPLIT_BATCH_SIZE);
+            assertThat(titles.get(0)).isEqualTo("Title 0");
+            assertThat(titles.get(titles.size() - 1)).isEqualTo("Title " + (3 * BookCsvParser.SPLIT_BATCH_SIZE - 1));
+        }
+    }
+
+    private static String row(int i) {
+        return String.format("978%010d,,Title %d,,Author,Fiction,,,2001,4.0,100,10%n", i, i);
+    }
+
+    /**
+     * Serves a header and rows for ever, one row at a time.
+     */
+    private static final class EndlessFeed extends InputStream {
+
+        private final AtomicBoolean closed;
+        private byte[] current = HEADER.getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int row;
+
+        private EndlessFeed(AtomicBoolean closed) {
+            this.closed = closed;
+        }
+
+        @Override
+        public int read() {
+            if (position == current.length) {
+                current = row(row++).getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return current[position++];
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+
+    }
+
+}
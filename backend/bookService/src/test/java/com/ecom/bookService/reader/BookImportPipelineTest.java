@@ -0,0 +1,211 @@
+package com.ecom.bookService.reader;
+
+import com.ecom.bookService.dto.BookFingerprint;
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.event.CatalogImportedEvent;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.Category;
+import com.ecom.bookService.repository.BookRepository;
+import com.ecom.bookService.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportPipelineTest {
+
+    private static final String HEADER =
+            "isbn13,isbn10,title,subtitle,authors,categories,thumbnail,description,published_year,average_rating,num_pages,ratings_count\n";
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    CategoryRepository categoryRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    private BookImportPipeline pipeline;
+
+    private final List<Book> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new BookImportPipeline(new BookCsvParser(), new BookDataValidator(), bookRepository,
+                categoryRepository, new TransactionTemplate(transactionManager), eventPublisher,
+                new CatalogImportProperties(2, 2, 2, ImportMode.APPEND, new CatalogImportProperties.Jobs(1, 4, 50)));
+    }
+
+    @Test
+    void importCsv_skipsInvalidAndKnownBooks_andCreatesEachCategoryOnce() throws Exception {
+        Category fiction = Category.builder().categoryId(1L).categoryName("Fiction").build();
+        when(categoryRepository.findAll()).thenReturn(List.of(fiction));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+        stubFingerprints(new BookFingerprint(7L, "9780000000002", null));
+        when(bookRepository.saveAll(any())).thenAnswer(inv -> {
+            List<Book> batch = inv.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        });
+
+        String csv = HEADER
+                + "9780000000001,,Dune,,Frank Herbert,Fiction,,,1965,4.2,412,100\n"
+                + "9780000000002,,Known,,Someone,Fiction,,,2001,4.0,100,10\n"
+                + "9780000000003,,,,Nobody,Poetry,,,2001,4.0,100,10\n"
+                + "9780000000004,,Leaves of Grass,,Walt Whitman,Poetry,,,1855,4.1,145,50\n"
+                + "9780000000005,,Ariel,,Sylvia Plath,\"Poetry, Fiction\",,,1965,4.3,96,80\n"
+                + "9780000000001,,Dune again,,Frank Herbert,Fiction,,,1965,4.2,412,100\n";
+
+        ImportReport report = pipeline.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.parsed()).isEqualTo(6);
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(1);
+        assertThat(report.duplicates()).isEqualTo(2);
+        assertThat(report.failed()).isZero();
+        assertThat(report.errors()).singleElement().asString().contains("Title is required");
+        assertThat(report.stages()).extracting(ImportReport.StageReport::stage)
+                .containsExactly("parse", "validate", "resolve", "persist");
+
+        assertThat(saved).extracting(Book::getIsbn13)
+                .containsExactly("9780000000001", "9780000000004", "9780000000005");
+        assertThat(saved).extracting(book -> book.getCategory().getCategoryName())
+                .containsExactly("Fiction", "Poetry", "Poetry");
+        assertThat(saved.get(0).getCategory()).isSameAs(fiction);
+        assertThat(saved.get(1).getCategory()).isSameAs(saved.get(2).getCategory());
+        assertThat(saved).allSatisfy(book -> assertThat(book.getInventory().getBook()).isSameAs(book));
+
+        verify(categoryRepository, times(1)).save(any(Category.class));
+        verify(bookRepository, times(2)).saveAll(any());
+        verify(bookRepository, never()).existsByIsbn13(any());
+
+        // one lookup per chunk, for the ISBN13s not seen in the previous chunks
+        ArgumentCaptor<Collection<String>> lookups = ArgumentCaptor.captor();
+        verify(bookRepository, times(3)).findFingerprintsByIsbn13In(lookups.capture());
+        assertThat(lookups.getAllValues()).containsExactly(
+                List.of("9780000000001", "9780000000002"), List.of("9780000000004"), List.of("9780000000005"));
+        verify(bookRepository, never()).findImportedFingerprintsAfter(any(), any());
+
+        ArgumentCaptor<CatalogChangedEvent> events = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(CatalogChangedEvent::type)
+                .containsOnly(CatalogChangedEvent.Type.CREATED);
+        assertThat(events.getAllValues()).allMatch(CatalogChangedEvent::imported);
+        verify(eventPublisher, times(1)).publishEvent(new CatalogImportedEvent(3));
+    }
+
+    @Test
+    void importCsv_failedInsertBatch_doesNotMakeLaterRowsDuplicates() throws Exception {
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.save(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+        stubFingerprints();
+        when(bookRepository.saveAll(any()))
+                .thenThrow(new IllegalStateException("Connection reset"))
+                .thenAnswer(inv -> {
+                    List<Book> batch = inv.getArgument(0);
+                    saved.addAll(batch);
+                    return batch;
+                });
+
+        String csv = HEADER
+                + "9780000000001,,Dune,,Frank Herbert,Fiction,,,1965,4.2,412,100\n"
+                + "9780000000002,,Emma,,Jane Austen,Fiction,,,1815,4.0,474,10\n"
+                + "9780000000003,,Ariel,,Sylvia Plath,Poetry,,,1965,4.3,96,80\n"
+                + "9780000000001,,Dune,,Frank Herbert,Fiction,,,1965,4.2,412,100\n";
+
+        ImportReport report = pipeline.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.duplicates()).isZero();
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(saved).extracting(Book::getIsbn13).containsExactly("9780000000003", "9780000000001");
+    }
+
+    @Test
+    void importCsv_sync_updatesChangedBooks_andRemovesMissingOnes() throws Exception {
+        Category fiction = Category.builder().categoryId(1L).categoryName("Fiction").build();
+        String unchangedRow = "9780000000001,,Dune,,Frank Herbert,Fiction,,,1965,4.2,412,100,9.99\n";
+        String changedRow = "9780000000002,,Emma,,Jane Austen,Fiction,,A new summary,1815,4.0,474,10,12.50\n";
+        String invalidRow = "9780000000003,,,,Nobody,Fiction,,,2001,4.0,100,10,\n";
+
+        Book emma = Book.builder().bookId(2L).isbn13("9780000000002").title("Emma").summary("Old summary")
+                .price(new BigDecimal("5.00")).build();
+        Book removed = Book.builder().bookId(4L).isbn13("9780000000004").title("Gone").build();
+
+        when(categoryRepository.findAll()).thenReturn(List.of(fiction));
+        List<BookFingerprint> imported = List.of(
+                new BookFingerprint(1L, "9780000000001", hashOf(unchangedRow)),
+                new BookFingerprint(2L, "9780000000002", "outdated"),
+                new BookFingerprint(3L, "9780000000003", "outdated"),
+                new BookFingerprint(4L, "9780000000004", "outdated"));
+        stubFingerprints(imported.toArray(BookFingerprint[]::new));
+        when(bookRepository.findImportedFingerprintsAfter(any(), any())).thenAnswer(inv -> {
+            Long after = inv.getArgument(0);
+            Limit limit = inv.getArgument(1);
+            return imported.stream().filter(fingerprint -> fingerprint.bookId() > after).limit(limit.max()).toList();
+        });
+        when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of(emma));
+        when(bookRepository.findAllById(List.of(4L))).thenReturn(List.of(removed));
+
+        String csv = HEADER.replace("\n", ",price\n") + unchangedRow + changedRow + invalidRow;
+
+        ImportReport report = pipeline.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportMode.SYNC);
+
+        assertThat(report.inserted()).isZero();
+        assertThat(report.unchanged()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.removed()).isEqualTo(1);
+        assertThat(report.rejected()).isEqualTo(1);
+
+        assertThat(emma.getSummary()).isEqualTo("A new summary");
+        assertThat(emma.getPrice()).isEqualByComparingTo("12.50");
+        assertThat(emma.getCategory()).isSameAs(fiction);
+        assertThat(emma.getContentHash()).isEqualTo(hashOf(changedRow));
+
+        verify(bookRepository).deleteAll(List.of(removed));
+        verify(bookRepository, never()).saveAll(any());
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.deleted(4L).inImport());
+        verify(eventPublisher).publishEvent(new CatalogImportedEvent(2));
+        verify(bookRepository).findImportedFingerprintsAfter(0L, Limit.of(2));
+        verify(bookRepository).findImportedFingerprintsAfter(2L, Limit.of(2));
+        verify(bookRepository).findImportedFingerprintsAfter(4L, Limit.of(2));
+    }
+
+    private void stubFingerprints(BookFingerprint... fingerprints) {
+        when(bookRepository.findFingerprintsByIsbn13In(any())).thenAnswer(inv -> {
+            Collection<String> isbns = inv.getArgument(0);
+            return Stream.of(fingerprints).filter(fingerprint -> isbns.contains(fingerprint.isbn13())).toList();
+        });
+    }
+
+    private static String hashOf(String row) throws Exception {
+        try (var records = new BookCsvParser().stream(new ByteArrayInputStream(
+                (HEADER.replace("\n", ",price\n") + row).getBytes(StandardCharsets.UTF_8)))) {
+            return BookImportPipeline.contentHash(records.findFirst().orElseThrow());
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.ecom.bookService.reader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnSetTest {
+
+    @Test
+    void add_detectsDuplicates_acrossGrowth() {
+        IsbnSet set = new IsbnSet();
+
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(set.add(String.format("978%010d", i))).isTrue();
+        }
+        for (int i = 0; i < 100_000; i += 997) {
+            assertThat(set.add(String.format("978%010d", i))).isFalse();
+        }
+
+        assertThat(set.size()).isEqualTo(100_000);
+    }
+
+    @Test
+    void remove_keepsTheOtherIsbnsReachable() {
+        IsbnSet set = new IsbnSet();
+        for (int i = 0; i < 50_000; i++) {
+            set.add(String.format("978%010d", i));
+        }
+
+        for (int i = 0; i < 50_000; i += 2) {
+            assertThat(set.remove(String.format("978%010d", i))).isTrue();
+        }
+
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(set.contains(String.format("978%010d", i))).isEqualTo(i % 2 == 1);
+        }
+        assertThat(set.remove("9780000000000")).isFalse();
+        assertThat(set.add("9780000000000")).isTrue();
+        assertThat(set.size()).isEqualTo(25_001);
+    }
+
+    @Test
+    void add_keepsNonNumericIsbnsApart() {
+        IsbnSet set = new IsbnSet();
+
+        assertThat(set.add("978-0-00-000")).isTrue();
+        assertThat(set.add("978-0-00-000")).isFalse();
+        assertThat(set.add("9780000000000")).isTrue();
+        assertThat(set.add(null)).isFalse();
+
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.ecom.bookService.search;
+
+import com.ecom.bookService.event.CatalogChangedEvent;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexSynchronizerTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+
+    private BookSearchIndexSynchronizer synchronizer;
+
+    @BeforeEach
+    void setUp() {
+        synchronizer = new BookSearchIndexSynchronizer(searchIndex, new BookSuggester(), bookRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        synchronizer.shutdown();
+    }
+
+    @Test
+    void rebuild_changesCommittedMeanwhile_winOverTheRowsReadBefore() {
+        Book dune = book(1L, "Dune");
+        Book emma = book(2L, "Emma");
+        Book renamed = book(1L, "Children of Dune");
+        when(bookRepository.findAllForIndexing(any())).thenAnswer(inv -> {
+            // committed after the page was read, before it is indexed
+            synchronizer.onCatalogChanged(CatalogChangedEvent.updated(renamed));
+            synchronizer.onCatalogChanged(CatalogChangedEvent.deleted(2L));
+            return new SliceImpl<>(List.of(dune, emma));
+        });
+        when(bookRepository.findAllForIndexingByBookIdIn(any())).thenReturn(List.of(renamed));
+
+        synchronizer.rebuild();
+
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("children", b -> true)).extracting(SearchHit::bookId).containsExactly(1L);
+        assertThat(searchIndex.search("emma", b -> true)).isEmpty();
+        assertThat(searchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void onCatalogChanged_afterTheRebuild_isAppliedRightAway() {
+        when(bookRepository.findAllForIndexing(any())).thenReturn(new SliceImpl<>(List.of()));
+        synchronizer.rebuild();
+
+        synchronizer.onCatalogChanged(CatalogChangedEvent.created(book(3L, "Ariel")));
+
+        assertThat(searchIndex.search("ariel", b -> true)).extracting(SearchHit::bookId).containsExactly(3L);
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder()
+                .bookId(id)
+                .title(title)
+                .author("Someone")
+                .price(new BigDecimal("10.00"))
+                .build();
+    }
+
+}
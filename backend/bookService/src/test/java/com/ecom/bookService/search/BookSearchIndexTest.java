@@ -0,0 +1,119 @@
+package com.ecom.bookService.search;
+
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+
+        Category fiction = Category.builder().categoryId(1L).categoryName("Fiction").build();
+        Category science = Category.builder().categoryId(2L).categoryName("Science").build();
+
+        index.index(book(1L, "Harry Potter and the Philosopher's Stone", "J.K. Rowling", "A young wizard.", fiction));
+        index.index(book(2L, "A Brief History of Time", "Stephen Hawking", "Black holes and the big bang.", science));
+        index.index(book(3L, "The Wizard of Oz", "L. Frank Baum", "Dorothy meets a wizard named Oz.", fiction));
+    }
+
+    @Test
+    void search_rankTitleMatchesFirst() {
+        List<SearchHit> hits = index.search("wizard", b -> true);
+
+        assertThat(hits).extracting(SearchHit::bookId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void search_isCaseAndAccentInsensitive() {
+        List<SearchHit> hits = index.search("HÄWKING", b -> true);
+
+        assertThat(hits).extracting(SearchHit::bookId).containsExactly(2L);
+    }
+
+    @Test
+    void search_matchesLastTermAsPrefix() {
+        List<SearchHit> hits = index.search("harry pot", b -> true);
+
+        assertThat(hits).extracting(SearchHit::bookId).containsExactly(1L);
+    }
+
+    @Test
+    void search_appliesFilter() {
+        List<SearchHit> hits = index.search("wizard", b -> b.bookId() == 1L);
+
+        assertThat(hits).extracting(SearchHit::bookId).containsExactly(1L);
+    }
+
+    @Test
+    void index_replacesExistingBook() {
+        Category science = Category.builder().categoryId(2L).categoryName("Science").build();
+        index.index(book(3L, "Cosmos", "Carl Sagan", "The universe.", science));
+
+        assertThat(index.search("oz", b -> true)).isEmpty();
+        assertThat(index.search("cosmos", b -> true)).extracting(SearchHit::bookId).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void remove_dropsBookFromResults() {
+        index.remove(1L);
+
+        assertThat(index.search("harry", b -> true)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void facetedSearch_countsCategoriesIgnoringCategoryFilterAndPricesIgnoringPriceFilter() {
+        Category science = Category.builder().categoryId(2L).categoryName("Science").build();
+        Book cosmos = book(4L, "Cosmos", "Carl Sagan", "The universe.", science);
+        cosmos.setPrice(new BigDecimal("25.00"));
+        index.index(cosmos);
+
+        FacetedHits result = index.facetedSearch(
+                "",
+                b -> b.categoryId() == 2L,
+                b -> b.price().compareTo(new BigDecimal("20")) < 0,
+                List.of(new BigDecimal("20"))
+        );
+
+        assertThat(result.hits()).extracting(SearchHit::bookId).containsExactly(2L);
+        assertThat(result.categories())
+                .extracting(FacetedHits.CategoryCount::categoryName, FacetedHits.CategoryCount::count)
+                .containsExactly(tuple("Fiction", 2L), tuple("Science", 1L));
+        assertThat(result.priceCounts()).containsExactly(1L, 1L);
+    }
+
+    @Test
+    void facetedSearch_withQuery_onlyCountsMatchingBooks() {
+        FacetedHits result = index.facetedSearch("wizard", b -> true, b -> true, List.of());
+
+        assertThat(result.hits()).extracting(SearchHit::bookId).containsExactly(3L, 1L);
+        assertThat(result.categories())
+                .extracting(FacetedHits.CategoryCount::categoryName, FacetedHits.CategoryCount::count)
+                .containsExactly(tuple("Fiction", 2L));
+        assertThat(result.priceCounts()).containsExactly(2L);
+    }
+
+    private static Book book(Long id, String title, String author, String summary, Category category) {
+        return Book.builder()
+                .bookId(id)
+                .title(title)
+                .author(author)
+                .summary(summary)
+                .category(category)
+                .price(new BigDecimal("10.00"))
+                .build();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.ecom.bookService.search;
+
+import com.ecom.bookService.dto.BookSuggestion;
+import com.ecom.bookService.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSuggesterTest {
+
+    private BookSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new BookSuggester();
+        suggester.add(book(1L, "Harry Potter and the Chamber of Secrets", "J.K. Rowling"));
+        suggester.add(book(2L, "Harry Potter and the Goblet of Fire", "J.K. Rowling"));
+        suggester.add(book(3L, "Hamlet", "William Shakespeare;Harold Jenkins"));
+    }
+
+    @Test
+    void suggest_matchesTitlePrefix() {
+        List<BookSuggestion> suggestions = suggester.suggest("harry potter and the gob", 10);
+
+        assertThat(suggestions).extracting(BookSuggestion::text)
+                .containsExactly("Harry Potter and the Goblet of Fire");
+        assertThat(suggestions.get(0).bookId()).isEqualTo(2L);
+    }
+
+    @Test
+    void suggest_toleratesTypos() {
+        List<BookSuggestion> suggestions = suggester.suggest("hary pot", 10);
+
+        assertThat(suggestions).extracting(BookSuggestion::text).containsExactlyInAnyOrder(
+                "Harry Potter and the Chamber of Secrets",
+                "Harry Potter and the Goblet of Fire"
+        );
+    }
+
+    @Test
+    void suggest_returnsAuthorsWithBookCount() {
+        List<BookSuggestion> suggestions = suggester.suggest("J.K. Row", 10);
+
+        assertThat(suggestions).hasSize(1);
+        assertThat(suggestions.get(0).type()).isEqualTo(BookSuggestion.Type.AUTHOR);
+        assertThat(suggestions.get(0).bookCount()).isEqualTo(2);
+        assertThat(suggestions.get(0).bookId()).isNull();
+    }
+
+    @Test
+    void suggest_respectsLimit() {
+        assertThat(suggester.suggest("ha", 2)).hasSize(2);
+    }
+
+    @Test
+    void add_replacesPreviousTitle() {
+        suggester.add(book(3L, "Macbeth", "William Shakespeare"));
+
+        assertThat(suggester.suggest("hamlet", 10)).isEmpty();
+        assertThat(suggester.suggest("macb", 10)).extracting(BookSuggestion::bookId).containsExactly(3L);
+        assertThat(suggester.suggest("harold", 10)).isEmpty();
+    }
+
+    @Test
+    void remove_dropsSuggestions() {
+        suggester.remove(1L);
+        suggester.remove(2L);
+
+        assertThat(suggester.suggest("harry", 10)).isEmpty();
+        assertThat(suggester.suggest("j.k. rowling", 10)).isEmpty();
+    }
+
+    private static Book book(Long id, String title, String author) {
+        return Book.builder().bookId(id).title(title).author(author).build();
+    }
+
+}
@@ -1,27 +1,51 @@
 package com.ecom.bookService.service;
 
+import com.ecom.bookService.cache.BookCatalogCache;
+import com.ecom.bookService.cache.CatalogCacheProperties;
 import com.ecom.bookService.dto.BulkBookValidationRequest;
 import com.ecom.bookService.dto.BulkBookValidationResponse;
 import com.ecom.bookService.dto.BookDTO;
+import com.ecom.bookService.dto.BookFilter;
+import com.ecom.bookService.dto.BookSummaryDTO;
+import com.ecom.bookService.dto.BookValidationView;
+import com.ecom.bookService.exception.InvalidCursorException;
 import com.ecom.bookService.mapper.BookMapper;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.model.BookInventory;
 import com.ecom.bookService.repository.BookRepository;
+import com.ecom.bookService.search.BookSearchIndex;
+import com.ecom.bookService.search.IndexedBook;
+import com.ecom.bookService.search.SearchHit;
+import com.ecom.bookService.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.unit.DataSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +57,16 @@ class BookServiceImplTest {
     @Mock
     private BookMapper bookMapper;
 
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Spy
+    private BookCatalogCache catalogCache = new BookCatalogCache(
+            new CatalogCacheProperties(Duration.ofMinutes(5), DataSize.ofMegabytes(1), DataSize.ofMegabytes(1),
+                    new CatalogCacheProperties.Broadcast(false, "book-catalog-invalidations")),
+            new SimpleMeterRegistry()
+    );
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -66,7 +100,7 @@ class BookServiceImplTest {
     void validateProducts_missingId_marksInvalid() {
         var req = new BulkBookValidationRequest(List.of(new BulkBookValidationRequest.BookValidationInput(10L, 2)));
 
-        when(bookRepository.findByBookIdIn(List.of(10L))).thenReturn(List.of());
+        when(bookRepository.findValidationViewsByBookIdIn(List.of(10L))).thenReturn(List.of());
 
         var res = bookService.validateProducts(req);
 
@@ -77,13 +111,10 @@ class BookServiceImplTest {
 
     @Test
     void validateProducts_insufficientStock_marksInvalid() {
-        Book b = Book.builder().bookId(2L).title("T2").price(new BigDecimal("5.00")).build();
-        BookInventory inv = BookInventory.builder().availableQuantity(1).reservedQuantity(0).build();
-        b.setInventory(inv);
-
         var req = new BulkBookValidationRequest(List.of(new BulkBookValidationRequest.BookValidationInput(2L, 2)));
 
-        when(bookRepository.findByBookIdIn(List.of(2L))).thenReturn(List.of(b));
+        when(bookRepository.findValidationViewsByBookIdIn(List.of(2L))).thenReturn(List.of(
+                new BookValidationView(2L, "T2", null, new BigDecimal("5.00"), 1, 0)));
 
         var res = bookService.validateProducts(req);
 
@@ -94,13 +125,10 @@ class BookServiceImplTest {
 
     @Test
     void validateProducts_allGood_marksValid() {
-        Book b = Book.builder().bookId(3L).title("T3").price(new BigDecimal("7.00")).build();
-        BookInventory inv = BookInventory.builder().availableQuantity(5).reservedQuantity(0).build();
-        b.setInventory(inv);
-
         var req = new BulkBookValidationRequest(List.of(new BulkBookValidationRequest.BookValidationInput(3L, 2)));
 
-        when(bookRepository.findByBookIdIn(List.of(3L))).thenReturn(List.of(b));
+        when(bookRepository.findValidationViewsByBookIdIn(List.of(3L))).thenReturn(List.of(
+                new BookValidationView(3L, "T3", null, new BigDecimal("7.00"), 5, 0)));
 
         var res = bookService.validateProducts(req);
 
@@ -109,4 +137,125 @@ class BookServiceImplTest {
         assertThat(res.getItems().get(0).isExists()).isTrue();
     }
 
+    @Test
+    void validateProducts_cachedBook_isPricedFromTheDatabase() {
+        BookDTO cached = BookDTO.builder().id(3L).title("T3").price(new BigDecimal("7.00")).build();
+        when(bookRepository.findById(3L)).thenReturn(Optional.of(book1));
+        when(bookMapper.mapToDTO(book1)).thenReturn(cached);
+        bookService.getBookById(3L);
+
+        var req = new BulkBookValidationRequest(List.of(new BulkBookValidationRequest.BookValidationInput(3L, 1)));
+        when(bookRepository.findValidationViewsByBookIdIn(List.of(3L))).thenReturn(List.of(
+                new BookValidationView(3L, "T3", null, new BigDecimal("8.50"), 5, 0)));
+
+        var res = bookService.validateProducts(req);
+
+        assertThat(res.getItems().get(0).getPrice()).isEqualByComparingTo("8.50");
+    }
+
+    @Test
+    void getPagedBooks_withSearch_usesIndexAndLoadsOnlyRequestedPage() {
+        Book b2 = Book.builder().bookId(2L).title("Title 2").build();
+        BookDTO dto2 = BookDTO.builder().id(2L).title("Title 2").build();
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(eq("title"), any())).thenReturn(List.of(
+                new SearchHit(new IndexedBook(1L, "Title 1", null, null, null, null, 2f), 2.0),
+                new SearchHit(new IndexedBook(2L, "Title 2", null, null, null, null, 2f), 1.0)
+        ));
+        when(bookRepository.findByBookIdIn(List.of(2L))).thenReturn(List.of(b2));
+        when(bookMapper.mapToDTO(b2)).thenReturn(dto2);
+
+        var result = bookService.getPagedBooks(BookFilter.builder().search("title").build(), 1, 1);
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).containsExactly(dto2);
+        verify(bookRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void scrollBooks_withSearch_seeksPastCursorNewestFirst() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        Book b2 = Book.builder().bookId(2L).title("Title 2").createdAt(now.minusDays(2)).build();
+        Book b3 = Book.builder().bookId(3L).title("Title 3").createdAt(now.minusDays(1)).build();
+        BookDTO dto3 = BookDTO.builder().id(3L).title("Title 3").build();
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(eq("title"), any())).thenReturn(List.of(
+                new SearchHit(new IndexedBook(1L, "Title 1", null, null, null, now.minusDays(3), 2f), 3.0),
+                new SearchHit(new IndexedBook(2L, "Title 2", null, null, null, now.minusDays(2), 2f), 2.0),
+                new SearchHit(new IndexedBook(3L, "Title 3", null, null, null, now.minusDays(1), 2f), 1.0),
+                new SearchHit(new IndexedBook(4L, "Title 4", null, null, null, now, 2f), 1.0)
+        ));
+        when(bookRepository.findByBookIdIn(List.of(3L, 2L))).thenReturn(List.of(b2, b3));
+        when(bookMapper.mapToDTO(b3)).thenReturn(dto3);
+
+        String cursor = new KeysetCursor(now, "4").encode();
+        var result = bookService.scrollBooks(BookFilter.builder().search("title").build(), cursor, 1, false);
+
+        assertThat(result.content()).containsExactly(dto3);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.totalElements()).isNull();
+        assertThat(KeysetCursor.decode(result.nextCursor())).isEqualTo(new KeysetCursor(now.minusDays(1), "3"));
+    }
+
+    @Test
+    void scrollBooks_invalidCursor_throws() {
+        assertThatThrownBy(() -> bookService.scrollBooks(BookFilter.builder().build(), "not-a-cursor", 10, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void scrollBooks_withSearch_nonNumericCursorId_throwsEvenWithoutHits() {
+        when(searchIndex.isReady()).thenReturn(true);
+        String cursor = new KeysetCursor(LocalDateTime.of(2025, 1, 10, 12, 0), "abc").encode();
+
+        assertThatThrownBy(() -> bookService.scrollBooks(BookFilter.builder().search("title").build(), cursor, 10, false))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void getBookById_secondCall_isServedFromCache() {
+        BookDTO dto = BookDTO.builder().id(1L).title("Title 1").build();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
+        when(bookMapper.mapToDTO(book1)).thenReturn(dto);
+
+        bookService.getBookById(1L);
+        var result = bookService.getBookById(1L);
+
+        assertThat(result).isEqualTo(dto);
+        verify(bookRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getAllBooksByCategory_cachesListing_andReloadsOnlyEvictedBooks() {
+        Book b2 = Book.builder().bookId(2L).title("Title 2").build();
+        BookDTO dto1 = BookDTO.builder().id(1L).title("Title 1").build();
+        BookDTO dto2 = BookDTO.builder().id(2L).title("Title 2").build();
+        when(bookRepository.findIdsByCategory("fantasy")).thenReturn(List.of(1L, 2L));
+        when(bookRepository.findByBookIdIn(any())).thenReturn(List.of(book1, b2), List.of(b2));
+        when(bookMapper.mapToDTO(book1)).thenReturn(dto1);
+        when(bookMapper.mapToDTO(b2)).thenReturn(dto2);
+
+        assertThat(bookService.getAllBooksByCategory("fantasy")).containsExactly(dto1, dto2);
+        catalogCache.evictBook(2L);
+        assertThat(bookService.getAllBooksByCategory("Fantasy")).containsExactly(dto1, dto2);
+
+        verify(bookRepository, times(1)).findIdsByCategory("fantasy");
+        verify(bookRepository).findByBookIdIn(List.of(2L));
+    }
+
+    @Test
+    void getPagedBookSummaries_usesProjectionInsteadOfEntities() {
+        BookSummaryDTO summary = new BookSummaryDTO(1L, "Title 1", "Author", new BigDecimal("9.99"), null, 4);
+        when(bookRepository.findSummaries(any(), eq(PageRequest.of(0, 10))))
+                .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 10), 1));
+
+        var result = bookService.getPagedBookSummaries(BookFilter.builder().categoryId(2L).build(), 0, 10);
+
+        assertThat(result.getContent()).containsExactly(summary);
+        verify(bookRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(bookMapper, never()).mapToDTO(any());
+    }
+
 }
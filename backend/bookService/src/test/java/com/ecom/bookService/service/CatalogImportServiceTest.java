@@ -0,0 +1,114 @@
+package com.ecom.bookService.service;
+
+import com.ecom.bookService.dto.ImportJobDTO;
+import com.ecom.bookService.exception.EntityNotFoundException;
+import com.ecom.bookService.exception.ImportQueueFullException;
+import com.ecom.bookService.reader.BookImportPipeline;
+import com.ecom.bookService.reader.CatalogImportProperties;
+import com.ecom.bookService.reader.ImportJob;
+import com.ecom.bookService.reader.ImportMode;
+import com.ecom.bookService.reader.ImportProgress;
+import com.ecom.bookService.reader.ImportReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogImportServiceTest {
+
+    @Mock
+    BookImportPipeline importPipeline;
+
+    private CatalogImportService catalogImportService;
+
+    @BeforeEach
+    void setUp() {
+        catalogImportService = new CatalogImportService(importPipeline,
+                new CatalogImportProperties(500, 1, 500, ImportMode.APPEND, new CatalogImportProperties.Jobs(1, 1, 10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogImportService.shutdown();
+    }
+
+    @Test
+    void submit_runsTheImportInTheBackground_andKeepsItsReport() throws Exception {
+        ImportReport report = new ImportReport(2, 2, 0, 0, 0, 0, 0, 0, List.of(), List.of(), Duration.ofMillis(5));
+        when(importPipeline.importCsv(any(), eq(ImportMode.DELTA), any(ImportProgress.class))).thenReturn(report);
+
+        ImportJobDTO submitted = catalogImportService.submit("feed.csv", new ByteArrayResource(new byte[0]), ImportMode.DELTA);
+
+        assertThat(submitted.fileName()).isEqualTo("feed.csv");
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                catalogImportService.getJob(submitted.id()).status() == ImportJob.Status.COMPLETED);
+        ImportJobDTO completed = catalogImportService.getJob(submitted.id());
+        assertThat(completed.report()).isSameAs(report);
+        assertThat(completed.finishedAt()).isNotNull();
+        assertThat(catalogImportService.getJobs()).extracting(ImportJobDTO::id).containsExactly(submitted.id());
+    }
+
+    @Test
+    void submit_whenTheQueueIsFull_isRefused() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(importPipeline.importCsv(any(), any(), any(ImportProgress.class))).thenAnswer(inv -> {
+            release.await();
+            return null;
+        });
+
+        ImportJobDTO running = catalogImportService.submit("a.csv", new ByteArrayResource(new byte[0]), ImportMode.APPEND);
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                catalogImportService.getJob(running.id()).status() == ImportJob.Status.RUNNING);
+        ImportJobDTO queued = catalogImportService.submit("b.csv", new ByteArrayResource(new byte[0]), ImportMode.APPEND);
+
+        assertThat(queued.status()).isEqualTo(ImportJob.Status.QUEUED);
+        assertThrows(ImportQueueFullException.class, () ->
+                catalogImportService.submit("c.csv", new ByteArrayResource(new byte[0]), ImportMode.APPEND));
+        assertThat(catalogImportService.getJobs()).hasSize(2);
+
+        release.countDown();
+    }
+
+    @Test
+    void shutdown_cancelsTheQueuedJobs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(importPipeline.importCsv(any(), any(), any(ImportProgress.class))).thenAnswer(inv -> {
+            release.await();
+            return null;
+        });
+
+        ImportJobDTO running = catalogImportService.submit("a.csv", new ByteArrayResource(new byte[0]), ImportMode.APPEND);
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                catalogImportService.getJob(running.id()).status() == ImportJob.Status.RUNNING);
+        ImportJobDTO queued = catalogImportService.submit("b.csv", new ByteArrayResource(new byte[0]), ImportMode.APPEND);
+
+        catalogImportService.shutdown();
+
+        ImportJobDTO cancelled = catalogImportService.getJob(queued.id());
+        assertThat(cancelled.status()).isEqualTo(ImportJob.Status.CANCELLED);
+        assertThat(cancelled.finishedAt()).isNotNull();
+        verify(importPipeline, times(1)).importCsv(any(), any(), any(ImportProgress.class));
+    }
+
+    @Test
+    void getJob_unknown_throws() {
+        assertThrows(EntityNotFoundException.class, () -> catalogImportService.getJob(UUID.randomUUID()));
+    }
+
+}
@@ -1,32 +1,53 @@
 package com.ecom.bookService.service;
 
 import com.ecom.bookService.dto.ReservationResult;
+import com.ecom.bookService.dto.ReserveStockRequest;
+import com.ecom.bookService.event.InventoryEvent;
+import com.ecom.bookService.event.StockChangedEvent;
+import com.ecom.bookService.dto.UpdateBookQuantityRequest;
 import com.ecom.bookService.exception.EntityNotFoundException;
+import com.ecom.bookService.ledger.StockLedger;
 import com.ecom.bookService.model.Book;
 import com.ecom.bookService.model.BookInventory;
 import com.ecom.bookService.model.ReservationStatus;
+import com.ecom.bookService.model.StockMovement;
 import com.ecom.bookService.model.StockReservation;
 import com.ecom.bookService.model.StockReservationItem;
+import com.ecom.bookService.outbox.InventoryOutbox;
 import com.ecom.bookService.repository.BookInventoryRepository;
 import com.ecom.bookService.repository.BookRepository;
 import com.ecom.bookService.repository.StockReservationItemRepository;
 import com.ecom.bookService.repository.StockReservationRepository;
+import com.ecom.bookService.stock.HotStockEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +65,18 @@ class InventoryServiceTest {
     @Mock
     BookInventoryRepository bookInventoryRepository;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    HotStockEngine hotStock;
+
+    @Mock
+    InventoryOutbox outbox;
+
+    @Mock
+    StockLedger ledger;
+
     @InjectMocks
     InventoryService inventoryService;
 
@@ -56,13 +89,13 @@ class InventoryServiceTest {
                 .title("B1")
                 .price(new BigDecimal("3.50"))
                 .build();
-        BookInventory inv = BookInventory.builder().availableQuantity(5).reservedQuantity(0).build();
+        BookInventory inv = BookInventory.builder().book(book).availableQuantity(5).reservedQuantity(0).build();
         book.setInventory(inv);
     }
 
     @Test
     void reserveStock_productNotFound_returnsProductNotFound() {
-        when(bookRepository.findByBookIdIn(List.of(99L))).thenReturn(List.of());
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(99L))).thenReturn(List.of());
 
         var result = inventoryService.reserveStock("order-1", Map.of(99L, 1));
 
@@ -72,7 +105,7 @@ class InventoryServiceTest {
 
     @Test
     void reserveStock_success_reservesAndReturnsReservationId() {
-        when(bookRepository.findByBookIdIn(List.of(1L))).thenReturn(List.of(book));
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
         when(stockReservationRepository.findByOrderId("order-2")).thenReturn(Optional.empty());
 
         StockReservation savedReservation = StockReservation.builder()
@@ -82,19 +115,162 @@ class InventoryServiceTest {
                 .expiresAt(Instant.now())
                 .build();
 
-        when(bookRepository.saveAll(any())).thenReturn(List.of(book));
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
         when(stockReservationRepository.save(any())).thenReturn(savedReservation);
 
         var result = inventoryService.reserveStock("order-2", Map.of(1L, 2));
 
         assertThat(result.success()).isTrue();
         assertThat(result.reservationId()).isEqualTo(777L);
+        assertThat(book.getInventory().getReservedQuantity()).isEqualTo(2);
+        verify(bookInventoryRepository).saveAll(any());
+        verify(bookRepository, never()).findByBookIdIn(any());
+        verify(bookRepository, never()).saveAll(any());
+        verify(stockReservationItemRepository).saveAll(any());
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
+    }
+
+    @Test
+    void reserveStock_atomic_reservesInBookIdOrder() {
+        when(stockReservationRepository.findByOrderId("order-3")).thenReturn(Optional.empty());
+        when(bookInventoryRepository.reserveIfAvailable(anyLong(), anyInt())).thenReturn(1);
+        when(stockReservationRepository.save(any())).thenReturn(StockReservation.builder().id(778L).build());
+
+        Map<Long, Integer> products = new LinkedHashMap<>();
+        products.put(3L, 1);
+        products.put(1L, 2);
+        products.put(2L, 4);
+
+        var result = inventoryService.reserveStock("order-3", products, ReservationMode.ATOMIC);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.reservationId()).isEqualTo(778L);
+
+        InOrder inOrder = inOrder(bookInventoryRepository);
+        inOrder.verify(bookInventoryRepository).reserveIfAvailable(1L, 2);
+        inOrder.verify(bookInventoryRepository).reserveIfAvailable(2L, 4);
+        inOrder.verify(bookInventoryRepository).reserveIfAvailable(3L, 1);
+        verify(bookInventoryRepository, never()).releaseReserved(anyLong(), anyInt());
+        verify(bookRepository, never()).findByBookIdIn(any());
         verify(stockReservationItemRepository).saveAll(any());
+        verify(eventPublisher, times(3)).publishEvent(any(StockChangedEvent.class));
+        verify(outbox).record(InventoryEvent.Type.STOCK_RESERVED, "order-3", 778L, products);
+    }
+
+    @Test
+    void reserveStock_atomic_insufficientStock_releasesWhatWasReserved() {
+        when(stockReservationRepository.findByOrderId("order-4")).thenReturn(Optional.empty());
+        when(bookInventoryRepository.reserveIfAvailable(1L, 2)).thenReturn(1);
+        when(bookInventoryRepository.reserveIfAvailable(2L, 9)).thenReturn(0);
+        when(bookInventoryRepository.existsByBookBookId(2L)).thenReturn(true);
+
+        var result = inventoryService.reserveStock("order-4", Map.of(2L, 9, 1L, 2), ReservationMode.ATOMIC);
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.status()).isEqualTo(ReservationResult.ReservationStatus.INSUFFICIENT_STOCK);
+        verify(bookInventoryRepository).releaseReserved(1L, 2);
+        verify(stockReservationRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void reserveStock_atomic_unknownBook_returnsProductNotFound() {
+        when(stockReservationRepository.findByOrderId("order-5")).thenReturn(Optional.empty());
+        when(bookInventoryRepository.reserveIfAvailable(99L, 1)).thenReturn(0);
+        when(bookInventoryRepository.existsByBookBookId(99L)).thenReturn(false);
+
+        var result = inventoryService.reserveStock("order-5", Map.of(99L, 1), ReservationMode.ATOMIC);
+
+        assertThat(result.status()).isEqualTo(ReservationResult.ReservationStatus.PRODUCT_NOT_FOUND);
+        assertThat(result.success()).isFalse();
+    }
+
+    @Test
+    void reserveStock_atomic_nonPositiveQuantity_reservesNothing() {
+        var result = inventoryService.reserveStock("order-6", Map.of(1L, 0), ReservationMode.ATOMIC);
+
+        assertThat(result.status()).isEqualTo(ReservationResult.ReservationStatus.INVALID_QUANTITY);
+        assertThat(result.success()).isFalse();
+        verifyNoInteractions(bookInventoryRepository, stockReservationRepository);
+    }
+
+    @Test
+    void reserveStock_atomic_hotBook_reservesInMemory() {
+        when(stockReservationRepository.findByOrderId("order-7")).thenReturn(Optional.empty());
+        when(hotStock.tryReserve(1L, 2)).thenReturn(HotStockEngine.Outcome.NOT_HOT);
+        when(hotStock.tryReserve(2L, 3)).thenReturn(HotStockEngine.Outcome.RESERVED);
+        when(bookInventoryRepository.reserveIfAvailable(1L, 2)).thenReturn(1);
+        when(stockReservationRepository.save(any())).thenReturn(StockReservation.builder().id(779L).build());
+
+        var result = inventoryService.reserveStock("order-7", Map.of(1L, 2, 2L, 3), ReservationMode.ATOMIC);
+
+        assertThat(result.success()).isTrue();
+        verify(bookInventoryRepository, never()).reserveIfAvailable(eq(2L), anyInt());
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
+        verify(eventPublisher, never()).publishEvent(new StockChangedEvent(2L));
+    }
+
+    @Test
+    void reserveStock_atomic_hotBookOutOfStock_releasesDatabaseReservation() {
+        when(stockReservationRepository.findByOrderId("order-8")).thenReturn(Optional.empty());
+        when(hotStock.tryReserve(1L, 2)).thenReturn(HotStockEngine.Outcome.NOT_HOT);
+        when(hotStock.tryReserve(2L, 3)).thenReturn(HotStockEngine.Outcome.INSUFFICIENT_STOCK);
+        when(bookInventoryRepository.reserveIfAvailable(1L, 2)).thenReturn(1);
+        when(bookInventoryRepository.existsByBookBookId(2L)).thenReturn(true);
+
+        var result = inventoryService.reserveStock("order-8", Map.of(1L, 2, 2L, 3), ReservationMode.ATOMIC);
+
+        assertThat(result.status()).isEqualTo(ReservationResult.ReservationStatus.INSUFFICIENT_STOCK);
+        verify(bookInventoryRepository).releaseReserved(1L, 2);
+        verify(stockReservationRepository, never()).save(any());
+    }
+
+    @Test
+    void reserveStock_atomic_bookPromotedWhileWaiting_movesReservationToMemory() {
+        when(stockReservationRepository.findByOrderId("order-9")).thenReturn(Optional.empty());
+        when(hotStock.tryReserve(1L, 2))
+                .thenReturn(HotStockEngine.Outcome.NOT_HOT)
+                .thenReturn(HotStockEngine.Outcome.RESERVED);
+        when(bookInventoryRepository.reserveIfAvailable(1L, 2)).thenReturn(1);
+        when(hotStock.isHot(1L)).thenReturn(true);
+        when(stockReservationRepository.save(any())).thenReturn(StockReservation.builder().id(780L).build());
+
+        var result = inventoryService.reserveStock("order-9", Map.of(1L, 2), ReservationMode.ATOMIC);
+
+        assertThat(result.success()).isTrue();
+        verify(bookInventoryRepository).releaseReserved(1L, 2);
+        verify(hotStock, times(2)).tryReserve(1L, 2);
+    }
+
+    @Test
+    void confirmReservation_hotBook_confirmsInMemory() {
+        StockReservation reservation = StockReservation.builder()
+                .id(6L)
+                .orderId("ord-6")
+                .status(ReservationStatus.RESERVED)
+                .build();
+        reservation.setItems(List.of(StockReservationItem.builder()
+                .book(book)
+                .reservedQuantity(2)
+                .reservation(reservation)
+                .build()));
+        book.getInventory().setReservedQuantity(2);
+
+        when(stockReservationRepository.findForUpdateByOrderId("ord-6")).thenReturn(Optional.of(reservation));
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
+        when(hotStock.confirm(1L, 2)).thenReturn(true);
+
+        inventoryService.confirmReservation("ord-6");
+
+        assertThat(book.getInventory().getReservedQuantity()).isEqualTo(2);
+        assertThat(book.getInventory().getAvailableQuantity()).isEqualTo(5);
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
     }
 
     @Test
     void confirmReservation_notFound_throws() {
-        when(stockReservationRepository.findByOrderId("ordX")).thenReturn(Optional.empty());
+        when(stockReservationRepository.findForUpdateByOrderId("ordX")).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> inventoryService.confirmReservation("ordX"));
     }
@@ -116,22 +292,25 @@ class InventoryServiceTest {
 
         reservation.setItems(List.of(item));
 
-        when(stockReservationRepository.findByOrderId("ord-5")).thenReturn(Optional.of(reservation));
+        when(stockReservationRepository.findForUpdateByOrderId("ord-5")).thenReturn(Optional.of(reservation));
         // ensure inventory reflects reserved state before confirmation
         book.getInventory().setReservedQuantity(item.getReservedQuantity());
 
-        when(bookRepository.saveAll(any())).thenReturn(List.of(book));
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
 
         inventoryService.confirmReservation("ord-5");
 
-        verify(bookRepository).saveAll(any());
+        assertThat(book.getInventory().getAvailableQuantity()).isEqualTo(3);
+        assertThat(book.getInventory().getReservedQuantity()).isZero();
+        verify(bookInventoryRepository).saveAll(any());
+        verify(bookRepository, never()).saveAll(any());
         verify(stockReservationRepository).save(any());
         assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
     }
 
     @Test
     void releaseReservation_notFound_throws() {
-        when(stockReservationRepository.findByOrderId("ordY")).thenReturn(Optional.empty());
+        when(stockReservationRepository.findForUpdateByOrderId("ordY")).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> inventoryService.releaseReservation("ordY"));
     }
@@ -144,11 +323,11 @@ class InventoryServiceTest {
                 .status(ReservationStatus.CONFIRMED)
                 .build();
 
-        when(stockReservationRepository.findByOrderId("ord-8")).thenReturn(Optional.of(reservation));
+        when(stockReservationRepository.findForUpdateByOrderId("ord-8")).thenReturn(Optional.of(reservation));
 
         inventoryService.releaseReservation("ord-8");
 
-        verify(bookRepository, never()).saveAll(any());
+        verify(bookInventoryRepository, never()).saveAll(any());
         verify(stockReservationRepository, never()).save(any());
     }
 
@@ -168,18 +347,198 @@ class InventoryServiceTest {
 
         reservation.setItems(List.of(item));
 
-        when(stockReservationRepository.findByOrderId("ord-9")).thenReturn(Optional.of(reservation));
+        when(stockReservationRepository.findForUpdateByOrderId("ord-9")).thenReturn(Optional.of(reservation));
 
         // ensure inventory reflects reserved state before release
         book.getInventory().setReservedQuantity(item.getReservedQuantity());
 
-        when(bookRepository.saveAll(any())).thenReturn(List.of(book));
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
 
         inventoryService.releaseReservation("ord-9");
 
-        verify(bookRepository).saveAll(any());
+        assertThat(book.getInventory().getReservedQuantity()).isZero();
+        verify(bookInventoryRepository).saveAll(List.of(book.getInventory()));
+        verify(bookRepository, never()).saveAll(any());
         verify(stockReservationRepository).save(any());
         assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        verify(outbox).record(InventoryEvent.Type.STOCK_RELEASED, reservation);
+        verify(ledger).record(StockMovement.Type.RELEASE, reservation);
+    }
+
+    @Test
+    void releaseExpiredReservations_givesBackTheStock_andMarksThemExpired() {
+        StockReservation reservation = StockReservation.builder()
+                .id(10L)
+                .orderId("ord-10")
+                .status(ReservationStatus.RESERVED)
+                .expiresAt(Instant.now().minusSeconds(60))
+                .build();
+        reservation.setItems(List.of(StockReservationItem.builder()
+                .book(book)
+                .reservedQuantity(3)
+                .reservation(reservation)
+                .build()));
+        book.getInventory().setReservedQuantity(3);
+
+        when(stockReservationRepository.findByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(
+                eq(ReservationStatus.RESERVED), any(Instant.class), any(Limit.class)))
+                .thenReturn(List.of(reservation));
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
+
+        var result = inventoryService.releaseExpiredReservations(100);
+
+        assertThat(result.reservations()).isEqualTo(1);
+        assertThat(result.units()).isEqualTo(3);
+        assertThat(book.getInventory().getReservedQuantity()).isZero();
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        verify(stockReservationRepository).saveAll(List.of(reservation));
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
+    }
+
+    @Test
+    void releaseExpiredReservations_inconsistentStock_expiresWithoutRelease() {
+        StockReservation reservation = StockReservation.builder()
+                .id(11L)
+                .orderId("ord-11")
+                .status(ReservationStatus.RESERVED)
+                .build();
+        reservation.setItems(List.of(StockReservationItem.builder()
+                .book(book)
+                .reservedQuantity(3)
+                .reservation(reservation)
+                .build()));
+
+        when(stockReservationRepository.findByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(any(), any(), any()))
+                .thenReturn(List.of(reservation));
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
+
+        var result = inventoryService.releaseExpiredReservations(100);
+
+        assertThat(result.units()).isZero();
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        verify(bookInventoryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void confirmReservation_expiredWhileWaitingForTheLock_isRejected() throws Exception {
+        StockReservation reservation = StockReservation.builder()
+                .id(12L)
+                .orderId("ord-12")
+                .status(ReservationStatus.RESERVED)
+                .expiresAt(Instant.now().minusSeconds(60))
+                .build();
+        reservation.setItems(List.of(StockReservationItem.builder()
+                .book(book)
+                .reservedQuantity(2)
+                .reservation(reservation)
+                .build()));
+        book.getInventory().setReservedQuantity(2);
+
+        // stands for the row lock of the reservation, held by the sweep until it commits
+        ReentrantLock rowLock = new ReentrantLock();
+        when(stockReservationRepository.findByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(any(), any(), any()))
+                .thenAnswer(inv -> {
+                    rowLock.lock();
+                    return List.of(reservation);
+                });
+        when(stockReservationRepository.findForUpdateByOrderId("ord-12")).thenAnswer(inv -> {
+            rowLock.lock();
+            rowLock.unlock();
+            return Optional.of(reservation);
+        });
+        when(bookInventoryRepository.findByBookBookIdIn(Set.of(1L))).thenReturn(List.of(book.getInventory()));
+
+        inventoryService.releaseExpiredReservations(100);
+        CompletableFuture<Void> confirm = CompletableFuture.runAsync(() -> inventoryService.confirmReservation("ord-12"));
+        while (!rowLock.hasQueuedThreads()) {
+            Thread.onSpinWait();
+        }
+        rowLock.unlock();
+
+        assertThatThrownBy(() -> confirm.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(book.getInventory().getAvailableQuantity()).isEqualTo(5);
+        assertThat(book.getInventory().getReservedQuantity()).isZero();
+        verify(hotStock, never()).confirm(anyLong(), anyInt());
+        verify(outbox, never()).record(InventoryEvent.Type.STOCK_CONFIRMED, reservation);
+    }
+
+    @Test
+    void reserveStockBatch_decidesEveryOrderAgainstTheLockedInventories() {
+        BookInventory first = book.getInventory();
+        first.setBook(book);
+        Book other = Book.builder().bookId(2L).title("B2").build();
+        BookInventory second = BookInventory.builder().book(other).availableQuantity(1).reservedQuantity(0).build();
+        other.setInventory(second);
+
+        when(stockReservationRepository.findByOrderIdIn(List.of("ord-a", "ord-b", "ord-c", "ord-d")))
+                .thenReturn(List.of(StockReservation.builder().id(40L).orderId("ord-c").build()));
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(1L, 2L, 99L))).thenReturn(List.of(first, second));
+        when(hotStock.tryReserve(anyLong(), anyInt())).thenReturn(HotStockEngine.Outcome.NOT_HOT);
+        when(stockReservationRepository.save(any())).thenReturn(StockReservation.builder().id(41L).build());
+
+        Map<Long, Integer> tooMuch = new LinkedHashMap<>();
+        tooMuch.put(2L, 2);
+        tooMuch.put(1L, 1);
+        var results = inventoryService.reserveStockBatch(List.of(
+                new ReserveStockRequest("ord-a", Map.of(1L, 3)),
+                new ReserveStockRequest("ord-b", tooMuch),
+                new ReserveStockRequest("ord-c", Map.of(1L, 1)),
+                new ReserveStockRequest("ord-d", Map.of(99L, 1))));
+
+        assertThat(results).extracting(ReservationResult::orderId).containsExactly("ord-a", "ord-b", "ord-c", "ord-d");
+        assertThat(results).extracting(ReservationResult::status).containsExactly(
+                ReservationResult.ReservationStatus.RESERVED,
+                ReservationResult.ReservationStatus.INSUFFICIENT_STOCK,
+                ReservationResult.ReservationStatus.ALREADY_RESERVED,
+                ReservationResult.ReservationStatus.PRODUCT_NOT_FOUND);
+        assertThat(results.get(0).reservationId()).isEqualTo(41L);
+        assertThat(results.get(2).reservationId()).isEqualTo(40L);
+        assertThat(first.getReservedQuantity()).isEqualTo(3);
+        assertThat(second.getReservedQuantity()).isZero();
+
+        verify(stockReservationRepository, times(1)).save(any());
+        verify(stockReservationItemRepository, times(1)).saveAll(any());
+        verify(bookInventoryRepository, never()).reserveIfAvailable(anyLong(), anyInt());
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
+        verify(eventPublisher, never()).publishEvent(new StockChangedEvent(2L));
+        verify(outbox).record(InventoryEvent.Type.STOCK_RESERVED, "ord-a", 41L, Map.of(1L, 3));
+        verify(ledger).record(StockMovement.Type.RESERVE, "ord-a", Map.of(1L, 3));
+        verify(ledger, never()).record(eq(StockMovement.Type.RESERVE), eq("ord-b"), anyMap());
+    }
+
+    @Test
+    void reserveStockBatch_hotBook_reservesInMemory_andLeavesTheRowUntouched() {
+        BookInventory inventory = book.getInventory();
+        inventory.setBook(book);
+
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(1L))).thenReturn(List.of(inventory));
+        when(hotStock.tryReserve(1L, 2)).thenReturn(HotStockEngine.Outcome.RESERVED);
+        when(stockReservationRepository.save(any())).thenReturn(StockReservation.builder().id(42L).build());
+
+        var results = inventoryService.reserveStockBatch(List.of(
+                new ReserveStockRequest("ord-e", Map.of(1L, 2)),
+                new ReserveStockRequest("ord-e", Map.of(1L, 2))));
+
+        assertThat(results).extracting(ReservationResult::status).containsExactly(
+                ReservationResult.ReservationStatus.RESERVED,
+                ReservationResult.ReservationStatus.ALREADY_RESERVED);
+        assertThat(inventory.getReservedQuantity()).isZero();
+        verify(hotStock, times(1)).tryReserve(1L, 2);
+        verify(eventPublisher, never()).publishEvent(any(StockChangedEvent.class));
+    }
+
+    @Test
+    void updateQuantity_recordsTheAdjustmentInTheLedger() {
+        BookInventory inventory = book.getInventory();
+        inventory.setReservedQuantity(2);
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory));
+
+        inventoryService.updateQuantity(1L, new UpdateBookQuantityRequest(3));
+
+        assertThat(inventory.getAvailableQuantity()).isEqualTo(3);
+        verify(ledger).record(StockMovement.Type.ADJUST, 1L, -2);
     }
 
 }
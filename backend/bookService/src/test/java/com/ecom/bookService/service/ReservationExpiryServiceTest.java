@@ -0,0 +1,90 @@
+package com.ecom.bookService.service;
+
+import com.ecom.bookService.dto.ExpiredReservations;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTest {
+
+    @Mock
+    InventoryService inventoryService;
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReservationExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        expiryService = new ReservationExpiryService(inventoryService,
+                new ReservationExpiryProperties(true, Duration.ofMinutes(1), 2, 10), meterRegistry,
+                taskScheduler);
+    }
+
+    @Test
+    void sweep_releasesBatchesUntilOneIsNotFull_andRecordsMetrics() {
+        when(inventoryService.releaseExpiredReservations(2))
+                .thenReturn(new ExpiredReservations(2, 5))
+                .thenReturn(new ExpiredReservations(1, 1));
+
+        ExpiredReservations result = expiryService.sweep();
+
+        assertThat(result).isEqualTo(new ExpiredReservations(3, 6));
+        verify(inventoryService, times(2)).releaseExpiredReservations(2);
+        assertThat(meterRegistry.get("inventory.reservations.expired").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("inventory.reservations.reclaimed.units").counter().count()).isEqualTo(6);
+        assertThat(meterRegistry.get("inventory.reservations.expiry.sweep").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sweep_stopsAtMaxBatches() {
+        when(inventoryService.releaseExpiredReservations(2)).thenReturn(new ExpiredReservations(2, 2));
+
+        assertThat(expiryService.sweep().reservations()).isEqualTo(20);
+        verify(inventoryService, times(10)).releaseExpiredReservations(2);
+    }
+
+    @Test
+    void sweep_failedBatch_keepsWhatWasReleased() {
+        when(inventoryService.releaseExpiredReservations(2))
+                .thenReturn(new ExpiredReservations(2, 4))
+                .thenThrow(new ObjectOptimisticLockingFailureException("BookInventory", 1L));
+
+        assertThat(expiryService.sweep()).isEqualTo(new ExpiredReservations(2, 4));
+        assertThat(meterRegistry.get("inventory.reservations.expiry.sweep").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void start_enabled_schedulesTheSweepAtTheConfiguredInterval() {
+        expiryService.start();
+
+        verify(taskScheduler).scheduleWithFixedDelay(any(Runnable.class), any(Instant.class),
+                eq(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void start_disabled_schedulesNothing() {
+        new ReservationExpiryService(inventoryService,
+                new ReservationExpiryProperties(false, Duration.ofMinutes(1), 2, 10), meterRegistry,
+                taskScheduler).start();
+
+        verifyNoInteractions(taskScheduler);
+    }
+
+}
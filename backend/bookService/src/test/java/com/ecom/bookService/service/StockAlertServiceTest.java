@@ -0,0 +1,159 @@
+package com.ecom.bookService.service;
+
+import com.ecom.bookService.dto.StockAlertDTO;
+import com.ecom.bookService.event.StockAlertEvent;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.StockAlert;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import com.ecom.bookService.repository.StockAlertRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAlertServiceTest {
+
+    @Mock
+    StockAlertRepository alertRepository;
+
+    @Mock
+    BookInventoryRepository bookInventoryRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    private StockAlertService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockAlertService(alertRepository, bookInventoryRepository, transactionManager, eventPublisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void backfill_evaluatesTheBooksAlreadyLowAndTheAlertedOnes() {
+        StockAlert restocked = StockAlert.builder().bookId(2L).level(StockAlert.Level.OUT_OF_STOCK).build();
+        when(bookInventoryRepository.findBookIdsAtOrBelowMinimum()).thenReturn(List.of(1L));
+        when(alertRepository.findAllBookIds()).thenReturn(List.of(2L));
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory(0, 0, 3)));
+        when(alertRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookInventoryRepository.findByBookBookId(2L)).thenReturn(Optional.of(inventory(50, 0, 3)));
+        when(alertRepository.findById(2L)).thenReturn(Optional.of(restocked));
+
+        service.backfill();
+
+        verify(eventPublisher, timeout(5000))
+                .publishEvent(new StockAlertEvent(1L, StockAlert.Level.OUT_OF_STOCK, 0, 3));
+        verify(eventPublisher, timeout(5000)).publishEvent(new StockAlertEvent(2L, null, 50, 3));
+        verify(alertRepository).delete(restocked);
+    }
+
+    @Test
+    void getAlerts_returnsTheAlertsAsDtos() {
+        StockAlert alert = StockAlert.builder().bookId(1L).level(StockAlert.Level.LOW)
+                .freeQuantity(2).minimumStockLevel(3).since(Instant.EPOCH).build();
+        when(alertRepository.findByLevel(any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(alert)));
+
+        Page<StockAlertDTO> alerts = service.getAlerts(StockAlert.Level.LOW, 0, 20);
+
+        assertThat(alerts.getContent())
+                .containsExactly(new StockAlertDTO(1L, StockAlert.Level.LOW, 2, 3, Instant.EPOCH));
+    }
+
+    @Test
+    void evaluate_stockAtItsMinimum_raisesALowStockAlert() {
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory(10, 7, 3)));
+        when(alertRepository.findById(1L)).thenReturn(Optional.empty());
+
+        service.evaluate(1L);
+
+        ArgumentCaptor<StockAlert> alert = ArgumentCaptor.forClass(StockAlert.class);
+        verify(alertRepository).save(alert.capture());
+        assertThat(alert.getValue().getLevel()).isEqualTo(StockAlert.Level.LOW);
+        assertThat(alert.getValue().getFreeQuantity()).isEqualTo(3);
+        verify(eventPublisher).publishEvent(new StockAlertEvent(1L, StockAlert.Level.LOW, 3, 3));
+    }
+
+    @Test
+    void evaluate_sameLevel_onlyRefreshesTheAlert() {
+        StockAlert current = StockAlert.builder().bookId(1L).level(StockAlert.Level.LOW)
+                .freeQuantity(3).minimumStockLevel(3).since(Instant.EPOCH).build();
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory(10, 8, 3)));
+        when(alertRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        service.evaluate(1L);
+
+        assertThat(current.getFreeQuantity()).isEqualTo(2);
+        assertThat(current.getSince()).isEqualTo(Instant.EPOCH);
+        verify(alertRepository).save(current);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void evaluate_soldOut_escalatesTheAlert() {
+        StockAlert current = StockAlert.builder().bookId(1L).level(StockAlert.Level.LOW).since(Instant.EPOCH).build();
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory(4, 4, 3)));
+        when(alertRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        service.evaluate(1L);
+
+        verify(eventPublisher).publishEvent(new StockAlertEvent(1L, StockAlert.Level.OUT_OF_STOCK, 0, 3));
+    }
+
+    @Test
+    void evaluate_restocked_clearsTheAlert() {
+        StockAlert current = StockAlert.builder().bookId(1L).level(StockAlert.Level.OUT_OF_STOCK).build();
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory(50, 0, 3)));
+        when(alertRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        service.evaluate(1L);
+
+        verify(alertRepository).delete(current);
+        verify(eventPublisher).publishEvent(new StockAlertEvent(1L, null, 50, 3));
+    }
+
+    @Test
+    void evaluate_aboveMinimumWithoutAlert_writesNothing() {
+        when(bookInventoryRepository.findByBookBookId(1L)).thenReturn(Optional.of(inventory(50, 0, 3)));
+        when(alertRepository.findById(1L)).thenReturn(Optional.empty());
+
+        service.evaluate(1L);
+
+        verify(alertRepository, never()).save(any());
+        verify(alertRepository, never()).delete(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static BookInventory inventory(int available, int reserved, int minimum) {
+        return BookInventory.builder()
+                .availableQuantity(available)
+                .reservedQuantity(reserved)
+                .minimumStockLevel(minimum)
+                .build();
+    }
+
+}
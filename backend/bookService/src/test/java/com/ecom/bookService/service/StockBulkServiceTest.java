@@ -0,0 +1,141 @@
+package com.ecom.bookService.service;
+
+import com.ecom.bookService.dto.BulkStockRequest.Line;
+import com.ecom.bookService.dto.BulkStockResult;
+import com.ecom.bookService.event.StockChangedEvent;
+import com.ecom.bookService.ledger.StockLedger;
+import com.ecom.bookService.model.Book;
+import com.ecom.bookService.model.BookInventory;
+import com.ecom.bookService.model.StockMovement;
+import com.ecom.bookService.repository.BookInventoryRepository;
+import com.ecom.bookService.stock.HotStockEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockBulkServiceTest {
+
+    @Mock
+    BookInventoryRepository bookInventoryRepository;
+
+    @Mock
+    HotStockEngine hotStock;
+
+    @Mock
+    StockLedger ledger;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private StockBulkService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockBulkService(bookInventoryRepository, hotStock, ledger, eventPublisher, transactionManager, 2);
+    }
+
+    @Test
+    void receive_appliesValidLines_andReportsTheOthers() {
+        BookInventory first = inventory(1L, 10, 0, 3L);
+        BookInventory second = inventory(2L, 4, 0, 8L);
+        BookInventory third = inventory(3L, 4, 0, 1L);
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(1L, 99L))).thenReturn(List.of(first));
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(2L, 3L))).thenReturn(List.of(second, third));
+
+        BulkStockResult result = service.receive(List.of(
+                new Line(1L, 5, 3L),
+                new Line(99L, 1, null),
+                new Line(2L, 3, 7L),
+                new Line(3L, 0, null)));
+
+        assertThat(result.applied()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.lines()).extracting(BulkStockResult.LineResult::status).containsExactly(
+                BulkStockResult.Status.APPLIED,
+                BulkStockResult.Status.NOT_FOUND,
+                BulkStockResult.Status.VERSION_CONFLICT,
+                BulkStockResult.Status.INVALID_QUANTITY);
+        assertThat(first.getAvailableQuantity()).isEqualTo(15);
+        assertThat(second.getAvailableQuantity()).isEqualTo(4);
+        assertThat(third.getAvailableQuantity()).isEqualTo(4);
+        verify(ledger).record(StockMovement.Type.RECEIPT, 1L, 5);
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
+        verify(hotStock).demote(99L);
+    }
+
+    @Test
+    void adjust_setsTheCountedQuantity_butNotBelowTheReservedOne() {
+        BookInventory first = inventory(1L, 10, 2, 0L);
+        BookInventory second = inventory(2L, 10, 6, 0L);
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        BulkStockResult result = service.adjust(List.of(new Line(1L, 7, null), new Line(2L, 5, null)));
+
+        assertThat(result.lines()).extracting(BulkStockResult.LineResult::status).containsExactly(
+                BulkStockResult.Status.APPLIED,
+                BulkStockResult.Status.INVALID_QUANTITY);
+        assertThat(first.getAvailableQuantity()).isEqualTo(7);
+        assertThat(second.getAvailableQuantity()).isEqualTo(10);
+        verify(ledger).record(StockMovement.Type.ADJUST, 1L, -3);
+        verifyNoMoreInteractions(ledger);
+    }
+
+    @Test
+    void receive_failedChunk_leavesTheOtherChunksApplied() {
+        BookInventory first = inventory(1L, 10, 0, 0L);
+        BookInventory third = inventory(3L, 10, 0, 0L);
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(1L, 3L))).thenReturn(List.of(first, third));
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(2L)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        BulkStockResult result = service.receive(List.of(
+                new Line(1L, 1, null), new Line(3L, 1, null), new Line(2L, 1, null)));
+
+        assertThat(result.lines()).extracting(BulkStockResult.LineResult::status).containsExactly(
+                BulkStockResult.Status.APPLIED,
+                BulkStockResult.Status.APPLIED,
+                BulkStockResult.Status.FAILED);
+        assertThat(first.getAvailableQuantity()).isEqualTo(11);
+    }
+
+    @Test
+    void receive_bookOnSeveralLines_refusesThemAll() {
+        BookInventory second = inventory(2L, 4, 0, 8L);
+        when(bookInventoryRepository.findAllByBookIdsForUpdate(List.of(2L))).thenReturn(List.of(second));
+
+        BulkStockResult result = service.receive(List.of(
+                new Line(1L, 5, 3L), new Line(2L, 1, 8L), new Line(1L, 5, 3L)));
+
+        assertThat(result.lines()).extracting(BulkStockResult.LineResult::status).containsExactly(
+                BulkStockResult.Status.DUPLICATE_BOOK,
+                BulkStockResult.Status.APPLIED,
+                BulkStockResult.Status.DUPLICATE_BOOK);
+        assertThat(second.getAvailableQuantity()).isEqualTo(5);
+        verify(hotStock, never()).demote(1L);
+        verify(ledger, never()).record(StockMovement.Type.RECEIPT, 1L, 5);
+    }
+
+    private static BookInventory inventory(Long bookId, int available, int reserved, Long version) {
+        return BookInventory.builder()
+                .book(Book.builder().bookId(bookId).build())
+                .availableQuantity(available)
+                .reservedQuantity(reserved)
+                .version(version)
+                .build();
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.ecom.bookService.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EpochGateTest {
+
+    @Test
+    void advance_waitsForTheThreadsStillInThePreviousEpoch() throws Exception {
+        EpochGate gate = new EpochGate(1, 4);
+        long entered = gate.enter();
+
+        CompletableFuture<Long> advanced = CompletableFuture.supplyAsync(gate::advance);
+        Thread.sleep(100);
+
+        assertThat(advanced).isNotDone();
+        long next = gate.enter();
+        assertThat(next).isEqualTo(2);
+        gate.exit(next);
+
+        gate.exit(entered);
+        assertThat(advanced.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+    }
+
+}
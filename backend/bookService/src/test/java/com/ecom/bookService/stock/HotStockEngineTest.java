@@ -0,0 +1,159 @@
+package com.ecom.bookService.stock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotStockEngineTest {
+
+    private static final Long BOOK_ID = 7L;
+
+    @TempDir
+    Path directory;
+
+    private final List<HotStockEngine> engines = new ArrayList<>();
+
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        for (int i = engines.size() - 1; i >= 0; i--) {
+            engines.get(i).stop();
+        }
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void tryReserve_rolledBack_givesTheUnitsBackWithoutWritingAnything() {
+        JdbcTemplate jdbcTemplate = database(10);
+        HotStockEngine engine = start(jdbcTemplate);
+        engine.promote(BOOK_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(engine.tryReserve(BOOK_ID, 4)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+        assertThat(engine.tryReserve(BOOK_ID, 7)).isEqualTo(HotStockEngine.Outcome.INSUFFICIENT_STOCK);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(engine.tryReserve(BOOK_ID, 10)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+        engine.demote(BOOK_ID);
+
+        assertThat(writtenChanges(jdbcTemplate)).containsExactly(new Object[] {0L, 10L, BOOK_ID});
+        verify(jdbcTemplate, never()).update(anyString(), eq(0), eq(-4), eq(BOOK_ID));
+    }
+
+    @Test
+    void release_freesTheUnitsOnlyOnceCommitted() {
+        JdbcTemplate jdbcTemplate = database(10);
+        HotStockEngine engine = start(jdbcTemplate);
+        engine.promote(BOOK_ID);
+        assertThat(engine.tryReserve(BOOK_ID, 4)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(engine.release(BOOK_ID, 4)).isTrue();
+        assertThat(engine.tryReserve(BOOK_ID, 7)).isEqualTo(HotStockEngine.Outcome.INSUFFICIENT_STOCK);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(engine.tryReserve(BOOK_ID, 7)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+        engine.demote(BOOK_ID);
+
+        assertThat(writtenChanges(jdbcTemplate)).containsExactly(new Object[] {0L, 7L, BOOK_ID});
+    }
+
+    @Test
+    void demote_reservationInProgress_isWrittenThenUndoneIfItRollsBack() {
+        JdbcTemplate jdbcTemplate = database(10);
+        HotStockEngine engine = start(jdbcTemplate);
+        engine.promote(BOOK_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(engine.tryReserve(BOOK_ID, 4)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+        engine.demote(BOOK_ID);
+
+        assertThat(engine.isHot(BOOK_ID)).isFalse();
+        assertThat(writtenChanges(jdbcTemplate)).containsExactly(new Object[] {0L, 4L, BOOK_ID});
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(jdbcTemplate).update(anyString(), eq(0), eq(-4), eq(BOOK_ID));
+    }
+
+    @Test
+    void start_afterACrash_replaysOnlyTheCommittedChanges() {
+        HotStockEngine crashed = start(database(10));
+        crashed.promote(BOOK_ID);
+        assertThat(crashed.tryReserve(BOOK_ID, 3)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(crashed.tryReserve(BOOK_ID, 2)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // still in progress when the instance stops
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(crashed.tryReserve(BOOK_ID, 1)).isEqualTo(HotStockEngine.Outcome.RESERVED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        JdbcTemplate jdbcTemplate = database(10);
+        start(jdbcTemplate);
+
+        assertThat(writtenChanges(jdbcTemplate)).containsExactly(new Object[] {0L, 3L, BOOK_ID});
+        verify(jdbcTemplate).update(anyString(), eq(1L));
+    }
+
+    private HotStockEngine start(JdbcTemplate jdbcTemplate) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        HotStockProperties properties = new HotStockProperties(true, 2, 64, Duration.ofMillis(5), 50,
+                Duration.ofSeconds(10), Duration.ofMinutes(5), Duration.ofHours(1), directory.toString());
+
+        taskScheduler.initialize();
+        HotStockEngine engine = new HotStockEngine(properties, jdbcTemplate, transactionManager,
+                mock(ApplicationEventPublisher.class), taskScheduler);
+        engine.start();
+        engines.add(engine);
+        return engine;
+    }
+
+    private static JdbcTemplate database(long freeUnits) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(BOOK_ID))).thenReturn(List.of(freeUnits));
+        return jdbcTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> writtenChanges(JdbcTemplate jdbcTemplate) {
+        ArgumentCaptor<List<Object[]>> changes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), changes.capture());
+        return changes.getValue();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+}
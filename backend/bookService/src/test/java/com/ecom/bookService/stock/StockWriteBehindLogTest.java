@@ -0,0 +1,43 @@
+package com.ecom.bookService.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockWriteBehindLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_returnsTheSegmentsInOrder_andIgnoresATornEntry() throws Exception {
+        StockWriteBehindLog log = new StockWriteBehindLog(directory);
+
+        try (StockWriteBehindLog.Segment segment = log.open(12)) {
+            segment.awaitDurable(segment.append(new StockWriteBehindLog.Entry(7L, 0, 2)));
+        }
+        try (StockWriteBehindLog.Segment segment = log.open(3)) {
+            segment.append(new StockWriteBehindLog.Entry(7L, -1, -1));
+            segment.awaitDurable(segment.append(new StockWriteBehindLog.Entry(8L, 0, 5)));
+        }
+        Files.write(directory.resolve(String.format("segment-%020d.log", 12)), new byte[] {1, 2, 3},
+                StandardOpenOption.APPEND);
+
+        var recovered = log.recover();
+
+        assertThat(recovered).extracting(StockWriteBehindLog.Recovered::segmentId).containsExactly(3L, 12L);
+        assertThat(recovered.get(0).entries()).containsExactly(
+                new StockWriteBehindLog.Entry(7L, -1, -1), new StockWriteBehindLog.Entry(8L, 0, 5));
+        assertThat(recovered.get(1).entries()).containsExactly(new StockWriteBehindLog.Entry(7L, 0, 2));
+
+        log.delete(3);
+        log.delete(12);
+        assertThat(log.recover()).isEmpty();
+    }
+
+}
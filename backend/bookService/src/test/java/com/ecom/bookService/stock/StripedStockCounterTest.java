@@ -0,0 +1,71 @@
+package com.ecom.bookService.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockCounterTest {
+
+    @Test
+    void tryTake_gathersUnitsSpreadOverSeveralStripes() {
+        StripedStockCounter counter = new StripedStockCounter(1L, 4, 10);
+
+        assertThat(counter.tryTake(7)).isTrue();
+        assertThat(counter.free()).isEqualTo(3);
+        assertThat(counter.tryTake(4)).isFalse();
+        assertThat(counter.free()).isEqualTo(3);
+        assertThat(counter.tryTake(3)).isTrue();
+        assertThat(counter.free()).isZero();
+    }
+
+    @Test
+    void tryTake_concurrently_neverOversells() throws InterruptedException {
+        StripedStockCounter counter = new StripedStockCounter(1L, 8, 1_000);
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 200; i++) {
+                    if (counter.tryTake(1 + i % 3)) {
+                        taken.addAndGet(1 + i % 3);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(taken.get()).isLessThanOrEqualTo(1_000);
+        assertThat(counter.free()).isEqualTo(1_000 - taken.get());
+    }
+
+    @Test
+    void drain_returnsTheChangesOfAnEpochOnly() {
+        StripedStockCounter counter = new StripedStockCounter(1L, 2, 10);
+
+        counter.record(4, 0, 3);
+        counter.record(4, -1, -1);
+        counter.record(5, 0, 2);
+
+        assertThat(counter.drain(4)).containsExactly(-1, 2);
+        assertThat(counter.drain(4)).containsExactly(0, 0);
+        assertThat(counter.drain(5)).containsExactly(0, 2);
+    }
+
+}
@@ -5,8 +5,10 @@ import org.ecom.cart.exception.CartItemAlreadyExistsException;
 import org.ecom.cart.exception.EntityNotFoundException;
 import org.ecom.cart.exception.ProductDetailsInvalidException;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -32,4 +34,10 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 
+    @ExceptionHandler(exception = {TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<?> handleDeadlineExceeded(RuntimeException e) {
+        log.warn("Handling No time left to serve the request", e);
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+
 }
@@ -27,6 +27,8 @@ public class FeignConfig {
                 String token = jwtAuth.getToken().getTokenValue();
                 template.header("Authorization", "Bearer " + token);
             }
+
+            RequestDeadline.headerValue().ifPresent(timeout -> template.header(RequestDeadline.HEADER, timeout));
         }
     }
 
@@ -7,8 +7,10 @@ import java.util.stream.Collectors;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,6 +20,7 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.ecom.customerservice.dto.APIErrorResponse;
 import org.ecom.customerservice.exception.CustomerRegistrationFailedException;
 import org.ecom.customerservice.exception.EmailAlreadyExistsException;
+import org.ecom.customerservice.exception.InvalidCursorException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -103,6 +106,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, status);
     }
 
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<APIErrorResponse> handleDeadlineExceeded(RuntimeException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("DEADLINE_EXCEEDED")
+                .status(HttpStatus.GATEWAY_TIMEOUT.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<APIErrorResponse> handle(InvalidCursorException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("INVALID_CURSOR")
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<APIErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
         APIErrorResponse error = APIErrorResponse.builder()
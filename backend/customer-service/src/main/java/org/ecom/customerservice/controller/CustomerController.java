@@ -1,6 +1,8 @@
 package org.ecom.customerservice.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.ecom.customerservice.dto.CursorPage;
 import org.ecom.customerservice.dto.CustomerDTO;
 import org.ecom.customerservice.dto.CustomerDetailsDTO;
 import org.ecom.customerservice.dto.CustomerPreferencesDTO;
@@ -122,6 +125,20 @@ public class CustomerController {
         return ResponseEntity.ok(customerService.listCustomers(page, size));
     }
 
+    @Operation(summary = "List customers with keyset (cursor) pagination, newest first")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Customers retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<CustomerDTO>> scrollCustomers(
+            @Parameter(description = "The token returned with the previous page, absent for the first page.") @RequestParam(required = false) final String cursor,
+            @Parameter(description = "The number of results returned per page.") @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(100) final int size,
+            @Parameter(description = "Whether to also count all the customers.") @RequestParam(defaultValue = "false") final boolean includeTotal
+    ) {
+        return ResponseEntity.ok(customerService.scrollCustomers(cursor, size, includeTotal));
+    }
+
     @Operation(summary = "Delete a customer by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Customer deleted successfully"),
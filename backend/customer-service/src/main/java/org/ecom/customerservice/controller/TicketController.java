@@ -3,6 +3,8 @@ package org.ecom.customerservice.controller;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -29,6 +31,7 @@ import org.ecom.customerservice.dto.CreateTicketMessageRequest;
 import org.ecom.customerservice.dto.CreateTicketMessageResponse;
 import org.ecom.customerservice.dto.CreateTicketRequest;
 import org.ecom.customerservice.dto.CreateTicketResponse;
+import org.ecom.customerservice.dto.CursorPage;
 import org.ecom.customerservice.dto.TicketCategoryDTO;
 import org.ecom.customerservice.dto.TicketDTO;
 import org.ecom.customerservice.dto.TicketStatsResponse;
@@ -92,6 +95,14 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.listTickets(page, size));
     }
 
+    @Operation(summary = "List all tickets with keyset (cursor) pagination, newest first")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<TicketDTO>> scrollAllTickets(@RequestParam(name = "cursor", required = false) String cursor,
+                                                                  @RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(100) int size,
+                                                                  @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(ticketService.scrollTickets(cursor, size, includeTotal));
+    }
+
     @GetMapping("/me")
     public ResponseEntity<Page<TicketDTO>> listMyTickets(@RequestParam(name = "page", defaultValue = "0") int page,
                                                          @RequestParam(name = "size", defaultValue = "20") int size,
@@ -0,0 +1,60 @@
+package org.ecom.customerservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.ecom.customerservice.exception.InvalidCursorException;
+
+/**
+ * Position of a keyset (cursor) paginated listing sorted by creation date then id, both descending.
+ * <p>
+ * The position is handed to clients as an opaque URL-safe token: clients must not build or parse it.
+ * Kept in step with the KeysetCursor of the book and order services, which reject malformed tokens the same way.
+ *
+ * @param createdAt The creation date of the last element of the previous page
+ * @param id        The id of the last element of the previous page
+ */
+public record KeysetCursor(LocalDateTime createdAt, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token A token previously returned by {@link #encode()}
+     * @return The decoded cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0 || separator == raw.length() - 1) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        }
+        catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * @return The id of the cursor, for the listings of elements with numeric ids
+     * @throws InvalidCursorException if the id is not a number
+     */
+    public Long longId() {
+        try {
+            return Long.valueOf(id);
+        }
+        catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor id: " + id, e);
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+package org.ecom.customerservice.event;
+
+/**
+ * The profile of a customer changed, and with it the details of the customer the other services cache.
+ *
+ * @param customerId The id of the customer
+ */
+public record CustomerProfileChangedEvent(String customerId) {
+}
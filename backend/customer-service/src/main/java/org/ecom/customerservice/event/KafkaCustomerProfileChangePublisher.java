@@ -0,0 +1,43 @@
+package org.ecom.customerservice.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the committed changes of the customer profiles to a Kafka topic, for the services caching the
+ * details of the customers to evict them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.profile-changes", name = "enabled", havingValue = "true")
+@Slf4j
+public class KafkaCustomerProfileChangePublisher {
+
+    private final KafkaTemplate<String, CustomerProfileChangedEvent> kafkaTemplate;
+
+    private final String topic;
+
+    public KafkaCustomerProfileChangePublisher(
+            KafkaTemplate<String, CustomerProfileChangedEvent> kafkaTemplate,
+            @Value("${customer.profile-changes.topic:customer-profile-changes}") String topic
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(CustomerProfileChangedEvent event) {
+        kafkaTemplate.send(topic, event.customerId(), event)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        // the other services will serve stale details until their cache expires
+                        log.warn("Failed to publish profile change of customer {}", event.customerId(), e);
+                    }
+                });
+    }
+
+}
@@ -16,7 +16,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = @Index(name = "idx_tickets_created_at_id", columnList = "createdAt, id"))
 @Getter
 @Setter
 @Builder
@@ -1,11 +1,26 @@
 package org.ecom.customerservice.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.ecom.customerservice.model.Customer;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String>, JpaSpecificationExecutor<Customer> {
+
+    @Query("SELECT c FROM Customer c ORDER BY c.createdAt DESC, c.id DESC")
+    List<Customer> findFirstKeysetPage(Limit limit);
+
+    @Query("SELECT c FROM Customer c " +
+            "WHERE c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Customer> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") String id, Limit limit);
+
 }
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -26,6 +27,14 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     List<Ticket> findByAssignedTo(String assignedTo);
 
+    @Query("SELECT t FROM Ticket t ORDER BY t.createdAt DESC, t.id DESC")
+    List<Ticket> findFirstKeysetPage(Limit limit);
+
+    @Query("SELECT t FROM Ticket t " +
+            "WHERE t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Ticket> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
     @Query("SELECT t.priority as priority, COUNT(t) as count " +
             "FROM Ticket t " +
             "GROUP BY t.priority")
@@ -1,7 +1,10 @@
 package org.ecom.customerservice.service;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
@@ -11,13 +14,16 @@ import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.ecom.customerservice.dto.CursorPage;
 import org.ecom.customerservice.dto.CustomerDTO;
 import org.ecom.customerservice.dto.CustomerDetailsDTO;
 import org.ecom.customerservice.dto.CustomerPreferencesDTO;
 import org.ecom.customerservice.dto.CustomerProfileDTO;
 import org.ecom.customerservice.dto.CustomerStatsResponse;
+import org.ecom.customerservice.dto.KeysetCursor;
 import org.ecom.customerservice.dto.UpdatePreferencesRequest;
 import org.ecom.customerservice.dto.UpdateProfileRequest;
+import org.ecom.customerservice.event.CustomerProfileChangedEvent;
 import org.ecom.customerservice.exception.EntityNotFoundException;
 import org.ecom.customerservice.mapper.CustomerMapper;
 import org.ecom.customerservice.model.Contact;
@@ -35,6 +41,8 @@ public class CustomerService {
 
     private final CustomerMapper customerMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public boolean canAccessCustomerProfile(String customerId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -82,6 +90,7 @@ public class CustomerService {
 
         Customer updatedCustomer = customerRepository.save(customer);
         log.info("Customer profile updated: {}", customerId);
+        eventPublisher.publishEvent(new CustomerProfileChangedEvent(customerId));
 
         return customerMapper.mapToCustomerProfileDTO(updatedCustomer);
     }
@@ -117,6 +126,38 @@ public class CustomerService {
                 .map(customerMapper::mapToCustomerDTO);
     }
 
+    /**
+     * Keyset pagination over all the customers, newest first: seeks past the cursor on the (createdAt, id) index
+     * instead of skipping rows, and only counts the customers when asked for.
+     */
+    public CursorPage<CustomerDTO> scrollCustomers(String cursor, int size, boolean withTotal) {
+        Limit limit = Limit.of(size + 1);
+        List<Customer> customers;
+        if (cursor == null || cursor.isBlank()) {
+            customers = customerRepository.findFirstKeysetPage(limit);
+        }
+        else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            customers = customerRepository.findKeysetPageAfter(position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasNext = customers.size() > size;
+        List<Customer> content = hasNext ? customers.subList(0, size) : customers;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Customer last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new CursorPage<>(
+                content.stream().map(customerMapper::mapToCustomerDTO).toList(),
+                nextCursor,
+                hasNext,
+                withTotal ? customerRepository.count() : null
+        );
+    }
+
     public CustomerDetailsDTO getCustomerDetails(String customerId) {
         Customer customer = findCustomerById(customerId);
         return CustomerDetailsDTO.builder()
@@ -5,10 +5,12 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.WeekFields;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import jakarta.validation.ConstraintViolationException;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +29,8 @@ import org.ecom.customerservice.dto.CreateTicketMessageRequest;
 import org.ecom.customerservice.dto.CreateTicketMessageResponse;
 import org.ecom.customerservice.dto.CreateTicketRequest;
 import org.ecom.customerservice.dto.CreateTicketResponse;
+import org.ecom.customerservice.dto.CursorPage;
+import org.ecom.customerservice.dto.KeysetCursor;
 import org.ecom.customerservice.dto.TicketCategoryDTO;
 import org.ecom.customerservice.dto.TicketDTO;
 import org.ecom.customerservice.dto.TicketStatsResponse;
@@ -153,6 +157,39 @@ public class TicketService {
                 .map(ticketMapper::mapToTicketDTO);
     }
 
+    /**
+     * Keyset pagination over all the tickets, newest first: seeks past the cursor on the (createdAt, id) index
+     * instead of skipping rows, and only counts the tickets when asked for.
+     */
+    public CursorPage<TicketDTO> scrollTickets(String cursor, int size, boolean withTotal) {
+        log.info("Scrolling all tickets");
+        Limit limit = Limit.of(size + 1);
+        List<Ticket> tickets;
+        if (cursor == null || cursor.isBlank()) {
+            tickets = ticketRepository.findFirstKeysetPage(limit);
+        }
+        else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            tickets = ticketRepository.findKeysetPageAfter(position.createdAt(), position.longId(), limit);
+        }
+
+        boolean hasNext = tickets.size() > size;
+        List<Ticket> content = hasNext ? tickets.subList(0, size) : tickets;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Ticket last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), String.valueOf(last.getId())).encode();
+        }
+
+        return new CursorPage<>(
+                content.stream().map(ticketMapper::mapToTicketDTO).toList(),
+                nextCursor,
+                hasNext,
+                withTotal ? ticketRepository.count() : null
+        );
+    }
+
     @Transactional
     public void assignTo(Long ticketId, String userId, Collection<String> roles) {
         log.info("Assigning ticket {} to support user {}", ticketId, userId);
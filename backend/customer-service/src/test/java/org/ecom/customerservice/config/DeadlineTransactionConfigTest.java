@@ -0,0 +1,42 @@
+package org.ecom.customerservice.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineTransactionConfigTest {
+
+    @Test
+    void timeoutWithin_noDeadline_keepsTheTimeout() {
+        assertThat(DeadlineTransactionConfig.timeoutWithin(TransactionDefinition.TIMEOUT_DEFAULT, Optional.empty()))
+                .isEqualTo(TransactionDefinition.TIMEOUT_DEFAULT);
+        assertThat(DeadlineTransactionConfig.timeoutWithin(30, Optional.empty())).isEqualTo(30);
+    }
+
+    @Test
+    void timeoutWithin_timeLeft_isRoundedUpToTheSecond() {
+        assertThat(DeadlineTransactionConfig.timeoutWithin(TransactionDefinition.TIMEOUT_DEFAULT,
+                Optional.of(Duration.ofMillis(2_300)))).isEqualTo(3);
+        assertThat(DeadlineTransactionConfig.timeoutWithin(TransactionDefinition.TIMEOUT_DEFAULT,
+                Optional.of(Duration.ofMillis(40)))).isEqualTo(1);
+    }
+
+    @Test
+    void timeoutWithin_shorterTimeout_isKept() {
+        assertThat(DeadlineTransactionConfig.timeoutWithin(2, Optional.of(Duration.ofSeconds(10)))).isEqualTo(2);
+    }
+
+    @Test
+    void timeoutWithin_noTimeLeft_failsTheTransaction() {
+        assertThatThrownBy(() -> DeadlineTransactionConfig.timeoutWithin(TransactionDefinition.TIMEOUT_DEFAULT,
+                Optional.of(Duration.ofMillis(-5))))
+                .isInstanceOf(TransactionTimedOutException.class);
+    }
+
+}
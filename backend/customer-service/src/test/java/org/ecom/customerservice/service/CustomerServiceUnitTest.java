@@ -3,6 +3,7 @@ package org.ecom.customerservice.service;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -13,6 +14,8 @@ import org.ecom.customerservice.dto.CustomerDTO;
 import org.ecom.customerservice.dto.CustomerPreferencesDTO;
 import org.ecom.customerservice.dto.CustomerProfileDTO;
 import org.ecom.customerservice.dto.UpdatePreferencesRequest;
+import org.ecom.customerservice.dto.UpdateProfileRequest;
+import org.ecom.customerservice.event.CustomerProfileChangedEvent;
 import org.ecom.customerservice.exception.EntityNotFoundException;
 import org.ecom.customerservice.mapper.CustomerMapper;
 import org.ecom.customerservice.model.Customer;
@@ -44,6 +47,9 @@ class CustomerServiceUnitTest {
     @Mock
     private CustomerMapper customerMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -120,6 +126,20 @@ class CustomerServiceUnitTest {
         assertThat(savedCustomer.getPreferences().isSmsNotificationsEnabled()).isFalse();
     }
 
+    @Test
+    void updateCustomerProfile_shouldPublishProfileChange() {
+        var request = new UpdateProfileRequest("Jane", "Doe", null);
+
+        when(customerRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(customer));
+        when(customerRepository.save(customer)).thenReturn(customer);
+        when(customerMapper.mapToCustomerProfileDTO(customer)).thenReturn(customerProfileDTO);
+
+        assertThat(customerService.updateCustomerProfile(CUSTOMER_ID, request)).isEqualTo(customerProfileDTO);
+
+        assertThat(customer.getFirstname()).isEqualTo("Jane");
+        verify(eventPublisher).publishEvent(new CustomerProfileChangedEvent(CUSTOMER_ID));
+    }
+
     // -------------------- CustomerService.getCustomerById --------------------
 
     @Test
@@ -1,10 +1,12 @@
 package org.ecom.customerservice.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import jakarta.validation.ConstraintViolationException;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -13,9 +15,12 @@ import org.springframework.data.domain.Sort;
 
 import org.ecom.customerservice.dto.CreateTicketRequest;
 import org.ecom.customerservice.dto.CreateTicketResponse;
+import org.ecom.customerservice.dto.CursorPage;
+import org.ecom.customerservice.dto.KeysetCursor;
 import org.ecom.customerservice.dto.TicketCategoryDTO;
 import org.ecom.customerservice.dto.TicketDTO;
 import org.ecom.customerservice.exception.EntityNotFoundException;
+import org.ecom.customerservice.exception.InvalidCursorException;
 import org.ecom.customerservice.mapper.TicketMapper;
 import org.ecom.customerservice.model.Customer;
 import org.ecom.customerservice.model.Ticket;
@@ -25,6 +30,7 @@ import org.ecom.customerservice.repository.TicketCategoryRepository;
 import org.ecom.customerservice.repository.TicketRepository;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -179,4 +185,33 @@ class TicketServiceTest {
         verify(ticketMapper, times(2)).mapTicketCategoryToDTO(any(TicketCategory.class));
     }
 
+    @Test
+    void scrollTickets_seeksPastCursor_andReturnsNextCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Ticket first = Ticket.builder().id(41L).createdAt(createdAt.minusMinutes(1)).build();
+        Ticket second = Ticket.builder().id(40L).createdAt(createdAt.minusMinutes(2)).build();
+        when(ticketRepository.findKeysetPageAfter(createdAt, 42L, Limit.of(2))).thenReturn(List.of(first, second));
+        when(ticketMapper.mapToTicketDTO(first)).thenReturn(new TicketDTO());
+
+        CursorPage<TicketDTO> result = ticketService.scrollTickets(new KeysetCursor(createdAt, "42").encode(), 1, false);
+
+        assertEquals(1, result.content().size());
+        assertEquals(new KeysetCursor(first.getCreatedAt(), "41"), KeysetCursor.decode(result.nextCursor()));
+        assertNull(result.totalElements());
+        verify(ticketRepository, never()).count();
+    }
+
+    @Test
+    void scrollTickets_invalidCursor_throws() {
+        assertThrows(IllegalArgumentException.class, () -> ticketService.scrollTickets("%%%", 10, false));
+    }
+
+    @Test
+    void scrollTickets_nonNumericCursorId_throwsInvalidCursor() {
+        String cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 10, 0), "abc").encode();
+
+        assertThrows(InvalidCursorException.class, () -> ticketService.scrollTickets(cursor, 10, false));
+        verify(ticketRepository, never()).findKeysetPageAfter(any(), any(), any());
+    }
+
 }
@@ -19,8 +19,10 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 import com.ecom.order.exception.BadREquestException;
 import com.ecom.order.exception.BusinessException;
+import com.ecom.order.exception.DeadlineExceededException;
 import com.ecom.order.exception.EntityNotFoundException;
 import com.ecom.order.exception.ExternalServiceException;
+import com.ecom.order.exception.InvalidCursorException;
 import com.ecom.order.exception.OrderAlreadyExistsException;
 import lombok.Builder;
 import lombok.Value;
@@ -78,6 +80,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(errorResponse);
     }
 
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<APIErrorResponse> handle(DeadlineExceededException ex) {
+        HttpStatus status = HttpStatus.GATEWAY_TIMEOUT;
+        APIErrorResponse errorResponse = APIErrorResponse.builder()
+                .status(status.value())
+                .error("DEADLINE_EXCEEDED")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<APIErrorResponse> handle(MethodArgumentNotValidException ex) {
         Map<String, String> details = ex.getBindingResult()
@@ -145,6 +159,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<APIErrorResponse> handle(InvalidCursorException e) {
+        APIErrorResponse error = APIErrorResponse.builder()
+                .error("INVALID_CURSOR")
+                .status(BAD_REQUEST.value())
+                .message(e.getMessage())
+                .build();
+
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<APIErrorResponse> handle(IllegalArgumentException e) {
         APIErrorResponse error = APIErrorResponse.builder()
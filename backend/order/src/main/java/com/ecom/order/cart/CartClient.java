@@ -5,7 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "cart-service", fallback = FallbackCartClient.class)
+@FeignClient(name = "cart-service")
 public interface CartClient {
 
     @GetMapping("/api/v1/carts/{cartId}")
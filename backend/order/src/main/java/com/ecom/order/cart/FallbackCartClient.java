@@ -1,4 +0,0 @@
-package com.ecom.order.cart;
-
-public class FallbackCartClient {
-}
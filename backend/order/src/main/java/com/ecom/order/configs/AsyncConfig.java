@@ -2,24 +2,58 @@ package com.ecom.order.configs;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 
+/**
+ * The executor of the calls to the other services, which carries the security context of the caller to
+ * them. With {@code spring.threads.virtual.enabled}, requests and tasks all run on virtual threads.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
-    
-    @Bean
-    public Executor taskExecutor() {
+
+    /**
+     * Runs every task on its own virtual thread. The tasks mostly wait on the other services, and a virtual
+     * thread costs next to nothing while waiting, so tasks are never queued nor rejected.
+     */
+    @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualThreadTaskExecutor() {
+        return virtualThreadExecutor();
+    }
+
+    @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor platformThreadTaskExecutor(
+            @Value("${order.executor.core-size:10}") int coreSize,
+            @Value("${order.executor.max-size:20}") int maxSize,
+            @Value("${order.executor.queue-capacity:100}") int queueCapacity
+    ) {
+        return platformThreadExecutor(coreSize, maxSize, queueCapacity);
+    }
+
+    public static Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("order-async-");
+        executor.setVirtualThreads(true);
+        return new DelegatingSecurityContextExecutor(executor);
+    }
+
+    public static Executor platformThreadExecutor(int coreSize, int maxSize, int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("order-async-");
         executor.initialize();
         return new DelegatingSecurityContextExecutor(executor);
     }
-}
\ No newline at end of file
+
+}
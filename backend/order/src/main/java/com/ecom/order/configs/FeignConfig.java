@@ -5,6 +5,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
+import com.ecom.order.resilience.RequestDeadline;
+
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import feign.codec.ErrorDecoder;
@@ -36,6 +38,8 @@ public class FeignConfig {
                 String token = jwtAuth.getToken().getTokenValue();
                 template.header("Authorization", "Bearer " + token);
             }
+
+            RequestDeadline.headerValue().ifPresent(timeout -> template.header(RequestDeadline.HEADER, timeout));
         }
     }
 
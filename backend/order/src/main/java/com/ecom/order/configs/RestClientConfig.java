@@ -1,5 +1,10 @@
 package com.ecom.order.configs;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,18 +13,29 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.client.RestClient;
 
+import com.ecom.order.resilience.RequestDeadline;
+
 @Configuration
 public class RestClientConfig {
 
     @Bean
     @LoadBalanced
-    public RestClient.Builder restClient() {
+    public RestClient.Builder restClient(
+            @Value("${downstream.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${downstream.read-timeout:5s}") Duration readTimeout
+    ) {
+        ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.defaults()
+                .withConnectTimeout(connectTimeout)
+                .withReadTimeout(readTimeout);
         return RestClient.builder()
+                .requestFactory(ClientHttpRequestFactoryBuilder.detect().build(settings))
                 .requestInterceptor((request, body, execution) -> {
                     String token = getAccessToken();
                     if (token != null) {
                         request.getHeaders().setBearerAuth(token);
                     }
+                    RequestDeadline.headerValue()
+                            .ifPresent(timeout -> request.getHeaders().set(RequestDeadline.HEADER, timeout));
                     return execution.execute(request, body);
                 });
     }
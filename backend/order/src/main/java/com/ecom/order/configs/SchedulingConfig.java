@@ -0,0 +1,15 @@
+package com.ecom.order.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@link org.springframework.scheduling.TaskScheduler} of Spring Boot, set up under
+ * {@code spring.task.scheduling}, which runs the periodic work of the service at the interval of its own
+ * settings. A run that fails is logged, the next ones still run, and the scheduler stops them all with the
+ * context. With {@code spring.threads.virtual.enabled}, every run gets a virtual thread of its own.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
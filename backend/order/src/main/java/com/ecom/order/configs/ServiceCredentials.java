@@ -0,0 +1,47 @@
+package com.ecom.order.configs;
+
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * The credentials of the order service itself, granted by Keycloak to its {@value #REGISTRATION} client, for
+ * the calls made on behalf of several customers at once. The token is kept until it is about to expire.
+ */
+@Component
+public class ServiceCredentials {
+
+    static final String REGISTRATION = "order-service";
+
+    private final AuthorizedClientServiceOAuth2AuthorizedClientManager clientManager;
+
+    public ServiceCredentials(ClientRegistrationRepository clientRegistrations,
+                              OAuth2AuthorizedClientService authorizedClients) {
+        this.clientManager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrations,
+                authorizedClients);
+        this.clientManager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+    }
+
+    /**
+     * @return The value of the Authorization header of a call made by the service itself
+     * @throws org.springframework.security.oauth2.client.OAuth2AuthorizationException if Keycloak refuses the
+     *                                                                                 credentials
+     */
+    public String authorization() {
+        OAuth2AuthorizedClient client = clientManager.authorize(OAuth2AuthorizeRequest
+                .withClientRegistrationId(REGISTRATION)
+                .principal(REGISTRATION)
+                .build());
+        if (client == null) {
+            throw new IllegalStateException("No access token granted to the " + REGISTRATION + " client");
+        }
+        return "Bearer " + client.getAccessToken().getTokenValue();
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.ecom.order.controller;
 
 
+import java.net.URI;
 import java.util.List;
 import java.util.UUID;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -20,10 +23,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ecom.order.dto.CheckoutStatusResponse;
+import com.ecom.order.dto.CursorPage;
 import com.ecom.order.dto.OrderRequest;
 import com.ecom.order.dto.OrderResponse;
 import com.ecom.order.dto.OrderStatsResponse;
 import com.ecom.order.dto.PlaceOrderResponse;
+import com.ecom.order.service.CheckoutService;
 import com.ecom.order.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +43,8 @@ public class OrderController {
 
     private final OrderService orderService;
 
+    private final CheckoutService checkoutService;
+
     @PostMapping
     public ResponseEntity<PlaceOrderResponse> placeOrder(
             @RequestBody @Valid OrderRequest request,
@@ -45,6 +53,29 @@ public class OrderController {
         return ResponseEntity.ok(this.orderService.placeOrder(request, customerId));
     }
 
+    /**
+     * Places an order without waiting for the stock reservation and the payment: the order is saved as
+     * PENDING and its checkout goes on in the background, to be followed at the returned location.
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutStatusResponse> checkout(
+            @RequestBody @Valid OrderRequest request,
+            @AuthenticationPrincipal(expression = "subject") String customerId
+    ) {
+        CheckoutStatusResponse status = this.checkoutService.startCheckout(request, customerId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + status.getOrderId() + "/checkout"))
+                .body(status);
+    }
+
+    @PreAuthorize("@orderService.isOrderOwner(#orderId, authentication.principal.getClaim('sub'))")
+    @GetMapping("/{order-id}/checkout")
+    public ResponseEntity<CheckoutStatusResponse> getCheckoutStatus(
+            @PathVariable("order-id") UUID orderId
+    ) {
+        return ResponseEntity.ok(this.checkoutService.getCheckoutStatus(orderId));
+    }
+
     @GetMapping
     public ResponseEntity<Page<OrderResponse>> findAll(
             @RequestParam(defaultValue = "0") int page,
@@ -56,6 +87,19 @@ public class OrderController {
         return ResponseEntity.ok(this.orderService.findAllOrders(page, size));
     }
 
+    /**
+     * Lists all the orders, newest first, with keyset (cursor) pagination: deep pages are as cheap as the first
+     * one and the total is only counted when {@code includeTotal} is set.
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<OrderResponse>> scrollAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(this.orderService.scrollAllOrders(cursor, size, includeTotal));
+    }
+
     @PreAuthorize("@orderService.isOrderOwner(#orderId, authentication.principal.getClaim('sub'))")
     @GetMapping("/{order-id}")
     public ResponseEntity<OrderResponse> findById(
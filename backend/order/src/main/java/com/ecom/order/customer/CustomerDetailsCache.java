@@ -0,0 +1,113 @@
+package com.ecom.order.customer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ecom.order.exception.DeadlineExceededException;
+import com.ecom.order.exception.ExternalServiceException;
+import com.ecom.order.resilience.RequestDeadline;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Near-cache of the details of the customers, which almost never change, so that placing an order does not
+ * have to ask customer-service for them every time.
+ * <p>
+ * The cache is bounded and its entries expire after a TTL. They are also evicted when customer-service
+ * tells that a profile changed (see {@link CustomerProfileChangeListener}).
+ * <p>
+ * Concurrent lookups of the same customer share a single call to customer-service: the first one loads the
+ * details, on its own thread so that the call is made with its credentials and deadline, and the others wait
+ * for it. A failed load is not cached, the next lookup calls customer-service again.
+ * <p>
+ * Hits, misses and evictions are exposed through actuator as the {@code cache.*} metrics.
+ */
+@Component
+public class CustomerDetailsCache {
+
+    public static final String CUSTOMER_DETAILS = "customerDetails";
+
+    private final AsyncCache<String, CustomerDetails> details;
+
+    /**
+     * How long a lookup waits for the one loading the same customer, when it has no deadline of its own.
+     */
+    private final Duration waitTimeout;
+
+    public CustomerDetailsCache(
+            MeterRegistry meterRegistry,
+            @Value("${customer.cache.max-size:10000}") long maxSize,
+            @Value("${customer.cache.ttl:1m}") Duration ttl,
+            @Value("${downstream.request-timeout:15s}") Duration waitTimeout
+    ) {
+        this.details = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.waitTimeout = waitTimeout;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, details.synchronous(), CUSTOMER_DETAILS);
+    }
+
+    /**
+     * @param customerId The id of a customer
+     * @param loader     Loads the details of the customer on a miss, from the calling thread
+     * @return The details of the customer
+     */
+    public CustomerDetails get(String customerId, Function<String, CustomerDetails> loader) {
+        CompletableFuture<CustomerDetails> load = new CompletableFuture<>();
+        CompletableFuture<CustomerDetails> cached = details.get(customerId, (id, executor) -> load);
+        if (cached != load) {
+            return await(customerId, cached);
+        }
+
+        try {
+            CustomerDetails customer = loader.apply(customerId);
+            load.complete(customer);
+            return customer;
+        }
+        catch (RuntimeException | Error e) {
+            // the failed load is removed from the cache as it completes
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Evicts the details of a customer, including a load in flight, which may have read them before they
+     * changed: the lookups already waiting for it still get its result, the next ones load them again.
+     */
+    public void invalidate(String customerId) {
+        details.asMap().remove(customerId);
+    }
+
+    private CustomerDetails await(String customerId, CompletableFuture<CustomerDetails> load) {
+        try {
+            return load.get(RequestDeadline.within(waitTimeout).toNanos(), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e) {
+            throw new DeadlineExceededException("No time left to get the details of customer " + customerId, e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ExternalServiceException("Failed to retrieve customer details", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while retrieving customer details", e);
+        }
+    }
+
+}
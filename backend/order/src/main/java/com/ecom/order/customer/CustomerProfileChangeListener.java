@@ -0,0 +1,33 @@
+package com.ecom.order.customer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Evicts from the {@link CustomerDetailsCache} the customers whose profile changed. Every instance of the
+ * service consumes the changes with its own consumer group, from the latest ones: an instance starting has
+ * nothing cached yet.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.cache.invalidation", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerProfileChangeListener {
+
+    private final CustomerDetailsCache customerDetailsCache;
+
+    @KafkaListener(
+            topics = "${customer.cache.invalidation.topic:customer-profile-changes}",
+            groupId = "${spring.application.name}-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onProfileChanged(CustomerProfileChanged change) {
+        log.debug("Evicting the cached details of customer {}", change.customerId());
+        customerDetailsCache.invalidate(change.customerId());
+    }
+
+}
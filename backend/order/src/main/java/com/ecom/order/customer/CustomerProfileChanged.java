@@ -0,0 +1,9 @@
+package com.ecom.order.customer;
+
+/**
+ * A change of the profile of a customer, as published by customer-service.
+ *
+ * @param customerId The id of the customer whose profile changed
+ */
+public record CustomerProfileChanged(String customerId) {
+}
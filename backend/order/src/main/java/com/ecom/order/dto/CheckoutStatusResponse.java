@@ -0,0 +1,38 @@
+package com.ecom.order.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.ecom.order.model.CheckoutStep;
+import com.ecom.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an asynchronous checkout. The payment details are set once the payment has been created.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutStatusResponse {
+
+    private UUID orderId;
+
+    private OrderStatus orderStatus;
+
+    private CheckoutStep step;
+
+    private boolean finished;
+
+    private String lastError;
+
+    private PlaceOrderResponse.PaymentDetails paymentDetails;
+
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+}
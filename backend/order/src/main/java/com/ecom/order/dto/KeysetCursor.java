@@ -0,0 +1,51 @@
+package com.ecom.order.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.ecom.order.exception.InvalidCursorException;
+
+/**
+ * Position of a keyset (cursor) paginated listing sorted by date then id, both descending.
+ * <p>
+ * The position is handed to clients as an opaque URL-safe token: clients must not build or parse it.
+ * Kept in step with the KeysetCursor of the book and customer services, which reject malformed tokens the same way.
+ *
+ * @param date The date of the last order of the previous page
+ * @param id   The id of the last order of the previous page
+ */
+public record KeysetCursor(LocalDateTime date, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token A token previously returned by {@link #encode()}
+     * @return The decoded cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        }
+        catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token, e);
+        }
+    }
+
+}
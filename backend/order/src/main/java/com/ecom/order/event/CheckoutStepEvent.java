@@ -0,0 +1,9 @@
+package com.ecom.order.event;
+
+import java.util.UUID;
+
+/**
+ * Published when the checkout of an order is ready to run its next step.
+ */
+public record CheckoutStepEvent(UUID orderId) {
+}
@@ -0,0 +1,17 @@
+package com.ecom.order.exception;
+
+/**
+ * The time the caller gave the request to be served is up: the work left is given up, its result would be
+ * thrown away.
+ */
+public class DeadlineExceededException extends ExternalServiceException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.ecom.order.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of the asynchronous checkout of an order, persisted at every step so that the checkout can be
+ * followed by the client and given up if nothing drives it anymore.
+ */
+@Entity
+@Table(name = "checkout_sagas", indexes = @Index(name = "idx_checkout_sagas_step_updated_at", columnList = "step, updatedAt"))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutSaga {
+
+    @Id
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CheckoutStep step;
+
+    /**
+     * The number of failed attempts of the current step.
+     */
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private String customerEmail;
+
+    private String paymentStatus;
+
+    private String transactionId;
+
+    private String stripePaymentIntentId;
+
+    private String clientSecret;
+
+    @Column(nullable = false, updatable = false)
+    private Instant startedAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @Version
+    private Long version;
+
+}
@@ -0,0 +1,20 @@
+package com.ecom.order.model;
+
+/**
+ * The steps of an asynchronous checkout, in the order they are run. A checkout that cannot go on releases
+ * the stock it may hold, then fails.
+ */
+public enum CheckoutStep {
+    LOAD_CART,
+    RESERVE_STOCK,
+    CREATE_PAYMENT,
+    COMPLETE_CART,
+    RELEASE_STOCK,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+
+}
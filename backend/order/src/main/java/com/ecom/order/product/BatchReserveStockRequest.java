@@ -0,0 +1,8 @@
+package com.ecom.order.product;
+
+import java.util.List;
+
+public record BatchReserveStockRequest(
+        List<ReserveStockRequest> reservations
+) {
+}
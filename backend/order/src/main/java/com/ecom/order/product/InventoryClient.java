@@ -1,11 +1,16 @@
 package com.ecom.order.product;
 
 
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import com.ecom.order.configs.FeignConfig;
+import com.ecom.order.resilience.RequestDeadline;
 
 @FeignClient(name = "bookService", configuration = FeignConfig.class)
 public interface InventoryClient {
@@ -13,6 +18,19 @@ public interface InventoryClient {
     @PostMapping("/api/v1/inventory/reserve")
     ReserveStockResponse reserveProducts(@RequestBody ReserveStockRequest request);
 
+    /**
+     * Reserves stock for several orders in one transaction. Being made for several customers, the call carries
+     * credentials and a deadline of its own rather than those of the request being served.
+     *
+     * @param authorization The credentials of the service
+     * @param timeout       The time left to the orders, in milliseconds, null if one of them has no deadline
+     * @return The outcome of every order, in the order of the request
+     */
+    @PostMapping("/api/v1/inventory/reserve/batch")
+    List<ReserveStockResponse> reserveProductsBatch(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                                    @RequestHeader(RequestDeadline.HEADER) String timeout,
+                                                    @RequestBody BatchReserveStockRequest request);
+
     @PostMapping("/api/v1/inventory/cancel")
     void cancelStock(@RequestBody CancelStockRequest request);
 
@@ -0,0 +1,20 @@
+package com.ecom.order.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ecom.order.model.CheckoutSaga;
+import com.ecom.order.model.CheckoutStep;
+
+@Repository
+public interface CheckoutSagaRepo extends JpaRepository<CheckoutSaga, UUID> {
+
+    List<CheckoutSaga> findByStepInAndUpdatedAtBefore(Collection<CheckoutStep> steps, Instant updatedBefore, Limit limit);
+
+}
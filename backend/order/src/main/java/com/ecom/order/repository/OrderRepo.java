@@ -1,9 +1,12 @@
 package com.ecom.order.repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -23,6 +26,16 @@ public interface OrderRepo extends JpaRepository<Order, UUID> {
 
     Optional<Order> findByCartIdAndCustomerId(Long cartId, String customerId);
 
+    @Query("SELECT o FROM Order o ORDER BY o.date DESC, o.id DESC")
+    List<Order> findFirstKeysetPage(Limit limit);
+
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.date < :date OR (o.date = :date AND o.id < :id)
+            ORDER BY o.date DESC, o.id DESC
+            """)
+    List<Order> findKeysetPageAfter(@Param("date") LocalDateTime date, @Param("id") UUID id, Limit limit);
+
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status = :status")
     BigDecimal getTotalRevenue(@Param("status") OrderStatus status);
 
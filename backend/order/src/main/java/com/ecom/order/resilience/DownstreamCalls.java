@@ -0,0 +1,420 @@
+package com.ecom.order.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.ecom.order.configs.AsyncConfig;
+import com.ecom.order.exception.DeadlineExceededException;
+import com.ecom.order.exception.ExternalServiceException;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Guards the calls to the other services, named after their Feign clients. Every call goes through the
+ * bulkhead of its service, which caps the calls in flight so that a slow service cannot hold every thread,
+ * then through its circuit breaker, which fails calls fast while the service fails or answers too slowly.
+ * Both are configured per service under {@code resilience4j}, and exported as metrics along with the
+ * latency and the extra attempts of every service.
+ * <p>
+ * Reads, being idempotent, may be attempted again: after a transient failure, and for hedged reads when the
+ * first attempt is slower than most recent ones. Extra attempts are paid for by the {@link RetryBudget} of
+ * the service.
+ * <p>
+ * While serving a request, calls are given the time left by its {@link RequestDeadline}: they are not sent
+ * once it is up, and reads are waited for no longer, the attempts still running being cancelled. Calls that
+ * must not be repeated are waited for until they answer, as giving up on them would not undo their effect.
+ */
+@Component
+@Slf4j
+public class DownstreamCalls {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Runs the attempts waited for with a deadline or hedged, on virtual threads of their own, so that they
+     * never queue behind the calls waiting for them.
+     */
+    private final Executor attemptExecutor = AsyncConfig.virtualThreadExecutor();
+
+    private final Map<String, Downstream> downstreams = new ConcurrentHashMap<>();
+
+    private final int maxAttempts;
+
+    private final Duration retryBackoff;
+
+    private final double budgetRatio;
+
+    private final int budgetCapacity;
+
+    private final boolean hedgeEnabled;
+
+    private final double hedgePercentile;
+
+    private final long hedgeMinDelayNanos;
+
+    private final long hedgeInitialDelayNanos;
+
+    private final long hedgeMinSamples;
+
+    public DownstreamCalls(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${downstream.retry.max-attempts:2}") int maxAttempts,
+            @Value("${downstream.retry.backoff:100ms}") Duration retryBackoff,
+            @Value("${downstream.retry.budget.ratio:0.1}") double budgetRatio,
+            @Value("${downstream.retry.budget.capacity:10}") int budgetCapacity,
+            @Value("${downstream.hedge.enabled:true}") boolean hedgeEnabled,
+            @Value("${downstream.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${downstream.hedge.min-delay:20ms}") Duration hedgeMinDelay,
+            @Value("${downstream.hedge.initial-delay:200ms}") Duration hedgeInitialDelay,
+            @Value("${downstream.hedge.min-samples:20}") long hedgeMinSamples
+    ) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.budgetRatio = budgetRatio;
+        this.budgetCapacity = budgetCapacity;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayNanos = hedgeMinDelay.toNanos();
+        this.hedgeInitialDelayNanos = hedgeInitialDelay.toNanos();
+        this.hedgeMinSamples = hedgeMinSamples;
+    }
+
+    /**
+     * Calls a service once, for calls that must not be repeated. The call is not sent once the time left to
+     * serve the request is up, but once sent it is waited for on the calling thread until it answers, however
+     * long the read timeout of the client lets it take: the service may still carry it out after the caller
+     * gave up, so dropping or interrupting it would take a call that succeeded for one that failed.
+     *
+     * @throws ExternalServiceException   if the service is not called, its circuit being open or its bulkhead full
+     * @throws DeadlineExceededException if the request being served has no time left for the call
+     */
+    public <T> T call(String service, Supplier<T> call) {
+        Downstream downstream = downstream(service);
+        downstream.budget.deposit();
+        return attempt(service, downstream, call);
+    }
+
+    public void run(String service, Runnable call) {
+        call(service, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls a service for an idempotent read, attempted again after a transient failure, within the retry
+     * budget of the service and the time left to serve the request.
+     *
+     * @throws ExternalServiceException   if the service is not called, its circuit being open or its bulkhead full
+     * @throws DeadlineExceededException if the request being served has no time left for the call
+     */
+    public <T> T read(String service, Supplier<T> call) {
+        Downstream downstream = downstream(service);
+        downstream.budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attemptWithinDeadline(service, downstream, call);
+            }
+            catch (RuntimeException e) {
+                Duration backoff = retryBackoff.multipliedBy(attempt);
+                if (attempt >= maxAttempts || !isTransient(e) || remainingNanos() <= backoff.toNanos()
+                        || !withdraw(downstream)) {
+                    throw e;
+                }
+                downstream.retries.increment();
+                log.warn("Retrying call to {} after a transient failure: {}", service, e.getMessage());
+                pause(service, backoff);
+            }
+        }
+    }
+
+    /**
+     * Calls a service for an idempotent read, sending a second attempt when the first has not answered
+     * within the recent latency percentile of the service, or has failed transiently, within its retry
+     * budget. The first attempt to succeed wins, the other is cancelled.
+     *
+     * @throws ExternalServiceException   if the service is not called, its circuit being open or its bulkhead full
+     * @throws DeadlineExceededException if the request being served has no time left for the call
+     */
+    public <T> T hedgedRead(String service, Supplier<T> call) {
+        if (!hedgeEnabled) {
+            return read(service, call);
+        }
+
+        Downstream downstream = downstream(service);
+        downstream.budget.deposit();
+        BlockingQueue<FutureTask<T>> completed = new LinkedBlockingQueue<>();
+        List<FutureTask<T>> attempts = new ArrayList<>(2);
+        try {
+            start(service, downstream, call, attempts, completed);
+            RuntimeException firstFailure = null;
+            boolean secondAttempted = false;
+            int finished = 0;
+            while (true) {
+                long remainingNanos = remainingNanos();
+                FutureTask<T> attempt = completed.poll(
+                        secondAttempted ? remainingNanos : Math.min(remainingNanos, hedgeDelayNanos(downstream)),
+                        TimeUnit.NANOSECONDS);
+
+                if (attempt == null) {
+                    if (remainingNanos() <= 0) {
+                        throw deadlineExceeded(service);
+                    }
+                    // the first attempt is slow: hedge it, if the budget allows
+                    if (!secondAttempted && withdraw(downstream)) {
+                        downstream.hedges.increment();
+                        log.debug("Hedging a slow call to {}", service);
+                        start(service, downstream, call, attempts, completed);
+                    }
+                    secondAttempted = true;
+                    continue;
+                }
+
+                finished++;
+                if (attempt.state() == FutureTask.State.SUCCESS) {
+                    if (attempt != attempts.get(0)) {
+                        downstream.hedgesWon.increment();
+                    }
+                    return attempt.resultNow();
+                }
+
+                RuntimeException failure = asRuntimeException(service, attempt.exceptionNow());
+                if (firstFailure == null) {
+                    firstFailure = failure;
+                }
+                if (!secondAttempted && isTransient(failure) && withdraw(downstream)) {
+                    secondAttempted = true;
+                    downstream.retries.increment();
+                    log.warn("Retrying call to {} after a transient failure: {}", service, failure.getMessage());
+                    start(service, downstream, call, attempts, completed);
+                }
+                else if (finished == attempts.size()) {
+                    throw firstFailure;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while calling " + service, e);
+        }
+        finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * Makes a single attempt at a read, waited for no longer than the time left to serve the request, if any.
+     */
+    private <T> T attemptWithinDeadline(String service, Downstream downstream, Supplier<T> call) {
+        if (RequestDeadline.remaining().isEmpty()) {
+            return attempt(service, downstream, call);
+        }
+
+        BlockingQueue<FutureTask<T>> completed = new LinkedBlockingQueue<>();
+        List<FutureTask<T>> attempts = new ArrayList<>(1);
+        try {
+            start(service, downstream, call, attempts, completed);
+            FutureTask<T> attempt = completed.poll(remainingNanos(), TimeUnit.NANOSECONDS);
+            if (attempt == null) {
+                throw deadlineExceeded(service);
+            }
+            if (attempt.state() == FutureTask.State.SUCCESS) {
+                return attempt.resultNow();
+            }
+            throw asRuntimeException(service, attempt.exceptionNow());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while calling " + service, e);
+        }
+        finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private <T> void start(String service, Downstream downstream, Supplier<T> call, List<FutureTask<T>> attempts,
+                           BlockingQueue<FutureTask<T>> completed) {
+        FutureTask<T> attempt = new FutureTask<>(RequestDeadline.propagate(() -> attempt(service, downstream, call))) {
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        };
+        attempts.add(attempt);
+        attemptExecutor.execute(attempt);
+    }
+
+    private <T> T attempt(String service, Downstream downstream, Supplier<T> call) {
+        RequestDeadline.check("call " + service);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(service);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(service);
+        long start = System.nanoTime();
+        try {
+            T result = bulkhead.executeSupplier(() -> circuitBreaker.executeSupplier(call));
+            downstream.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        }
+        catch (CallNotPermittedException e) {
+            throw new ExternalServiceException(service + " is unavailable, calls to it are suspended", e);
+        }
+        catch (BulkheadFullException e) {
+            throw new ExternalServiceException("Too many calls in flight to " + service, e);
+        }
+    }
+
+    /**
+     * The delay before hedging a read: the latency percentile of the recent calls to the service, once there
+     * were enough of them to tell.
+     */
+    private long hedgeDelayNanos(Downstream downstream) {
+        HistogramSnapshot snapshot = downstream.latency.takeSnapshot();
+        if (snapshot.count() >= hedgeMinSamples) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == hedgePercentile) {
+                    return Math.max(hedgeMinDelayNanos, (long) value.value(TimeUnit.NANOSECONDS));
+                }
+            }
+        }
+        return hedgeInitialDelayNanos;
+    }
+
+    /**
+     * @return The time left to serve the request, {@link Long#MAX_VALUE} if the thread serves none
+     */
+    private static long remainingNanos() {
+        return RequestDeadline.remaining().map(Duration::toNanos).orElse(Long.MAX_VALUE);
+    }
+
+    private static DeadlineExceededException deadlineExceeded(String service) {
+        return new DeadlineExceededException("No time left to wait for " + service);
+    }
+
+    private boolean withdraw(Downstream downstream) {
+        if (downstream.budget.tryWithdraw()) {
+            return true;
+        }
+        downstream.retriesDenied.increment();
+        return false;
+    }
+
+    private Downstream downstream(String service) {
+        return downstreams.computeIfAbsent(service, this::newDownstream);
+    }
+
+    private Downstream newDownstream(String service) {
+        RetryBudget budget = new RetryBudget(budgetRatio, budgetCapacity);
+        Gauge.builder("order.downstream.retry.budget", budget, RetryBudget::tokens)
+                .description("Extra attempts the service can still be sent")
+                .tag("service", service)
+                .register(meterRegistry);
+
+        return new Downstream(
+                budget,
+                Timer.builder("order.downstream.latency")
+                        .description("Latency of the successful calls to the service")
+                        .tag("service", service)
+                        .publishPercentiles(hedgePercentile)
+                        .register(meterRegistry),
+                extraAttempts(service, "retry"),
+                extraAttempts(service, "hedge"),
+                Counter.builder("order.downstream.hedges.won")
+                        .description("Hedged reads answered by the hedge first")
+                        .tag("service", service)
+                        .register(meterRegistry),
+                Counter.builder("order.downstream.retries.denied")
+                        .description("Extra attempts not sent, the retry budget being exhausted")
+                        .tag("service", service)
+                        .register(meterRegistry));
+    }
+
+    private Counter extraAttempts(String service, String kind) {
+        return Counter.builder("order.downstream.retries")
+                .description("Extra attempts sent to the service")
+                .tag("service", service)
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether another attempt may succeed: the service or the network failed, rather than the request.
+     */
+    static boolean isTransient(RuntimeException failure) {
+        return switch (failure) {
+            case DeadlineExceededException e -> false;
+            case ExternalServiceException e -> !(e.getCause() instanceof CallNotPermittedException)
+                    && !(e.getCause() instanceof BulkheadFullException);
+            case RetryableException e -> true;
+            case FeignException e -> e.status() >= 500;
+            case ResourceAccessException e -> true;
+            case HttpServerErrorException e -> true;
+            default -> false;
+        };
+    }
+
+    private static RuntimeException asRuntimeException(String service, Throwable failure) {
+        if (failure instanceof RuntimeException e) {
+            return e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        return new ExternalServiceException("Call to " + service + " failed", failure);
+    }
+
+    private static void pause(String service, Duration delay) {
+        try {
+            Thread.sleep(delay);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while calling " + service, e);
+        }
+    }
+
+    private record Downstream(
+            RetryBudget budget,
+            Timer latency,
+            Counter retries,
+            Counter hedges,
+            Counter hedgesWon,
+            Counter retriesDenied
+    ) {
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.ecom.order.resilience;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import com.ecom.order.exception.DeadlineExceededException;
+
+/**
+ * The deadline of the request being served by the current thread. The time left is passed along to the
+ * other services in the {@value #HEADER} header, in milliseconds, so that they give up too once the caller
+ * has; a time left rather than an instant, for the clocks of the services to not have to agree.
+ * <p>
+ * The contract of the {@value #HEADER} header, which every copy of this class follows:
+ * <ul>
+ * <li>its value is the time left to the caller, in whole milliseconds, as a decimal number;</li>
+ * <li>a request arriving with zero or less is answered 504 without being served;</li>
+ * <li>a missing, blank or malformed value gives no deadline, which the order service alone replaces by its
+ * default request timeout;</li>
+ * <li>each call made to serve the request passes along the time left then, never negative.</li>
+ * </ul>
+ * <p>
+ * The deadline only follows the work the request waits for, through {@link #propagate}: what is left to run
+ * after the response, or in the background, has none.
+ * <p>
+ * bookService, cart-service, customer-service and payment hold copies of this class, keep them in step: the
+ * RequestDeadlineFilterTest of each service checks its copy against the contract.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    /**
+     * The deadline, in {@link System#nanoTime()}.
+     */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void start(Duration timeout) {
+        DEADLINE.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * @return The time left to serve the request, negative once it is up, empty if the thread serves none
+     */
+    public static Optional<Duration> remaining() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    /**
+     * @return The timeout, or the time left to serve the request if shorter
+     */
+    public static Duration within(Duration timeout) {
+        return remaining().filter(remaining -> remaining.compareTo(timeout) < 0).orElse(timeout);
+    }
+
+    /**
+     * @throws DeadlineExceededException if the time to serve the request is up
+     */
+    public static void check(String work) {
+        if (remaining().filter(remaining -> !remaining.isPositive()).isPresent()) {
+            throw new DeadlineExceededException("No time left to " + work);
+        }
+    }
+
+    /**
+     * Runs a call under the deadline of the current request, from whatever thread runs it.
+     */
+    public static <T> Callable<T> propagate(Callable<T> call) {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return call;
+        }
+        return () -> {
+            Long previous = DEADLINE.get();
+            DEADLINE.set(deadline);
+            try {
+                return call.call();
+            }
+            finally {
+                if (previous == null) {
+                    DEADLINE.remove();
+                }
+                else {
+                    DEADLINE.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return The time left to pass along in the {@value #HEADER} header, never negative
+     */
+    public static Optional<String> headerValue() {
+        return remaining().map(RequestDeadline::headerValue);
+    }
+
+    /**
+     * @return The given time left, as passed along in the {@value #HEADER} header, never negative
+     */
+    public static String headerValue(Duration remaining) {
+        return String.valueOf(Math.max(0, remaining.toMillis()));
+    }
+
+    /**
+     * @return The time left given by a {@value #HEADER} header, empty if the header is not a number
+     */
+    static Optional<Duration> parse(String header) {
+        if (header == null || header.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofMillis(Long.parseLong(header.trim())));
+        }
+        catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.ecom.order.resilience;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the {@link RequestDeadline} of every request: the time left given by the caller, the gateway
+ * usually, or the default request timeout. A request arriving with no time left is not served.
+ * <p>
+ * bookService, cart-service, customer-service and payment hold copies of this class, keep them in step.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final Duration defaultTimeout;
+
+    public RequestDeadlineFilter(@Value("${downstream.request-timeout:15s}") Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration timeout = RequestDeadline.parse(request.getHeader(RequestDeadline.HEADER)).orElse(defaultTimeout);
+        if (!timeout.isPositive()) {
+            log.warn("Not serving {} {}: the caller has no time left", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "No time left to serve the request");
+            return;
+        }
+
+        RequestDeadline.start(timeout);
+        try {
+            chain.doFilter(request, response);
+        }
+        finally {
+            RequestDeadline.clear();
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.ecom.order.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the extra attempts sent to a service, retries and hedges alike, to a share of its calls: every call
+ * earns a fraction of a token, every extra attempt spends a whole one. A full budget allows a burst of
+ * {@code capacity} extra attempts; past that, a service that keeps failing is retried no more often than
+ * {@code ratio} times per call, so that retries never multiply the load of a struggling service.
+ */
+final class RetryBudget {
+
+    private static final long UNITS_PER_TOKEN = 1_000;
+
+    private final long unitsPerCall;
+
+    private final long capacityUnits;
+
+    private final AtomicLong units;
+
+    RetryBudget(double ratio, int capacity) {
+        this.unitsPerCall = Math.round(ratio * UNITS_PER_TOKEN);
+        this.capacityUnits = capacity * UNITS_PER_TOKEN;
+        this.units = new AtomicLong(capacityUnits);
+    }
+
+    /**
+     * Credits the budget with a call.
+     */
+    void deposit() {
+        units.getAndUpdate(current -> Math.min(capacityUnits, current + unitsPerCall));
+    }
+
+    /**
+     * Spends a token on an extra attempt.
+     *
+     * @return false if the budget is exhausted, the attempt must not be made
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = units.get();
+            if (current < UNITS_PER_TOKEN) {
+                return false;
+            }
+        }
+        while (!units.compareAndSet(current, current - UNITS_PER_TOKEN));
+        return true;
+    }
+
+    double tokens() {
+        return (double) units.get() / UNITS_PER_TOKEN;
+    }
+
+}
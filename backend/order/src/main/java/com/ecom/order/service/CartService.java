@@ -8,6 +8,7 @@ import com.ecom.order.cart.CartDetails;
 import com.ecom.order.exception.BadREquestException;
 import com.ecom.order.exception.EntityNotFoundException;
 import com.ecom.order.exception.ExternalServiceException;
+import com.ecom.order.resilience.DownstreamCalls;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -16,11 +17,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class CartService {
 
+    private static final String CART_SERVICE = "cart-service";
+
     private final RestClient.Builder restClient;
 
+    private final DownstreamCalls downstreamCalls;
+
     public CartDetails getCartById(Long cartId) {
         log.info("Getting cart by id {}", cartId);
-        return restClient.build().get()
+        return downstreamCalls.hedgedRead(CART_SERVICE, () -> restClient.build().get()
                 .uri("http://cart-service/api/v1/carts/{cartId}", cartId)
                 .retrieve()
                 .onStatus(httpStatusCode -> !httpStatusCode.isSameCodeAs(HttpStatus.OK), (request, response) -> {
@@ -35,12 +40,12 @@ public class CartService {
 
                     throw new BadREquestException();
                 })
-                .body(CartDetails.class);
+                .body(CartDetails.class));
     }
 
     public void completeCart(Long cartId) {
         log.info("Completing cart : {}", cartId);
-        restClient.build().patch()
+        downstreamCalls.run(CART_SERVICE, () -> restClient.build().patch()
                 .uri("http://cart-service/api/v1/carts/{cartId}/complete", cartId)
                 .retrieve()
                 .onStatus(httpStatusCode -> !httpStatusCode.isSameCodeAs(HttpStatus.OK), (request, response) -> {
@@ -55,7 +60,7 @@ public class CartService {
 
                     throw new BadREquestException();
                 })
-                .toBodilessEntity();
+                .toBodilessEntity());
     }
 
 }
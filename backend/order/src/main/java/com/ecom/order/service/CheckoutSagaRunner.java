@@ -0,0 +1,492 @@
+package com.ecom.order.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.order.cart.CartDetails;
+import com.ecom.order.customer.CustomerDetails;
+import com.ecom.order.event.CheckoutStepEvent;
+import com.ecom.order.exception.EntityNotFoundException;
+import com.ecom.order.model.CheckoutSaga;
+import com.ecom.order.model.CheckoutStep;
+import com.ecom.order.model.Order;
+import com.ecom.order.model.OrderLine;
+import com.ecom.order.model.OrderStatus;
+import com.ecom.order.model.PaymentInfo;
+import com.ecom.order.payment.CreatePaymentRequest;
+import com.ecom.order.payment.PaymentResponse;
+import com.ecom.order.product.ReserveStockResponse;
+import com.ecom.order.repository.CheckoutSagaRepo;
+import com.ecom.order.repository.OrderRepo;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives the asynchronous checkouts one step at a time. A step calls a downstream service outside of any
+ * transaction, then records its outcome on the order and its {@link CheckoutSaga} in a short transaction,
+ * which publishes a {@link CheckoutStepEvent} for the next step once committed. A failed call is retried
+ * with an exponential backoff, after which the step is given up: a checkout that may hold stock releases
+ * it, then fails. Retrying a step is safe as the other services key its call on the order: a second
+ * reservation or payment for the same order is answered with the first one.
+ * <p>
+ * Steps run on an executor of their own, whose queue is unbounded so that no step is ever rejected, with the
+ * security context of the customer who placed the order, which the downstream calls are authenticated with.
+ * That context only lives in memory: a step of this instance that has stalled is driven again with it, but
+ * the checkouts that nothing has driven for a while, because the service restarted for instance, are given
+ * up without calling the other services: a reservation they left behind is released by the inventory once
+ * it expires.
+ */
+@Component
+@Slf4j
+public class CheckoutSagaRunner {
+
+    private static final Set<CheckoutStep> ACTIVE_STEPS =
+            EnumSet.complementOf(EnumSet.of(CheckoutStep.COMPLETED, CheckoutStep.FAILED));
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final CheckoutSagaRepo checkoutSagaRepo;
+
+    private final OrderRepo orderRepo;
+
+    private final CustomerService customerService;
+
+    private final CartService cartService;
+
+    private final InventoryService inventoryService;
+
+    private final PaymentService paymentService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int maxAttempts;
+
+    private final Duration retryBackoff;
+
+    private final Duration stallAfter;
+
+    private final Duration staleAfter;
+
+    private final Duration sweepInterval;
+
+    private final ScheduledExecutorService sagaExecutor;
+
+    private final TaskScheduler taskScheduler;
+
+    /**
+     * The security context of the checkouts driven by this instance, by order id.
+     */
+    private final Map<UUID, SecurityContext> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * The checkouts whose next step is queued, and not running yet.
+     */
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+
+    public CheckoutSagaRunner(
+            CheckoutSagaRepo checkoutSagaRepo,
+            OrderRepo orderRepo,
+            CustomerService customerService,
+            CartService cartService,
+            InventoryService inventoryService,
+            PaymentService paymentService,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            TaskScheduler taskScheduler,
+            @Value("${checkout.saga.threads:8}") int threads,
+            @Value("${checkout.saga.max-attempts:5}") int maxAttempts,
+            @Value("${checkout.saga.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${checkout.saga.stall-after:2m}") Duration stallAfter,
+            @Value("${checkout.saga.stale-after:10m}") Duration staleAfter,
+            @Value("${checkout.saga.sweep-interval:1m}") Duration sweepInterval
+    ) {
+        this.checkoutSagaRepo = checkoutSagaRepo;
+        this.orderRepo = orderRepo;
+        this.customerService = customerService;
+        this.cartService = cartService;
+        this.inventoryService = inventoryService;
+        this.paymentService = paymentService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.sagaExecutor = Executors.newScheduledThreadPool(threads, new CustomizableThreadFactory("checkout-saga-"));
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.stallAfter = stallAfter;
+        this.staleAfter = staleAfter;
+        this.sweepInterval = sweepInterval;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckoutStep(CheckoutStepEvent event) {
+        schedule(event.orderId(), 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSweeper() {
+        taskScheduler.scheduleWithFixedDelay(this::sweep, Instant.now().plus(sweepInterval), sweepInterval);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sagaExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues the next step of a checkout, unless it is queued already: it reads the step once it runs. The
+     * step runs with the security context of the customer, captured the first time the checkout is queued.
+     */
+    private void schedule(UUID orderId, long delayMillis) {
+        if (!queued.add(orderId)) {
+            return;
+        }
+        SecurityContext context = contexts.computeIfAbsent(orderId, id -> SecurityContextHolder.getContext());
+        Runnable step = () -> {
+            queued.remove(orderId);
+            advance(orderId);
+        };
+        sagaExecutor.schedule(new DelegatingSecurityContextRunnable(step, context), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the current step of the checkout of an order, unless the checkout is over.
+     */
+    void advance(UUID orderId) {
+        CheckoutSaga saga = checkoutSagaRepo.findById(orderId).orElse(null);
+        if (saga == null || saga.getStep().isFinished()) {
+            contexts.remove(orderId);
+            return;
+        }
+
+        CheckoutStep step = saga.getStep();
+        try {
+            switch (step) {
+                case LOAD_CART -> loadCart(orderId);
+                case RESERVE_STOCK -> reserveStock(orderId);
+                case CREATE_PAYMENT -> createPayment(orderId, saga.getCustomerEmail());
+                case COMPLETE_CART -> completeCart(orderId);
+                case RELEASE_STOCK -> releaseStock(orderId);
+                default -> throw new IllegalStateException("Unexpected checkout step: " + step);
+            }
+        }
+        catch (RuntimeException e) {
+            log.warn("Checkout step {} failed for orderId={}: {}", step, orderId, e.getMessage());
+            retryOrGiveUp(orderId, step, e);
+        }
+    }
+
+    /**
+     * Drives again the checkouts of this instance that have not moved for longer than the stall delay, as
+     * their step may have been lost, then gives up the checkouts that have not moved for longer than the stale
+     * delay.
+     */
+    void sweep() {
+        redriveStalled();
+
+        List<CheckoutSaga> stale;
+        try {
+            stale = checkoutSagaRepo.findByStepInAndUpdatedAtBefore(
+                    ACTIVE_STEPS, Instant.now().minus(staleAfter), Limit.of(SWEEP_BATCH_SIZE));
+        }
+        catch (RuntimeException e) {
+            log.error("Could not look for stale checkouts", e);
+            return;
+        }
+
+        for (CheckoutSaga saga : stale) {
+            log.warn("Giving up checkout of orderId={} stuck at step {} since {}",
+                    saga.getOrderId(), saga.getStep(), saga.getUpdatedAt());
+            try {
+                record(saga.getOrderId(), saga.getStep(), (s, order) -> {
+                    giveUp(s, order);
+                    if (s.getStep() == CheckoutStep.RELEASE_STOCK) {
+                        s.setStep(CheckoutStep.FAILED);
+                    }
+                    s.setLastError("No progress for " + staleAfter);
+                });
+            }
+            catch (RuntimeException e) {
+                log.error("Could not give up checkout of orderId={}", saga.getOrderId(), e);
+            }
+        }
+    }
+
+    private void redriveStalled() {
+        Set<UUID> idle = contexts.keySet().stream()
+                .filter(orderId -> !queued.contains(orderId))
+                .collect(Collectors.toSet());
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        Instant stalledBefore = Instant.now().minus(stallAfter);
+        Instant staleBefore = Instant.now().minus(staleAfter);
+        try {
+            for (CheckoutSaga saga : checkoutSagaRepo.findAllById(idle)) {
+                if (saga.getStep().isFinished()) {
+                    contexts.remove(saga.getOrderId());
+                }
+                else if (saga.getUpdatedAt().isBefore(stalledBefore) && saga.getUpdatedAt().isAfter(staleBefore)) {
+                    log.warn("Driving again checkout of orderId={} stalled at step {} since {}",
+                            saga.getOrderId(), saga.getStep(), saga.getUpdatedAt());
+                    schedule(saga.getOrderId(), 0);
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            log.error("Could not look for stalled checkouts", e);
+        }
+    }
+
+    private void loadCart(UUID orderId) {
+        Order order = findOrder(orderId);
+        CustomerDetails customer = customerService.getCustomerDetails(order.getCustomerId());
+        CartDetails cart = cartService.getCartById(order.getCartId());
+
+        try {
+            OrderService.validateCartNotEmpty(cart);
+            OrderService.validateAmountPositive(cart.totalPrice());
+        }
+        catch (IllegalArgumentException e) {
+            record(orderId, CheckoutStep.LOAD_CART, (s, o) -> {
+                o.setStatus(OrderStatus.FAILED);
+                s.setStep(CheckoutStep.FAILED);
+                s.setLastError(truncate(e.getMessage()));
+            });
+            return;
+        }
+
+        record(orderId, CheckoutStep.LOAD_CART, (s, o) -> {
+            o.setOrderLines(OrderService.orderLinesOf(o, cart));
+            o.setTotalAmount(OrderService.calculateTotalAmount(cart));
+            o.setStatus(OrderStatus.VALIDATED);
+            s.setCustomerEmail(customer.email());
+            s.setStep(CheckoutStep.RESERVE_STOCK);
+        });
+    }
+
+    private void reserveStock(UUID orderId) {
+        Map<Long, Integer> products = transactionTemplate.execute(status -> findOrder(orderId).getOrderLines().stream()
+                .collect(Collectors.toMap(OrderLine::getProductId, OrderLine::getQuantity, Integer::sum)));
+
+        ReserveStockResponse response = inventoryService.reserveProducts(orderId.toString(), products);
+
+        if (!response.success()) {
+            log.error("Stock reservation failed [orderId={}, products={}]: {}",
+                    orderId, products.keySet(), response.message());
+            record(orderId, CheckoutStep.RESERVE_STOCK, (s, o) -> {
+                o.setStatus(OrderStatus.RESERVATION_FAILED);
+                s.setStep(CheckoutStep.FAILED);
+                s.setLastError(truncate(response.message()));
+            });
+            return;
+        }
+
+        record(orderId, CheckoutStep.RESERVE_STOCK, (s, o) -> {
+            o.setStatus(OrderStatus.RESERVED);
+            s.setStep(CheckoutStep.CREATE_PAYMENT);
+        });
+    }
+
+    private void createPayment(UUID orderId, String customerEmail) {
+        Order order = findOrder(orderId);
+        // the payment service hands back the payment still open for the order, if any: a retry after a lost
+        // answer or a transient failure does not create a second one
+        PaymentResponse payment = paymentService.createPayment(CreatePaymentRequest.builder()
+                .customerId(order.getCustomerId())
+                .customerEmail(customerEmail)
+                .orderId(orderId.toString())
+                .amount(order.getTotalAmount())
+                .build());
+
+        boolean recorded;
+        try {
+            recorded = record(orderId, CheckoutStep.CREATE_PAYMENT, (s, o) -> {
+                o.setStatus(OrderStatus.PAYMENT_PENDING);
+                o.setPaymentInfo(new PaymentInfo(payment.paymentId(), null));
+                s.setPaymentStatus(String.valueOf(payment.status()));
+                s.setTransactionId(payment.transactionId());
+                s.setStripePaymentIntentId(payment.stripePaymentIntentId());
+                s.setClientSecret(payment.clientSecret());
+                s.setStep(CheckoutStep.COMPLETE_CART);
+            });
+        }
+        catch (RuntimeException e) {
+            // not recorded, an optimistic lock failure for instance: cancelled, a retry creates another payment
+            cancelPayment(payment, orderId);
+            throw e;
+        }
+
+        if (!recorded) {
+            // the order was cancelled or given up while the payment was being created
+            cancelPayment(payment, orderId);
+        }
+    }
+
+    private void cancelPayment(PaymentResponse payment, UUID orderId) {
+        if (payment.paymentId() == null) {
+            return;
+        }
+        try {
+            paymentService.cancelPayment(payment.paymentId());
+        }
+        catch (Exception e) {
+            log.error("Failed to cancel payment {} of abandoned orderId={}", payment.paymentId(), orderId, e);
+        }
+    }
+
+    private void completeCart(UUID orderId) {
+        Order order = findOrder(orderId);
+        cartService.completeCart(order.getCartId());
+        record(orderId, CheckoutStep.COMPLETE_CART, (s, o) -> s.setStep(CheckoutStep.COMPLETED));
+    }
+
+    private void releaseStock(UUID orderId) {
+        inventoryService.releaseReservation(orderId.toString());
+        record(orderId, CheckoutStep.RELEASE_STOCK, (s, o) -> s.setStep(CheckoutStep.FAILED));
+    }
+
+    /**
+     * Moves the checkout past a step that has been given up.
+     */
+    private static void giveUp(CheckoutSaga saga, Order order) {
+        switch (saga.getStep()) {
+            case LOAD_CART -> {
+                order.setStatus(OrderStatus.FAILED);
+                saga.setStep(CheckoutStep.FAILED);
+            }
+            case RESERVE_STOCK -> {
+                // the reservation may have gone through even though its response was lost
+                order.setStatus(OrderStatus.RESERVATION_FAILED);
+                saga.setStep(CheckoutStep.RELEASE_STOCK);
+            }
+            case CREATE_PAYMENT -> {
+                order.setStatus(OrderStatus.PAYMENT_FAILED);
+                saga.setStep(CheckoutStep.RELEASE_STOCK);
+            }
+            // the order is placed, completing the cart is only best effort as with a synchronous checkout
+            case COMPLETE_CART -> saga.setStep(CheckoutStep.COMPLETED);
+            default -> saga.setStep(CheckoutStep.FAILED);
+        }
+    }
+
+    private void retryOrGiveUp(UUID orderId, CheckoutStep step, RuntimeException failure) {
+        Integer attempts = transactionTemplate.execute(status -> {
+            CheckoutSaga saga = checkoutSagaRepo.findById(orderId).orElse(null);
+            if (saga == null || saga.getStep() != step) {
+                return null;
+            }
+            saga.setAttempts(saga.getAttempts() + 1);
+            saga.setLastError(truncate(failure.getMessage()));
+            saga.setUpdatedAt(Instant.now());
+            checkoutSagaRepo.save(saga);
+            return saga.getAttempts();
+        });
+
+        if (attempts == null) {
+            return;
+        }
+        if (attempts >= maxAttempts) {
+            log.error("Giving up checkout step {} for orderId={} after {} attempts", step, orderId, attempts);
+            record(orderId, step, CheckoutSagaRunner::giveUp);
+            return;
+        }
+
+        schedule(orderId, retryBackoff.toMillis() << Math.min(attempts - 1, 10));
+    }
+
+    /**
+     * Records the outcome of a step, unless the checkout has moved past that step meanwhile. If the order has
+     * been cancelled meanwhile, the outcome is dropped and the checkout releases the stock instead.
+     *
+     * @return Whether the outcome has been recorded
+     */
+    private boolean record(UUID orderId, CheckoutStep step, BiConsumer<CheckoutSaga, Order> outcome) {
+        Boolean recorded = transactionTemplate.execute(status -> {
+            CheckoutSaga saga = checkoutSagaRepo.findById(orderId).orElse(null);
+            if (saga == null || saga.getStep() != step) {
+                return false;
+            }
+            Order order = findOrder(orderId);
+
+            boolean cancelled = order.getStatus() == OrderStatus.CANCELLED && step != CheckoutStep.RELEASE_STOCK;
+            if (cancelled) {
+                saga.setStep(step == CheckoutStep.LOAD_CART ? CheckoutStep.FAILED : CheckoutStep.RELEASE_STOCK);
+                saga.setLastError("Order cancelled during checkout");
+            }
+            else {
+                outcome.accept(saga, order);
+                orderRepo.save(order);
+            }
+            saga.setAttempts(0);
+            saga.setUpdatedAt(Instant.now());
+            checkoutSagaRepo.save(saga);
+
+            log.info("Checkout of orderId={} moved from {} to {}, order status {}",
+                    orderId, step, saga.getStep(), order.getStatus());
+            if (saga.getStep().isFinished()) {
+                forgetOnCommit(orderId);
+            }
+            else {
+                eventPublisher.publishEvent(new CheckoutStepEvent(orderId));
+            }
+            return !cancelled;
+        });
+        return Boolean.TRUE.equals(recorded);
+    }
+
+    private void forgetOnCommit(UUID orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            contexts.remove(orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                contexts.remove(orderId);
+            }
+        });
+    }
+
+    private Order findOrder(UUID orderId) {
+        return orderRepo.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found: " + orderId));
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+}
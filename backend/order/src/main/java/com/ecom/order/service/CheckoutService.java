@@ -0,0 +1,107 @@
+package com.ecom.order.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecom.order.dto.CheckoutStatusResponse;
+import com.ecom.order.dto.OrderRequest;
+import com.ecom.order.dto.PlaceOrderResponse;
+import com.ecom.order.event.CheckoutStepEvent;
+import com.ecom.order.exception.EntityNotFoundException;
+import com.ecom.order.exception.OrderAlreadyExistsException;
+import com.ecom.order.model.CheckoutSaga;
+import com.ecom.order.model.CheckoutStep;
+import com.ecom.order.model.Order;
+import com.ecom.order.repository.CheckoutSagaRepo;
+import com.ecom.order.repository.OrderRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Places orders without waiting for the downstream services: the order is saved as PENDING and its
+ * checkout is run in the background by the {@link CheckoutSagaRunner}, to be followed with
+ * {@link #getCheckoutStatus}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutService {
+
+    private final OrderRepo orderRepo;
+
+    private final CheckoutSagaRepo checkoutSagaRepo;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Saves a pending order for the cart and starts its checkout once the order is committed.
+     *
+     * @throws OrderAlreadyExistsException if the customer already ordered the cart
+     */
+    @Transactional
+    public CheckoutStatusResponse startCheckout(OrderRequest request, String customerId) {
+        log.info("Starting checkout customerId={}, request={}", customerId, request);
+
+        orderRepo.findByCartIdAndCustomerId(request.getCartId(), customerId)
+                .ifPresent(order -> {
+                    throw new OrderAlreadyExistsException(order.getId(), "Order already exists");
+                });
+
+        Order order = orderRepo.save(Order.builder()
+                .customerId(customerId)
+                .cartId(request.getCartId())
+                .deliveryInfo(OrderService.deliveryInfoOf(request))
+                .build());
+
+        Instant now = Instant.now();
+        CheckoutSaga saga = checkoutSagaRepo.save(CheckoutSaga.builder()
+                .orderId(order.getId())
+                .step(CheckoutStep.LOAD_CART)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+
+        eventPublisher.publishEvent(new CheckoutStepEvent(order.getId()));
+
+        log.info("Checkout started customerId={}, orderId={}", customerId, order.getId());
+        return statusOf(order, saga);
+    }
+
+    @Transactional(readOnly = true)
+    public CheckoutStatusResponse getCheckoutStatus(UUID orderId) {
+        Order order = orderRepo.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found: " + orderId));
+        CheckoutSaga saga = checkoutSagaRepo.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("No checkout found for order: " + orderId));
+        return statusOf(order, saga);
+    }
+
+    private static CheckoutStatusResponse statusOf(Order order, CheckoutSaga saga) {
+        PlaceOrderResponse.PaymentDetails paymentDetails = null;
+        if (saga.getPaymentStatus() != null) {
+            paymentDetails = PlaceOrderResponse.PaymentDetails.builder()
+                    .paymentId(order.getPaymentInfo() != null ? order.getPaymentInfo().getPaymentId() : null)
+                    .paymentStatus(saga.getPaymentStatus())
+                    .transactionId(saga.getTransactionId())
+                    .stripePaymentIntentId(saga.getStripePaymentIntentId())
+                    .clientSecret(saga.getClientSecret())
+                    .build();
+        }
+
+        return CheckoutStatusResponse.builder()
+                .orderId(order.getId())
+                .orderStatus(order.getStatus())
+                .step(saga.getStep())
+                .finished(saga.getStep().isFinished())
+                .lastError(saga.getLastError())
+                .paymentDetails(paymentDetails)
+                .startedAt(saga.getStartedAt())
+                .updatedAt(saga.getUpdatedAt())
+                .build();
+    }
+
+}
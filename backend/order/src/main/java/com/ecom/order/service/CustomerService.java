@@ -6,6 +6,8 @@ import org.springframework.stereotype.Component;
 
 import com.ecom.order.customer.CustomerClient;
 import com.ecom.order.customer.CustomerDetails;
+import com.ecom.order.customer.CustomerDetailsCache;
+import com.ecom.order.resilience.DownstreamCalls;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,11 +16,22 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class CustomerService {
 
+    private static final String CUSTOMER_SERVICE = "customer-service";
+
     private final CustomerClient customerClient;
 
+    private final DownstreamCalls downstreamCalls;
+
+    private final CustomerDetailsCache customerDetailsCache;
+
     public CustomerDetails getCustomerDetails(String customerId) {
+        return customerDetailsCache.get(customerId, this::fetchCustomerDetails);
+    }
+
+    private CustomerDetails fetchCustomerDetails(String customerId) {
         log.info("Getting customer details (customerId={})", customerId);
-        ResponseEntity<CustomerDetails> response = customerClient.getCustomerDetails(customerId);
+        ResponseEntity<CustomerDetails> response = downstreamCalls.hedgedRead(CUSTOMER_SERVICE,
+                () -> customerClient.getCustomerDetails(customerId));
         if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK) || !response.hasBody()) {
             log.error("Failed to retrieve customer details. Response={}", response);
             throw new RuntimeException("Failed to retrieve customer details");
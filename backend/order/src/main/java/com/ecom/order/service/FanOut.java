@@ -0,0 +1,124 @@
+package com.ecom.order.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.ecom.order.exception.DeadlineExceededException;
+import com.ecom.order.exception.ExternalServiceException;
+import com.ecom.order.resilience.RequestDeadline;
+
+/**
+ * Runs calls concurrently and waits for all of them, the way a structured task scope does: the first call to
+ * fail, or the deadline, cancels the calls still running by interrupting their threads, and closing the
+ * fan-out cancels whatever is left, so that no call outlives the block that forked it.
+ * <p>
+ * An interrupted virtual thread gives up its blocking socket I/O at once, a platform thread only at its next
+ * wait.
+ */
+final class FanOut implements AutoCloseable {
+
+    private final Executor executor;
+
+    private final long deadlineNanos;
+
+    private final List<FutureTask<?>> tasks = new ArrayList<>();
+
+    private final BlockingQueue<FutureTask<?>> done = new LinkedBlockingQueue<>();
+
+    FanOut(Executor executor, Duration timeout) {
+        this.executor = executor;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Starts a call, under the deadline of the request being served.
+     *
+     * @return The result of the call, only available once {@link #join()} has returned
+     */
+    <T> Supplier<T> fork(Callable<T> call) {
+        FutureTask<T> task = new FutureTask<>(RequestDeadline.propagate(call)) {
+            @Override
+            protected void done() {
+                FanOut.this.done.add(this);
+            }
+        };
+        tasks.add(task);
+        try {
+            executor.execute(task);
+        }
+        catch (RuntimeException e) {
+            cancelAll();
+            throw e;
+        }
+        return task::resultNow;
+    }
+
+    /**
+     * Waits for every call to succeed.
+     *
+     * @throws RuntimeException         the failure of the first call to fail, the other calls being cancelled
+     * @throws DeadlineExceededException if the calls did not all complete in time
+     */
+    void join() {
+        for (int completed = 0; completed < tasks.size(); completed++) {
+            FutureTask<?> task;
+            try {
+                task = done.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new ExternalServiceException("Interrupted while waiting for the other services", e);
+            }
+
+            if (task == null) {
+                cancelAll();
+                throw new DeadlineExceededException("The other services did not answer in time");
+            }
+            if (task.state() != FutureTask.State.SUCCESS) {
+                cancelAll();
+                throw failureOf(task);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        tasks.forEach(task -> task.cancel(true));
+    }
+
+    private static RuntimeException failureOf(FutureTask<?> task) {
+        try {
+            task.get();
+            return new IllegalStateException("The call has not failed");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                return cause;
+            }
+            return new ExternalServiceException("Call to another service failed", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ExternalServiceException("Interrupted while waiting for the other services", e);
+        }
+        catch (CancellationException e) {
+            return new ExternalServiceException("Call to another service was cancelled", e);
+        }
+    }
+
+}
@@ -6,12 +6,14 @@ import java.util.UUID;
 import org.springframework.stereotype.Component;
 
 import com.ecom.order.configs.FeignConfig;
+import com.ecom.order.exception.ExternalServiceException;
 import com.ecom.order.product.CancelStockRequest;
 import com.ecom.order.product.ConfirmStockRequest;
 import com.ecom.order.product.InventoryClient;
 import com.ecom.order.product.ReserveStockRequest;
 import com.ecom.order.product.ReserveStockResponse;
 import com.ecom.order.product.StockException;
+import com.ecom.order.resilience.DownstreamCalls;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,10 +25,14 @@ public class InventoryService {
 
     private final InventoryClient inventoryClient;
 
+    private final ReservationBatcher reservationBatcher;
+
+    private final DownstreamCalls downstreamCalls;
+
     public ReserveStockResponse reserveProducts(String orderId, Map<Long, Integer> products) {
         log.info("Reserving products for orderId={}, products={}", orderId, products);
         try {
-            return inventoryClient.reserveProducts(new ReserveStockRequest(orderId, products));
+            return reservationBatcher.reserve(new ReserveStockRequest(orderId, products));
         } catch (FeignConfig.FeignNotFoundException e) {
             log.error("Inventory service not found: {}", e.getMessage());
             throw new StockException("Inventory service not available");
@@ -42,17 +48,21 @@ public class InventoryService {
         } catch (FeignException e) {
             log.error("Error reserving products: {}", e.getMessage());
             throw new StockException("Failed to reserve products");
+        } catch (ExternalServiceException e) {
+            log.error("Inventory service not called: {}", e.getMessage());
+            throw new StockException("Inventory service is temporarily unavailable", e);
         }
     }
 
     public void releaseReservation(String orderId) {
         log.info("Releasing stock reservation for orderId={}", orderId);
         try {
-            inventoryClient.cancelStock(new CancelStockRequest(orderId));
+            downstreamCalls.run(ReservationBatcher.INVENTORY_SERVICE,
+                    () -> inventoryClient.cancelStock(new CancelStockRequest(orderId)));
         } catch (FeignConfig.FeignNotFoundException e) {
             log.error("Reservation not found for orderId={}: {}", orderId, e.getMessage());
             log.warn("Reservation not found but continuing with order cancellation");
-        } catch (FeignException e) {
+        } catch (FeignException | ExternalServiceException e) {
             log.error("Error releasing reservation for orderId={}: {}", orderId, e.getMessage());
             log.warn("Failed to release reservation but continuing with order cancellation");
         }
@@ -61,7 +71,8 @@ public class InventoryService {
     public void confirmReservation(UUID orderId) {
         log.info("Confirming stock reservation for orderId={}", orderId);
         try {
-            inventoryClient.confirmReservation(new ConfirmStockRequest(orderId.toString()));
+            downstreamCalls.run(ReservationBatcher.INVENTORY_SERVICE,
+                    () -> inventoryClient.confirmReservation(new ConfirmStockRequest(orderId.toString())));
         } catch (FeignConfig.FeignNotFoundException e) {
             log.error("Reservation not found for orderId={}: {}", orderId, e.getMessage());
             throw new StockException("Stock reservation not found");
@@ -74,6 +85,9 @@ public class InventoryService {
         } catch (FeignException e) {
             log.error("Error confirming reservation for orderId={}: {}", orderId, e.getMessage());
             throw new StockException("Failed to confirm reservation");
+        } catch (ExternalServiceException e) {
+            log.error("Inventory service not called for orderId={}: {}", orderId, e.getMessage());
+            throw new StockException("Inventory service is temporarily unavailable", e);
         }
     }
 
@@ -2,13 +2,15 @@ package com.ecom.order.service;
 
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -17,6 +19,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.ecom.order.cart.CartDetails;
 import com.ecom.order.customer.CustomerDetails;
+import com.ecom.order.dto.CursorPage;
+import com.ecom.order.dto.KeysetCursor;
 import com.ecom.order.dto.OrderRequest;
 import com.ecom.order.dto.OrderResponse;
 import com.ecom.order.dto.OrderStatsResponse;
@@ -34,6 +38,7 @@ import com.ecom.order.payment.PaymentFailedException;
 import com.ecom.order.payment.PaymentResponse;
 import com.ecom.order.product.ReserveStockResponse;
 import com.ecom.order.repository.OrderRepo;
+import com.ecom.order.resilience.RequestDeadline;
 import static java.util.stream.Collectors.toMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +48,8 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class OrderService {
 
+    private static final Duration DOWNSTREAM_TIMEOUT = Duration.ofSeconds(10);
+
     private final OrderRepo orderRepo;
 
     private final CustomerService customerService;
@@ -63,18 +70,15 @@ public class OrderService {
 
         validateOrderDoesNotExist(orderRequest.getCartId(), customerId);
 
-        CompletableFuture<CustomerDetails> customerFuture = CompletableFuture
-                .supplyAsync(() -> customerService.getCustomerDetails(customerId), taskExecutor)
-                .orTimeout(10, java.util.concurrent.TimeUnit.SECONDS);
-
-        CompletableFuture<CartDetails> cartFuture = CompletableFuture
-                .supplyAsync(() -> cartService.getCartById(orderRequest.getCartId()), taskExecutor)
-                .orTimeout(10, java.util.concurrent.TimeUnit.SECONDS);
-
-        CompletableFuture.allOf(customerFuture, cartFuture).join();
-
-        CustomerDetails customer = customerFuture.join();
-        CartDetails cart = cartFuture.join();
+        CustomerDetails customer;
+        CartDetails cart;
+        try (FanOut fanOut = new FanOut(taskExecutor, RequestDeadline.within(DOWNSTREAM_TIMEOUT))) {
+            Supplier<CustomerDetails> customerCall = fanOut.fork(() -> customerService.getCustomerDetails(customerId));
+            Supplier<CartDetails> cartCall = fanOut.fork(() -> cartService.getCartById(orderRequest.getCartId()));
+            fanOut.join();
+            customer = customerCall.get();
+            cart = cartCall.get();
+        }
 
         validateCartNotEmpty(cart);
         validateAmountPositive(cart.totalPrice());
@@ -102,13 +106,13 @@ public class OrderService {
                 });
     }
 
-    private void validateCartNotEmpty(CartDetails cart) {
+    static void validateCartNotEmpty(CartDetails cart) {
         if (cart.items() == null || cart.items().isEmpty()) {
             throw new IllegalArgumentException("Cannot place order with empty cart");
         }
     }
 
-    private void validateAmountPositive(BigDecimal amount) {
+    static void validateAmountPositive(BigDecimal amount) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Order total must be positive");
         }
@@ -159,7 +163,7 @@ public class OrderService {
         orderRepo.save(order);
     }
 
-    private PlaceOrderResponse.PaymentDetails buildPaymentDetails(PaymentResponse paymentResponse) {
+    static PlaceOrderResponse.PaymentDetails buildPaymentDetails(PaymentResponse paymentResponse) {
         return PlaceOrderResponse.PaymentDetails.builder()
                 .paymentId(paymentResponse.paymentId())
                 .paymentStatus(paymentResponse.status().toString())
@@ -172,7 +176,7 @@ public class OrderService {
     private void handlePostPaymentActions(Order order, CartDetails cart, PlaceOrderResponse.PaymentDetails paymentDetails) {
         if (paymentDetails == null) {
             // Payment failed - release reserved stock
-            CompletableFuture.runAsync(() -> {
+            taskExecutor.execute(() -> {
                 try {
                     inventoryService.releaseReservation(order.getId().toString());
                     log.info("Stock released for failed order {}", order.getId());
@@ -180,11 +184,11 @@ public class OrderService {
                 catch (Exception e) {
                     log.error("Failed to release stock for order {}", order.getId(), e);
                 }
-            }, taskExecutor);
+            });
         }
         else {
             // Payment successful - mark cart as completed
-            CompletableFuture.runAsync(() -> {
+            taskExecutor.execute(() -> {
                 try {
                     cartService.completeCart(cart.id());
                     log.info("Cart {} marked as completed", cart.id());
@@ -192,7 +196,7 @@ public class OrderService {
                 catch (Exception e) {
                     log.error("Failed to complete cart {}", cart.id(), e);
                 }
-            }, taskExecutor);
+            });
         }
     }
 
@@ -233,7 +237,19 @@ public class OrderService {
     }
 
     private Order createOrderFromCart(OrderRequest request, CustomerDetails customer, CartDetails cart) {
-        DeliveryInfo deliveryInfo = new DeliveryInfo(
+        Order order = Order.builder()
+                .customerId(customer.id())
+                .cartId(cart.id())
+                .totalAmount(calculateTotalAmount(cart))
+                .deliveryInfo(deliveryInfoOf(request))
+                .build();
+
+        order.setOrderLines(orderLinesOf(order, cart));
+        return order;
+    }
+
+    static DeliveryInfo deliveryInfoOf(OrderRequest request) {
+        return new DeliveryInfo(
                 request.getAddress().street(),
                 null,
                 request.getAddress().city(),
@@ -241,16 +257,13 @@ public class OrderService {
                 request.getAddress().postalCode(),
                 request.getAddress().country()
         );
+    }
 
-        Order order = Order.builder()
-                .customerId(customer.id())
-                .cartId(cart.id())
-                .totalAmount(calculateTotalAmount(cart))
-                .deliveryInfo(deliveryInfo)
-                .build();
-
-        // Create order lines with bidirectional relationship and prices
-        List<OrderLine> orderLines = cart.items().stream()
+    /**
+     * Creates the order lines of the items of the cart, with bidirectional relationship and prices.
+     */
+    static List<OrderLine> orderLinesOf(Order order, CartDetails cart) {
+        return cart.items().stream()
                 .map(item -> OrderLine.builder()
                         .quantity(item.quantity())
                         .productId(item.productId())
@@ -258,12 +271,9 @@ public class OrderService {
                         .order(order)
                         .build())
                 .collect(Collectors.toList());
-
-        order.setOrderLines(orderLines);
-        return order;
     }
 
-    private BigDecimal calculateTotalAmount(CartDetails cart) {
+    static BigDecimal calculateTotalAmount(CartDetails cart) {
         return cart.items().stream()
                 .reduce(BigDecimal.ZERO, (sum, item) -> sum.add(item.price().multiply(BigDecimal.valueOf(item.quantity()))), BigDecimal::add);
     }
@@ -278,6 +288,38 @@ public class OrderService {
                 .map(this.orderMapper::fromOrder);
     }
 
+    /**
+     * Keyset pagination over all the orders, newest first: seeks past the cursor on the (date, id) index instead
+     * of skipping rows, and only counts the orders when asked for.
+     */
+    public CursorPage<OrderResponse> scrollAllOrders(String cursor, int size, boolean withTotal) {
+        Limit limit = Limit.of(size + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepo.findFirstKeysetPage(limit);
+        }
+        else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            orders = orderRepo.findKeysetPageAfter(position.date(), position.id(), limit);
+        }
+
+        boolean hasNext = orders.size() > size;
+        List<Order> content = hasNext ? orders.subList(0, size) : orders;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Order last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getDate(), last.getId()).encode();
+        }
+
+        return new CursorPage<>(
+                content.stream().map(orderMapper::fromOrder).toList(),
+                nextCursor,
+                hasNext,
+                withTotal ? orderRepo.count() : null
+        );
+    }
+
     public OrderResponse findById(UUID id) {
         return this.orderRepo.findById(id)
                 .map(this.orderMapper::fromOrder)
@@ -325,7 +367,7 @@ public class OrderService {
         orderRepo.save(order);
 
         if (order.getStatus() == OrderStatus.CONFIRMED) {
-            CompletableFuture.runAsync(() -> {
+            taskExecutor.execute(() -> {
                 try {
                     inventoryService.confirmReservation(order.getId());
                     log.info("Stock reservation confirmed for orderId={}", orderId);
@@ -333,7 +375,7 @@ public class OrderService {
                 catch (Exception e) {
                     log.error("Failed to confirm stock reservation for orderId={}", orderId, e);
                 }
-            }, taskExecutor);
+            });
         }
 
         return paymentResponse;
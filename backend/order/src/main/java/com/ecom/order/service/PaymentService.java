@@ -5,11 +5,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
 import com.ecom.order.configs.FeignConfig;
+import com.ecom.order.exception.ExternalServiceException;
 import com.ecom.order.payment.CancelPaymentResponse;
 import com.ecom.order.payment.CreatePaymentRequest;
 import com.ecom.order.payment.PaymentClient;
 import com.ecom.order.payment.PaymentFailedException;
 import com.ecom.order.payment.PaymentResponse;
+import com.ecom.order.resilience.DownstreamCalls;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,11 +21,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class PaymentService {
 
+    private static final String PAYMENT_SERVICE = "payment-service";
+
     private final PaymentClient paymentClient;
 
+    private final DownstreamCalls downstreamCalls;
+
     public PaymentResponse createPayment(CreatePaymentRequest request) {
         try {
-            ResponseEntity<PaymentResponse> response = paymentClient.createPayment(request);
+            ResponseEntity<PaymentResponse> response = downstreamCalls.call(PAYMENT_SERVICE,
+                    () -> paymentClient.createPayment(request));
 
             if (!response.getStatusCode().isSameCodeAs(HttpStatus.CREATED)) {
                 log.error("Payment creation failed with status: {}", response.getStatusCode());
@@ -44,12 +51,16 @@ public class PaymentService {
         } catch (FeignException e) {
             log.error("Feign error during payment creation: {}", e.getMessage());
             throw new PaymentFailedException("Failed to communicate with payment service");
+        } catch (ExternalServiceException e) {
+            log.error("Payment service not called: {}", e.getMessage());
+            throw new PaymentFailedException("Payment service is temporarily unavailable", e);
         }
     }
 
     public PaymentResponse syncPayment(Long paymentId) {
         try {
-            ResponseEntity<PaymentResponse> response = paymentClient.syncPayment(paymentId);
+            ResponseEntity<PaymentResponse> response = downstreamCalls.read(PAYMENT_SERVICE,
+                    () -> paymentClient.syncPayment(paymentId));
 
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new PaymentFailedException("Payment sync failed");
@@ -63,12 +74,16 @@ public class PaymentService {
         } catch (FeignException e) {
             log.error("Error syncing payment: {}", e.getMessage());
             throw new PaymentFailedException("Failed to sync payment");
+        } catch (ExternalServiceException e) {
+            log.error("Payment service not called: {}", e.getMessage());
+            throw new PaymentFailedException("Payment service is temporarily unavailable", e);
         }
     }
 
     public void cancelPayment(Long paymentId) {
         try {
-            ResponseEntity<CancelPaymentResponse> response = paymentClient.cancelPayment(paymentId);
+            ResponseEntity<CancelPaymentResponse> response = downstreamCalls.call(PAYMENT_SERVICE,
+                    () -> paymentClient.cancelPayment(paymentId));
 
             if (!response.getStatusCode().is2xxSuccessful()) {
                 log.warn("Payment cancellation returned non-success status");
@@ -83,6 +98,9 @@ public class PaymentService {
         } catch (FeignException e) {
             log.error("Error cancelling payment: {}", e.getMessage());
             throw new PaymentFailedException("Failed to cancel payment", e);
+        } catch (ExternalServiceException e) {
+            log.error("Payment service not called: {}", e.getMessage());
+            throw new PaymentFailedException("Payment service is temporarily unavailable", e);
         }
     }
 
@@ -0,0 +1,270 @@
+package com.ecom.order.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.ecom.order.configs.ServiceCredentials;
+import com.ecom.order.exception.DeadlineExceededException;
+import com.ecom.order.exception.ExternalServiceException;
+import com.ecom.order.product.BatchReserveStockRequest;
+import com.ecom.order.product.InventoryClient;
+import com.ecom.order.product.ReserveStockRequest;
+import com.ecom.order.product.ReserveStockResponse;
+import com.ecom.order.resilience.DownstreamCalls;
+import com.ecom.order.resilience.RequestDeadline;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces the stock reservations of concurrent orders into batches, reserved by the inventory in a single
+ * call and transaction. The first reservation to arrive leads a batch: it waits for the linger window, or
+ * for the batch to be full, then hands it to a sender thread.
+ * <p>
+ * A batch serves several customers, so it is sent with the {@link ServiceCredentials} rather than those of
+ * its leader, and under the latest deadline of its orders rather than the leader's. Each order waits for its
+ * result no longer than its own deadline, and is left out of the batch if that is up before it is sent; a
+ * reservation made after its order gave up is never confirmed, and expires. A batch of a single order is
+ * sent by that order itself, with its credentials and deadline.
+ */
+@Component
+@Slf4j
+public class ReservationBatcher {
+
+    /**
+     * The name of the inventory, as a Feign client and for its bulkhead and circuit breaker.
+     */
+    static final String INVENTORY_SERVICE = "bookService";
+
+    private final InventoryClient inventoryClient;
+
+    private final DownstreamCalls downstreamCalls;
+
+    private final ServiceCredentials serviceCredentials;
+
+    /**
+     * Sends the batches, on virtual threads which carry neither the security context nor the deadline of the
+     * leaders.
+     */
+    private final Executor sender;
+
+    private final long lingerNanos;
+
+    private final int maxBatchSize;
+
+    /**
+     * Guards the open batch. Not a monitor, so that a leader waiting for its batch does not pin the carrier of
+     * a virtual thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition batchClosed = lock.newCondition();
+
+    /**
+     * The batch still open to new reservations, null if none is.
+     */
+    private List<PendingReservation> openBatch;
+
+    public ReservationBatcher(
+            InventoryClient inventoryClient,
+            DownstreamCalls downstreamCalls,
+            ServiceCredentials serviceCredentials,
+            @Value("${inventory.reservation.batch.linger:2ms}") Duration linger,
+            @Value("${inventory.reservation.batch.max-size:100}") int maxBatchSize
+    ) {
+        this.inventoryClient = inventoryClient;
+        this.downstreamCalls = downstreamCalls;
+        this.serviceCredentials = serviceCredentials;
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("inventory-batch-");
+        executor.setVirtualThreads(true);
+        this.sender = executor;
+        this.lingerNanos = linger.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Reserves stock for an order, along with the orders reserving at the same time.
+     *
+     * @return The outcome of the reservation of the order
+     * @throws feign.FeignException if the inventory could not be called, for every order of the batch
+     * @throws com.ecom.order.exception.ExternalServiceException if the inventory was not called, its circuit
+     *                                                           being open or its bulkhead full, or if the
+     *                                                           deadline of the order is up
+     */
+    public ReserveStockResponse reserve(ReserveStockRequest request) {
+        if (lingerNanos <= 0 || maxBatchSize <= 1) {
+            return downstreamCalls.call(INVENTORY_SERVICE, () -> inventoryClient.reserveProducts(request));
+        }
+
+        RequestDeadline.check("reserve the stock");
+        PendingReservation pending = new PendingReservation(request, RequestDeadline.remaining()
+                .map(remaining -> System.nanoTime() + remaining.toNanos())
+                .orElse(null));
+        List<PendingReservation> led = null;
+        lock.lock();
+        try {
+            if (openBatch == null) {
+                openBatch = new ArrayList<>(maxBatchSize);
+                led = openBatch;
+            }
+            openBatch.add(pending);
+            if (openBatch.size() >= maxBatchSize) {
+                // full: the next reservation opens another batch, and the leader hands this one over right away
+                openBatch = null;
+                batchClosed.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (led != null) {
+            List<PendingReservation> batch = awaitClosed(led);
+            if (batch.size() == 1) {
+                sendAlone(pending);
+            }
+            else {
+                hand(batch);
+            }
+        }
+        return pending.await();
+    }
+
+    /**
+     * Waits for the end of the linger window, unless the batch gets full before.
+     */
+    private List<PendingReservation> awaitClosed(List<PendingReservation> batch) {
+        lock.lock();
+        try {
+            long remaining = lingerNanos;
+            while (openBatch == batch && remaining > 0) {
+                remaining = batchClosed.awaitNanos(remaining);
+            }
+        }
+        catch (InterruptedException e) {
+            // the batch is still sent: the other reservations wait for it
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            if (openBatch == batch) {
+                openBatch = null;
+            }
+            lock.unlock();
+        }
+        return batch;
+    }
+
+    private void sendAlone(PendingReservation pending) {
+        try {
+            pending.result.complete(downstreamCalls.call(INVENTORY_SERVICE,
+                    () -> inventoryClient.reserveProducts(pending.request)));
+        }
+        catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private void hand(List<PendingReservation> batch) {
+        try {
+            sender.execute(() -> send(batch));
+        }
+        catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    private void send(List<PendingReservation> batch) {
+        try {
+            long now = System.nanoTime();
+            List<PendingReservation> live = new ArrayList<>(batch.size());
+            Long latestDeadline = now;
+            for (PendingReservation pending : batch) {
+                if (pending.deadline != null && pending.deadline - now <= 0) {
+                    pending.result.completeExceptionally(
+                            new DeadlineExceededException("No time left to reserve the stock"));
+                    continue;
+                }
+                live.add(pending);
+                if (pending.deadline == null || latestDeadline == null) {
+                    latestDeadline = null;
+                }
+                else if (pending.deadline - latestDeadline > 0) {
+                    latestDeadline = pending.deadline;
+                }
+            }
+            if (live.isEmpty()) {
+                return;
+            }
+
+            String timeout = latestDeadline == null
+                    ? null
+                    : RequestDeadline.headerValue(Duration.ofNanos(latestDeadline - System.nanoTime()));
+            List<ReserveStockResponse> responses = downstreamCalls.call(INVENTORY_SERVICE,
+                    () -> inventoryClient.reserveProductsBatch(serviceCredentials.authorization(), timeout,
+                            new BatchReserveStockRequest(live.stream().map(PendingReservation::request).toList())));
+            if (responses == null || responses.size() != live.size()) {
+                throw new IllegalStateException("Expected " + live.size() + " reservation results, got "
+                        + (responses == null ? 0 : responses.size()));
+            }
+            log.debug("Reserved stock for a batch of {} orders", live.size());
+            for (int i = 0; i < live.size(); i++) {
+                live.get(i).result.complete(responses.get(i));
+            }
+        }
+        catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+        finally {
+            // never leave the other reservations waiting, whatever went wrong
+            batch.forEach(pending -> pending.result.completeExceptionally(
+                    new IllegalStateException("The reservation batch could not be sent")));
+        }
+    }
+
+    /**
+     * @param deadline The deadline of the order, in {@link System#nanoTime()}, null if it has none
+     */
+    private record PendingReservation(ReserveStockRequest request, Long deadline,
+                                      CompletableFuture<ReserveStockResponse> result) {
+
+        PendingReservation(ReserveStockRequest request, Long deadline) {
+            this(request, deadline, new CompletableFuture<>());
+        }
+
+        /**
+         * Waits for the result of the order, no longer than its deadline.
+         */
+        ReserveStockResponse await() {
+            try {
+                return deadline == null
+                        ? result.get()
+                        : result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("The stock could not be reserved", e.getCause());
+            }
+            catch (TimeoutException e) {
+                throw new DeadlineExceededException("No time left to reserve the stock");
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExternalServiceException("Interrupted while reserving the stock", e);
+            }
+        }
+
+    }
+
+}
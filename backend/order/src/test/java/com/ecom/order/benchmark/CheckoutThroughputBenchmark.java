@@ -0,0 +1,192 @@
+package com.ecom.order.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ecom.order.cart.CartDetails;
+import com.ecom.order.configs.AsyncConfig;
+import com.ecom.order.customer.CustomerDetails;
+import com.ecom.order.dto.OrderRequest;
+import com.ecom.order.mapper.OrderMapper;
+import com.ecom.order.model.Order;
+import com.ecom.order.payment.CreatePaymentRequest;
+import com.ecom.order.payment.PaymentResponse;
+import com.ecom.order.product.ReserveStockResponse;
+import com.ecom.order.repository.OrderRepo;
+import com.ecom.order.service.CartService;
+import com.ecom.order.service.CustomerService;
+import com.ecom.order.service.InventoryService;
+import com.ecom.order.service.OrderService;
+import com.ecom.order.service.PaymentService;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures the throughput of synchronous checkouts with many concurrent users, with the other services
+ * answering after a fixed latency. The platform mode serves requests with a pool as large as Tomcat's
+ * default one and calls the other services through the bounded task pool; the virtual mode runs both on
+ * virtual threads. Run with {@code -Dorder.benchmark=true}, for example
+ * {@code mvn test -Dtest=CheckoutThroughputBenchmark -Dorder.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "order.benchmark", matches = "true")
+class CheckoutThroughputBenchmark {
+
+    private static final int USERS = Integer.getInteger("order.benchmark.users", 1000);
+
+    private static final int CHECKOUTS_PER_USER = Integer.getInteger("order.benchmark.checkouts", 5);
+
+    private static final Duration LATENCY = Duration.ofMillis(Long.getLong("order.benchmark.latency-ms", 50));
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    enum Mode { PLATFORM, VIRTUAL }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    void checkout(Mode mode) throws InterruptedException {
+        OrderService orderService = orderService(mode == Mode.VIRTUAL
+                ? AsyncConfig.virtualThreadExecutor()
+                : AsyncConfig.platformThreadExecutor(10, 20, 100));
+        ExecutorService requests = mode == Mode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long[] latencies = new long[USERS * CHECKOUTS_PER_USER];
+        CountDownLatch start = new CountDownLatch(1);
+        OrderRequest.Address address = new OrderRequest.Address("street", "city", "zip", "country");
+
+        for (int u = 0; u < USERS; u++) {
+            int user = u;
+            requests.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < CHECKOUTS_PER_USER; i++) {
+                    OrderRequest request = OrderRequest.builder().cartId((long) i).address(address).build();
+                    long begin = System.nanoTime();
+                    try {
+                        orderService.placeOrder(request, "user-" + user);
+                        placed.incrementAndGet();
+                    }
+                    catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[user * CHECKOUTS_PER_USER + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        requests.shutdown();
+        assertThat(requests.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - begin);
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d checkouts by %d users in %d ms (%.0f/s), %d placed, %d failed, "
+                        + "latency p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                mode, latencies.length, USERS, elapsed.toMillis(), latencies.length * 1_000_000_000d / elapsed.toNanos(),
+                placed.get(), failed.get(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+
+        if (mode == Mode.VIRTUAL) {
+            assertThat(failed.get()).isZero();
+        }
+    }
+
+    private static OrderService orderService(Executor taskExecutor) {
+        OrderRepo orderRepo = mock(OrderRepo.class, withSettings().stubOnly());
+        when(orderRepo.findByCartIdAndCustomerId(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(orderRepo.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order.getId() == null) {
+                order.setId(UUID.randomUUID());
+            }
+            return order;
+        });
+
+        CustomerService customerService = new CustomerService(null, null, null) {
+            @Override
+            public CustomerDetails getCustomerDetails(String customerId) {
+                pause();
+                return new CustomerDetails(customerId, customerId, "Fn", "Ln", "mail@example.com", null, null, true, null);
+            }
+        };
+        CartService cartService = new CartService(null, null) {
+            @Override
+            public CartDetails getCartById(Long cartId) {
+                pause();
+                return new CartDetails(cartId, null, List.of(new CartDetails.CartItem(100L, 1, new BigDecimal("10.00"))),
+                        LocalDateTime.now(), LocalDateTime.now(), new BigDecimal("10.00"));
+            }
+
+            @Override
+            public void completeCart(Long cartId) {
+                pause();
+            }
+        };
+        InventoryService inventoryService = new InventoryService(null, null, null) {
+            @Override
+            public ReserveStockResponse reserveProducts(String orderId, Map<Long, Integer> products) {
+                pause();
+                return new ReserveStockResponse(orderId, true, null);
+            }
+        };
+        PaymentService paymentService = new PaymentService(null, null) {
+            @Override
+            public PaymentResponse createPayment(CreatePaymentRequest request) {
+                pause();
+                return new PaymentResponse(1L, request.getOrderId(), PaymentResponse.PaymentStatus.PENDING, null, null,
+                        null, request.getAmount(), "card", null, null);
+            }
+        };
+
+        return new OrderService(orderRepo, customerService, mock(OrderMapper.class, withSettings().stubOnly()),
+                cartService, inventoryService, paymentService, taskExecutor);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(LATENCY);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
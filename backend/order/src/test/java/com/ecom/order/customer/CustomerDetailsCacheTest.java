@@ -0,0 +1,84 @@
+package com.ecom.order.customer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ecom.order.exception.ExternalServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerDetailsCacheTest {
+
+    private final CustomerDetailsCache cache = new CustomerDetailsCache(new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_cachedCustomer_isNotLoadedAgain() {
+        CustomerDetails first = cache.get("c1", this::load);
+        CustomerDetails second = cache.get("c1", this::load);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_concurrentLookups_shareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<CustomerDetails> first = CompletableFuture.supplyAsync(() -> cache.get("c1", id -> {
+            loading.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load(id);
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<CustomerDetails> second = CompletableFuture.supplyAsync(() -> cache.get("c1", this::load));
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_failedLoad_isNotCached() {
+        assertThatThrownBy(() -> cache.get("c1", id -> {
+            loads.incrementAndGet();
+            throw new ExternalServiceException("Customer service unavailable");
+        })).isInstanceOf(ExternalServiceException.class);
+
+        assertThat(cache.get("c1", this::load).id()).isEqualTo("c1");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidate_changedProfile_isLoadedAgain() {
+        cache.get("c1", this::load);
+        cache.get("c2", this::load);
+
+        cache.invalidate("c1");
+        cache.get("c1", this::load);
+        cache.get("c2", this::load);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    private CustomerDetails load(String customerId) {
+        loads.incrementAndGet();
+        return new CustomerDetails(customerId, customerId, "Fn", "Ln", "mail@example.com", null, null, true, null);
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.ecom.order.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ecom.order.exception.DeadlineExceededException;
+import com.ecom.order.exception.EntityNotFoundException;
+import com.ecom.order.exception.ExternalServiceException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownstreamCallsTest {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void read_transientFailure_isRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String cart = downstreamCalls(10, 0.1).read("cart-service", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ExternalServiceException("Cart service unavailable");
+            }
+            return "cart";
+        });
+
+        assertThat(cart).isEqualTo("cart");
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.counter("order.downstream.retries", "service", "cart-service", "kind", "retry").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void read_refusedRequest_isNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> downstreamCalls(10, 0.1).read("cart-service", () -> {
+            calls.incrementAndGet();
+            throw new EntityNotFoundException("Cart not found with id : 1");
+        })).isInstanceOf(EntityNotFoundException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void read_exhaustedBudget_isNotRetried() {
+        DownstreamCalls downstreamCalls = downstreamCalls(1, 0);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> downstreamCalls.read("payment-service", () -> {
+                calls.incrementAndGet();
+                throw new ExternalServiceException("Payment service unavailable");
+            })).isInstanceOf(ExternalServiceException.class);
+        }
+
+        // the only token of the budget is spent on the retry of the first read
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.counter("order.downstream.retries.denied", "service", "payment-service").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void hedgedRead_slowFirstAttempt_isHedgedAndCancelled() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch firstAttemptCancelled = new CountDownLatch(1);
+
+        String customer = downstreamCalls(10, 0.1).hedgedRead("customer-service", () -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(Duration.ofSeconds(10));
+                }
+                catch (InterruptedException e) {
+                    firstAttemptCancelled.countDown();
+                }
+                return "slow";
+            }
+            return "fast";
+        });
+
+        assertThat(customer).isEqualTo("fast");
+        assertThat(firstAttemptCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("order.downstream.hedges.won", "service", "customer-service").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void call_openCircuit_failsWithoutCallingTheService() {
+        circuitBreakerRegistry.circuitBreaker("bookService").transitionToOpenState();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> downstreamCalls(10, 0.1).call("bookService", calls::incrementAndGet))
+                .isInstanceOf(ExternalServiceException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void call_noTimeLeft_isNotSent() {
+        RequestDeadline.start(Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> downstreamCalls(10, 0.1).call("payment-service", calls::incrementAndGet))
+                .isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void call_slowerThanTheDeadline_isWaitedForWithoutInterruption() {
+        RequestDeadline.start(Duration.ofMillis(50));
+        AtomicInteger interruptions = new AtomicInteger();
+
+        String payment = downstreamCalls(10, 0.1).call("payment-service", () -> {
+            try {
+                Thread.sleep(Duration.ofMillis(300));
+            }
+            catch (InterruptedException e) {
+                interruptions.incrementAndGet();
+            }
+            return "payment";
+        });
+
+        assertThat(payment).isEqualTo("payment");
+        assertThat(interruptions).hasValue(0);
+    }
+
+    @Test
+    void read_deadline_cancelsTheCallAndIsNotRetried() throws InterruptedException {
+        RequestDeadline.start(Duration.ofMillis(100));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> downstreamCalls(10, 0.1).read("cart-service", () -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(Duration.ofSeconds(10));
+            }
+            catch (InterruptedException e) {
+                cancelled.countDown();
+            }
+            return "cart";
+        })).isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls).hasValue(1);
+    }
+
+    private DownstreamCalls downstreamCalls(int budgetCapacity, double budgetRatio) {
+        return new DownstreamCalls(circuitBreakerRegistry, BulkheadRegistry.ofDefaults(), meterRegistry,
+                2, Duration.ZERO, budgetRatio, budgetCapacity,
+                true, 0.95, Duration.ofMillis(20), Duration.ofMillis(50), 20);
+    }
+
+}
@@ -0,0 +1,264 @@
+package com.ecom.order.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import com.ecom.order.cart.CartDetails;
+import com.ecom.order.customer.CustomerDetails;
+import com.ecom.order.event.CheckoutStepEvent;
+import com.ecom.order.model.CheckoutSaga;
+import com.ecom.order.model.CheckoutStep;
+import com.ecom.order.model.Order;
+import com.ecom.order.model.OrderLine;
+import com.ecom.order.model.OrderStatus;
+import com.ecom.order.payment.CreatePaymentRequest;
+import com.ecom.order.payment.PaymentFailedException;
+import com.ecom.order.payment.PaymentResponse;
+import com.ecom.order.product.ReserveStockResponse;
+import com.ecom.order.repository.CheckoutSagaRepo;
+import com.ecom.order.repository.OrderRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutSagaRunnerTest {
+
+    @Mock
+    CheckoutSagaRepo checkoutSagaRepo;
+
+    @Mock
+    OrderRepo orderRepo;
+
+    @Mock
+    CustomerService customerService;
+
+    @Mock
+    CartService cartService;
+
+    @Mock
+    InventoryService inventoryService;
+
+    @Mock
+    PaymentService paymentService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    private final UUID orderId = UUID.randomUUID();
+
+    private Order order;
+
+    private CheckoutSaga saga;
+
+    private CheckoutSagaRunner runner;
+
+    @AfterEach
+    void tearDown() {
+        if (runner != null) {
+            runner.shutdown();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        order = Order.builder().id(orderId).customerId("cust-1").cartId(1L).build();
+        saga = CheckoutSaga.builder()
+                .orderId(orderId)
+                .step(CheckoutStep.LOAD_CART)
+                .startedAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        when(checkoutSagaRepo.findById(orderId)).thenReturn(Optional.of(saga));
+    }
+
+    @Test
+    void advance_runsEveryStepUntilTheCheckoutIsCompleted() {
+        when(orderRepo.findById(orderId)).thenReturn(Optional.of(order));
+        when(customerService.getCustomerDetails("cust-1")).thenReturn(
+                new CustomerDetails("cust-1", "ext-1", "Fn", "Ln", "mail@example.com", null, null, true, null));
+        when(cartService.getCartById(1L)).thenReturn(new CartDetails(1L, "cust-1",
+                List.of(new CartDetails.CartItem(100L, 2, new BigDecimal("10.00"))),
+                LocalDateTime.now(), LocalDateTime.now(), new BigDecimal("20.00")));
+        when(inventoryService.reserveProducts(orderId.toString(), Map.of(100L, 2)))
+                .thenReturn(new ReserveStockResponse(orderId.toString(), true, null));
+        when(paymentService.createPayment(any())).thenReturn(new PaymentResponse(11L, orderId.toString(),
+                PaymentResponse.PaymentStatus.PENDING, null, null, null, new BigDecimal("20.00"), "card", "pi_1", "secret"));
+        CheckoutSagaRunner runner = runner(5);
+
+        runner.advance(orderId);
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.RESERVE_STOCK);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.VALIDATED);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("20.00");
+        assertThat(order.getOrderLines()).singleElement().extracting(OrderLine::getProductId).isEqualTo(100L);
+
+        runner.advance(orderId);
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.CREATE_PAYMENT);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.RESERVED);
+
+        runner.advance(orderId);
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.COMPLETE_CART);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PAYMENT_PENDING);
+        assertThat(order.getPaymentInfo().getPaymentId()).isEqualTo(11L);
+        assertThat(saga.getClientSecret()).isEqualTo("secret");
+
+        runner.advance(orderId);
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.COMPLETED);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PAYMENT_PENDING);
+
+        ArgumentCaptor<CreatePaymentRequest> payment = ArgumentCaptor.forClass(CreatePaymentRequest.class);
+        verify(paymentService).createPayment(payment.capture());
+        assertThat(payment.getValue().getCustomerEmail()).isEqualTo("mail@example.com");
+        assertThat(payment.getValue().getAmount()).isEqualByComparingTo("20.00");
+        verify(cartService).completeCart(1L);
+        verify(eventPublisher, times(3)).publishEvent(new CheckoutStepEvent(orderId));
+    }
+
+    @Test
+    void advance_stockRefused_failsWithoutPayment() {
+        reserving();
+        when(inventoryService.reserveProducts(orderId.toString(), Map.of(100L, 2)))
+                .thenReturn(new ReserveStockResponse(orderId.toString(), false, "no stock"));
+
+        runner(5).advance(orderId);
+
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.FAILED);
+        assertThat(saga.getLastError()).isEqualTo("no stock");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.RESERVATION_FAILED);
+        verifyNoInteractions(paymentService, eventPublisher);
+    }
+
+    @Test
+    void advance_failingStep_isRetriedLater() {
+        when(cartService.getCartById(1L)).thenThrow(new IllegalStateException("cart service down"));
+        when(orderRepo.findById(orderId)).thenReturn(Optional.of(order));
+
+        runner(3).advance(orderId);
+
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.LOAD_CART);
+        assertThat(saga.getAttempts()).isEqualTo(1);
+        assertThat(saga.getLastError()).isEqualTo("cart service down");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void advance_paymentGivenUp_releasesTheStock() {
+        order.setStatus(OrderStatus.RESERVED);
+        saga.setStep(CheckoutStep.CREATE_PAYMENT);
+        when(orderRepo.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentService.createPayment(any())).thenThrow(new PaymentFailedException("Payment service is temporarily unavailable"));
+        CheckoutSagaRunner runner = runner(1);
+
+        runner.advance(orderId);
+
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.RELEASE_STOCK);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PAYMENT_FAILED);
+
+        runner.advance(orderId);
+
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.FAILED);
+        assertThat(saga.getLastError()).isEqualTo("Payment service is temporarily unavailable");
+        verify(inventoryService).releaseReservation(orderId.toString());
+    }
+
+    @Test
+    void advance_orderCancelledWhileReserving_releasesTheStock() {
+        reserving();
+        when(inventoryService.reserveProducts(orderId.toString(), Map.of(100L, 2))).thenAnswer(invocation -> {
+            order.setStatus(OrderStatus.CANCELLED);
+            return new ReserveStockResponse(orderId.toString(), true, null);
+        });
+
+        runner(5).advance(orderId);
+
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.RELEASE_STOCK);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verifyNoInteractions(paymentService);
+        verify(eventPublisher).publishEvent(new CheckoutStepEvent(orderId));
+    }
+
+    @Test
+    void advance_paymentNotRecorded_cancelsThePayment() {
+        order.setStatus(OrderStatus.RESERVED);
+        saga.setStep(CheckoutStep.CREATE_PAYMENT);
+        when(orderRepo.findById(orderId)).thenReturn(Optional.of(order));
+        when(paymentService.createPayment(any())).thenReturn(new PaymentResponse(11L, orderId.toString(),
+                PaymentResponse.PaymentStatus.PENDING, null, null, null, new BigDecimal("20.00"), "card", "pi_1", "secret"));
+        when(orderRepo.save(order)).thenThrow(new OptimisticLockingFailureException("order changed meanwhile"));
+
+        runner(5).advance(orderId);
+
+        verify(paymentService).cancelPayment(11L);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void sweep_stalledCheckoutOfThisInstance_isDrivenAgain() {
+        order.setStatus(OrderStatus.PAYMENT_PENDING);
+        saga.setStep(CheckoutStep.COMPLETE_CART);
+        saga.setUpdatedAt(Instant.now().minus(Duration.ofMinutes(5)));
+        when(orderRepo.findById(orderId)).thenReturn(Optional.of(order));
+        // the step is lost: it fails before it could be retried
+        when(checkoutSagaRepo.findById(orderId))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(Optional.of(saga));
+        when(checkoutSagaRepo.findAllById(Set.of(orderId))).thenReturn(List.of(saga));
+        CheckoutSagaRunner runner = runner(5);
+
+        runner.onCheckoutStep(new CheckoutStepEvent(orderId));
+        verify(checkoutSagaRepo, timeout(5_000)).findById(orderId);
+        runner.sweep();
+
+        verify(cartService, timeout(5_000)).completeCart(1L);
+        verify(checkoutSagaRepo, timeout(5_000)).save(saga);
+        assertThat(saga.getStep()).isEqualTo(CheckoutStep.COMPLETED);
+    }
+
+    private void reserving() {
+        order.setStatus(OrderStatus.VALIDATED);
+        order.setOrderLines(List.of(OrderLine.builder().productId(100L).quantity(2).order(order).build()));
+        saga.setStep(CheckoutStep.RESERVE_STOCK);
+        when(orderRepo.findById(orderId)).thenReturn(Optional.of(order));
+    }
+
+    private CheckoutSagaRunner runner(int maxAttempts) {
+        runner = new CheckoutSagaRunner(checkoutSagaRepo, orderRepo, customerService, cartService, inventoryService,
+                paymentService, new TransactionTemplate(transactionManager), eventPublisher, taskScheduler, 1,
+                maxAttempts, Duration.ofHours(1), Duration.ofMinutes(2), Duration.ofMinutes(10), Duration.ofMinutes(1));
+        return runner;
+    }
+
+}
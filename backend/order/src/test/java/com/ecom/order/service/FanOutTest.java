@@ -0,0 +1,82 @@
+package com.ecom.order.service;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.ecom.order.exception.ExternalServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FanOutTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void join_waitsForEveryCall() {
+        try (FanOut fanOut = new FanOut(executor, Duration.ofSeconds(5))) {
+            Supplier<String> customer = fanOut.fork(() -> {
+                Thread.sleep(20);
+                return "customer";
+            });
+            Supplier<Integer> cart = fanOut.fork(() -> 42);
+
+            fanOut.join();
+
+            assertThat(customer.get()).isEqualTo("customer");
+            assertThat(cart.get()).isEqualTo(42);
+        }
+    }
+
+    @Test
+    void join_firstFailure_cancelsTheOtherCalls() throws InterruptedException {
+        IllegalStateException failure = new IllegalStateException("cart service down");
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try (FanOut fanOut = new FanOut(executor, Duration.ofSeconds(30))) {
+            fanOut.fork(() -> blockUntilInterrupted(interrupted));
+            fanOut.fork(() -> {
+                throw failure;
+            });
+
+            assertThatThrownBy(fanOut::join).isSameAs(failure);
+        }
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void join_deadline_cancelsTheCallsStillRunning() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try (FanOut fanOut = new FanOut(executor, Duration.ofMillis(50))) {
+            fanOut.fork(() -> blockUntilInterrupted(interrupted));
+
+            assertThatThrownBy(fanOut::join).isInstanceOf(ExternalServiceException.class);
+        }
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static Object blockUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            new CountDownLatch(1).await();
+        }
+        catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+
+}
@@ -2,7 +2,9 @@ package com.ecom.order.service;
 
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,9 +12,12 @@ import java.util.concurrent.Executor;
 
 import com.ecom.order.cart.CartDetails;
 import com.ecom.order.customer.CustomerDetails;
+import com.ecom.order.dto.KeysetCursor;
 import com.ecom.order.dto.OrderRequest;
+import com.ecom.order.dto.OrderResponse;
 import com.ecom.order.dto.PlaceOrderResponse;
 import com.ecom.order.exception.EntityNotFoundException;
+import com.ecom.order.exception.InvalidCursorException;
 import com.ecom.order.mapper.OrderMapper;
 import com.ecom.order.model.Order;
 import com.ecom.order.model.OrderStatus;
@@ -20,6 +25,7 @@ import com.ecom.order.model.PaymentInfo;
 import com.ecom.order.payment.PaymentResponse;
 import com.ecom.order.product.ReserveStockResponse;
 import com.ecom.order.repository.OrderRepo;
+import org.springframework.data.domain.Limit;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -31,6 +37,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -210,4 +217,44 @@ class OrderServiceTest {
         assertThat(orderService.isOrderOwner(missing, "x")).isTrue();
     }
 
+    @Test
+    void scrollAllOrders_returnsNextCursor_andSkipsCount() {
+        LocalDateTime now = LocalDateTime.now();
+        Order newest = Order.builder().id(UUID.randomUUID()).date(now).build();
+        Order older = Order.builder().id(UUID.randomUUID()).date(now.minusHours(1)).build();
+        when(orderRepo.findFirstKeysetPage(Limit.of(2))).thenReturn(List.of(newest, older));
+        when(orderMapper.fromOrder(newest)).thenReturn(OrderResponse.builder().orderId(newest.getId().toString()).build());
+
+        var page = orderService.scrollAllOrders(null, 1, false);
+
+        assertThat(page.content()).hasSize(1);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.totalElements()).isNull();
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor(now, newest.getId()));
+        verify(orderRepo, never()).count();
+    }
+
+    @Test
+    void scrollAllOrders_seeksPastCursor() {
+        LocalDateTime date = LocalDateTime.now();
+        UUID id = UUID.randomUUID();
+        when(orderRepo.findKeysetPageAfter(date, id, Limit.of(11))).thenReturn(List.of());
+        when(orderRepo.count()).thenReturn(5L);
+
+        var page = orderService.scrollAllOrders(new KeysetCursor(date, id).encode(), 10, true);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+        assertThat(page.totalElements()).isEqualTo(5L);
+    }
+
+    @Test
+    void scrollAllOrders_cursorWithoutId_throwsInvalidCursor() {
+        String cursor = Base64.getUrlEncoder().encodeToString(LocalDateTime.now().toString().getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class, () -> orderService.scrollAllOrders(cursor, 10, false));
+        verify(orderRepo, never()).findKeysetPageAfter(any(), any(), any());
+    }
+
 }
@@ -0,0 +1,171 @@
+package com.ecom.order.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.ecom.order.configs.ServiceCredentials;
+import com.ecom.order.exception.DeadlineExceededException;
+import com.ecom.order.product.BatchReserveStockRequest;
+import com.ecom.order.product.InventoryClient;
+import com.ecom.order.product.ReserveStockRequest;
+import com.ecom.order.product.ReserveStockResponse;
+import com.ecom.order.resilience.DownstreamCalls;
+import com.ecom.order.resilience.RequestDeadline;
+import com.ecom.order.resilience.RequestDeadlineFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationBatcherTest {
+
+    @Mock
+    InventoryClient inventoryClient;
+
+    @Mock
+    DownstreamCalls downstreamCalls;
+
+    @Mock
+    ServiceCredentials serviceCredentials;
+
+    ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(downstreamCalls.call(anyString(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+        lenient().when(serviceCredentials.authorization()).thenReturn("Bearer service");
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void reserve_concurrentReservations_areSentAsOneBatch() throws Exception {
+        ReservationBatcher batcher = new ReservationBatcher(inventoryClient, downstreamCalls, serviceCredentials,
+                Duration.ofSeconds(10), 3);
+        AtomicReference<String> sender = new AtomicReference<>();
+        when(inventoryClient.reserveProductsBatch(eq("Bearer service"), isNull(), any())).thenAnswer(inv -> {
+            sender.set(Thread.currentThread().getName());
+            BatchReserveStockRequest request = inv.getArgument(2);
+            return request.reservations().stream()
+                    .map(reservation -> new ReserveStockResponse(reservation.orderId(), true, "reserved"))
+                    .toList();
+        });
+
+        List<CompletableFuture<ReserveStockResponse>> results = List.of("o1", "o2", "o3").stream()
+                .map(orderId -> CompletableFuture.supplyAsync(
+                        () -> batcher.reserve(new ReserveStockRequest(orderId, Map.of(1L, 1))), callers))
+                .toList();
+
+        // the batch is full: it is sent well before the end of the linger window
+        assertThat(results).extracting(result -> result.get(5, TimeUnit.SECONDS).orderId())
+                .containsExactlyInAnyOrder("o1", "o2", "o3");
+        verify(inventoryClient, times(1)).reserveProductsBatch(any(), any(), any());
+        verify(inventoryClient, never()).reserveProducts(any());
+        // sent with the credentials of the service, from none of the callers
+        assertThat(sender.get()).startsWith("inventory-batch-");
+    }
+
+    @Test
+    void reserve_orderWithoutTimeLeft_isLeftOutOfTheBatch() throws Exception {
+        ReservationBatcher batcher = new ReservationBatcher(inventoryClient, downstreamCalls, serviceCredentials,
+                Duration.ofMillis(300), 3);
+        when(inventoryClient.reserveProductsBatch(eq("Bearer service"), isNull(), any()))
+                .thenReturn(List.of(new ReserveStockResponse("o2", true, "reserved")));
+
+        CompletableFuture<ReserveStockResponse> hurried = CompletableFuture.supplyAsync(
+                () -> reserveWithin(batcher, new ReserveStockRequest("o1", Map.of(1L, 1)), "50"), callers);
+        Thread.sleep(20);
+        CompletableFuture<ReserveStockResponse> patient = CompletableFuture.supplyAsync(
+                () -> batcher.reserve(new ReserveStockRequest("o2", Map.of(1L, 1))), callers);
+
+        assertThat(patient.get(5, TimeUnit.SECONDS).orderId()).isEqualTo("o2");
+        assertThatThrownBy(() -> hurried.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DeadlineExceededException.class);
+        verify(inventoryClient).reserveProductsBatch(any(), any(),
+                eq(new BatchReserveStockRequest(List.of(new ReserveStockRequest("o2", Map.of(1L, 1))))));
+    }
+
+    @Test
+    void reserve_aloneInTheLingerWindow_isSentOnItsOwn() {
+        ReservationBatcher batcher = new ReservationBatcher(inventoryClient, downstreamCalls, serviceCredentials,
+                Duration.ofMillis(1), 100);
+        ReserveStockRequest request = new ReserveStockRequest("o1", Map.of(1L, 1));
+        when(inventoryClient.reserveProducts(request)).thenReturn(new ReserveStockResponse("o1", true, "reserved"));
+
+        assertThat(batcher.reserve(request).success()).isTrue();
+        verify(inventoryClient, never()).reserveProductsBatch(any(), any(), any());
+    }
+
+    @Test
+    void reserve_failedBatch_failsEveryReservation() {
+        ReservationBatcher batcher = new ReservationBatcher(inventoryClient, downstreamCalls, serviceCredentials,
+                Duration.ofSeconds(10), 2);
+        IllegalStateException failure = new IllegalStateException("inventory down");
+        when(inventoryClient.reserveProductsBatch(any(), any(), any())).thenThrow(failure);
+
+        List<CompletableFuture<ReserveStockResponse>> results = List.of("o1", "o2").stream()
+                .map(orderId -> CompletableFuture.supplyAsync(
+                        () -> batcher.reserve(new ReserveStockRequest(orderId, Map.of(1L, 1))), callers))
+                .toList();
+
+        assertThat(results).allSatisfy(result -> assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCause(failure));
+    }
+
+    @Test
+    void reserve_withoutLinger_callsTheInventoryDirectly() {
+        ReservationBatcher batcher = new ReservationBatcher(inventoryClient, downstreamCalls, serviceCredentials,
+                Duration.ZERO, 100);
+        ReserveStockRequest request = new ReserveStockRequest("o1", Map.of(1L, 1));
+        when(inventoryClient.reserveProducts(request)).thenReturn(new ReserveStockResponse("o1", false, "no stock"));
+
+        assertThat(batcher.reserve(request).success()).isFalse();
+    }
+
+    /**
+     * Reserves as if serving a request given the time left in its {@value RequestDeadline#HEADER} header.
+     */
+    private static ReserveStockResponse reserveWithin(ReservationBatcher batcher, ReserveStockRequest request,
+                                                      String timeout) {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        servletRequest.addHeader(RequestDeadline.HEADER, timeout);
+        AtomicReference<ReserveStockResponse> response = new AtomicReference<>();
+        try {
+            new RequestDeadlineFilter(Duration.ofSeconds(15)).doFilter(servletRequest, new MockHttpServletResponse(),
+                    (req, res) -> response.set(batcher.reserve(request)));
+        }
+        catch (Exception e) {
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+        }
+        return response.get();
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.ecom.payment.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+
+/**
+ * The JPA transaction manager of Spring Boot, whose transactions time out with the {@link RequestDeadline}
+ * of the request they serve. The time left becomes the timeout of the queries, for the database to cancel
+ * them, and past it the transaction fails instead of running its next query.
+ * <p>
+ * Mirrors {@code com.ecom.bookService.config.DeadlineTransactionConfig} of the book service, keep the copies
+ * in step.
+ */
+@Configuration
+public class DeadlineTransactionConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            protected int determineTimeout(TransactionDefinition definition) {
+                return timeoutWithin(super.determineTimeout(definition), RequestDeadline.remaining());
+            }
+        };
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * @return The timeout of a transaction, in seconds, shortened to the time left to serve the request
+     * @throws TransactionTimedOutException if there is no time left
+     */
+    static int timeoutWithin(int timeout, Optional<Duration> remaining) {
+        if (remaining.isEmpty()) {
+            return timeout;
+        }
+        if (remaining.get().isNegative() || remaining.get().isZero()) {
+            throw new TransactionTimedOutException("No time left to serve the request");
+        }
+
+        int seconds = (int) Math.max(1, (remaining.get().toMillis() + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? seconds : Math.min(timeout, seconds);
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.ecom.payment.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the {@link RequestDeadline} of the requests carrying the time left to their caller. A request
+ * arriving with no time left is not served.
+ * <p>
+ * Mirrors {@code com.ecom.order.resilience.RequestDeadlineFilter} of the order service, keep the two in step.
+ * Unlike the order service, which gives a default timeout to every request, a request without the
+ * {@value RequestDeadline#HEADER} header gets no deadline here: those are the calls made in the background
+ * by the other services, which no caller is waiting for.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<Duration> timeout = RequestDeadline.parse(request.getHeader(RequestDeadline.HEADER));
+        if (timeout.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (timeout.get().isNegative() || timeout.get().isZero()) {
+            log.warn("Not serving {} {}: the caller has no time left", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "No time left to serve the request");
+            return;
+        }
+
+        RequestDeadline.start(timeout.get());
+        try {
+            chain.doFilter(request, response);
+        }
+        finally {
+            RequestDeadline.clear();
+        }
+    }
+
+}
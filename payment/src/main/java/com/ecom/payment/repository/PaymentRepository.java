@@ -2,6 +2,7 @@ package com.ecom.payment.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,10 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     // Trouver tous les paiements d'une commande
     List<Payment> findAllByOrderId(String orderId);
     
+    // Trouver le dernier paiement d'une commande parmi certains statuts
+    Optional<Payment> findFirstByOrderIdAndStatusInOrderByDateCreationDesc(String orderId,
+            Collection<PaymentStatus> statuses);
+    
     // Trouver par ID de transaction
     Optional<Payment> findByTransactionId(String transactionId);
     
@@ -15,7 +15,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,6 +27,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PaymentService {
     
+    // Paiements pas encore aboutis, que le client peut encore régler
+    private static final Set<PaymentStatus> OPEN_STATUSES =
+            EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING, PaymentStatus.REQUIRES_ACTION);
+    
     private final PaymentRepository paymentRepository;
     private final StripePaymentService stripePaymentService;
     
@@ -39,6 +46,14 @@ public class PaymentService {
             throw new InvalidPaymentAmountException("Payment amount must be greater than zero");
         }
         
+        // Une création renvoyée après une réponse perdue retrouve le paiement déjà ouvert pour la commande,
+        // au lieu d'en créer un second
+        Optional<Payment> openPayment = paymentRepository.findFirstByOrderIdAndStatusInOrderByDateCreationDesc(
+                request.getOrderId(), OPEN_STATUSES);
+        if (openPayment.isPresent()) {
+            return openPaymentResponse(openPayment.get());
+        }
+        
         String transactionId = generateTransactionId();
         String description = request.getDescription() != null ? 
                 request.getDescription() : "Order #" + request.getOrderId();
@@ -84,6 +99,33 @@ public class PaymentService {
         }
     }
     
+    private PaymentResponse openPaymentResponse(Payment payment) {
+        log.info("Payment {} already open for order {}, not creating another",
+                payment.getPaymentId(), payment.getOrderId());
+        try {
+            PaymentIntent paymentIntent = stripePaymentService.retrievePaymentIntent(
+                    payment.getStripePaymentIntentId()
+            );
+            
+            return PaymentResponse.builder()
+                    .paymentId(payment.getPaymentId())
+                    .orderId(payment.getOrderId())
+                    .status(payment.getStatus())
+                    .transactionId(payment.getTransactionId())
+                    .stripePaymentIntentId(payment.getStripePaymentIntentId())
+                    .clientSecret(paymentIntent.getClientSecret())
+                    .amount(payment.getAmount())
+                    .paymentMethod(payment.getPaymentMethod())
+                    .message("Payment intent already created for this order. Use client secret to complete payment.")
+                    .build();
+            
+        } catch (StripeException e) {
+            log.error("Stripe error while retrieving open payment: {}", e.getMessage(), e);
+            throw new PaymentProcessingException("Failed to retrieve the open payment of order "
+                    + payment.getOrderId() + ": " + e.getMessage());
+        }
+    }
+    
     @Transactional
     public PaymentResponse processPayment(ProcessPaymentRequest request) {
         log.info("Processing payment with ID: {}", request.getPaymentId());
@@ -0,0 +1,89 @@
+package com.ecom.payment.service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.ecom.payment.dto.CreatePaymentRequest;
+import com.ecom.payment.dto.PaymentResponse;
+import com.ecom.payment.entity.Payment;
+import com.ecom.payment.entity.PaymentStatus;
+import com.ecom.payment.repository.PaymentRepository;
+import com.stripe.model.PaymentIntent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private StripePaymentService stripePaymentService;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    @Test
+    void createPayment_paymentOpenForTheOrder_returnsItWithoutCreatingAnother() throws Exception {
+        Payment open = Payment.builder()
+                .paymentId(7)
+                .orderId("order-1")
+                .amount(new BigDecimal("20.00"))
+                .status(PaymentStatus.PENDING)
+                .transactionId("TXN-1")
+                .stripePaymentIntentId("pi_1")
+                .build();
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setClientSecret("secret");
+        when(paymentRepository.findFirstByOrderIdAndStatusInOrderByDateCreationDesc(eq("order-1"), any()))
+                .thenReturn(Optional.of(open));
+        when(stripePaymentService.retrievePaymentIntent("pi_1")).thenReturn(paymentIntent);
+
+        PaymentResponse response = paymentService.createPayment(request("order-1"));
+
+        assertThat(response.getPaymentId()).isEqualTo(7);
+        assertThat(response.getTransactionId()).isEqualTo("TXN-1");
+        assertThat(response.getClientSecret()).isEqualTo("secret");
+        verify(stripePaymentService, never()).createPaymentIntent(any(), anyString(), anyString());
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    void createPayment_noPaymentOpenForTheOrder_createsOne() throws Exception {
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setId("pi_2");
+        paymentIntent.setClientSecret("secret");
+        when(paymentRepository.findFirstByOrderIdAndStatusInOrderByDateCreationDesc(eq("order-2"), any()))
+                .thenReturn(Optional.empty());
+        when(stripePaymentService.createPaymentIntent(any(), anyString(), anyString())).thenReturn(paymentIntent);
+        when(paymentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PaymentResponse response = paymentService.createPayment(request("order-2"));
+
+        assertThat(response.getStripePaymentIntentId()).isEqualTo("pi_2");
+        verify(paymentRepository).save(any());
+    }
+
+    private static CreatePaymentRequest request(String orderId) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setOrderId(orderId);
+        request.setAmount(new BigDecimal("20.00"));
+        request.setCustomerEmail("customer@example.com");
+        request.setCustomerId("customer-1");
+        return request;
+    }
+
+}